@@ -107,13 +107,13 @@ import static com.aws.greengrass.testcommons.testutilities.ExceptionLogProtector
 import static com.aws.greengrass.testcommons.testutilities.ExceptionLogProtector.ignoreExceptionUltimateCauseOfType;
 import static com.aws.greengrass.testcommons.testutilities.SudoUtil.assumeCanSudoShell;
 import static com.aws.greengrass.util.Utils.copyFolderRecursively;
+import static com.github.grantwest.eventually.EventuallyLambdaMatcher.eventuallyEval;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.io.FileMatchers.anExistingDirectory;
 import static org.hamcrest.io.FileMatchers.anExistingFile;
@@ -201,10 +201,12 @@ class DeploymentTaskIntegrationTest extends BaseITCase {
     }
 
     private static void assertRecipeArtifactNotExists(ComponentIdentifier compId) throws PackageLoadingException {
-        assertThat(componentStore.resolveRecipePath(compId).toFile(), not(anExistingFile()));
+        // stale versions are deleted in the background once a deployment is done
+        File recipeFile = componentStore.resolveRecipePath(compId).toFile();
+        assertThat(recipeFile::exists, eventuallyEval(is(false)));
         Path artifactDirPath = kernel.getNucleusPaths().artifactPath().resolve(compId.getName())
                 .resolve(compId.getVersion().getValue());
-        assertThat(artifactDirPath.toFile(), not(anExistingDirectory()));
+        assertThat(artifactDirPath.toFile()::exists, eventuallyEval(is(false)));
     }
 
     /* sync packages directory with local_store_content */
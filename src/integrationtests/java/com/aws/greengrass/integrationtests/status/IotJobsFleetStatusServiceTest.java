@@ -128,7 +128,7 @@ class IotJobsFleetStatusServiceTest extends BaseITCase {
             jobResponseConsumer.accept(mockJobExecutionResponse);
             return cf;
         });
-        lenient().when(mqttClient.publish(any())).thenReturn(CompletableFuture.completedFuture(0));
+        lenient().when(mqttClient.publishAndAwaitDelivery(any())).thenReturn(CompletableFuture.completedFuture(0));
         kernel = new Kernel();
         NoOpPathOwnershipHandler.register(kernel);
         ConfigPlatformResolver.initKernelWithMultiPlatformConfig(kernel,
@@ -196,7 +196,7 @@ class IotJobsFleetStatusServiceTest extends BaseITCase {
 
         offerSampleIoTJobsDeployment("FleetStatusServiceConfig.json", TEST_JOB_ID_1);
         assertTrue(fssPublishLatch.await(60, TimeUnit.SECONDS));
-        verify(mqttClient, atLeastOnce()).publish(captor.capture());
+        verify(mqttClient, atLeastOnce()).publishAndAwaitDelivery(captor.capture());
 
         List<PublishRequest> prs = captor.getAllValues();
         // Get the last FSS publish request which should have all the components information.
@@ -270,7 +270,7 @@ class IotJobsFleetStatusServiceTest extends BaseITCase {
         // this test simulates the device being offline by using local deployments.
         offerSampleIoTJobsDeployment("FleetConfigSimpleApp2.json", "simpleApp2");
         assertTrue(fssPublishLatch.await(180, TimeUnit.SECONDS));
-        verify(mqttClient, atLeastOnce()).publish(captor.capture());
+        verify(mqttClient, atLeastOnce()).publishAndAwaitDelivery(captor.capture());
 
         List<PublishRequest> prs = captor.getAllValues();
         // Get the last FSS publish request which should have component info of simpleApp v2 and other built in services
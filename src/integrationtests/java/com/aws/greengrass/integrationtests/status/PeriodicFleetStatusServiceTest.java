@@ -91,7 +91,7 @@ class PeriodicFleetStatusServiceTest extends BaseITCase {
                 IotJobsFleetStatusServiceTest.class.getResource("onlyMain.yaml"));
         kernel.getContext().put(MqttClient.class, mqttClient);
 
-        when(mqttClient.publish(any(PublishRequest.class))).thenAnswer(i -> {
+        when(mqttClient.publishAndAwaitDelivery(any(PublishRequest.class))).thenAnswer(i -> {
             Object argument = i.getArgument(0);
             PublishRequest publishRequest = (PublishRequest) argument;
             try {
@@ -10,6 +10,9 @@ import com.aws.greengrass.config.WhatHappened;
 import com.aws.greengrass.lifecyclemanager.Kernel;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.metrics.Counter;
+import com.aws.greengrass.telemetry.metrics.Histogram;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
 import com.aws.greengrass.util.LockScope;
 import com.aws.greengrass.util.Utils;
 import lombok.NonNull;
@@ -65,6 +68,9 @@ public class AuthorizationHandler  {
     public static final String SECRETS_MANAGER_SERVICE_NAME = "aws.greengrass.SecretManager";
     public static final String SHADOW_MANAGER_SERVICE_NAME = "aws.greengrass.ShadowManager";
     private static final Logger logger = LogManager.getLogger(AuthorizationHandler.class);
+    private static final Histogram AUTHORIZATION_TIME =
+            MetricsRegistry.getInstance().histogram("Authorization/CheckTime");
+    private static final Counter AUTHORIZATION_DENIED = MetricsRegistry.getInstance().counter("Authorization/Denied");
     private final ConcurrentHashMap<String, Set<String>> componentToOperationsMap = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<String, List<AuthorizationPolicy>>
             componentToAuthZConfig = new ConcurrentHashMap<>();
@@ -173,6 +179,18 @@ public class AuthorizationHandler  {
      * @throws AuthorizationException when flow is not authorized.
      */
     public boolean isAuthorized(String destination, Permission permission) throws AuthorizationException {
+        long startNanos = System.nanoTime();
+        try {
+            return checkAuthorized(destination, permission);
+        } catch (AuthorizationException e) {
+            AUTHORIZATION_DENIED.increment();
+            throw e;
+        } finally {
+            AUTHORIZATION_TIME.recordMicrosSince(startNanos);
+        }
+    }
+
+    private boolean checkAuthorized(String destination, Permission permission) throws AuthorizationException {
         String principal = permission.getPrincipal();
         String operation = permission.getOperation();
         String resource = permission.getResource();
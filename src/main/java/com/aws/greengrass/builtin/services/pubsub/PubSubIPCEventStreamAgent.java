@@ -10,6 +10,9 @@ import com.aws.greengrass.authorization.Permission;
 import com.aws.greengrass.authorization.exceptions.AuthorizationException;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.metrics.Counter;
+import com.aws.greengrass.telemetry.metrics.Histogram;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
 import com.aws.greengrass.util.OrderedExecutorService;
 import com.aws.greengrass.util.Utils;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -21,16 +24,22 @@ import software.amazon.awssdk.aws.greengrass.GeneratedAbstractSubscribeToTopicOp
 import software.amazon.awssdk.aws.greengrass.model.BinaryMessage;
 import software.amazon.awssdk.aws.greengrass.model.InvalidArgumentsError;
 import software.amazon.awssdk.aws.greengrass.model.JsonMessage;
+import software.amazon.awssdk.aws.greengrass.model.PublishMessage;
 import software.amazon.awssdk.aws.greengrass.model.PublishToTopicRequest;
 import software.amazon.awssdk.aws.greengrass.model.PublishToTopicResponse;
 import software.amazon.awssdk.aws.greengrass.model.SubscribeToTopicRequest;
 import software.amazon.awssdk.aws.greengrass.model.SubscribeToTopicResponse;
 import software.amazon.awssdk.aws.greengrass.model.SubscriptionResponseMessage;
 import software.amazon.awssdk.aws.greengrass.model.UnauthorizedError;
+import software.amazon.awssdk.crt.eventstream.Header;
+import software.amazon.awssdk.eventstreamrpc.BinaryPayloadFraming;
 import software.amazon.awssdk.eventstreamrpc.OperationContinuationHandlerContext;
 import software.amazon.awssdk.eventstreamrpc.StreamEventPublisher;
 import software.amazon.awssdk.eventstreamrpc.model.EventStreamJsonMessage;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -46,17 +55,29 @@ public class PubSubIPCEventStreamAgent {
     private static final Logger log = LogManager.getLogger(PubSubIPCEventStreamAgent.class);
     private static final String COMPONENT_NAME = "componentName";
     private static final ObjectMapper SERIALIZER = new ObjectMapper();
+    // time taken to handle a publish, and from a publish to each subscriber being sent the message
+    private static final Histogram PUBLISH_TIME = MetricsRegistry.getInstance().histogram("PubSub/PublishTime");
+    private static final Histogram DELIVERY_TIME = MetricsRegistry.getInstance().histogram("PubSub/DeliveryTime");
+    private static final Counter DELIVERIES = MetricsRegistry.getInstance().counter("PubSub/Deliveries");
     @Getter(AccessLevel.PACKAGE)
     private final Map<String, Set<Object>> listeners = new ConcurrentHashMap<>();
 
     private final OrderedExecutorService orderedExecutorService;
     private final AuthorizationHandler authorizationHandler;
+    private final SharedMemoryPayloadStore sharedMemoryPayloadStore;
 
-    @Inject
     PubSubIPCEventStreamAgent(AuthorizationHandler authorizationHandler,
                               OrderedExecutorService orderedExecutorService) {
+        this(authorizationHandler, orderedExecutorService, null);
+    }
+
+    @Inject
+    PubSubIPCEventStreamAgent(AuthorizationHandler authorizationHandler,
+                              OrderedExecutorService orderedExecutorService,
+                              SharedMemoryPayloadStore sharedMemoryPayloadStore) {
         this.authorizationHandler = authorizationHandler;
         this.orderedExecutorService = orderedExecutorService;
+        this.sharedMemoryPayloadStore = sharedMemoryPayloadStore;
     }
 
     public SubscribeToTopicOperationHandler getSubscribeToTopicHandler(OperationContinuationHandlerContext context) {
@@ -108,13 +129,24 @@ public class PubSubIPCEventStreamAgent {
         return handlePublishToTopicRequest(topic, serviceName, Optional.empty(), Optional.of(binaryMessage));
     }
 
-    @SuppressWarnings("PMD.PreserveStackTrace")
     private PublishToTopicResponse handlePublishToTopicRequest(String topic, String serviceName,
                                                                Optional<Map<String, Object>> jsonMessage,
                                                                Optional<byte[]> binaryMessage) {
         if (topic == null) {
             throw new InvalidArgumentsError("Publish topic must not be null");
         }
+        long startNanos = System.nanoTime();
+        try {
+            return publishToSubscribers(topic, serviceName, jsonMessage, binaryMessage, startNanos);
+        } finally {
+            PUBLISH_TIME.recordMicrosSince(startNanos);
+        }
+    }
+
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private PublishToTopicResponse publishToSubscribers(String topic, String serviceName,
+                                                        Optional<Map<String, Object>> jsonMessage,
+                                                        Optional<byte[]> binaryMessage, long startNanos) {
         Set<Object> contexts = listeners.get(topic);
         if (contexts == null || contexts.isEmpty()) {
             log.atDebug().kv(COMPONENT_NAME, serviceName).log("No one subscribed to topic {}. Returning.", topic);
@@ -141,20 +173,55 @@ public class PubSubIPCEventStreamAgent {
             publishedEvent.setPayload(binaryMessage.get());
         }
 
+        List<SubscribeToTopicOperationHandler> sharedMemorySubscribers = binaryMessage.isPresent()
+                ? getSharedMemorySubscribers(contexts, binaryMessage.get().length) : Collections.emptyList();
+        // written once for all of them
+        SharedMemoryPayloadStore.Lease lease = sharedMemorySubscribers.isEmpty() ? null
+                : sharedMemoryPayloadStore.write(sharedMemorySubscribers, binaryMessage.get());
+
         contexts.forEach(context -> {
             log.atDebug().kv(COMPONENT_NAME, serviceName).log("Sending publish event for topic {}", topic);
-            if (context instanceof StreamEventPublisher) {
+            if (lease != null && lease.isWrittenFor(context)) {
+                SubscribeToTopicOperationHandler subscriber = (SubscribeToTopicOperationHandler) context;
+                orderedExecutorService.execute(() -> {
+                    DELIVERY_TIME.recordMicrosSince(startNanos);
+                    subscriber.sendSharedMemoryHandle(lease);
+                }, subscriber);
+            } else if (context instanceof StreamEventPublisher) {
                 StreamEventPublisher<SubscriptionResponseMessage> publisher =
                         (StreamEventPublisher<SubscriptionResponseMessage>) context;
-                orderedExecutorService.execute(() -> publisher.sendStreamEvent(message), publisher);
+                orderedExecutorService.execute(() -> {
+                    DELIVERY_TIME.recordMicrosSince(startNanos);
+                    publisher.sendStreamEvent(message);
+                }, publisher);
             } else if (context instanceof Consumer) {
                 Consumer<PublishEvent> consumer = (Consumer<PublishEvent>) context;
-                orderedExecutorService.execute(() -> consumer.accept(publishedEvent), consumer);
+                orderedExecutorService.execute(() -> {
+                    DELIVERY_TIME.recordMicrosSince(startNanos);
+                    consumer.accept(publishedEvent);
+                }, consumer);
+            } else {
+                return;
             }
+            DELIVERIES.increment();
         });
         return new PublishToTopicResponse();
     }
 
+    private List<SubscribeToTopicOperationHandler> getSharedMemorySubscribers(Set<Object> contexts, int length) {
+        if (sharedMemoryPayloadStore == null || length < sharedMemoryPayloadStore.getMinPayloadSize()) {
+            return Collections.emptyList();
+        }
+        List<SubscribeToTopicOperationHandler> subscribers = new ArrayList<>();
+        for (Object context : contexts) {
+            if (context instanceof SubscribeToTopicOperationHandler
+                    && ((SubscribeToTopicOperationHandler) context).acceptsSharedMemory) {
+                subscribers.add((SubscribeToTopicOperationHandler) context);
+            }
+        }
+        return subscribers;
+    }
+
     private void handleSubscribeToTopicRequest(String topic, String serviceName, Object handler) {
         // TODO: [P32540011]: All IPC service requests need input validation
         if (listeners.computeIfAbsent(topic, k -> ConcurrentHashMap.newKeySet()).add(handler)) {
@@ -199,6 +266,21 @@ public class PubSubIPCEventStreamAgent {
             });
         }
 
+        /**
+         * A binary publish carries the raw message as the frame body and the topic in a header.
+         */
+        @Override
+        protected PublishToTopicRequest decodeBinaryRequest(List<Header> headers, byte[] payload) {
+            BinaryMessage binaryMessage = new BinaryMessage();
+            binaryMessage.setMessage(payload);
+            PublishMessage publishMessage = new PublishMessage();
+            publishMessage.setBinaryMessage(binaryMessage);
+            PublishToTopicRequest request = new PublishToTopicRequest();
+            request.setTopic(BinaryPayloadFraming.getHeaderValue(headers, BinaryPayloadFraming.TOPIC_HEADER));
+            request.setPublishMessage(publishMessage);
+            return request;
+        }
+
 
         @Override
         public void handleStreamEvent(EventStreamJsonMessage streamRequestEvent) {
@@ -210,6 +292,7 @@ public class PubSubIPCEventStreamAgent {
         @Getter
         private final String serviceName;
         private String subscribeTopic;
+        private volatile boolean acceptsSharedMemory;
 
         protected SubscribeToTopicOperationHandler(OperationContinuationHandlerContext context) {
             super(context);
@@ -222,6 +305,9 @@ public class PubSubIPCEventStreamAgent {
                 listeners.computeIfPresent(subscribeTopic,
                         (s, objects) -> objects.remove(this) && objects.isEmpty() ? null : objects);
             }
+            if (sharedMemoryPayloadStore != null) {
+                sharedMemoryPayloadStore.remove(this);
+            }
         }
 
         @SuppressWarnings("PMD.PreserveStackTrace")
@@ -234,12 +320,75 @@ public class PubSubIPCEventStreamAgent {
                 } catch (AuthorizationException e) {
                     throw new UnauthorizedError(e.getMessage());
                 }
-                handleSubscribeToTopicRequest(subscribeRequest.getTopic(), serviceName, this);
+                // set before subscribing, binary events sent to this handler carry the topic
                 subscribeTopic = subscribeRequest.getTopic();
+                acceptsSharedMemory = sharedMemoryPayloadStore != null && BinaryPayloadFraming.accepts(
+                        getInitialRequestHeaders(), SharedMemoryPayloadStore.CONTENT_TYPE_HANDLE);
+                if (acceptsSharedMemory) {
+                    // payloads are only written to shared memory for registered subscribers
+                    sharedMemoryPayloadStore.register(this);
+                }
+                handleSubscribeToTopicRequest(subscribeRequest.getTopic(), serviceName, this);
                 return new SubscribeToTopicResponse();
             });
         }
 
+        /**
+         * Binary messages go out as the raw frame body with the topic in a header. JSON messages are sent as JSON.
+         */
+        @Override
+        protected BinaryPayloadFraming.Frame encodeBinaryStreamEvent(SubscriptionResponseMessage message) {
+            if (message.getBinaryMessage() == null) {
+                return null;
+            }
+            return new BinaryPayloadFraming.Frame(
+                    Collections.singletonList(Header.createHeader(BinaryPayloadFraming.TOPIC_HEADER, subscribeTopic)),
+                    message.getBinaryMessage().getMessage());
+        }
+
+        /**
+         * Send a handle to a payload in shared memory instead of the payload. The subscriber maps the region read
+         * only and acknowledges the handle once it's done with the payload.
+         *
+         * @param lease handle to send
+         */
+        void sendSharedMemoryHandle(SharedMemoryPayloadStore.Lease lease) {
+            List<Header> headers = new ArrayList<>(5);
+            headers.add(Header.createHeader(BinaryPayloadFraming.TOPIC_HEADER, subscribeTopic));
+            headers.add(Header.createHeader(SharedMemoryPayloadStore.FILE_HEADER, lease.getFile()));
+            headers.add(Header.createHeader(SharedMemoryPayloadStore.OFFSET_HEADER, lease.getOffset()));
+            headers.add(Header.createHeader(SharedMemoryPayloadStore.LENGTH_HEADER, (long) lease.getLength()));
+            headers.add(Header.createHeader(SharedMemoryPayloadStore.GENERATION_HEADER, lease.getGeneration()));
+            sendBinaryFrame(new BinaryPayloadFraming.Frame(SharedMemoryPayloadStore.CONTENT_TYPE_HANDLE, headers,
+                    new byte[0]), SubscriptionResponseMessage.APPLICATION_MODEL_TYPE).whenComplete((r, e) -> {
+                        if (e != null) {
+                            // never reached the subscriber, so it won't be acknowledged
+                            sharedMemoryPayloadStore.release(lease, this);
+                        }
+                    });
+        }
+
+        /**
+         * Subscribers acknowledge shared memory handles on their stream once they are done with the payload.
+         */
+        @Override
+        protected boolean handleBinaryStreamEvent(List<Header> headers, byte[] payload) {
+            if (sharedMemoryPayloadStore == null || !SharedMemoryPayloadStore.CONTENT_TYPE_ACK
+                    .equals(BinaryPayloadFraming.getContentType(headers))) {
+                return false;
+            }
+            String file = BinaryPayloadFraming.getHeaderValue(headers, SharedMemoryPayloadStore.FILE_HEADER);
+            Long offset = BinaryPayloadFraming.getLongHeaderValue(headers, SharedMemoryPayloadStore.OFFSET_HEADER);
+            Long generation =
+                    BinaryPayloadFraming.getLongHeaderValue(headers, SharedMemoryPayloadStore.GENERATION_HEADER);
+            if (file == null || offset == null || generation == null
+                    || !sharedMemoryPayloadStore.release(this, file, offset, generation)) {
+                log.atDebug().kv(COMPONENT_NAME, serviceName).kv("file", file).kv("offset", offset)
+                        .log("Ignoring acknowledgement of unknown shared memory handle");
+            }
+            return true;
+        }
+
         @Override
         public void handleStreamEvent(EventStreamJsonMessage streamRequestEvent) {
             // NA
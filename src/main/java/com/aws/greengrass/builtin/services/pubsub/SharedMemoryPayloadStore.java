@@ -0,0 +1,360 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.builtin.services.pubsub;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.util.NucleusPaths;
+import com.aws.greengrass.util.Permissions;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Inject;
+
+/**
+ * Memory mapped region under the root path through which large binary pub/sub messages are handed to subscribers on
+ * the device, instead of being sent through the IPC socket. Subscribers only receive a {@link Lease handle} to map
+ * the payload read only.
+ *
+ * <p>There is a single region, shared by every subscriber which accepts handles. A payload is written to it once, no
+ * matter how many subscribers it's delivered to, and is held by each of them until it has acknowledged the payload
+ * or closed its stream. The region is readable by anyone who knows its random name, while the directory it's in
+ * can't be listed.</p>
+ *
+ * <p>The region is filled front to back and only starts over once no payload in it is held, so a payload is never
+ * overwritten while it may be read. When there isn't room for a payload, it's sent the usual way instead. The region
+ * is deleted once it hasn't been written to for a while and nothing in it is held.</p>
+ */
+public class SharedMemoryPayloadStore {
+    public static final String CONTENT_TYPE_HANDLE = "application/vnd.aws.greengrass.shared-memory-handle";
+    public static final String CONTENT_TYPE_ACK = "application/vnd.aws.greengrass.shared-memory-ack";
+    public static final String FILE_HEADER = "shm-file";
+    public static final String OFFSET_HEADER = "shm-offset";
+    public static final String LENGTH_HEADER = "shm-length";
+    public static final String GENERATION_HEADER = "shm-generation";
+    private static final Logger logger = LogManager.getLogger(SharedMemoryPayloadStore.class);
+    private static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+    private static final int DEFAULT_MIN_PAYLOAD_SIZE = 256 * 1024;
+    private static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int ALIGNMENT = 64;
+    private static final int NAME_BITS = 128;
+    private static final int NAME_RADIX = 36;
+    private static final String PATH_KEY = "path";
+
+    private final NucleusPaths nucleusPaths;
+    private final ScheduledExecutorService ses;
+    private final int regionSize;
+    @Getter
+    private final int minPayloadSize;
+    private final long idleTimeoutMillis;
+    // guarded by this, like everything below
+    private final Set<Object> subscribers = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<String, Lease> leases = new HashMap<>();
+    private final SecureRandom random = new SecureRandom();
+    private Region region;
+    private Path directory;
+    // generation of the latest region contents, which only ever grows
+    private long generation;
+    private boolean sweepScheduled;
+    private boolean failed;
+
+    @Inject
+    public SharedMemoryPayloadStore(NucleusPaths nucleusPaths, ScheduledExecutorService ses) {
+        this(nucleusPaths, ses, DEFAULT_REGION_SIZE, DEFAULT_MIN_PAYLOAD_SIZE, DEFAULT_IDLE_TIMEOUT_MILLIS);
+    }
+
+    SharedMemoryPayloadStore(NucleusPaths nucleusPaths, ScheduledExecutorService ses, int regionSize,
+                             int minPayloadSize, long idleTimeoutMillis) {
+        this.nucleusPaths = nucleusPaths;
+        this.ses = ses;
+        this.regionSize = regionSize;
+        this.minPayloadSize = minPayloadSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    /**
+     * Register a subscriber which accepts handles. Payloads are only written for registered subscribers.
+     *
+     * @param subscriber subscriber
+     */
+    public synchronized void register(Object subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    /**
+     * Unregister a subscriber once its stream is closed. Whatever it still held is released.
+     *
+     * @param subscriber subscriber
+     */
+    public synchronized void remove(Object subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        for (Lease lease : leases.values().toArray(new Lease[0])) {
+            release(lease, subscriber);
+        }
+    }
+
+    /**
+     * Write a payload to the region once for all the subscribers it's delivered to. Each of them holds it until it
+     * releases it.
+     *
+     * @param recipients subscribers the payload will be sent to; those which aren't registered (any more) are left out
+     * @param payload    payload
+     * @return handle to the payload; null if it couldn't be written, in which case it should be sent the usual way
+     */
+    public synchronized Lease write(Collection<?> recipients, byte[] payload) {
+        Set<Object> holders = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object recipient : recipients) {
+            if (subscribers.contains(recipient)) {
+                holders.add(recipient);
+            }
+        }
+        if (holders.isEmpty() || failed) {
+            // every recipient closed its stream in the meantime, or the region couldn't be set up
+            return null;
+        }
+        try {
+            if (!makeRoom(payload.length)) {
+                return null;
+            }
+            int offset = region.position;
+            ByteBuffer target = region.buffer.duplicate();
+            target.position(offset);
+            target.put(payload);
+            region.position = (int) Math.min(region.buffer.capacity(), align((long) offset + payload.length));
+            region.liveLeases++;
+            region.lastWriteMillis = System.currentTimeMillis();
+
+            Lease lease = new Lease(holders, region, region.path.toString(), offset, payload.length,
+                    region.generation);
+            leases.put(lease.getKey(), lease);
+            return lease;
+        } catch (IOException e) {
+            logger.atWarn().setCause(e).log("Unable to set up shared memory, sending payloads over IPC instead");
+            // tried again once the idle sweep has run
+            failed = true;
+            scheduleIdleSweep();
+            return null;
+        }
+    }
+
+    /**
+     * Release a payload on behalf of a subscriber which acknowledged it.
+     *
+     * @param subscriber subscriber
+     * @param file       region file from the handle
+     * @param offset     offset from the handle
+     * @param generation generation from the handle
+     * @return true if the subscriber held the payload
+     */
+    public synchronized boolean release(Object subscriber, String file, long offset, long generation) {
+        Lease lease = leases.get(Lease.key(file, offset));
+        if (lease == null || lease.getGeneration() != generation) {
+            return false;
+        }
+        return release(lease, subscriber);
+    }
+
+    /**
+     * Release a payload on behalf of a subscriber. The space it takes is freed once the last holder released it.
+     *
+     * @param lease      payload
+     * @param subscriber subscriber
+     * @return true if the subscriber held the payload
+     */
+    public synchronized boolean release(Lease lease, Object subscriber) {
+        if (!lease.holders.remove(subscriber)) {
+            return false;
+        }
+        if (lease.holders.isEmpty() && leases.remove(lease.getKey(), lease)) {
+            lease.region.liveLeases--;
+        }
+        return true;
+    }
+
+    /**
+     * Get the number of payloads which are still held by a subscriber.
+     *
+     * @return number of payloads
+     */
+    synchronized int getLiveLeases() {
+        return leases.size();
+    }
+
+    /**
+     * Delete the region if it hasn't been written to within the idle timeout and holds no payload.
+     */
+    synchronized void removeIdleRegions() {
+        sweepScheduled = false;
+        failed = false;
+        if (region != null && region.liveLeases == 0
+                && region.lastWriteMillis <= System.currentTimeMillis() - idleTimeoutMillis) {
+            deleteFile(region.path);
+            // there's no way to unmap a buffer, it's unmapped once collected
+            region = null;
+        }
+        scheduleIdleSweep();
+    }
+
+    private boolean makeRoom(int length) throws IOException {
+        if (region != null && region.position + (long) length <= region.buffer.capacity()) {
+            return true;
+        }
+        if (region != null && region.liveLeases > 0) {
+            // never write over a payload a subscriber may still be reading
+            return false;
+        }
+        if (region != null && length <= region.buffer.capacity()) {
+            // everything in the region has been released, start over
+            region.generation = ++generation;
+            region.position = 0;
+            return true;
+        }
+        if (region != null) {
+            deleteFile(region.path);
+        }
+        region = map((int) Math.max(regionSize, align(length)));
+        region.generation = ++generation;
+        return true;
+    }
+
+    private Region map(int size) throws IOException {
+        Path path = directory().resolve(randomName());
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        try {
+            Permissions.setIpcSharedMemoryRegionPermission(path);
+        } catch (IOException e) {
+            deleteFile(path);
+            throw e;
+        }
+        Region mapped = new Region(buffer, path);
+        scheduleIdleSweep();
+        return mapped;
+    }
+
+    private void scheduleIdleSweep() {
+        if (!sweepScheduled && (region != null || failed)) {
+            sweepScheduled = true;
+            ses.schedule(this::removeIdleRegions, Math.max(1, idleTimeoutMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void deleteFile(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.atDebug().kv(PATH_KEY, path).setCause(e).log("Unable to delete shared memory region");
+        }
+    }
+
+    private Path directory() throws IOException {
+        if (directory == null) {
+            Path p = nucleusPaths.ipcSharedMemoryPath();
+            // regions left behind by a previous run can't be referenced by anyone any more
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(p)) {
+                for (Path file : stale) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            directory = p;
+        }
+        return directory;
+    }
+
+    private String randomName() {
+        return new BigInteger(NAME_BITS, random).toString(NAME_RADIX);
+    }
+
+    private static long align(long position) {
+        return (position + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    static final class Region {
+        private final MappedByteBuffer buffer;
+        private final Path path;
+        private long generation;
+        private int position;
+        private int liveLeases;
+        private long lastWriteMillis;
+
+        Region(MappedByteBuffer buffer, Path path) {
+            this.buffer = buffer;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Handle to a payload in shared memory, which is what subscribers receive instead of the payload.
+     */
+    @Getter
+    public static final class Lease {
+        // subscribers it was written for, and those of them which haven't released it yet
+        @Getter(AccessLevel.NONE)
+        private final Set<Object> recipients;
+        @Getter(AccessLevel.NONE)
+        private final Set<Object> holders;
+        @Getter(AccessLevel.NONE)
+        private final Region region;
+        private final String file;
+        private final long offset;
+        private final int length;
+        private final long generation;
+
+        Lease(Set<Object> holders, Region region, String file, long offset, int length, long generation) {
+            Set<Object> written = Collections.newSetFromMap(new IdentityHashMap<>());
+            written.addAll(holders);
+            this.recipients = Collections.unmodifiableSet(written);
+            this.holders = holders;
+            this.region = region;
+            this.file = file;
+            this.offset = offset;
+            this.length = length;
+            this.generation = generation;
+        }
+
+        /**
+         * Check whether the payload was written for a subscriber, i.e. whether it should be sent the handle.
+         *
+         * @param subscriber subscriber
+         * @return true if the subscriber was registered when the payload was written
+         */
+        public boolean isWrittenFor(Object subscriber) {
+            return recipients.contains(subscriber);
+        }
+
+        String getKey() {
+            return key(file, offset);
+        }
+
+        static String key(String file, long offset) {
+            return file + '@' + offset;
+        }
+    }
+}
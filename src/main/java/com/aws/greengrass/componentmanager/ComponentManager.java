@@ -33,6 +33,7 @@ import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
 import com.aws.greengrass.util.Coerce;
 import com.aws.greengrass.util.Digest;
+import com.aws.greengrass.util.FileSystemPermission;
 import com.aws.greengrass.util.NucleusPaths;
 import com.aws.greengrass.util.Permissions;
 import com.aws.greengrass.util.RetryUtils;
@@ -50,6 +51,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -57,8 +59,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -84,6 +89,10 @@ public class ComponentManager implements InjectionActions {
     private final Kernel kernel;
     private final Unarchiver unarchiver;
     private final NucleusPaths nucleusPaths;
+    // Background cleanup of stale versions, a deployment holds it back while resolving and preparing components
+    private final ReentrantLock staleVersionCleanupLock = new ReentrantLock();
+    // Bumped whenever the cleanup is stopped or scheduled, a cleanup only goes on while it's of the latest generation
+    private final AtomicLong staleVersionCleanupGeneration = new AtomicLong();
     // Setter for unit tests
     @Setter(AccessLevel.PACKAGE)
     private RetryUtils.RetryConfig clientExceptionRetryConfig =
@@ -126,6 +135,8 @@ public class ComponentManager implements InjectionActions {
             throws InterruptedException, PackagingException {
         logger.atDebug().setEventType("resolve-component-version-start").kv(COMPONENT_STR, componentName)
                 .kv("versionRequirements", versionRequirements).log("Resolving component version starts");
+        // the local candidate must not be deleted as stale while it's being resolved
+        stopStaleVersionCleanup();
 
         // Find best local candidate
         Optional<ComponentIdentifier> localCandidateOptional =
@@ -328,24 +339,50 @@ public class ComponentManager implements InjectionActions {
      */
     public Future<Void> preparePackages(List<ComponentIdentifier> pkgIds) {
         return executorService.submit(() -> {
-            for (ComponentIdentifier componentIdentifier : pkgIds) {
-                if (Thread.currentThread().isInterrupted()) {
-                    logger.atInfo().log("Interrupted while preparing artifact for component {}.",
-                            componentIdentifier.getName());
-                    return null;
-                }
-                try {
-                    preparePackage(componentIdentifier);
-                } catch (InterruptedException ie) {
-                    logger.atInfo().log("Interrupted while preparing artifact for component {}.",
-                            componentIdentifier.getName());
-                    return null;
+            // Downloads which run alongside the preparation of the other packages, such as docker image pulls
+            List<Future<Void>> concurrentDownloads = new ArrayList<>();
+            try {
+                stopStaleVersionCleanup();
+                for (ComponentIdentifier componentIdentifier : pkgIds) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        logger.atInfo().log("Interrupted while preparing artifact for component {}.",
+                                componentIdentifier.getName());
+                        return null;
+                    }
+                    try {
+                        preparePackage(componentIdentifier, concurrentDownloads);
+                    } catch (InterruptedException ie) {
+                        logger.atInfo().log("Interrupted while preparing artifact for component {}.",
+                                componentIdentifier.getName());
+                        return null;
+                    }
                 }
+                awaitConcurrentDownloads(concurrentDownloads);
+            } catch (InterruptedException ie) {
+                logger.atInfo().log("Interrupted while waiting for artifacts to download");
+                return null;
+            } finally {
+                // Stop whatever is still downloading if preparation failed or was interrupted
+                concurrentDownloads.forEach(download -> download.cancel(true));
             }
             return null;
         });
     }
 
+    private void awaitConcurrentDownloads(List<Future<Void>> concurrentDownloads)
+            throws PackageDownloadException, InterruptedException {
+        for (Future<Void> download : concurrentDownloads) {
+            try {
+                download.get();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof PackageDownloadException) {
+                    throw (PackageDownloadException) e.getCause();
+                }
+                throw new PackageDownloadException("Failed to download artifact", e.getCause());
+            }
+        }
+    }
+
     /**
      * Check if all plugins that are required to execute pre-merge steps for other components are included
      * in the deployment.
@@ -368,13 +405,13 @@ public class ComponentManager implements InjectionActions {
         }
     }
 
-    private void preparePackage(ComponentIdentifier componentIdentifier)
+    private void preparePackage(ComponentIdentifier componentIdentifier, List<Future<Void>> concurrentDownloads)
             throws PackageLoadingException, PackageDownloadException, InvalidArtifactUriException,
             InterruptedException {
         logger.atInfo().setEventType("prepare-package-start").kv(PACKAGE_IDENTIFIER, componentIdentifier).log();
         try {
             ComponentRecipe pkg = componentStore.getPackageRecipe(componentIdentifier);
-            prepareArtifacts(componentIdentifier, pkg.getArtifacts());
+            prepareArtifacts(componentIdentifier, pkg.getArtifacts(), concurrentDownloads);
             logger.atDebug("prepare-package-finished").kv(PACKAGE_IDENTIFIER, componentIdentifier).log();
         } catch (SizeLimitException e) {
             logger.atError().log("Size limit reached", e);
@@ -388,6 +425,21 @@ public class ComponentManager implements InjectionActions {
     void prepareArtifacts(ComponentIdentifier componentIdentifier, List<ComponentArtifact> artifacts)
             throws PackageLoadingException, PackageDownloadException, InvalidArtifactUriException,
             InterruptedException {
+        prepareArtifacts(componentIdentifier, artifacts, null);
+    }
+
+    /**
+     * Prepare the artifacts of a component.
+     *
+     * @param componentIdentifier component
+     * @param artifacts           artifacts of the component
+     * @param concurrentDownloads if not null, downloads which can run alongside others are started and added to it
+     *                            instead of being waited for
+     */
+    private void prepareArtifacts(ComponentIdentifier componentIdentifier, List<ComponentArtifact> artifacts,
+                                  @Nullable List<Future<Void>> concurrentDownloads)
+            throws PackageLoadingException, PackageDownloadException, InvalidArtifactUriException,
+            InterruptedException {
         if (artifacts == null) {
             logger.atWarn().kv(PACKAGE_IDENTIFIER, componentIdentifier)
                     .log("Artifact list was null, expected non-null and non-empty");
@@ -401,7 +453,8 @@ public class ComponentManager implements InjectionActions {
         for (ComponentArtifact artifact : artifacts) {
             ArtifactDownloader downloader = artifactDownloaderFactory
                     .getArtifactDownloader(componentIdentifier, artifact, packageArtifactDirectory);
-            if (downloader.downloadRequired()) {
+            boolean downloadRequired = downloader.downloadRequired();
+            if (downloadRequired && !linkArtifactFromBlobStore(componentIdentifier, downloader, artifact)) {
                 Optional<String> errorMsg = downloader.checkDownloadable();
                 if (errorMsg.isPresent()) {
                     throw new PackageDownloadException(String.format(
@@ -426,13 +479,15 @@ public class ComponentManager implements InjectionActions {
                                 getConfiguredMaxSize()));
                     }
                 }
-                try {
-                    downloader.download();
-                } catch (IOException e) {
-                    throw new PackageDownloadException(
-                            String.format("Failed to download component %s artifact %s", componentIdentifier, artifact),
-                            e);
+                if (concurrentDownloads != null && downloader.canDownloadConcurrently()) {
+                    concurrentDownloads.add(executorService.submit(() -> {
+                        downloadArtifact(componentIdentifier, artifact, downloader);
+                        componentStore.updateArtifactsSize(componentIdentifier);
+                        return null;
+                    }));
+                    continue;
                 }
+                downloadArtifact(componentIdentifier, artifact, downloader);
             }
             if (downloader.canSetFilePermissions()) {
                 File artifactFile = downloader.getArtifactFile();
@@ -447,6 +502,11 @@ public class ComponentManager implements InjectionActions {
                     }
                 }
             }
+            if (downloader.canDeduplicateArtifact()) {
+                // after permissions are set, the blob takes them on and the artifact is linked to it if they allow
+                componentStore.addArtifactToBlobStore(componentIdentifier, artifact,
+                        downloader.getArtifactFile().toPath(), getArtifactFilePermission(downloader, artifact));
+            }
             if (downloader.canUnarchiveArtifact()) {
                 Unarchive unarchive = artifact.getUnarchive();
                 if (unarchive == null) {
@@ -459,6 +519,7 @@ public class ComponentManager implements InjectionActions {
                         Path unarchivePath =
                                 nucleusPaths.unarchiveArtifactPath(componentIdentifier, getFileName(artifactFile));
                         unarchiver.unarchive(unarchive, artifactFile, unarchivePath);
+                        componentStore.updateUnarchivedArtifactsSize(componentIdentifier);
                         if (downloader.canSetFilePermissions()) {
                             try {
                                 Permissions.setArtifactPermission(unarchivePath,
@@ -477,6 +538,37 @@ public class ComponentManager implements InjectionActions {
                 }
             }
         }
+        // whether downloaded, linked or put there by anything else, what's in the store now counts against its limit
+        componentStore.updateArtifactsSize(componentIdentifier);
+    }
+
+    private void downloadArtifact(ComponentIdentifier componentIdentifier, ComponentArtifact artifact,
+                                  ArtifactDownloader downloader) throws PackageDownloadException, InterruptedException {
+        try {
+            downloader.download();
+        } catch (IOException e) {
+            throw new PackageDownloadException(
+                    String.format("Failed to download component %s artifact %s", componentIdentifier, artifact), e);
+        }
+    }
+
+    private boolean linkArtifactFromBlobStore(ComponentIdentifier componentIdentifier, ArtifactDownloader downloader,
+                                              ComponentArtifact artifact) {
+        if (!downloader.canDeduplicateArtifact()) {
+            return false;
+        }
+        boolean linked = componentStore.linkArtifactFromBlobStore(componentIdentifier, artifact,
+                downloader.getArtifactFile().toPath(), getArtifactFilePermission(downloader, artifact));
+        if (linked) {
+            logger.atInfo().kv("artifact", artifact.getArtifactUri())
+                    .log("Artifact content already exists in component store, skipping download");
+        }
+        return linked;
+    }
+
+    private static FileSystemPermission getArtifactFilePermission(ArtifactDownloader downloader,
+                                                                  ComponentArtifact artifact) {
+        return downloader.canSetFilePermissions() ? artifact.getPermission().toFileSystemPermission() : null;
     }
 
     private long getConfiguredMaxSize() {
@@ -488,10 +580,106 @@ public class ComponentManager implements InjectionActions {
      */
     public void cleanupStaleVersions() {
         logger.atDebug("cleanup-stale-versions-start").log();
+        for (ComponentIdentifier identifier : findStaleVersions()) {
+            deleteStaleVersion(identifier);
+        }
+        componentStore.cleanupUnreferencedArtifactBlobs();
+        logger.atDebug("cleanup-stale-versions-finish").log();
+    }
+
+    /**
+     * Delete stale versions from local store in the background, one version at a time. Versions taking the most space
+     * go first, and the cleanup ends once the component store is within its high-water mark, a percentage of its
+     * maximum size. Without a high-water mark every stale version is deleted. The cleanup stops as soon as a
+     * deployment starts resolving or preparing components, and is expected to be scheduled again once the deployment
+     * is done. A cleanup scheduled again takes over from the one running. It's best effort and all the errors are
+     * logged.
+     */
+    public void scheduleStaleVersionCleanup() {
+        long generation = staleVersionCleanupGeneration.incrementAndGet();
+        executorService.submit(() -> cleanupStaleVersionsIncrementally(generation));
+    }
+
+    /**
+     * Stop the background cleanup of stale versions, waiting for the version being deleted if any. A deployment stops
+     * it before it puts anything in the component store.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void stopStaleVersionCleanup() throws InterruptedException {
+        staleVersionCleanupGeneration.incrementAndGet();
+        staleVersionCleanupLock.lockInterruptibly();
+        staleVersionCleanupLock.unlock();
+    }
+
+    private void cleanupStaleVersionsIncrementally(long generation) {
+        long highWaterMark = getConfiguredMaxSize()
+                * Coerce.toInt(deviceConfiguration.getComponentStoreHighWaterMarkPercent()) / 100;
+        logger.atDebug("cleanup-stale-versions-start").kv("highWaterMarkBytes", highWaterMark).log();
+        // versions which failed to be deleted aren't tried again
+        Set<ComponentIdentifier> attempted = new HashSet<>();
+        try {
+            while (true) {
+                staleVersionCleanupLock.lock();
+                try {
+                    if (generation != staleVersionCleanupGeneration.get()) {
+                        logger.atDebug("cleanup-stale-versions-stopped").log();
+                        return;
+                    }
+                    if (highWaterMark > 0 && componentStore.getContentSize() <= highWaterMark) {
+                        break;
+                    }
+                    // found again at every step, a deployment may have activated a stale version in between
+                    ComponentIdentifier largest = findLargestStaleVersion(attempted);
+                    if (largest == null) {
+                        break;
+                    }
+                    attempted.add(largest);
+                    deleteStaleVersion(largest);
+                } finally {
+                    staleVersionCleanupLock.unlock();
+                }
+            }
+        } catch (PackageLoadingException e) {
+            logger.atWarn("cleanup-stale-versions").setCause(e).log("Failed to get size of component store");
+            return;
+        }
+
+        staleVersionCleanupLock.lock();
+        try {
+            if (generation == staleVersionCleanupGeneration.get()) {
+                componentStore.cleanupUnreferencedArtifactBlobs();
+            }
+        } finally {
+            staleVersionCleanupLock.unlock();
+        }
+        logger.atDebug("cleanup-stale-versions-finish").log();
+    }
+
+    @Nullable
+    private ComponentIdentifier findLargestStaleVersion(Set<ComponentIdentifier> excluded)
+            throws PackageLoadingException {
+        ComponentIdentifier largest = null;
+        long largestSize = -1;
+        for (ComponentIdentifier identifier : findStaleVersions()) {
+            if (excluded.contains(identifier)) {
+                continue;
+            }
+            long size = componentStore.getArtifactsSize(identifier);
+            if (size > largestSize) {
+                largest = identifier;
+                largestSize = size;
+            }
+        }
+        return largest;
+    }
+
+    private List<ComponentIdentifier> findStaleVersions() {
         Map<String, Set<String>> versionsToKeep = getVersionsToKeep();
-        Map<String, Set<String>> versionsToRemove = componentStore.listAvailableComponentVersions();
+        List<ComponentIdentifier> staleVersions = new ArrayList<>();
         // remove all local versions that does not exist in versionsToKeep
-        for (Map.Entry<String, Set<String>> localVersions : versionsToRemove.entrySet()) {
+        for (Map.Entry<String, Set<String>> localVersions :
+                componentStore.listAvailableComponentVersions().entrySet()) {
             String compName = localVersions.getKey();
             Set<String> removeVersions = new HashSet<>(localVersions.getValue());
             if (versionsToKeep.containsKey(compName)) {
@@ -499,17 +687,26 @@ public class ComponentManager implements InjectionActions {
             }
             for (String compVersion : removeVersions) {
                 try {
-                    ComponentIdentifier identifier = new ComponentIdentifier(compName, new Semver(compVersion));
-                    removeRecipeDigestIfExists(identifier);
-                    componentStore.deleteComponent(identifier);
-                } catch (SemverException | PackageLoadingException e) {
+                    staleVersions.add(new ComponentIdentifier(compName, new Semver(compVersion)));
+                } catch (SemverException e) {
                     // Log a warn here. This shouldn't cause a deployment to fail.
                     logger.atWarn().kv(COMPONENT_NAME, compName).kv("version", compVersion).setCause(e)
                             .log("Failed to clean up component");
                 }
             }
         }
-        logger.atDebug("cleanup-stale-versions-finish").log();
+        return staleVersions;
+    }
+
+    private void deleteStaleVersion(ComponentIdentifier identifier) {
+        try {
+            removeRecipeDigestIfExists(identifier);
+            componentStore.deleteComponent(identifier);
+        } catch (PackageLoadingException e) {
+            // Log a warn here. This shouldn't cause a deployment to fail.
+            logger.atWarn().kv(COMPONENT_NAME, identifier.getName()).kv("version", identifier.getVersion())
+                    .setCause(e).log("Failed to clean up component");
+        }
     }
 
     /**
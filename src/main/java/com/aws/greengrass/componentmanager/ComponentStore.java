@@ -8,6 +8,7 @@ package com.aws.greengrass.componentmanager;
 import com.aws.greengrass.componentmanager.converter.RecipeLoader;
 import com.aws.greengrass.componentmanager.exceptions.PackageLoadingException;
 import com.aws.greengrass.componentmanager.exceptions.PackagingException;
+import com.aws.greengrass.componentmanager.models.ComponentArtifact;
 import com.aws.greengrass.componentmanager.models.ComponentIdentifier;
 import com.aws.greengrass.componentmanager.models.ComponentMetadata;
 import com.aws.greengrass.componentmanager.models.ComponentRecipe;
@@ -19,8 +20,11 @@ import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
 import com.aws.greengrass.util.Coerce;
 import com.aws.greengrass.util.Digest;
+import com.aws.greengrass.util.FileSystemPermission;
 import com.aws.greengrass.util.NucleusPaths;
+import com.aws.greengrass.util.Permissions;
 import com.aws.greengrass.util.SerializerFactory;
+import com.aws.greengrass.util.Utils;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.vdurmont.semver4j.Requirement;
@@ -31,19 +35,24 @@ import org.apache.commons.io.FileUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.LongStream;
+import java.util.stream.Stream;
 import javax.inject.Inject;
 
 public class ComponentStore {
@@ -51,15 +60,26 @@ public class ComponentStore {
     public static final String RECIPE_DIRECTORY = "recipes";
     public static final String ARTIFACT_DIRECTORY = "artifacts";
     public static final String ARTIFACTS_DECOMPRESSED_DIRECTORY = "artifacts-unarchived";
+    public static final String ARTIFACT_BLOB_DIRECTORY = "artifact-blobs";
     public static final String RECIPE_FILE_NAME_FORMAT = "%s-%s.yaml";
 
     private static final Logger logger = LogManager.getLogger(ComponentStore.class);
     private static final String LOG_KEY_RECIPE_METADATA_FILE_PATH = "RecipeMetadataFilePath";
     private static final String RECIPE_SUFFIX = ".recipe";
+    private static final String LOG_KEY_ARTIFACT_BLOB_PATH = "artifactBlobPath";
+    private static final String LOG_KEY_ARTIFACT_PATH = "artifactPath";
+    private static final String BLOB_TEMP_FILE_SUFFIX = ".tmp";
+    private static final int BLOB_READ_BUFFER_SIZE = 64 * 1024;
 
     private final NucleusPaths nucleusPaths;
     private final PlatformResolver platformResolver;
     private final RecipeLoader recipeLoader;
+    private final RecipeIndex recipeIndex =
+            new RecipeIndex(RECIPE_SUFFIX + FileSuffix.YAML_SUFFIX, RecipeIndex.DEFAULT_MAX_PARSED_RECIPES);
+    private final ContentSizeLedger contentSizeLedger;
+    private final Object blobReferencesLock = new Object();
+    // guarded by blobReferencesLock
+    private Map<Path, Set<ComponentIdentifier>> blobReferences;
 
     /**
      * Constructor. It will initialize recipe, artifact and artifact decompressed directory.
@@ -73,6 +93,11 @@ public class ComponentStore {
         this.nucleusPaths = nucleusPaths;
         this.platformResolver = platformResolver;
         this.recipeLoader = recipeLoader;
+        this.contentSizeLedger = new ContentSizeLedger(nucleusPaths);
+        if (nucleusPaths.componentStorePath() != null) {
+            // built now rather than on the first lookup of a deployment
+            recipeIndex.load(nucleusPaths.recipePath());
+        }
     }
 
     /**
@@ -105,7 +130,10 @@ public class ComponentStore {
                 return recipeContent;
             }
 
-            FileUtils.writeStringToFile(resolveRecipePath(componentIdentifier).toFile(), recipeContent);
+            Path recipePath = resolveRecipePath(componentIdentifier);
+            FileUtils.writeStringToFile(recipePath.toFile(), recipeContent);
+            recipeIndex.recipeSaved(recipePath, recipeContent);
+            updateContentSize(recipePath);
 
             return recipeContent;
         } catch (IOException e) {
@@ -126,6 +154,8 @@ public class ComponentStore {
         try {
             Path recipePath = resolveRecipePath(componentId);
             FileUtils.writeStringToFile(recipePath.toFile(), recipeContent);
+            recipeIndex.recipeSaved(recipePath, recipeContent);
+            updateContentSize(recipePath);
         } catch (IOException e) {
             // TODO: [P41215929]: Better logging and exception messages in component store
             throw new PackageLoadingException("Failed to save package recipe", e);
@@ -133,16 +163,32 @@ public class ComponentStore {
     }
 
     /**
-     * Find the target package recipe from package store on the disk.
+     * Find the target package recipe from package store on the disk. Recipes which haven't changed since they were
+     * last parsed are served from the recipe index instead.
      *
      * @param pkgId package identifier
      * @return Optional of package recipe; empty if not found.
      * @throws PackageLoadingException if fails to parse the recipe file.
      */
     Optional<ComponentRecipe> findPackageRecipe(@NonNull ComponentIdentifier pkgId) throws PackageLoadingException {
+        Path recipePath = resolveRecipePath(pkgId);
+        Optional<ComponentRecipe> cachedRecipe = recipeIndex.getParsedRecipe(recipePath);
+        if (cachedRecipe.isPresent()) {
+            return cachedRecipe;
+        }
         Optional<String> recipeContent = findComponentRecipeContent(pkgId);
-
-        return recipeContent.isPresent() ? recipeLoader.loadFromFile(recipeContent.get()) : Optional.empty();
+        if (!recipeContent.isPresent()) {
+            return Optional.empty();
+        }
+        cachedRecipe = recipeIndex.getParsedRecipe(recipePath, recipeContent.get());
+        if (cachedRecipe.isPresent()) {
+            return cachedRecipe;
+        }
+        Optional<ComponentRecipe> recipe = recipeLoader.loadFromFile(recipeContent.get());
+        if (recipe.isPresent()) {
+            recipeIndex.putParsedRecipe(recipePath, recipeContent.get(), recipe.get());
+        }
+        return recipe;
     }
 
     /**
@@ -230,9 +276,12 @@ public class ComponentStore {
         try {
             Path recipePath = resolveRecipePath(compId);
             Files.deleteIfExists(recipePath);
+            recipeIndex.recipeDeleted(recipePath);
         } catch (IOException e) {
             exception = e;
         }
+        // its artifacts are deleted below, the blobs they were linked to may be no longer used
+        removeBlobReferences(compId);
         // delete recipeMetadata
         try {
             Files.deleteIfExists(resolveRecipeMetadataFile(compId).toPath());
@@ -265,6 +314,9 @@ public class ComponentStore {
                 exception.addSuppressed(e);
             }
         }
+        // whatever was deleted is off the ledger even if the rest failed
+        updateContentSize(resolveRecipePath(compId), resolveRecipeMetadataFile(compId).toPath(),
+                getArtifactsUnit(compId), getUnarchivedArtifactsUnit(compId));
         if (exception != null) {
             throw new PackageLoadingException("Failed to delete package " + compId, exception);
         }
@@ -302,35 +354,19 @@ public class ComponentStore {
      * @param componentName target component's name
      * @param requirement   semver requirement
      * @return component id list contains all satisfied version, in descending order
-     * @throws PackageLoadingException  when fails to read recipe directory or parse recipe file name
+     * @throws PackageLoadingException  when fails to compute the file name of the component's recipes
      */
     List<ComponentIdentifier> listAvailableComponent(@NonNull String componentName, @NonNull Requirement requirement)
             throws PackageLoadingException {
         String componentNameHash = getHashOfComponentName(componentName);
 
-        // target file name: {hash}@{semver}.recipe.yaml
-        File[] recipeFilesOfAllVersions = nucleusPaths.recipePath().toFile().listFiles(
-                (dir, name) -> name.endsWith(RECIPE_SUFFIX + FileSuffix.YAML_SUFFIX) && name
-                        .startsWith(componentNameHash));
-
-        if (recipeFilesOfAllVersions == null || recipeFilesOfAllVersions.length == 0) {
-            return new ArrayList<>();
-        }
-
         List<ComponentIdentifier> satisfyingComponentIds = new ArrayList<>();
-
-        // for each loop is used, instead of lambda expression, because parseVersionFromRecipeFileName throws checked
-        // exception and lambda doesn't support throwing checked exception
-        for (File recipeFile : recipeFilesOfAllVersions) {
-            Semver version = parseVersionFromRecipeFileName(recipeFile.getName());
-
+        // already in descending order
+        for (Semver version : recipeIndex.getVersions(nucleusPaths.recipePath(), componentNameHash)) {
             if (requirement.isSatisfiedBy(version)) {
                 satisfyingComponentIds.add(new ComponentIdentifier(componentName, version));
             }
         }
-
-        // Sort in descending order
-        satisfyingComponentIds.sort(Collections.reverseOrder());
         return satisfyingComponentIds;
     }
 
@@ -394,23 +430,77 @@ public class ComponentStore {
     }
 
     /**
-     * Get the total size of files in the package store by recursively walking the package store directory. Provides an
-     * estimate of the package store's disk usage.
+     * Get the total size of files in the package store. Provides an estimate of the package store's disk usage, kept
+     * in a ledger as the store changes rather than measured on every call. Artifacts which are hard linked from the
+     * blob store are only counted once.
      *
      * @return total length of files in bytes
-     * @throws PackageLoadingException if unable to access the package store directory
+     * @throws PackageLoadingException if the ledger had to be built and the package store couldn't be read
      */
     public long getContentSize() throws PackageLoadingException {
         try {
-            try (LongStream lengths = Files.walk(nucleusPaths.componentStorePath()).map(Path::toFile)
-                    .filter(File::isFile).mapToLong(File::length)) {
-                return lengths.sum();
-            }
+            return contentSizeLedger.getTotal();
         } catch (IOException e) {
             throw new PackageLoadingException("Failed to access package store", e);
         }
     }
 
+    /**
+     * Get the size of the artifacts of a component version, as downloaded and unarchived. Artifacts which are hard
+     * linked from the blob store are not included.
+     *
+     * @param componentIdentifier component version
+     * @return length of the files in bytes
+     * @throws PackageLoadingException if the ledger had to be built and the package store couldn't be read
+     */
+    public long getArtifactsSize(@NonNull ComponentIdentifier componentIdentifier) throws PackageLoadingException {
+        try {
+            return contentSizeLedger.getSize(getArtifactsUnit(componentIdentifier))
+                    + contentSizeLedger.getSize(getUnarchivedArtifactsUnit(componentIdentifier));
+        } catch (IOException e) {
+            throw new PackageLoadingException("Failed to access package store", e);
+        }
+    }
+
+    /**
+     * Measure the downloaded artifacts of a component version again after artifacts were added to it. It's best effort
+     * and errors are logged.
+     *
+     * @param componentIdentifier component version
+     */
+    public void updateArtifactsSize(@NonNull ComponentIdentifier componentIdentifier) {
+        updateContentSize(getArtifactsUnit(componentIdentifier));
+    }
+
+    /**
+     * Measure the unarchived artifacts of a component version again after artifacts were unarchived. It's best effort
+     * and errors are logged.
+     *
+     * @param componentIdentifier component version
+     */
+    public void updateUnarchivedArtifactsSize(@NonNull ComponentIdentifier componentIdentifier) {
+        updateContentSize(getUnarchivedArtifactsUnit(componentIdentifier));
+    }
+
+    private Path getArtifactsUnit(ComponentIdentifier componentIdentifier) {
+        return nucleusPaths.artifactPath().resolve(componentIdentifier.getName())
+                .resolve(componentIdentifier.getVersion().getValue());
+    }
+
+    private Path getUnarchivedArtifactsUnit(ComponentIdentifier componentIdentifier) {
+        return nucleusPaths.unarchivePath().resolve(componentIdentifier.getName())
+                .resolve(componentIdentifier.getVersion().getValue());
+    }
+
+    private void updateContentSize(Path... units) {
+        try {
+            contentSizeLedger.update(units);
+        } catch (IOException e) {
+            logger.atWarn("update-content-size").cause(e).kv("paths", Arrays.toString(units))
+                    .log("Failed to update size of the package store");
+        }
+    }
+
     /**
      * Get remaining usable bytes for the package store.
      *
@@ -426,17 +516,231 @@ public class ComponentStore {
         }
     }
 
-    private static Semver parseVersionFromRecipeFileName(String recipeFilename) throws PackageLoadingException {
-        // TODO: [P41215992]: Validate recipe filename before extracting name and version from it
+    /**
+     * Populate an artifact file from the content-addressable blob store. Blobs are keyed by the artifact checksum, so
+     * component versions which share an artifact share one copy of its content on disk.
+     *
+     * <p>Blobs are verified when they are stored and are read only, so they are used as they are. The artifact file is
+     * hard linked to the blob when the file system supports it and the artifact is going to get the same read only
+     * permissions as the blob, because linked files share their permissions. It's copied otherwise.
+     * </p>
+     *
+     * @param componentIdentifier component version the artifact belongs to
+     * @param artifact            artifact as defined in the recipe
+     * @param artifactFile        target file in the artifact directory of the component version
+     * @param permission          permission to be set on the artifact file; null if permissions aren't managed
+     * @return true if the artifact content was found in the blob store and no download is required
+     */
+    public boolean linkArtifactFromBlobStore(@NonNull ComponentIdentifier componentIdentifier,
+                                             @NonNull ComponentArtifact artifact, @NonNull Path artifactFile,
+                                             FileSystemPermission permission) {
+        Optional<Path> blobKey = getArtifactBlobKey(artifact);
+        if (!blobKey.isPresent()) {
+            return false;
+        }
+        Path blobPath = nucleusPaths.artifactBlobPath().resolve(blobKey.get());
+        if (!Files.isRegularFile(blobPath)) {
+            return false;
+        }
+        try {
+            // file may be a partial download or have the wrong content, it is replaced by the blob either way
+            Files.deleteIfExists(artifactFile);
+            if (Permissions.canLinkArtifactToBlob(blobPath, permission)) {
+                linkOrCopy(blobPath, artifactFile);
+            } else {
+                Files.copy(blobPath, artifactFile);
+            }
+            addBlobReference(blobKey.get(), componentIdentifier);
+            logger.atDebug("link-artifact-from-blob-store").kv(LOG_KEY_ARTIFACT_BLOB_PATH, blobPath)
+                    .kv(LOG_KEY_ARTIFACT_PATH, artifactFile).log();
+            return true;
+        } catch (IOException e) {
+            logger.atWarn("link-artifact-from-blob-store").cause(e).kv(LOG_KEY_ARTIFACT_BLOB_PATH, blobPath)
+                    .kv(LOG_KEY_ARTIFACT_PATH, artifactFile).log("Failed to use artifact from blob store");
+            return false;
+        }
+    }
+
+    /**
+     * Add a downloaded artifact file to the content-addressable blob store so that other component versions with the
+     * same artifact checksum can skip the download. The blob is a read only copy of the artifact, verified against the
+     * checksum once here. The artifact file is then replaced by a hard link to the blob if its permissions allow it.
+     * It's best effort and errors are logged.
+     *
+     * @param componentIdentifier component version the artifact belongs to
+     * @param artifact            artifact as defined in the recipe
+     * @param artifactFile        artifact file whose permissions are already set
+     * @param permission          permission set on the artifact file; null if permissions aren't managed
+     */
+    public void addArtifactToBlobStore(@NonNull ComponentIdentifier componentIdentifier,
+                                       @NonNull ComponentArtifact artifact, @NonNull Path artifactFile,
+                                       FileSystemPermission permission) {
+        Optional<Path> blobKey = getArtifactBlobKey(artifact);
+        if (!blobKey.isPresent() || !Files.isRegularFile(artifactFile)) {
+            return;
+        }
+        Path blobPath = null;
+        try {
+            blobPath = nucleusPaths.artifactBlobPath(blobKey.get().getParent().toString())
+                    .resolve(blobKey.get().getFileName());
+            if (!Files.exists(blobPath)) {
+                // blob must never be observed partially written, stage it next to the target before moving it in
+                // place. It's a copy, a link would let the component change the blob through its artifact
+                Path tempBlobPath = blobPath.resolveSibling(blobPath.getFileName() + BLOB_TEMP_FILE_SUFFIX);
+                Files.copy(artifactFile, tempBlobPath, StandardCopyOption.REPLACE_EXISTING);
+                if (!blobMatchesChecksum(artifact, tempBlobPath)) {
+                    logger.atWarn("add-artifact-to-blob-store").kv(LOG_KEY_ARTIFACT_PATH, artifactFile)
+                            .log("Artifact content doesn't match its checksum, not adding it to blob store");
+                    Files.deleteIfExists(tempBlobPath);
+                    return;
+                }
+                Permissions.setArtifactBlobPermission(tempBlobPath, permission);
+                Files.move(tempBlobPath, blobPath, StandardCopyOption.ATOMIC_MOVE);
+                updateContentSize(blobPath);
+            }
+            addBlobReference(blobKey.get(), componentIdentifier);
+            if (!Files.isSameFile(blobPath, artifactFile) && Permissions.canLinkArtifactToBlob(blobPath, permission)) {
+                // the artifact is a copy of the same content, share the blob instead
+                Path tempArtifactPath = artifactFile.resolveSibling(artifactFile.getFileName() + BLOB_TEMP_FILE_SUFFIX);
+                Files.deleteIfExists(tempArtifactPath);
+                Files.createLink(tempArtifactPath, blobPath);
+                Files.move(tempArtifactPath, artifactFile, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            }
+        } catch (IOException | UnsupportedOperationException | NoSuchAlgorithmException e) {
+            logger.atWarn("add-artifact-to-blob-store").cause(e).kv(LOG_KEY_ARTIFACT_BLOB_PATH, blobPath)
+                    .kv(LOG_KEY_ARTIFACT_PATH, artifactFile).log("Failed to add artifact to blob store");
+        }
+    }
 
-        // {hash}}@{semver}.recipe.yaml
-        String versionStr = recipeFilename.split(RECIPE_SUFFIX + FileSuffix.YAML_SUFFIX)[0].split("@")[1];
+    /**
+     * Delete blobs which are no longer used by any component version in the component store. It's best effort and
+     * errors are logged.
+     */
+    public void cleanupUnreferencedArtifactBlobs() {
+        Path blobRoot = nucleusPaths.artifactBlobPath();
+        List<Path> deletedBlobs = new ArrayList<>();
+        synchronized (blobReferencesLock) {
+            Map<Path, Set<ComponentIdentifier>> references = getBlobReferences();
+            if (references == null) {
+                // without knowing every reference any blob could still be in use, so keep all of them
+                return;
+            }
+            try (Stream<Path> blobs = Files.walk(blobRoot)) {
+                for (Path blob : (Iterable<Path>) blobs::iterator) {
+                    if (Files.isRegularFile(blob) && !references.containsKey(blobRoot.relativize(blob))) {
+                        logger.atDebug("cleanup-artifact-blobs").kv(LOG_KEY_ARTIFACT_BLOB_PATH, blob).log();
+                        Files.deleteIfExists(blob);
+                        deletedBlobs.add(blob);
+                    }
+                }
+            } catch (IOException e) {
+                logger.atWarn("cleanup-artifact-blobs").cause(e).log("Failed to clean up artifact blobs");
+            }
+        }
+        if (!deletedBlobs.isEmpty()) {
+            updateContentSize(deletedBlobs.toArray(new Path[0]));
+        }
+    }
 
+    private void addBlobReference(Path blobKey, ComponentIdentifier componentIdentifier) {
+        synchronized (blobReferencesLock) {
+            Map<Path, Set<ComponentIdentifier>> references = getBlobReferences();
+            if (references != null) {
+                references.computeIfAbsent(blobKey, k -> new HashSet<>()).add(componentIdentifier);
+            }
+        }
+    }
+
+    private void removeBlobReferences(ComponentIdentifier componentIdentifier) {
+        synchronized (blobReferencesLock) {
+            // not built yet, it won't include the version once it's built
+            if (blobReferences != null) {
+                blobReferences.values().removeIf(users -> users.remove(componentIdentifier) && users.isEmpty());
+            }
+        }
+    }
+
+    /**
+     * Get the component versions using each blob. It's built from the recipes in the store the first time it's
+     * needed, and kept up to date as artifacts are added or linked and component versions are deleted.
+     *
+     * @return component versions by blob key; null if a recipe couldn't be read
+     */
+    private Map<Path, Set<ComponentIdentifier>> getBlobReferences() {
+        if (blobReferences != null) {
+            return blobReferences;
+        }
+        Map<Path, Set<ComponentIdentifier>> references = new HashMap<>();
+        for (Map.Entry<String, Set<String>> componentVersions : listAvailableComponentVersions().entrySet()) {
+            for (String version : componentVersions.getValue()) {
+                try {
+                    ComponentIdentifier identifier =
+                            new ComponentIdentifier(componentVersions.getKey(), new Semver(version));
+                    Optional<ComponentRecipe> recipe = findPackageRecipe(identifier);
+                    if (!recipe.isPresent() || recipe.get().getArtifacts() == null) {
+                        continue;
+                    }
+                    for (ComponentArtifact artifact : recipe.get().getArtifacts()) {
+                        getArtifactBlobKey(artifact).ifPresent(
+                                key -> references.computeIfAbsent(key, k -> new HashSet<>()).add(identifier));
+                    }
+                } catch (SemverException | PackageLoadingException e) {
+                    // built again the next time it's needed
+                    logger.atWarn("artifact-blob-references")
+                            .kv(GreengrassService.SERVICE_NAME_KEY, componentVersions.getKey())
+                            .kv("version", version).cause(e)
+                            .log("Failed to read artifacts of component, unable to tell which blobs are in use");
+                    return null;
+                }
+            }
+        }
+        blobReferences = references;
+        return blobReferences;
+    }
+
+    /**
+     * Get the blob store key of an artifact, relative to the blob store root.
+     *
+     * @param artifact artifact as defined in the recipe
+     * @return key in the form of {algorithm}/{checksum}; empty if the artifact doesn't define a usable checksum
+     */
+    private static Optional<Path> getArtifactBlobKey(ComponentArtifact artifact) {
+        if (Utils.isEmpty(artifact.getAlgorithm()) || Utils.isEmpty(artifact.getChecksum())) {
+            // Local recipes don't have digest or algorithm, their artifacts can't be deduplicated
+            return Optional.empty();
+        }
         try {
-            return new Semver(versionStr);
-        } catch (SemverException e) {
-            throw new PackageLoadingException(
-                    String.format("Component recipe file name: '%s' is corrupted!", recipeFilename), e);
+            // checksum is base64 encoded, re-encode it so that it is safe to be in a file name cross platform
+            String blobName = Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(Base64.getDecoder().decode(artifact.getChecksum()));
+            String algorithmDirectory = artifact.getAlgorithm().toLowerCase().replaceAll("[^a-z0-9]", "");
+            return Optional.of(Paths.get(algorithmDirectory, blobName));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static boolean blobMatchesChecksum(ComponentArtifact artifact, Path blobPath)
+            throws IOException, NoSuchAlgorithmException {
+        MessageDigest messageDigest = MessageDigest.getInstance(artifact.getAlgorithm());
+        try (InputStream blob = Files.newInputStream(blobPath)) {
+            byte[] buffer = new byte[BLOB_READ_BUFFER_SIZE];
+            int readBytes = blob.read(buffer);
+            while (readBytes > -1) {
+                messageDigest.update(buffer, 0, readBytes);
+                readBytes = blob.read(buffer);
+            }
+        }
+        return Digest.isEqual(Base64.getEncoder().encodeToString(messageDigest.digest()), artifact.getChecksum());
+    }
+
+    private static void linkOrCopy(Path source, Path destination) throws IOException {
+        try {
+            Files.createLink(destination, source);
+        } catch (UnsupportedOperationException | IOException e) {
+            // hard links aren't supported by every file system, fall back to a full copy
+            Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
         }
     }
 
@@ -453,6 +757,7 @@ public class ComponentStore {
 
         try {
             SerializerFactory.getFailSafeJsonObjectMapper().writeValue(metadataFile, recipeMetadata);
+            updateContentSize(metadataFile.toPath());
         } catch (IOException e) {
             logger.atError().cause(e).kv(LOG_KEY_RECIPE_METADATA_FILE_PATH, metadataFile.getAbsolutePath())
                     .log("Failed to write recipe metadata file");
@@ -544,10 +849,16 @@ public class ComponentStore {
     }
 
     private String getHashOfComponentName(String componentName) throws PackageLoadingException {
+        String cachedHash = recipeIndex.getNameHash(componentName);
+        if (cachedHash != null) {
+            return cachedHash;
+        }
         try {
             // calculate a hash for component name so that it is safe to be in a file name cross platform
             // padding is removed to avoid confusion
-            return Digest.calculateWithUrlEncoderNoPadding(componentName);
+            String hash = Digest.calculateWithUrlEncoderNoPadding(componentName);
+            recipeIndex.putNameHash(componentName, hash);
+            return hash;
         } catch (NoSuchAlgorithmException e) {
             // This should never happen as SHA-256 is mandatory for every default JVM provider
             throw new PackageLoadingException(
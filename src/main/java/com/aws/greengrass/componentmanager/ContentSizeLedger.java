@@ -0,0 +1,213 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.componentmanager;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.util.NucleusPaths;
+import com.aws.greengrass.util.SerializerFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Persistent record of the disk space taken by the component store, so that the size of the store is known without
+ * walking it.
+ *
+ * <p>The store is split into units: each file of the recipe directory, the downloaded and the unarchived artifacts of
+ * each component version, and each blob of the artifact blob store. The size of every unit is kept in a file at the
+ * root of the store, and the component store has a unit measured again whenever it writes or deletes it. The first
+ * time the ledger is used it's checked against the units on disk: units it doesn't know are measured and units which
+ * are gone are dropped. Only a missing or unreadable ledger file costs a walk of the whole store.</p>
+ *
+ * <p>Artifact files hard linked from the blob store are counted with the blob rather than with each component
+ * version, so that shared content is only counted once. Hard links are found from the link count of the file; on file
+ * systems which don't expose it every file is counted.</p>
+ */
+class ContentSizeLedger {
+    static final String LEDGER_FILE_NAME = "content-size-ledger.json";
+    private static final Logger logger = LogManager.getLogger(ContentSizeLedger.class);
+    private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+    private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+    private final NucleusPaths nucleusPaths;
+    // unit path relative to the component store, with / as separator, to size in bytes
+    private final Map<String, Long> sizes = new TreeMap<>();
+    private long total;
+    private boolean loaded;
+
+    ContentSizeLedger(NucleusPaths nucleusPaths) {
+        this.nucleusPaths = nucleusPaths;
+    }
+
+    /**
+     * Get the size of the component store.
+     *
+     * @return total size of every unit in bytes
+     * @throws IOException if the ledger had to be built and the store couldn't be read
+     */
+    synchronized long getTotal() throws IOException {
+        load();
+        return total;
+    }
+
+    /**
+     * Get the recorded size of a unit.
+     *
+     * @param unit path of the unit
+     * @return size in bytes; 0 if the unit isn't recorded
+     * @throws IOException if the ledger had to be built and the store couldn't be read
+     */
+    synchronized long getSize(Path unit) throws IOException {
+        load();
+        return sizes.getOrDefault(key(unit), 0L);
+    }
+
+    /**
+     * Measure units again after they've been written or deleted, and persist the ledger.
+     *
+     * @param units paths of the units
+     * @throws IOException if a unit couldn't be measured or the ledger couldn't be written
+     */
+    synchronized void update(Path... units) throws IOException {
+        load();
+        for (Path unit : units) {
+            put(key(unit), measure(unit));
+        }
+        save();
+    }
+
+    private void load() throws IOException {
+        if (loaded) {
+            return;
+        }
+        Path ledgerFile = getLedgerFile();
+        if (Files.exists(ledgerFile)) {
+            try {
+                sizes.putAll(SerializerFactory.getFailSafeJsonObjectMapper()
+                        .readValue(ledgerFile.toFile(), new TypeReference<Map<String, Long>>() {}));
+            } catch (IOException e) {
+                logger.atWarn("load-content-size-ledger").kv("ledgerFile", ledgerFile).cause(e)
+                        .log("Failed to read component store size ledger, measuring the component store again");
+                sizes.clear();
+            }
+        }
+
+        Set<String> present = new HashSet<>();
+        boolean changed = false;
+        for (Path unit : listUnits()) {
+            String key = key(unit);
+            present.add(key);
+            if (!sizes.containsKey(key)) {
+                sizes.put(key, Math.max(measure(unit), 0));
+                changed = true;
+            }
+        }
+        changed |= sizes.keySet().retainAll(present);
+        total = sizes.values().stream().mapToLong(Long::longValue).sum();
+        loaded = true;
+        if (changed) {
+            save();
+        }
+    }
+
+    private void put(String key, long size) {
+        Long previous = size < 0 ? sizes.remove(key) : sizes.put(key, size);
+        total += Math.max(size, 0) - (previous == null ? 0 : previous);
+    }
+
+    private void save() throws IOException {
+        Path ledgerFile = getLedgerFile();
+        Path tempFile = ledgerFile.resolveSibling(ledgerFile.getFileName() + TEMP_FILE_SUFFIX);
+        SerializerFactory.getFailSafeJsonObjectMapper().writeValue(tempFile.toFile(), sizes);
+        Files.move(tempFile, ledgerFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path getLedgerFile() {
+        return nucleusPaths.componentStorePath().resolve(LEDGER_FILE_NAME);
+    }
+
+    private String key(Path unit) {
+        return nucleusPaths.componentStorePath().relativize(unit).toString().replace(File.separatorChar, '/');
+    }
+
+    private List<Path> listUnits() throws IOException {
+        List<Path> units = new ArrayList<>();
+        listChildren(nucleusPaths.recipePath(), units);
+        // artifacts are {component}/{version}, blobs are {algorithm}/{checksum}
+        for (Path root : Arrays.asList(nucleusPaths.artifactPath(), nucleusPaths.unarchivePath(),
+                nucleusPaths.artifactBlobPath())) {
+            List<Path> parents = new ArrayList<>();
+            listChildren(root, parents);
+            for (Path parent : parents) {
+                listChildren(parent, units);
+            }
+        }
+        return units;
+    }
+
+    private static void listChildren(Path directory, List<Path> children) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path child : stream) {
+                children.add(child);
+            }
+        }
+    }
+
+    /**
+     * Measure a unit.
+     *
+     * @param unit file or directory
+     * @return size in bytes; -1 if the unit doesn't exist
+     */
+    private long measure(Path unit) throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(unit, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+        if (!attributes.isDirectory()) {
+            return attributes.isRegularFile() ? attributes.size() : 0;
+        }
+        boolean hasLinkCount = unit.getFileSystem().supportedFileAttributeViews().contains("unix");
+        long size = 0;
+        try (Stream<Path> paths = Files.walk(unit)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                BasicFileAttributes fileAttributes =
+                        Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                if (fileAttributes.isRegularFile() && !(hasLinkCount && isHardLinked(path))) {
+                    size += fileAttributes.size();
+                }
+            }
+        }
+        return size;
+    }
+
+    private static boolean isHardLinked(Path file) throws IOException {
+        Object linkCount = Files.getAttribute(file, LINK_COUNT_ATTRIBUTE, LinkOption.NOFOLLOW_LINKS);
+        return linkCount instanceof Integer && (Integer) linkCount > 1;
+    }
+}
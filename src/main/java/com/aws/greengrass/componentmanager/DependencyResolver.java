@@ -22,10 +22,14 @@ import com.aws.greengrass.util.DependencyOrder;
 import com.aws.greengrass.util.Utils;
 import com.vdurmont.semver4j.Requirement;
 import com.vdurmont.semver4j.Semver;
+import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.Value;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -35,6 +39,12 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 
@@ -49,6 +59,12 @@ public class DependencyResolver {
     private static final String VERSION_KEY = "version";
     private static final String COMPONENT_NAME_KEY = "componentName";
     private static final String COMPONENT_VERSION_REQUIREMENT_KEY = "componentToVersionRequirements";
+    // how many queued components are resolved ahead of time
+    private static final int MAX_CONCURRENT_RESOLUTIONS = 8;
+
+    // what each component of the last successful deployment to a group was resolved to, by group name
+    private final Map<String, Map<String, ResolvedComponent>> lastResolvedByGroup = new ConcurrentHashMap<>();
+
     @Inject
     private ComponentManager componentManager;
 
@@ -58,6 +74,10 @@ public class DependencyResolver {
     @Inject
     private ComponentStore componentStore;
 
+    @Inject
+    @Setter(AccessLevel.PACKAGE)
+    private ExecutorService executorService;
+
     /**
      * Create the full list of components to be run on the device from a deployment document. It also resolves the
      * conflicts between the components specified in the deployment document and the existing running components on the
@@ -94,11 +114,16 @@ public class DependencyResolver {
                 .log("Found the other group target components");
         // populate other groups target components dependencies
         // retrieve only dependency active version, update version requirement map
-        for (String targetComponent : otherGroupTargetComponents) {
-            resolveComponentDependencies(targetComponent, componentNameToVersionConstraints,
-                    resolvedComponents, componentIncomingReferenceCount,
-                    (name, requirements) ->
-                            componentManager.getActiveAndSatisfiedComponentMetadata(name, requirements));
+        IncrementalResolver otherGroupsResolver = new IncrementalResolver(
+                (name, requirements) -> componentManager.getActiveAndSatisfiedComponentMetadata(name, requirements),
+                Collections.emptyMap());
+        try {
+            for (String targetComponent : otherGroupTargetComponents) {
+                resolveComponentDependencies(targetComponent, componentNameToVersionConstraints,
+                        resolvedComponents, componentIncomingReferenceCount, otherGroupsResolver);
+            }
+        } finally {
+            otherGroupsResolver.cancelPending();
         }
 
         // Get the target components with version requirements in the deployment document
@@ -117,11 +142,20 @@ public class DependencyResolver {
                 .kv("targetComponents", targetComponentsToResolve)
                 .kv(COMPONENT_VERSION_REQUIREMENT_KEY, componentNameToVersionConstraints)
                 .log("Start to resolve group dependencies");
-        // resolve target components dependencies
-        for (String component : targetComponentsToResolve) {
-            resolveComponentDependencies(component, componentNameToVersionConstraints,
-                    resolvedComponents, componentIncomingReferenceCount,
-                    (name, requirements) -> componentManager.resolveComponentVersion(name, requirements));
+        // resolve target components dependencies, only re-resolving what changed since the last deployment to the
+        // group
+        String groupName = document.getGroupName();
+        IncrementalResolver targetResolver = new IncrementalResolver(
+                (name, requirements) -> componentManager.resolveComponentVersion(name, requirements),
+                groupName == null ? Collections.emptyMap()
+                        : lastResolvedByGroup.getOrDefault(groupName, Collections.emptyMap()));
+        try {
+            for (String component : targetComponentsToResolve) {
+                resolveComponentDependencies(component, componentNameToVersionConstraints,
+                        resolvedComponents, componentIncomingReferenceCount, targetResolver);
+            }
+        } finally {
+            targetResolver.cancelPending();
         }
 
         // detect circular dependencies for target components from the current deployment
@@ -134,6 +168,9 @@ public class DependencyResolver {
                 .collect(Collectors.toList());
 
         checkNonExplicitNucleusUpdate(targetComponentsToResolve, resolvedComponentIdentifiers);
+        if (groupName != null) {
+            lastResolvedByGroup.put(groupName, targetResolver.getResolutions(resolvedComponents));
+        }
 
         logger.atInfo().setEventType("resolve-group-dependencies-finish").kv("resolvedComponents", resolvedComponents)
                 .kv(COMPONENT_VERSION_REQUIREMENT_KEY, componentNameToVersionConstraints)
@@ -202,7 +239,7 @@ public class DependencyResolver {
             String targetComponentName, Map<String, Map<String, Requirement>> componentNameToVersionConstraints,
             Map<String, ComponentMetadata> resolvedComponents,
             Map<String, Integer> componentIncomingReferenceCount,
-            ComponentResolver componentResolver) throws PackagingException, InterruptedException {
+            IncrementalResolver componentResolver) throws PackagingException, InterruptedException {
         logger.atDebug().setEventType("traverse-dependencies-start").kv("targetComponent", targetComponentName)
                 .kv(COMPONENT_VERSION_REQUIREMENT_KEY, componentNameToVersionConstraints)
                 .log("Start traversing dependencies");
@@ -210,6 +247,7 @@ public class DependencyResolver {
         componentsToResolve.add(targetComponentName);
 
         while (!componentsToResolve.isEmpty()) {
+            componentResolver.prefetch(componentsToResolve, componentNameToVersionConstraints);
             String componentToResolve = componentsToResolve.poll();
             Map<String, Requirement> versionConstraints =
                     new HashMap<>(componentNameToVersionConstraints.get(componentToResolve));
@@ -302,10 +340,131 @@ public class DependencyResolver {
         }
     }
 
+    private static String requirementsKey(Map<String, Requirement> requirements) {
+        Map<String, String> key = new TreeMap<>();
+        requirements.forEach((dependent, requirement) -> key.put(dependent, requirement.toString()));
+        return key.toString();
+    }
 
     @FunctionalInterface
     public interface ComponentResolver {
         ComponentMetadata resolve(String name, Map<String, Requirement> requirements)
                 throws PackagingException, InterruptedException;
     }
+
+    /**
+     * Resolves each component once per set of version requirements during a resolution. A component whose
+     * requirements are the same as in the last deployment to the group reuses the version it was resolved to then, as
+     * long as that version is still the one running, without negotiating with the cloud again. Only components whose
+     * requirements changed are negotiated. Components waiting in the queue are resolved concurrently ahead of time
+     * with their current requirements; if those change before the component is dequeued, it's resolved again.
+     */
+    private final class IncrementalResolver {
+        private final ComponentResolver delegate;
+        private final Map<String, ResolvedComponent> previousResolutions;
+        private final Map<String, Future<ComponentMetadata>> resolutions = new HashMap<>();
+        private final Map<String, ResolvedComponent> latestResolutions = new HashMap<>();
+
+        IncrementalResolver(ComponentResolver delegate, Map<String, ResolvedComponent> previousResolutions) {
+            this.delegate = delegate;
+            this.previousResolutions = previousResolutions;
+        }
+
+        ComponentMetadata resolve(String name, Map<String, Requirement> requirements)
+                throws PackagingException, InterruptedException {
+            String requirementsKey = requirementsKey(requirements);
+            Future<ComponentMetadata> resolution = resolutions.get(name + requirementsKey);
+            ComponentMetadata resolved;
+            if (resolution == null) {
+                resolved = resolveOrReuse(name, requirements, requirementsKey);
+                resolutions.put(name + requirementsKey, CompletableFuture.completedFuture(resolved));
+            } else {
+                resolved = await(resolution);
+            }
+            latestResolutions.put(name, new ResolvedComponent(requirementsKey, resolved));
+            return resolved;
+        }
+
+        void prefetch(Queue<String> componentsToResolve,
+                      Map<String, Map<String, Requirement>> componentNameToVersionConstraints) {
+            if (executorService == null || componentsToResolve.size() < 2) {
+                return;
+            }
+            long inFlight = resolutions.values().stream().filter(f -> !f.isDone()).count();
+            for (String name : componentsToResolve) {
+                if (inFlight >= MAX_CONCURRENT_RESOLUTIONS) {
+                    return;
+                }
+                Map<String, Requirement> requirements = new HashMap<>(componentNameToVersionConstraints.get(name));
+                String requirementsKey = requirementsKey(requirements);
+                if (!resolutions.containsKey(name + requirementsKey)) {
+                    resolutions.put(name + requirementsKey,
+                            executorService.submit(() -> resolveOrReuse(name, requirements, requirementsKey)));
+                    inFlight++;
+                }
+            }
+        }
+
+        void cancelPending() {
+            resolutions.values().forEach(resolution -> resolution.cancel(true));
+        }
+
+        Map<String, ResolvedComponent> getResolutions(Map<String, ComponentMetadata> resolvedComponents) {
+            Map<String, ResolvedComponent> current = new HashMap<>();
+            latestResolutions.forEach((name, resolution) -> {
+                if (resolution.getMetadata().equals(resolvedComponents.get(name))) {
+                    current.put(name, resolution);
+                }
+            });
+            return current;
+        }
+
+        private ComponentMetadata resolveOrReuse(String name, Map<String, Requirement> requirements,
+                                                 String requirementsKey)
+                throws PackagingException, InterruptedException {
+            ResolvedComponent previous = previousResolutions.get(name);
+            if (previous != null && previous.getRequirements().equals(requirementsKey)
+                    && previous.getMetadata().equals(findActiveAndSatisfied(name, requirements))) {
+                logger.atDebug().kv(COMPONENT_NAME_KEY, name).kv("resolvedVersion", previous.getMetadata())
+                        .log("Requirements are unchanged since the last deployment and the version resolved then is "
+                                + "running, reusing it");
+                return previous.getMetadata();
+            }
+            return delegate.resolve(name, requirements);
+        }
+
+        private ComponentMetadata findActiveAndSatisfied(String name, Map<String, Requirement> requirements) {
+            try {
+                return componentManager.getActiveAndSatisfiedComponentMetadata(name, requirements);
+            } catch (PackagingException e) {
+                return null;
+            }
+        }
+
+        @SuppressWarnings("PMD.PreserveStackTrace")
+        private ComponentMetadata await(Future<ComponentMetadata> resolution)
+                throws PackagingException, InterruptedException {
+            try {
+                return resolution.get();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof PackagingException) {
+                    throw (PackagingException) cause;
+                }
+                if (cause instanceof InterruptedException) {
+                    throw (InterruptedException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new PackagingException("Failed to resolve component version", cause);
+            }
+        }
+    }
+
+    @Value
+    private static class ResolvedComponent {
+        String requirements;
+        ComponentMetadata metadata;
+    }
 }
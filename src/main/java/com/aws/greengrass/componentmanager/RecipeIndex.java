@@ -0,0 +1,338 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.componentmanager;
+
+import com.aws.greengrass.componentmanager.models.ComponentRecipe;
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.util.Digest;
+import com.vdurmont.semver4j.Semver;
+import com.vdurmont.semver4j.SemverException;
+import lombok.Value;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory view of the recipe directory of the component store, so that looking up the versions of a component or
+ * its parsed recipe doesn't list the directory or read and parse YAML every time.
+ *
+ * <p>The index maps the hash of each component name to its versions, and each recipe file to the digest of its content.
+ * It is built from the directory when the component store is created, and recipes saved and deleted by the component
+ * store are applied to it directly. Files changed by anything else are picked up too: the index is rebuilt whenever the
+ * modification time of the directory changes other than through the component store, and a cached recipe is only used
+ * while the size and modification time of its file are the same as when it was read. On file systems which only keep
+ * modification times to the second, a directory or file which changed within {@link #RACY_WINDOW_MILLIS} of being
+ * read isn't trusted yet and is read again.</p>
+ *
+ * <p>Parsed recipes are cached by the digest of their content in a bounded LRU cache.</p>
+ */
+class RecipeIndex {
+    static final int DEFAULT_MAX_PARSED_RECIPES = 256;
+    private static final Logger logger = LogManager.getLogger(RecipeIndex.class);
+    private static final String VERSION_DELIMITER = "@";
+    // file systems may only keep modification times to the second, so on those a directory changed less than this
+    // long before it was listed may change again without its modification time changing
+    private static final long RACY_WINDOW_MILLIS = 2000;
+    private static final long COARSE_MODIFICATION_TIME_MILLIS = 1000;
+
+    private final String recipeFileSuffix;
+    private final Map<String, String> nameHashes = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<Semver>> versionsByNameHash = new HashMap<>();
+    private final Map<String, RecipeFile> recipeFiles = new HashMap<>();
+    private final Map<String, ComponentRecipe> parsedRecipes;
+    private Path indexedDirectory;
+    private FileTime indexedDirectoryModified;
+    // whether the listing can be trusted for as long as the modification time of the directory stays the same
+    private boolean listingTrusted;
+
+    RecipeIndex(String recipeFileSuffix, int maxParsedRecipes) {
+        this.recipeFileSuffix = recipeFileSuffix;
+        this.parsedRecipes = new LinkedHashMap<String, ComponentRecipe>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ComponentRecipe> eldest) {
+                return size() > maxParsedRecipes;
+            }
+        };
+    }
+
+    String getNameHash(String componentName) {
+        return nameHashes.get(componentName);
+    }
+
+    void putNameHash(String componentName, String nameHash) {
+        nameHashes.put(componentName, nameHash);
+    }
+
+    /**
+     * Get all versions of a component which have a recipe in the directory.
+     *
+     * @param recipeDirectory recipe directory
+     * @param nameHash        hash of the component name
+     * @return versions in descending order
+     */
+    synchronized List<Semver> getVersions(Path recipeDirectory, String nameHash) {
+        refresh(recipeDirectory);
+        NavigableSet<Semver> versions = versionsByNameHash.get(nameHash);
+        return versions == null ? Collections.emptyList() : new ArrayList<>(versions.descendingSet());
+    }
+
+    /**
+     * Build the index of a recipe directory, so the first lookup doesn't have to.
+     *
+     * @param recipeDirectory recipe directory
+     */
+    synchronized void load(Path recipeDirectory) {
+        refresh(recipeDirectory);
+    }
+
+    /**
+     * Record a recipe written by the component store. It's applied to the index as it is, without listing the
+     * directory again.
+     *
+     * @param recipeFile path of the recipe file
+     * @param content    content written
+     */
+    synchronized void recipeSaved(Path recipeFile, String content) {
+        if (!recipeFile.getParent().equals(indexedDirectory)) {
+            // nothing indexed yet, the listing includes the recipe
+            refresh(recipeFile.getParent());
+        }
+        RecipeFile entry = add(recipeFile.getFileName().toString());
+        if (entry != null) {
+            entry.digest = digest(content);
+            entry.stamp = stamp(recipeFile);
+            // we know what was written, so the stamp is trusted right away
+            entry.stampedAtMillis = Long.MAX_VALUE;
+        }
+        // our own change, no need to rebuild for it
+        recordDirectoryModified();
+    }
+
+    /**
+     * Record a recipe deleted by the component store.
+     *
+     * @param recipeFile path of the recipe file
+     */
+    synchronized void recipeDeleted(Path recipeFile) {
+        if (!recipeFile.getParent().equals(indexedDirectory)) {
+            refresh(recipeFile.getParent());
+            return;
+        }
+        RecipeFile entry = recipeFiles.remove(recipeFile.getFileName().toString());
+        if (entry != null) {
+            NavigableSet<Semver> versions = versionsByNameHash.get(entry.nameHash);
+            if (versions != null) {
+                versions.remove(entry.version);
+                if (versions.isEmpty()) {
+                    versionsByNameHash.remove(entry.nameHash);
+                }
+            }
+        }
+        recordDirectoryModified();
+    }
+
+    /**
+     * Get the parsed recipe of a file if it hasn't changed since it was parsed.
+     *
+     * @param recipeFile path of the recipe file
+     * @return the cached recipe; empty if it isn't cached
+     */
+    @SuppressWarnings("PMD.NullAssignment")
+    synchronized Optional<ComponentRecipe> getParsedRecipe(Path recipeFile) {
+        refresh(recipeFile.getParent());
+        RecipeFile entry = recipeFiles.get(recipeFile.getFileName().toString());
+        if (entry == null || entry.digest == null) {
+            return Optional.empty();
+        }
+        Stamp stamp = stamp(recipeFile);
+        if (stamp == null || !stamp.equals(entry.stamp) || isRacy(stamp.getLastModified(), entry.stampedAtMillis)) {
+            // changed since it was parsed, or may have changed without the stamp changing
+            entry.digest = null;
+            return Optional.empty();
+        }
+        return Optional.ofNullable(parsedRecipes.get(entry.digest));
+    }
+
+    /**
+     * Get the parsed recipe for the content of a file, which saves parsing it again if the file was rewritten with
+     * the same content or its stamp can't be trusted yet.
+     *
+     * @param recipeFile path of the recipe file
+     * @param content    content read from the file
+     * @return the cached recipe; empty if it isn't cached
+     */
+    synchronized Optional<ComponentRecipe> getParsedRecipe(Path recipeFile, String content) {
+        String digest = digest(content);
+        ComponentRecipe recipe = digest == null ? null : parsedRecipes.get(digest);
+        if (recipe != null) {
+            updateEntry(recipeFile, digest);
+        }
+        return Optional.ofNullable(recipe);
+    }
+
+    /**
+     * Cache the parsed recipe of a file.
+     *
+     * @param recipeFile path of the recipe file
+     * @param content    content which was parsed
+     * @param recipe     parsed recipe
+     */
+    synchronized void putParsedRecipe(Path recipeFile, String content, ComponentRecipe recipe) {
+        String digest = digest(content);
+        if (digest == null) {
+            return;
+        }
+        parsedRecipes.put(digest, recipe);
+        updateEntry(recipeFile, digest);
+    }
+
+    private void updateEntry(Path recipeFile, String digest) {
+        refresh(recipeFile.getParent());
+        RecipeFile entry = recipeFiles.get(recipeFile.getFileName().toString());
+        if (entry != null) {
+            entry.digest = digest;
+            entry.stamp = stamp(recipeFile);
+            entry.stampedAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    private void refresh(Path recipeDirectory) {
+        FileTime modified = directoryModified(recipeDirectory);
+        if (recipeDirectory.equals(indexedDirectory) && modified != null && modified.equals(indexedDirectoryModified)
+                && listingTrusted) {
+            return;
+        }
+        Map<String, RecipeFile> previous = recipeDirectory.equals(indexedDirectory)
+                ? new HashMap<>(recipeFiles) : Collections.emptyMap();
+        versionsByNameHash.clear();
+        recipeFiles.clear();
+        if (Files.isDirectory(recipeDirectory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(recipeDirectory,
+                    "*" + recipeFileSuffix)) {
+                for (Path file : files) {
+                    String fileName = file.getFileName().toString();
+                    RecipeFile entry = add(fileName);
+                    RecipeFile known = previous.get(fileName);
+                    if (entry != null && known != null) {
+                        // keep the digest, it's checked against the stamp before use
+                        entry.digest = known.digest;
+                        entry.stamp = known.stamp;
+                        entry.stampedAtMillis = known.stampedAtMillis;
+                    }
+                }
+            } catch (IOException e) {
+                logger.atWarn().kv("recipeDirectory", recipeDirectory).setCause(e)
+                        .log("Unable to list recipe directory");
+            }
+        }
+        indexedDirectory = recipeDirectory;
+        indexedDirectoryModified = modified;
+        listingTrusted = modified != null && !isRacy(modified, System.currentTimeMillis());
+    }
+
+    /**
+     * Take the modification time of the directory after a change made by the component store, which was applied to
+     * the index already. Whether the listing can be trusted doesn't change.
+     */
+    private void recordDirectoryModified() {
+        indexedDirectoryModified = directoryModified(indexedDirectory);
+    }
+
+    /**
+     * Check if a file changed so shortly before it was read that it may have changed again since, without its
+     * modification time changing. That's only possible if the file system keeps modification times to the second.
+     */
+    private static boolean isRacy(FileTime modified, long readAtMillis) {
+        long modifiedMillis = modified.toMillis();
+        return modifiedMillis % COARSE_MODIFICATION_TIME_MILLIS == 0
+                && readAtMillis - modifiedMillis <= RACY_WINDOW_MILLIS;
+    }
+
+    private RecipeFile add(String fileName) {
+        // {hash}@{semver}.recipe.yaml
+        int delimiter = fileName.indexOf(VERSION_DELIMITER);
+        if (delimiter <= 0 || !fileName.endsWith(recipeFileSuffix)) {
+            return null;
+        }
+        String nameHash = fileName.substring(0, delimiter);
+        Semver version;
+        try {
+            version = new Semver(fileName.substring(delimiter + 1, fileName.length() - recipeFileSuffix.length()));
+        } catch (SemverException e) {
+            logger.atWarn().kv("recipeFile", fileName).log("Ignoring recipe file with a corrupted name");
+            return null;
+        }
+        versionsByNameHash.computeIfAbsent(nameHash, k -> new TreeSet<>()).add(version);
+        return recipeFiles.computeIfAbsent(fileName, k -> new RecipeFile(nameHash, version));
+    }
+
+    private static FileTime directoryModified(Path directory) {
+        try {
+            return Files.getLastModifiedTime(directory);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Stamp stamp(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return new Stamp(attributes.size(), attributes.lastModifiedTime());
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            logger.atDebug().kv("recipeFile", file).setCause(e).log("Unable to read recipe file attributes");
+            return null;
+        }
+    }
+
+    private static String digest(String content) {
+        try {
+            return Digest.calculate(content);
+        } catch (NoSuchAlgorithmException | IllegalArgumentException e) {
+            // can't be cached, it's parsed every time instead
+            return null;
+        }
+    }
+
+    private static final class RecipeFile {
+        private final String nameHash;
+        private final Semver version;
+        private String digest;
+        private Stamp stamp;
+        private long stampedAtMillis;
+
+        RecipeFile(String nameHash, Semver version) {
+            this.nameHash = nameHash;
+            this.version = version;
+        }
+    }
+
+    @Value
+    private static class Stamp {
+        long size;
+        FileTime lastModified;
+    }
+}
@@ -6,20 +6,87 @@
 package com.aws.greengrass.componentmanager;
 
 import com.amazon.aws.iot.greengrass.component.common.Unarchive;
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
 import com.aws.greengrass.util.Utils;
-import org.apache.commons.io.IOUtils;
 
+import java.io.BufferedInputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import javax.inject.Inject;
 
+/**
+ * Unarchives component artifacts.
+ *
+ * <p>Recipes can only request {@link Unarchive#ZIP}, so the actual archive format is detected from the file content.
+ * ZIP, TAR and gzip compressed TAR archives are supported. ZIP entries are extracted in parallel and TAR archives are
+ * streamed. Entries which already exist in the destination with the same content are not written again, so that
+ * unarchiving the same artifact again is cheap.
+ * </p>
+ */
 public class Unarchiver {
+    private static final Logger logger = LogManager.getLogger(Unarchiver.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // Below this number of files, the overhead of scheduling parallel extraction isn't worth it
+    private static final int MIN_ENTRIES_FOR_PARALLEL_UNZIP = 16;
+    private static final int TAR_BLOCK_SIZE = 512;
+    private static final int TAR_MAGIC_OFFSET = 257;
+    private static final String TAR_MAGIC = "ustar";
+    private static final int GZIP_MAGIC_BYTE_1 = 0x1f;
+    private static final int GZIP_MAGIC_BYTE_2 = 0x8b;
+    private static final int MAX_SYMBOLIC_LINKS = 40;
+
+    private final ExecutorService executorService;
+    private final int parallelism;
+
+    /**
+     * Constructor for an unarchiver which extracts every entry on the calling thread.
+     */
+    public Unarchiver() {
+        this(null, 1);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param executorService executor to extract ZIP entries in parallel
+     */
+    @Inject
+    public Unarchiver(ExecutorService executorService) {
+        this(executorService, Runtime.getRuntime().availableProcessors());
+    }
+
+    Unarchiver(ExecutorService executorService, int parallelism) {
+        this.executorService = executorService;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
     /**
      * Unarchive a given file into a given path.
      *
@@ -29,47 +96,503 @@ public class Unarchiver {
      * @throws IOException if unarchiving fails
      */
     public void unarchive(Unarchive method, File toUnarchive, Path unarchiveInto) throws IOException {
-        if (method == Unarchive.ZIP) {
-            unzip(toUnarchive, unarchiveInto.toFile());
+        if (method != Unarchive.ZIP) {
+            return;
+        }
+        try {
+            ArchiveFormat format = detectArchiveFormat(toUnarchive);
+            if (format == ArchiveFormat.ZIP) {
+                unzip(toUnarchive, unarchiveInto);
+            } else {
+                try (InputStream fileStream = Files.newInputStream(toUnarchive.toPath())) {
+                    InputStream is = format == ArchiveFormat.TAR_GZ
+                            ? new GZIPInputStream(fileStream, COPY_BUFFER_SIZE) : fileStream;
+                    untar(new BufferedInputStream(is, COPY_BUFFER_SIZE), unarchiveInto);
+                }
+            }
+        } catch (IOException e) {
+            // If anything fails, then clean up the files which we did extract (if any)
+            Utils.deleteFileRecursively(unarchiveInto.toFile());
+            throw e;
         }
     }
 
-    static void unzip(File zipFile, File destDir) throws IOException {
+    private void unzip(File zipFile, Path destDir) throws IOException {
+        Path root = destDir.toAbsolutePath().normalize();
         try (ZipFile zf = new ZipFile(zipFile)) {
+            // Directories are created up front, so that file entries can be written in any order
+            Set<Path> createdDirectories = new HashSet<>();
+            List<ZipEntry> fileEntries = new ArrayList<>();
             Enumeration<? extends ZipEntry> entries = zf.entries();
             while (entries.hasMoreElements()) {
                 ZipEntry zipEntry = entries.nextElement();
-                File newFile = safeNewZipFile(destDir, zipEntry);
+                Path newFile = safeResolve(root, zipEntry.getName());
                 if (zipEntry.isDirectory()) {
-                    Utils.createPaths(newFile.toPath());
+                    createDirectories(newFile, createdDirectories);
                 } else {
-                    Utils.createPaths(newFile.getParentFile().toPath());
-                    // Only unarchive when the destination file doesn't exist or the file sizes don't match
-                    if (!newFile.exists() || zipEntry.getSize() != newFile.length()) {
-                        try (OutputStream fos = Files.newOutputStream(newFile.toPath());
-                             InputStream is = zf.getInputStream(zipEntry)) {
-                            IOUtils.copy(is, fos);
+                    createDirectories(newFile.getParent(), createdDirectories);
+                    fileEntries.add(zipEntry);
+                }
+            }
+
+            if (executorService == null || parallelism == 1 || fileEntries.size() < MIN_ENTRIES_FOR_PARALLEL_UNZIP) {
+                extractZipEntries(zf, root, fileEntries, new AtomicInteger());
+            } else {
+                extractZipEntriesInParallel(zf, root, fileEntries);
+            }
+        }
+    }
+
+    private void extractZipEntriesInParallel(ZipFile zf, Path root, List<ZipEntry> fileEntries)
+            throws IOException {
+        // Workers pull entries from a shared cursor, so a few large entries don't leave the other workers idle
+        AtomicInteger cursor = new AtomicInteger();
+        int workers = Math.min(parallelism, fileEntries.size() / MIN_ENTRIES_FOR_PARALLEL_UNZIP + 1);
+        List<Future<Void>> futures = new ArrayList<>(workers);
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(executorService.submit(() -> {
+                    extractZipEntries(zf, root, fileEntries, cursor);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Failed to unarchive " + zf.getName(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while unarchiving " + zf.getName(), e);
+        } finally {
+            // stop remaining workers after their current entry and wait for them, the zip file is closed once this
+            // returns
+            cursor.set(fileEntries.size());
+            awaitWorkers(futures);
+        }
+    }
+
+    private static void awaitWorkers(List<Future<Void>> futures) {
+        for (Future<Void> future : futures) {
+            try {
+                future.get(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException | TimeoutException ignored) {
+                // failure is already reported by the first worker to fail
+            }
+        }
+    }
+
+    private static void extractZipEntries(ZipFile zf, Path root, List<ZipEntry> fileEntries, AtomicInteger cursor)
+            throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        for (int i = cursor.getAndIncrement(); i < fileEntries.size(); i = cursor.getAndIncrement()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IOException("Interrupted while unarchiving " + zf.getName());
+            }
+            ZipEntry zipEntry = fileEntries.get(i);
+            Path newFile = root.resolve(zipEntry.getName()).normalize();
+            // Only unarchive when the destination file doesn't exist or its content doesn't match
+            if (isUnchanged(newFile, zipEntry.getSize(), zipEntry.getCrc())) {
+                continue;
+            }
+            try (InputStream is = zf.getInputStream(zipEntry)) {
+                copy(is, newFile, buffer, Long.MAX_VALUE);
+            }
+        }
+    }
+
+    private static boolean isUnchanged(Path file, long size, long crc) throws IOException {
+        if (size < 0 || crc < 0 || !Files.isRegularFile(file) || Files.size(file) != size) {
+            return false;
+        }
+        CRC32 existingCrc = new CRC32();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        try (InputStream is = Files.newInputStream(file)) {
+            int read = is.read(buffer);
+            while (read > -1) {
+                existingCrc.update(buffer, 0, read);
+                read = is.read(buffer);
+            }
+        }
+        return existingCrc.getValue() == crc;
+    }
+
+    /**
+     * Stream a TAR archive into the destination. Supports ustar, GNU long names and pax path headers.
+     *
+     * @param is      input stream positioned at the start of the archive
+     * @param destDir directory to unarchive into
+     * @throws IOException if the archive is malformed or cannot be written
+     */
+    static void untar(InputStream is, Path destDir) throws IOException {
+        Path root = destDir.toAbsolutePath().normalize();
+        Set<Path> createdDirectories = new HashSet<>();
+        byte[] header = new byte[TAR_BLOCK_SIZE];
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        String longName = null;
+        String longLinkName = null;
+
+        while (readBlock(is, header)) {
+            if (isZeroBlock(header)) {
+                // end of archive marker
+                return;
+            }
+            char type = (char) header[156];
+            long size = parseTarNumber(header, 124, 12);
+            String name = longName == null ? tarEntryName(header) : longName;
+            String linkName = longLinkName == null ? tarString(header, 157, 100) : longLinkName;
+            longName = null;
+            longLinkName = null;
+
+            switch (type) {
+                case 'L':
+                    longName = readTarString(is, size);
+                    break;
+                case 'K':
+                    longLinkName = readTarString(is, size);
+                    break;
+                case 'x':
+                    for (String[] record : parsePaxRecords(readTarString(is, size))) {
+                        if ("path".equals(record[0])) {
+                            longName = record[1];
+                        } else if ("linkpath".equals(record[0])) {
+                            longLinkName = record[1];
                         }
                     }
+                    break;
+                case '5':
+                    createDirectories(safeResolveTarEntry(root, name), createdDirectories);
+                    skipEntry(is, size);
+                    break;
+                case '2':
+                    Path link = safeResolve(root, name);
+                    checkNoSymbolicLink(root, link.getParent(), name);
+                    createDirectories(link.getParent(), createdDirectories);
+                    // the target is followed through the links already extracted, as the file system would
+                    if (!resolveFollowingLinks(link.getParent().resolve(linkName))
+                            .startsWith(resolveFollowingLinks(root))) {
+                        throw new IOException("Link target is outside of the target dir: " + name);
+                    }
+                    Files.deleteIfExists(link);
+                    Files.createSymbolicLink(link, link.getFileSystem().getPath(linkName));
+                    skipEntry(is, size);
+                    break;
+                case '1':
+                    // the target is an earlier entry of the archive, named from the destination rather than the link
+                    Path hardLink = safeResolveTarEntry(root, name);
+                    Path hardLinkTarget = safeResolveTarEntry(root, linkName);
+                    if (!Files.isRegularFile(hardLinkTarget, LinkOption.NOFOLLOW_LINKS)) {
+                        throw new IOException("Hard link target is not a file extracted before the link: " + name);
+                    }
+                    if (!hardLink.equals(hardLinkTarget)) {
+                        createDirectories(hardLink.getParent(), createdDirectories);
+                        // copied, so that writing to one of the files doesn't change the other
+                        Files.copy(hardLinkTarget, hardLink, StandardCopyOption.REPLACE_EXISTING,
+                                StandardCopyOption.COPY_ATTRIBUTES);
+                    }
+                    skipEntry(is, size);
+                    break;
+                case '0':
+                case '\0':
+                case '7':
+                    if (name.endsWith("/")) {
+                        // pre-POSIX archives mark directories with a trailing slash only
+                        createDirectories(safeResolveTarEntry(root, name), createdDirectories);
+                        skipEntry(is, size);
+                        break;
+                    }
+                    Path newFile = safeResolveTarEntry(root, name);
+                    createDirectories(newFile.getParent(), createdDirectories);
+                    FileTime modifiedTime = FileTime.from(parseTarNumber(header, 136, 12), TimeUnit.SECONDS);
+                    // Only unarchive when the destination file doesn't exist or its size or timestamp don't match
+                    if (Files.isRegularFile(newFile) && Files.size(newFile) == size
+                            && Files.getLastModifiedTime(newFile).equals(modifiedTime)) {
+                        skipEntry(is, size);
+                    } else {
+                        copy(is, newFile, buffer, size);
+                        Files.setLastModifiedTime(newFile, modifiedTime);
+                        skipPadding(is, size);
+                    }
+                    break;
+                default:
+                    // devices and fifos aren't meaningful in an artifact directory
+                    logger.atDebug().kv("entry", name).kv("type", type).log("Skipping unsupported TAR entry");
+                    skipEntry(is, size);
+                    break;
+            }
+        }
+    }
+
+    private static String tarEntryName(byte[] header) {
+        String name = tarString(header, 0, 100);
+        if (TAR_MAGIC.equals(tarString(header, TAR_MAGIC_OFFSET, TAR_MAGIC.length()))) {
+            String prefix = tarString(header, 345, 155);
+            if (!prefix.isEmpty()) {
+                return prefix + "/" + name;
+            }
+        }
+        return name;
+    }
+
+    private static String tarString(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static long parseTarNumber(byte[] header, int offset, int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            // GNU base-256 encoding for values which don't fit in octal
+            long value = header[offset] & 0x7f;
+            for (int i = offset + 1; i < offset + length; i++) {
+                value = (value << 8) | (header[i] & 0xff);
+            }
+            return value;
+        }
+        long value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            byte b = header[i];
+            if (b == 0 || b == ' ') {
+                if (value > 0) {
+                    break;
                 }
+                continue;
             }
-        } catch (IOException e) {
-            // If anything fails, then clean up the files which we did extract (if any)
-            Utils.deleteFileRecursively(destDir);
-            throw e;
+            if (b < '0' || b > '7') {
+                throw new IOException("Malformed TAR header");
+            }
+            value = (value << 3) + (b - '0');
+        }
+        return value;
+    }
+
+    private static List<String[]> parsePaxRecords(String headers) {
+        // each record is "<length> <key>=<value>\n"
+        List<String[]> records = new ArrayList<>();
+        for (String line : headers.split("\n")) {
+            int space = line.indexOf(' ');
+            int equals = line.indexOf('=', space + 1);
+            if (space > 0 && equals > space) {
+                records.add(new String[]{line.substring(space + 1, equals), line.substring(equals + 1)});
+            }
+        }
+        return records;
+    }
+
+    private static String readTarString(InputStream is, long size) throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Malformed TAR header");
+        }
+        byte[] bytes = new byte[(int) size];
+        readFully(is, bytes, bytes.length);
+        skipPadding(is, size);
+        int end = bytes.length;
+        while (end > 0 && bytes[end - 1] == 0) {
+            end--;
         }
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
     }
 
-    private static File safeNewZipFile(File destinationDir, ZipEntry zipEntry) throws IOException {
-        File destFile = new File(destinationDir, zipEntry.getName());
+    private static boolean readBlock(InputStream is, byte[] block) throws IOException {
+        int read = is.read(block, 0, block.length);
+        if (read == -1) {
+            return false;
+        }
+        if (read < block.length) {
+            readFully(is, block, block.length, read);
+        }
+        return true;
+    }
+
+    private static void readFully(InputStream is, byte[] bytes, int length) throws IOException {
+        readFully(is, bytes, length, 0);
+    }
+
+    private static void readFully(InputStream is, byte[] bytes, int length, int offset) throws IOException {
+        while (offset < length) {
+            int read = is.read(bytes, offset, length - offset);
+            if (read == -1) {
+                throw new EOFException("Unexpected end of TAR archive");
+            }
+            offset += read;
+        }
+    }
+
+    private static boolean isZeroBlock(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void skipEntry(InputStream is, long size) throws IOException {
+        skipFully(is, size);
+        skipPadding(is, size);
+    }
+
+    private static void skipPadding(InputStream is, long size) throws IOException {
+        long remainder = size % TAR_BLOCK_SIZE;
+        if (remainder != 0) {
+            skipFully(is, TAR_BLOCK_SIZE - remainder);
+        }
+    }
+
+    private static void skipFully(InputStream is, long count) throws IOException {
+        while (count > 0) {
+            long skipped = is.skip(count);
+            if (skipped <= 0) {
+                if (is.read() == -1) {
+                    throw new EOFException("Unexpected end of TAR archive");
+                }
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    private static void copy(InputStream is, Path file, byte[] buffer, long limit) throws IOException {
+        try (OutputStream os = Files.newOutputStream(file)) {
+            long remaining = limit;
+            while (remaining > 0) {
+                int read = is.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    if (limit != Long.MAX_VALUE) {
+                        throw new EOFException("Unexpected end of archive while extracting " + file);
+                    }
+                    return;
+                }
+                os.write(buffer, 0, read);
+                remaining -= read;
+            }
+        }
+    }
 
-        String destDirPath = destinationDir.getCanonicalPath();
-        String destFilePath = destFile.getCanonicalPath();
+    private static void createDirectories(Path dir, Set<Path> createdDirectories) throws IOException {
+        if (createdDirectories.add(dir)) {
+            Utils.createPaths(dir);
+        }
+    }
 
-        if (!destFilePath.startsWith(destDirPath + File.separator)) {
-            throw new IOException("Entry is outside of the target dir: " + zipEntry.getName());
+    /**
+     * Resolve an archive entry against the destination root, rejecting entries which would land outside of it. The
+     * check is done on normalized paths, so it doesn't touch the file system.
+     *
+     * @param root      absolute and normalized destination directory
+     * @param entryName name of the entry in the archive
+     * @return absolute path of the entry
+     * @throws IOException if the entry is outside of the destination
+     */
+    static Path safeResolve(Path root, String entryName) throws IOException {
+        Path destFile = root.resolve(entryName).normalize();
+        if (!destFile.startsWith(root)) {
+            throw new IOException("Entry is outside of the target dir: " + entryName);
         }
+        return destFile;
+    }
 
+    /**
+     * Resolve a TAR entry which is written to, rejecting entries which are outside of the destination or whose path
+     * goes through a symbolic link. Links are extracted from the same archive, so a lexical check alone could be
+     * walked around by a chain of links such as {@code a -> .} and {@code a/b -> ..}.
+     *
+     * @param root      absolute and normalized destination directory
+     * @param entryName name of the entry in the archive
+     * @return absolute path of the entry
+     * @throws IOException if the entry is outside of the destination or goes through a link
+     */
+    private static Path safeResolveTarEntry(Path root, String entryName) throws IOException {
+        Path destFile = safeResolve(root, entryName);
+        checkNoSymbolicLink(root, destFile, entryName);
         return destFile;
     }
+
+    private static void checkNoSymbolicLink(Path root, Path path, String entryName) throws IOException {
+        if (path.equals(root)) {
+            return;
+        }
+        Path current = root;
+        for (Path part : root.relativize(path)) {
+            current = current.resolve(part);
+            if (Files.isSymbolicLink(current)) {
+                throw new IOException("Entry path goes through a symbolic link: " + entryName);
+            }
+        }
+    }
+
+    /**
+     * Resolve a path the way the file system would, following the symbolic links which exist on the way, including
+     * links which don't point to anything yet.
+     *
+     * @param path absolute path
+     * @return absolute path without links, {@code .} or {@code ..}
+     * @throws IOException if a link can't be read or there are too many of them
+     */
+    static Path resolveFollowingLinks(Path path) throws IOException {
+        Deque<Path> parts = new ArrayDeque<>();
+        path.forEach(parts::add);
+        Path current = path.getRoot();
+        int links = 0;
+        while (!parts.isEmpty()) {
+            String part = parts.removeFirst().toString();
+            if ("..".equals(part)) {
+                current = current.getParent() == null ? current : current.getParent();
+            } else if (!".".equals(part) && !part.isEmpty()) {
+                Path next = current.resolve(part);
+                if (!Files.isSymbolicLink(next)) {
+                    current = next;
+                    continue;
+                }
+                if (++links > MAX_SYMBOLIC_LINKS) {
+                    throw new IOException("Too many levels of symbolic links: " + path);
+                }
+                Path linkTarget = Files.readSymbolicLink(next);
+                List<Path> targetParts = new ArrayList<>();
+                linkTarget.forEach(targetParts::add);
+                for (int i = targetParts.size() - 1; i >= 0; i--) {
+                    parts.addFirst(targetParts.get(i));
+                }
+                if (linkTarget.isAbsolute()) {
+                    current = linkTarget.getRoot();
+                }
+            }
+        }
+        return current;
+    }
+
+    static ArchiveFormat detectArchiveFormat(File file) throws IOException {
+        byte[] header = new byte[TAR_MAGIC_OFFSET + TAR_MAGIC.length()];
+        int read;
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            read = is.read(header);
+            while (read > -1 && read < header.length) {
+                int more = is.read(header, read, header.length - read);
+                if (more == -1) {
+                    break;
+                }
+                read += more;
+            }
+        }
+        if (read >= 2 && (header[0] & 0xff) == GZIP_MAGIC_BYTE_1 && (header[1] & 0xff) == GZIP_MAGIC_BYTE_2) {
+            return ArchiveFormat.TAR_GZ;
+        }
+        if (read == header.length && TAR_MAGIC
+                .equals(new String(header, TAR_MAGIC_OFFSET, TAR_MAGIC.length(), StandardCharsets.US_ASCII))) {
+            return ArchiveFormat.TAR;
+        }
+        return ArchiveFormat.ZIP;
+    }
+
+    enum ArchiveFormat {
+        ZIP, TAR, TAR_GZ
+    }
 }
@@ -281,5 +281,26 @@ public abstract class ArtifactDownloader {
     public boolean canUnarchiveArtifact() {
         return true;
     }
-}
 
+    /**
+     * Check if an instance of implemented class supports sharing the artifact content with other component versions
+     * through the component store blob store depending on if the artifact is located in greengrass artifact store or
+     * third party.
+     *
+     * @return evaluation result
+     */
+    public boolean canDeduplicateArtifact() {
+        return true;
+    }
+
+    /**
+     * Check if an instance of implemented class supports downloading alongside the artifacts of other components.
+     * Such artifacts are only known to be downloaded once all the packages are prepared, so they must not need to be
+     * deduplicated, have their permissions set or be unarchived.
+     *
+     * @return evaluation result
+     */
+    public boolean canDownloadConcurrently() {
+        return false;
+    }
+}
@@ -9,8 +9,10 @@ import com.aws.greengrass.componentmanager.plugins.docker.exceptions.DockerLogin
 import com.aws.greengrass.componentmanager.plugins.docker.exceptions.DockerServiceUnavailableException;
 import com.aws.greengrass.componentmanager.plugins.docker.exceptions.InvalidImageOrAccessDeniedException;
 import com.aws.greengrass.componentmanager.plugins.docker.exceptions.UserNotAuthorizedForDockerException;
+import com.aws.greengrass.deployment.DeviceConfiguration;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.util.Coerce;
 import com.aws.greengrass.util.Exec;
 import com.aws.greengrass.util.platforms.Platform;
 import lombok.AllArgsConstructor;
@@ -23,6 +25,11 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import javax.inject.Inject;
 
 /**
  * Docker CLI wrapper that communicates with Docker Engine to execute user commands.
@@ -30,6 +37,28 @@ import java.util.Optional;
 @NoArgsConstructor
 public class DefaultDockerClient {
     public static final Logger logger = LogManager.getLogger(DefaultDockerClient.class);
+    // Same as the default number of layers docker engine downloads at once for a single pull
+    static final int DEFAULT_MAX_CONCURRENT_PULLS = 3;
+    // Without a terminal, docker pull prints a line every time a layer changes state
+    private static final Pattern LAYER_COMPLETE_LINE =
+            Pattern.compile("^[0-9a-f]{12,64}: (Pull complete|Already exists)$");
+
+    // Credentials each registry was last logged into with, docker engine keeps using them until told otherwise
+    private final Map<String, Registry.Credentials> loggedInRegistries = new ConcurrentHashMap<>();
+    private final Map<String, Object> registryLocks = new ConcurrentHashMap<>();
+    private int maxConcurrentPulls = DEFAULT_MAX_CONCURRENT_PULLS;
+    private int activePulls;
+
+    /**
+     * Constructor for injection, which keeps the limit of concurrent pulls in line with the nucleus configuration.
+     *
+     * @param deviceConfiguration device configuration
+     */
+    @Inject
+    public DefaultDockerClient(DeviceConfiguration deviceConfiguration) {
+        deviceConfiguration.getDockerMaxConcurrentPulls()
+                .subscribe((what, node) -> setMaxConcurrentPulls(Coerce.toInt(node)));
+    }
 
     /**
      * Sanity check for installation.
@@ -42,7 +71,8 @@ public class DefaultDockerClient {
     }
 
     /**
-     * Login to given docker registry.
+     * Login to given docker registry, unless it's already logged into with the same credentials. Concurrent logins to
+     * the same registry are done once.
      *
      * @param registry Registry to log into, with credentials encapsulated
      * @throws DockerLoginException                error in authenticating with the registry
@@ -53,6 +83,28 @@ public class DefaultDockerClient {
     public void login(Registry registry)
             throws DockerLoginException, UserNotAuthorizedForDockerException, DockerServiceUnavailableException,
             IOException {
+        synchronized (registryLocks.computeIfAbsent(registry.getEndpoint(), k -> new Object())) {
+            if (isLoggedIn(registry)) {
+                logger.atDebug().kv("registry-endpoint", registry.getEndpoint())
+                        .log("Already logged into registry with the same credentials");
+                return;
+            }
+            loggedInRegistries.remove(registry.getEndpoint());
+            doLogin(registry);
+            loggedInRegistries.put(registry.getEndpoint(), registry.getCredentials());
+        }
+    }
+
+    private boolean isLoggedIn(Registry registry) {
+        Registry.Credentials current = loggedInRegistries.get(registry.getEndpoint());
+        Registry.Credentials credentials = registry.getCredentials();
+        return current != null && current.isValid() && current.getUsername().equals(credentials.getUsername())
+                && current.getPassword().equals(credentials.getPassword());
+    }
+
+    private void doLogin(Registry registry)
+            throws DockerLoginException, UserNotAuthorizedForDockerException, DockerServiceUnavailableException,
+            IOException {
         Map<String, String> credEnvMap = new HashMap<>();
         credEnvMap.put("dockerUsername", registry.getCredentials().getUsername());
         credEnvMap.put("dockerPassword", registry.getCredentials().getPassword());
@@ -87,7 +139,17 @@ public class DefaultDockerClient {
     }
 
     /**
-     * Pull given docker image.
+     * Set how many images can be pulled at once. Pulls beyond that wait for one to finish.
+     *
+     * @param maxConcurrentPulls limit, the default is used if not positive
+     */
+    public synchronized void setMaxConcurrentPulls(int maxConcurrentPulls) {
+        this.maxConcurrentPulls = maxConcurrentPulls > 0 ? maxConcurrentPulls : DEFAULT_MAX_CONCURRENT_PULLS;
+        notifyAll();
+    }
+
+    /**
+     * Pull given docker image, waiting first if as many images as allowed are being pulled already.
      *
      * @param image Image to download
      * @throws DockerServiceUnavailableException   an error that can be potentially fixed through retries
@@ -95,10 +157,24 @@ public class DefaultDockerClient {
      *                                             the registry
      * @throws UserNotAuthorizedForDockerException when current user is not authorized to use docker
      * @throws IOException                         unexpected error
+     * @throws InterruptedException                if interrupted while waiting to pull
      */
     public void pullImage(Image image) throws DockerServiceUnavailableException, InvalidImageOrAccessDeniedException,
-            UserNotAuthorizedForDockerException, IOException {
-        CliResponse response = runDockerCmd(String.format("docker pull %s", image.getImageFullName()));
+            UserNotAuthorizedForDockerException, IOException, InterruptedException {
+        AtomicInteger completedLayers = new AtomicInteger();
+        CliResponse response;
+        acquirePullSlot();
+        try {
+            response = runDockerCmd(String.format("docker pull %s", image.getImageFullName()),
+                    Collections.emptyMap(), line -> {
+                        if (LAYER_COMPLETE_LINE.matcher(line.toString().trim()).matches()) {
+                            logger.atInfo().setEventType("docker-pull-progress").kv("image", image.getImageFullName())
+                                    .kv("completedLayers", completedLayers.incrementAndGet()).log();
+                        }
+                    });
+        } finally {
+            releasePullSlot();
+        }
 
         Optional<UserNotAuthorizedForDockerException> userAuthorizationError = checkUserAuthorizationError(response);
         if (userAuthorizationError.isPresent()) {
@@ -116,6 +192,8 @@ public class DefaultDockerClient {
                             String.format("Error pulling docker image - %s", response.err));
                 }
                 if (response.getOut().contains("repository does not exist or may require 'docker login'")) {
+                    // The engine may no longer hold the login, make sure the next attempt logs in again
+                    loggedInRegistries.remove(image.getRegistry().getEndpoint());
                     throw new InvalidImageOrAccessDeniedException(
                             String.format("Invalid image or login - %s", response.err));
                 }
@@ -127,17 +205,37 @@ public class DefaultDockerClient {
         }
     }
 
+    private synchronized void acquirePullSlot() throws InterruptedException {
+        while (activePulls >= maxConcurrentPulls) {
+            wait();
+        }
+        activePulls++;
+    }
+
+    private synchronized void releasePullSlot() {
+        activePulls--;
+        notifyAll();
+    }
+
     private CliResponse runDockerCmd(String cmd) {
         return runDockerCmd(cmd, Collections.emptyMap());
     }
 
     private CliResponse runDockerCmd(String cmd, Map<String, String> envs) {
+        return runDockerCmd(cmd, envs, line -> {
+        });
+    }
+
+    private CliResponse runDockerCmd(String cmd, Map<String, String> envs, Consumer<CharSequence> outputLines) {
         Throwable cause = null;
         StringBuilder output = new StringBuilder();
         StringBuilder error = new StringBuilder();
         Optional<Integer> exit = Optional.empty();
         try (Exec exec = Platform.getInstance().createNewProcessRunner()) {
-            exec.withExec(cmd.split(" ")).withShell().withOut(output::append).withErr(error::append);
+            exec.withExec(cmd.split(" ")).withShell().withOut(line -> {
+                output.append(line);
+                outputLines.accept(line);
+            }).withErr(error::append);
             for (Map.Entry<String, String> env : envs.entrySet()) {
                 exec.setenv(env.getKey(), env.getValue());
             }
@@ -141,6 +141,18 @@ public class DockerImageDownloader extends ArtifactDownloader {
         return false;
     }
 
+    @Override
+    public boolean canDeduplicateArtifact() {
+        // Not applicable for docker images since docker has its own image store
+        return false;
+    }
+
+    @Override
+    public boolean canDownloadConcurrently() {
+        // Docker engine pulls into its own image store, pulls are limited by the docker client
+        return true;
+    }
+
     private void checkDownloadPrerequisites() throws PackageDownloadException {
         // Check that Docker engine is installed
         if (!dockerClient.dockerInstalled()) {
@@ -174,9 +186,7 @@ public class DockerImageDownloader extends ArtifactDownloader {
                     throw new PackageDownloadException(getErrorString("Failed to get auth token for docker login"), e);
                 }
 
-                // Login to registry
-                // TODO: [P44950158]: Avoid logging into registries which might already have been logged in previously
-                //  with the same and valid credentials by maintaining a cache across artifacts and deployments
+                // Login to registry, the docker client skips registries already logged into with these credentials
                 run(() -> {
                     if (credentialsUsable(image)) {
                         dockerClient.login(image.getRegistry());
@@ -19,17 +19,25 @@ import software.amazon.awssdk.services.ecr.model.GetAuthorizationTokenRequest;
 import software.amazon.awssdk.services.ecr.model.ServerException;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Base64;
 import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.inject.Inject;
 
 /**
  * AWS ECR SDK client wrapper.
  */
 public class EcrAccessor {
+    // ECR auth tokens are valid for 12 hours, stop handing one out a while before so it can't expire mid pull
+    static final Duration CREDENTIALS_REFRESH_BEFORE_EXPIRY = Duration.ofMinutes(15);
+
     private final EcrClient injectedClient;
     private final DeviceConfiguration deviceConfiguration;
     private final LazyCredentialProvider lazyCredentialProvider;
+    private final Map<String, Registry.Credentials> credentialsCache = new ConcurrentHashMap<>();
 
     /**
      * Constructor.
@@ -67,7 +75,8 @@ public class EcrAccessor {
     }
 
     /**
-     * Get credentials(auth token) for a private docker registry in ECR.
+     * Get credentials(auth token) for a private docker registry in ECR. Credentials are cached per registry across
+     * artifacts and deployments until shortly before they expire.
      *
      * @param registryId Registry id
      * @return Registry.Credentials - Registry's authorization information
@@ -75,6 +84,10 @@ public class EcrAccessor {
      */
     @SuppressWarnings("PMD.AvoidRethrowingException")
     public Registry.Credentials getCredentials(String registryId) throws RegistryAuthException {
+        Registry.Credentials cached = credentialsCache.get(registryId);
+        if (cached != null && Instant.now().plus(CREDENTIALS_REFRESH_BEFORE_EXPIRY).isBefore(cached.getExpiresAt())) {
+            return cached;
+        }
         try (EcrClient client = getClient()) {
             AuthorizationData authorizationData = client.getAuthorizationToken(
                     GetAuthorizationTokenRequest.builder().registryIds(Collections.singletonList(registryId)).build())
@@ -82,7 +95,10 @@ public class EcrAccessor {
             // Decoded auth token is of the format <username>:<password>
             String[] authTokenParts = new String(Base64.getDecoder().decode(authorizationData.authorizationToken()),
                     StandardCharsets.UTF_8).split(":");
-            return new Registry.Credentials(authTokenParts[0], authTokenParts[1], authorizationData.expiresAt());
+            Registry.Credentials credentials =
+                    new Registry.Credentials(authTokenParts[0], authTokenParts[1], authorizationData.expiresAt());
+            credentialsCache.put(registryId, credentials);
+            return credentials;
         } catch (ServerException | SdkClientException e) {
             // Errors we can retry on
             throw e;
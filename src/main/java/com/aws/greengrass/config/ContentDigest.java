@@ -0,0 +1,105 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.config;
+
+import com.aws.greengrass.util.Digest;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Digest of configuration content, computed the same way for a config node and for the plain object it would turn
+ * into with {@link Node#toPOJO()}, so that the two can be compared without converting the node.
+ *
+ * <p>Maps are digested from the digests of their values, sorted by key, so a node only has to combine the digests of
+ * its children. Keys are digested as they are, the way {@link Node#toPOJO()} returns them. Scalars are digested with
+ * their type, which makes two values digest the same exactly when they are equal.</p>
+ */
+final class ContentDigest {
+    private static final byte NULL = 0;
+    private static final byte SCALAR = 1;
+    private static final byte LIST = 2;
+    private static final byte ARRAY = 3;
+    private static final byte MAP = 4;
+
+    private ContentDigest() {
+    }
+
+    /**
+     * Digest a value of a topic or a plain config object.
+     *
+     * @param value value
+     * @return digest
+     */
+    static byte[] of(Object value) {
+        if (value == null) {
+            return newDigest().digest(new byte[]{NULL});
+        }
+        if (value instanceof Map) {
+            SortedMap<String, byte[]> entries = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> entries.put(String.valueOf(k), of(v)));
+            return ofEntries(entries);
+        }
+        if (value instanceof Collection) {
+            return ofElements(LIST, ((Collection<?>) value).toArray());
+        }
+        if (value instanceof Object[]) {
+            return ofElements(ARRAY, (Object[]) value);
+        }
+        MessageDigest digest = newDigest();
+        digest.update(SCALAR);
+        update(digest, value.getClass().getName());
+        update(digest, String.valueOf(value));
+        return digest.digest();
+    }
+
+    /**
+     * Digest a map from the digests of its values.
+     *
+     * @param entries digests by key
+     * @return digest
+     */
+    static byte[] ofEntries(SortedMap<String, byte[]> entries) {
+        MessageDigest digest = newDigest();
+        digest.update(MAP);
+        entries.forEach((k, v) -> {
+            update(digest, k);
+            digest.update(v);
+        });
+        return digest.digest();
+    }
+
+    private static byte[] ofElements(byte type, Object... elements) {
+        MessageDigest digest = newDigest();
+        digest.update(type);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(elements.length).array());
+        for (Object element : elements) {
+            digest.update(of(element));
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+        digest.update(bytes);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(Digest.SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            // every implementation of the Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -9,8 +9,10 @@ import com.aws.greengrass.dependency.Context;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.io.IOException;
+import java.security.MessageDigest;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
 public abstract class Node {
@@ -21,6 +23,9 @@ public abstract class Node {
     protected final CopyOnWriteArraySet<Watcher> watchers = new CopyOnWriteArraySet<>();
     private boolean parentNeedsToKnow = true; // parent gets notified of changes to this node
     private String[] path;
+    // bumped whenever the content of this node or anything under it changes
+    private final AtomicLong contentVersion = new AtomicLong();
+    private volatile VersionedDigest contentDigest;
 
     @SuppressFBWarnings(value = "IS2_INCONSISTENT_SYNC", justification = "No need for modtime to be sync")
     protected long modtime;
@@ -79,6 +84,45 @@ public abstract class Node {
 
     public abstract void copyFrom(Node n);
 
+    /**
+     * Get the digest of the content of this node, i.e. of what {@link #toPOJO()} returns. It's kept until the content
+     * changes, and a changed node only combines the digests of its children again, so only what changed is digested.
+     *
+     * @return SHA-256 digest
+     */
+    public byte[] getContentDigest() {
+        long version = contentVersion.get();
+        VersionedDigest digest = contentDigest;
+        if (digest != null && digest.version == version) {
+            return digest.digest;
+        }
+        byte[] computed = computeContentDigest();
+        // if the content changed while digesting, the digest is kept with the old version and computed again next time
+        contentDigest = new VersionedDigest(version, computed);
+        return computed;
+    }
+
+    /**
+     * Check if this node has the same content as a plain config object, without converting this node.
+     *
+     * @param pojo config object such as a map, list or scalar
+     * @return true if {@link #toPOJO()} would be equal to the object
+     */
+    public boolean contentEquals(Object pojo) {
+        return MessageDigest.isEqual(getContentDigest(), ContentDigest.of(pojo));
+    }
+
+    protected abstract byte[] computeContentDigest();
+
+    /**
+     * Record that the content of this node changed, which also changes the content of its parents.
+     */
+    protected void contentChanged() {
+        for (Node n = this; n != null; n = n.parent) {
+            n.contentVersion.incrementAndGet();
+        }
+    }
+
     public <T extends Node> T withParentNeedsToKnow(boolean np) {
         parentNeedsToKnow = np;
         return (T) this;
@@ -224,4 +268,14 @@ public abstract class Node {
     public long getModtime() {
         return modtime;
     }
+
+    private static final class VersionedDigest {
+        private final long version;
+        private final byte[] digest;
+
+        VersionedDigest(long version, byte[] digest) {
+            this.version = version;
+            this.digest = digest;
+        }
+    }
 }
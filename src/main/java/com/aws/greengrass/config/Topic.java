@@ -233,6 +233,7 @@ public class Topic extends Node {
         value = validated;
         modtime = proposedModtime;
         if (changed) {
+            contentChanged();
             context.runOnPublishQueue(() -> this.fire(WhatHappened.changed));
         } else {
             context.runOnPublishQueue(() -> this.fire(WhatHappened.timestampUpdated));
@@ -313,4 +314,9 @@ public class Topic extends Node {
         return value;
     }
 
+    @Override
+    protected byte[] computeContentDigest() {
+        return ContentDigest.of(value);
+    }
+
 }
@@ -19,6 +19,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
@@ -117,6 +118,7 @@ public class Topics extends Node implements Iterable<Node> {
         Node n = children.computeIfAbsent(name,
                 (nm) -> {
                     Topic t = new Topic(context, nm.toString(), this, timestamp);
+                    contentChanged();
                     context.runOnPublishQueue(() -> childChanged(WhatHappened.childChanged, t));
                     return t;
                 });
@@ -153,6 +155,7 @@ public class Topics extends Node implements Iterable<Node> {
         Node n = children.computeIfAbsent(name,
                 (nm) -> {
                     Topics t = new Topics(context, nm.toString(), this, timestamp);
+                    contentChanged();
                     context.runOnPublishQueue(() -> childChanged(WhatHappened.interiorAdded, t));
                     return t;
                 });
@@ -404,6 +407,7 @@ public class Topics extends Node implements Iterable<Node> {
                     .log();
             return;
         }
+        contentChanged();
         context.runOnPublishQueue(() -> {
             n.fire(WhatHappened.removed);
             this.childChanged(WhatHappened.childRemoved, n);
@@ -483,6 +487,18 @@ public class Topics extends Node implements Iterable<Node> {
         return map;
     }
 
+    @Override
+    protected byte[] computeContentDigest() {
+        SortedMap<String, byte[]> entries = new TreeMap<>();
+        children.values().forEach((n) -> {
+            // same entries as toPOJO()
+            if (!n.getName().startsWith("_")) {
+                entries.put(n.getName(), n.getContentDigest());
+            }
+        });
+        return ContentDigest.ofEntries(entries);
+    }
+
     public boolean isEmpty() {
         return children.isEmpty();
     }
@@ -12,6 +12,8 @@ import com.aws.greengrass.lifecyclemanager.GlobalStateChangeListener;
 import com.aws.greengrass.lifecyclemanager.GreengrassService;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.metrics.Histogram;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
 import com.aws.greengrass.util.Coerce;
 import com.aws.greengrass.util.CrashableFunction;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -49,8 +51,11 @@ import static com.aws.greengrass.util.Utils.nullEmpty;
 public class Context implements Closeable {
     private static final Logger logger = LogManager.getLogger(Context.class);
     private static final String classKeyword = "class";
+    // time from a task being queued to it starting to run on the publish thread
+    private static final Histogram PUBLISH_QUEUE_DWELL_TIME =
+            MetricsRegistry.getInstance().histogram("Config/PublishQueueDwellTime");
     private final ConcurrentHashMap<Object, Value> parts = new ConcurrentHashMap<>();
-    private final BlockingDeque<Runnable> serialized = new LinkedBlockingDeque<>();
+    private final BlockingDeque<QueuedTask> serialized = new LinkedBlockingDeque<>();
     private final Thread publishThread = new Thread() {
         {
             setName("Serialized listener processor");
@@ -63,8 +68,9 @@ public class Context implements Closeable {
         public void run() {
             while (true) {
                 try {
-                    Runnable task = serialized.takeFirst();
-                    task.run();
+                    QueuedTask task = serialized.takeFirst();
+                    PUBLISH_QUEUE_DWELL_TIME.recordMicrosSince(task.queuedAtNanos);
+                    task.runnable.run();
                 } catch (InterruptedException ie) {
                     return;
                 } catch (Throwable t) {
@@ -81,6 +87,7 @@ public class Context implements Closeable {
     public Context() {
         parts.put(Context.class, new Value(Context.class, this));
         publishThread.start();
+        MetricsRegistry.getInstance().gauge("Config/PublishQueueSize", this, c -> c.serialized.size());
     }
 
     /**
@@ -267,7 +274,7 @@ public class Context implements Closeable {
     }
 
     public void runOnPublishQueue(Runnable r) {
-        serialized.add(r);
+        serialized.add(new QueuedTask(r, System.nanoTime()));
     }
 
     /**
@@ -404,6 +411,16 @@ public class Context implements Closeable {
         DependencyType value();
     }
 
+    private static final class QueuedTask {
+        private final Runnable runnable;
+        private final long queuedAtNanos;
+
+        QueuedTask(Runnable runnable, long queuedAtNanos) {
+            this.runnable = runnable;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+    }
+
     public class Value<T> implements Provider<T> {
         private final Class<T> targetClass;
         private volatile T object;
@@ -15,21 +15,30 @@ import io.github.lukehutch.fastclasspathscanner.matchprocessor.ImplementingClass
 import lombok.Getter;
 
 import java.io.Closeable;
+import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.net.MalformedURLException;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.file.FileSystemNotFoundException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.security.AccessController;
+import java.security.CodeSource;
 import java.security.PrivilegedAction;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.inject.Inject;
 
@@ -38,7 +47,9 @@ import javax.inject.Inject;
 public class EZPlugins implements Closeable {
     private static final Logger logger = LogManager.getLogger(EZPlugins.class);
     public static final String JAR_FILE_EXTENSION = ".jar";
-    private final List<Consumer<FastClasspathScanner>> matchers = new ArrayList<>();
+    static final String GREENGRASS_PACKAGE = "com.aws.greengrass";
+    private static final String INDEX_DIRECTORY = "index";
+    private final List<Matcher> matchers = new ArrayList<>();
     private Path cacheDirectory;
     @Getter
     private Path trustedCacheDirectory;
@@ -47,6 +58,7 @@ public class EZPlugins implements Closeable {
     private final List<URLClassLoader> classLoaders = new ArrayList<>();
     private boolean doneFirstLoad;
     private final ExecutorService executorService;
+    private static final int SCAN_PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
 
     @Inject
     public EZPlugins(ExecutorService executorService) {
@@ -84,16 +96,144 @@ public class EZPlugins implements Closeable {
 
     private synchronized void loadPlugins(boolean trusted, ClassLoader cls) {
         doneFirstLoad = true;
-        FastClasspathScanner sc = new FastClasspathScanner("com.aws.greengrass");
-        sc.strictWhitelist();
-        sc.addClassLoader(cls);
-        matchers.forEach(m -> m.accept(sc));
-        sc.scan(executorService, 1);
+        // plugin jars are loaded by class loaders of their own, anything else is the nucleus classpath
+        boolean plugins = cls != getClass().getClassLoader();
+        List<Path> unindexed = new ArrayList<>();
+        boolean anyIndexed = false;
+        for (Path element : classpathElements(cls)) {
+            PluginIndex index = findIndex(element, GREENGRASS_PACKAGE, matchers, plugins);
+            if (index == null) {
+                unindexed.add(element);
+            } else {
+                anyIndexed = true;
+                applyIndex(index, cls, matchers);
+            }
+        }
+        if (!anyIndexed || !unindexed.isEmpty()) {
+            FastClasspathScanner sc = new FastClasspathScanner(GREENGRASS_PACKAGE);
+            sc.strictWhitelist();
+            sc.addClassLoader(cls);
+            if (plugins || anyIndexed) {
+                sc.overrideClasspath(unindexed);
+                scan(sc, unindexed, GREENGRASS_PACKAGE, matchers, plugins);
+            } else {
+                // no index at all, e.g. not running from a build, so scan everything the class loader can see
+                scan(sc, Collections.emptyList(), GREENGRASS_PACKAGE, matchers, false);
+            }
+        }
         if (trusted) {
             root = cls;
         }
     }
 
+    /**
+     * Scan for matches, in parallel, and cache the index of the plugin jars scanned.
+     *
+     * @param sc           scanner set up for what to scan
+     * @param classpath    classpath elements being scanned
+     * @param packages     packages scanned, empty for all
+     * @param scanMatchers matchers
+     * @param plugins      whether the classpath elements are plugin jars, whose index is cached
+     */
+    private void scan(FastClasspathScanner sc, List<Path> classpath, String packages, List<Matcher> scanMatchers,
+                      boolean plugins) {
+        List<String> targets = targetNames(scanMatchers);
+        Map<Path, PluginIndex> indexes = new HashMap<>();
+        if (plugins) {
+            classpath.stream().filter(this::isIndexableJar)
+                    .forEach(p -> indexes.put(p, new PluginIndex(packages, targets)));
+        }
+        for (Matcher m : scanMatchers) {
+            m.register(sc, c -> {
+                PluginIndex index = indexes.get(classpathElementOf(c));
+                if (index != null) {
+                    index.addMatch(m.target.getName(), c.getName());
+                }
+                m.processor.accept(c);
+            });
+        }
+        sc.scan(executorService, SCAN_PARALLELISM);
+        indexes.forEach((jar, index) -> {
+            try {
+                index.write(cachedIndexPath(jar));
+            } catch (IOException e) {
+                logger.atWarn().kv("plugin", jar).setCause(e).log("Unable to cache plugin index");
+            }
+        });
+    }
+
+    private PluginIndex findIndex(Path element, String packages, List<Matcher> indexMatchers, boolean plugins) {
+        PluginIndex index = PluginIndex.readBundled(element);
+        if (index == null && plugins && isIndexableJar(element)) {
+            try {
+                Path cached = cachedIndexPath(element);
+                if (Files.exists(cached)) {
+                    index = PluginIndex.read(cached);
+                }
+            } catch (IOException e) {
+                logger.atDebug().kv("plugin", element).setCause(e).log("Unable to read cached plugin index");
+            }
+        }
+        return index != null && index.covers(packages, targetNames(indexMatchers)) ? index : null;
+    }
+
+    private void applyIndex(PluginIndex index, ClassLoader cls, List<Matcher> indexMatchers) {
+        for (Matcher m : indexMatchers) {
+            for (String className : index.getMatches(m.target.getName())) {
+                try {
+                    m.processor.accept(Class.forName(className, false, cls));
+                } catch (ClassNotFoundException | LinkageError e) {
+                    logger.atWarn().kv("class", className).setCause(e).log("Unable to load indexed plugin class");
+                }
+            }
+        }
+    }
+
+    private boolean isIndexableJar(Path element) {
+        return cacheDirectory != null && element.toString().endsWith(JAR_FILE_EXTENSION)
+                && Files.isRegularFile(element);
+    }
+
+    private Path cachedIndexPath(Path jar) throws IOException {
+        return cacheDirectory.resolve(INDEX_DIRECTORY).resolve(PluginIndex.cachedIndexFileName(jar));
+    }
+
+    private static List<String> targetNames(List<Matcher> targetMatchers) {
+        return targetMatchers.stream().map(m -> m.target.getName()).collect(Collectors.toList());
+    }
+
+    private static List<Path> classpathElements(ClassLoader cls) {
+        List<Path> elements = new ArrayList<>();
+        if (cls instanceof URLClassLoader) {
+            for (URL url : ((URLClassLoader) cls).getURLs()) {
+                Path element = toPath(url);
+                if (element != null) {
+                    elements.add(element);
+                }
+            }
+        } else {
+            for (String element : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+                if (!element.isEmpty()) {
+                    elements.add(Paths.get(element).toAbsolutePath().normalize());
+                }
+            }
+        }
+        return elements;
+    }
+
+    private static Path classpathElementOf(Class<?> c) {
+        CodeSource codeSource = c.getProtectionDomain().getCodeSource();
+        return codeSource == null || codeSource.getLocation() == null ? null : toPath(codeSource.getLocation());
+    }
+
+    private static Path toPath(URL url) {
+        try {
+            return Paths.get(url.toURI()).toAbsolutePath().normalize();
+        } catch (URISyntaxException | IllegalArgumentException | FileSystemNotFoundException e) {
+            return null;
+        }
+    }
+
     @SuppressWarnings("PMD.CloseResource")
     // Class loader must stay open, otherwise we won't be able to load all classes from the jar
     private void loadPlugins(boolean trusted, Path p) throws IOException {
@@ -102,6 +242,39 @@ public class EZPlugins implements Closeable {
         loadPlugins(trusted, cl);
     }
 
+    /**
+     * Load a single plugin, using its cached index if it was scanned before.
+     *
+     * @param p          path to jar file
+     * @param annotation annotation to look for
+     * @param m          callback for classes annotated with it
+     * @return class loader of the plugin
+     * @throws IOException if loading the class fails
+     */
+    // Class loader must stay open, otherwise we won't be able to load all classes from the jar
+    @SuppressWarnings("PMD.CloseResource")
+    public synchronized ClassLoader loadPlugin(Path p, Class<? extends Annotation> annotation,
+                                               ClassAnnotationMatchProcessor m) throws IOException {
+        Path jar = p.toAbsolutePath().normalize();
+        URL[] urls = {jar.toUri().toURL()};
+        List<Matcher> pluginMatchers = Collections.singletonList(new Matcher(annotation, true, m::processMatch));
+        return AccessController.doPrivileged((PrivilegedAction<ClassLoader>) () -> {
+            URLClassLoader cl = new URLClassLoader(urls, root);
+            classLoaders.add(cl);
+            root = cl;
+            PluginIndex index = findIndex(jar, "", pluginMatchers, true);
+            if (index == null) {
+                FastClasspathScanner sc = new FastClasspathScanner();
+                sc.ignoreParentClassLoaders();
+                sc.addClassLoader(cl);
+                scan(sc, Collections.singletonList(jar), "", pluginMatchers, true);
+            } else {
+                applyIndex(index, cl, pluginMatchers);
+            }
+            return cl;
+        });
+    }
+
     /**
      * Load a single plugin with the classpath scanner.
      *
@@ -271,7 +444,12 @@ public class EZPlugins implements Closeable {
         if (doneFirstLoad) {
             throw new IllegalStateException("EZPlugins: all matchers must be specified before the first class load");
         }
-        matchers.add(fcs -> fcs.matchClassesImplementing(c, m));
+        matchers.add(new Matcher(c, false, cl -> {
+            // indexed classes aren't checked by the scanner
+            if (c.isAssignableFrom(cl)) {
+                m.processMatch(cl.asSubclass(c));
+            }
+        }));
         return this;
     }
 
@@ -288,7 +466,7 @@ public class EZPlugins implements Closeable {
         if (doneFirstLoad) {
             throw new IllegalStateException("EZPlugins: all matchers must be specified before the first class load");
         }
-        matchers.add(fcs -> fcs.matchClassesWithAnnotation(c, m));
+        matchers.add(new Matcher(c, true, m::processMatch));
         return this;
     }
 
@@ -310,4 +488,29 @@ public class EZPlugins implements Closeable {
             classLoader.close();
         }
     }
+
+    private static final class Matcher {
+        private final Class<?> target;
+        private final boolean annotation;
+        private final Consumer<Class<?>> processor;
+
+        Matcher(Class<?> target, boolean annotation, Consumer<Class<?>> processor) {
+            this.target = target;
+            this.annotation = annotation;
+            this.processor = processor;
+        }
+
+        void register(FastClasspathScanner sc, Consumer<Class<?>> onMatch) {
+            if (annotation) {
+                sc.matchClassesWithAnnotation(target, onMatch::accept);
+            } else {
+                matchImplementing(sc, target, onMatch);
+            }
+        }
+
+        private static <T> void matchImplementing(FastClasspathScanner sc, Class<T> target,
+                                                  Consumer<Class<?>> onMatch) {
+            sc.matchClassesImplementing(target, onMatch::accept);
+        }
+    }
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.dependency;
+
+import com.aws.greengrass.provisioning.DeviceIdentityInterface;
+import com.aws.greengrass.util.Digest;
+import io.github.lukehutch.fastclasspathscanner.FastClasspathScanner;
+import io.github.lukehutch.fastclasspathscanner.scanner.ScanResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+
+/**
+ * Classes of a jar or class directory matched by {@link EZPlugins}, so that loading plugins doesn't have to scan
+ * classes which were scanned before.
+ *
+ * <p>The nucleus carries an index of its own classes, generated at build time by {@link #main(String[])}. Plugin jars
+ * are indexed the first time they're scanned, and the index is kept in the plugin cache under the digest of the jar.
+ * An index is only used for the packages it was built for, and only if it covers every class or annotation being
+ * matched; anything else is scanned. The index of a class directory records how many class files there were and when
+ * the latest of them was modified, and is only used while that still holds, since classes may be compiled again
+ * without generating the index again.</p>
+ */
+public final class PluginIndex {
+    static final String RESOURCE = "META-INF/greengrass/plugin-index.properties";
+    static final String INDEX_FILE_EXTENSION = ".properties";
+    private static final String PACKAGES_KEY = "packages";
+    private static final String TARGETS_KEY = "targets";
+    private static final String CLASSES_KEY = "classes";
+    private static final String MATCHES_KEY_PREFIX = "matches.";
+    private static final String SEPARATOR = ",";
+    private static final String CLASS_FILE_EXTENSION = ".class";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String packages;
+    // class files count and latest modification time of the indexed directory, null for jars
+    private String classesStamp;
+    // matched class names by the name of the class implemented or annotation
+    private final Map<String, Set<String>> matches = new TreeMap<>();
+
+    PluginIndex(String packages, Collection<String> targets) {
+        this.packages = packages;
+        targets.forEach(t -> matches.put(t, new TreeSet<>()));
+    }
+
+    /**
+     * Whether the index can be used instead of scanning.
+     *
+     * @param scannedPackages packages which would be scanned, empty for all
+     * @param targets         names of the classes implemented and annotations to match
+     * @return true if the index was built for the same packages and covers all targets
+     */
+    boolean covers(String scannedPackages, Collection<String> targets) {
+        return packages.equals(scannedPackages) && matches.keySet().containsAll(targets);
+    }
+
+    Set<String> getMatches(String target) {
+        return matches.getOrDefault(target, Collections.emptySet());
+    }
+
+    void addMatch(String target, String className) {
+        matches.computeIfAbsent(target, k -> new TreeSet<>()).add(className);
+    }
+
+    /**
+     * Record the state of the class directory being indexed, so that the index isn't used once its classes change.
+     *
+     * @param directory directory of the indexed classes
+     * @throws IOException if the directory can't be read
+     */
+    void stampClasses(Path directory) throws IOException {
+        classesStamp = classesStamp(directory);
+    }
+
+    /**
+     * Read the index bundled in a jar or class directory.
+     *
+     * @param element jar or directory
+     * @return index; null if it has none or it can't be read
+     */
+    static PluginIndex readBundled(Path element) {
+        try {
+            if (Files.isDirectory(element)) {
+                Path indexFile = element.resolve(RESOURCE);
+                if (!Files.exists(indexFile)) {
+                    return null;
+                }
+                PluginIndex index = read(indexFile);
+                // stale if classes were added, removed or compiled again since, scanned instead
+                return index.classesStamp != null && index.classesStamp.equals(classesStamp(element)) ? index : null;
+            }
+            if (!Files.isRegularFile(element)) {
+                return null;
+            }
+            try (JarFile jar = new JarFile(element.toFile())) {
+                ZipEntry entry = jar.getEntry(RESOURCE);
+                if (entry == null) {
+                    return null;
+                }
+                try (InputStream in = jar.getInputStream(entry)) {
+                    return read(in);
+                }
+            }
+        } catch (IOException e) {
+            // scanned instead
+            return null;
+        }
+    }
+
+    static PluginIndex read(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    private static PluginIndex read(InputStream in) throws IOException {
+        Properties properties = new Properties();
+        properties.load(in);
+        String packages = properties.getProperty(PACKAGES_KEY);
+        String targets = properties.getProperty(TARGETS_KEY);
+        if (packages == null || targets == null) {
+            throw new IOException("Plugin index is missing " + PACKAGES_KEY + " or " + TARGETS_KEY);
+        }
+        PluginIndex index = new PluginIndex(packages, split(targets));
+        index.classesStamp = properties.getProperty(CLASSES_KEY);
+        for (String target : split(targets)) {
+            split(properties.getProperty(MATCHES_KEY_PREFIX + target, "")).forEach(c -> index.addMatch(target, c));
+        }
+        return index;
+    }
+
+    /**
+     * Write the index, replacing the file at once so that it's never read half written.
+     *
+     * @param file file to write
+     * @throws IOException if writing fails
+     */
+    void write(Path file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(PACKAGES_KEY, packages);
+        properties.setProperty(TARGETS_KEY, String.join(SEPARATOR, matches.keySet()));
+        if (classesStamp != null) {
+            properties.setProperty(CLASSES_KEY, classesStamp);
+        }
+        matches.forEach((target, classes) ->
+                properties.setProperty(MATCHES_KEY_PREFIX + target, String.join(SEPARATOR, classes)));
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, null);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Name of the file the index of a jar is cached in.
+     *
+     * @param jar jar file
+     * @return file name
+     * @throws IOException if the jar can't be read
+     */
+    @SuppressWarnings("PMD.AssignmentInOperand")
+    static String cachedIndexFileName(Path jar) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance(Digest.SHA_256);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+        try (InputStream in = Files.newInputStream(jar)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest()) + INDEX_FILE_EXTENSION;
+    }
+
+    private static String classesStamp(Path directory) throws IOException {
+        long count = 0;
+        long latestModified = 0;
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(CLASS_FILE_EXTENSION) && Files.isRegularFile(file)) {
+                    count++;
+                    latestModified = Math.max(latestModified, Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+        }
+        return count + SEPARATOR + latestModified;
+    }
+
+    private static List<String> split(String value) {
+        List<String> values = new ArrayList<>();
+        for (String v : value.split(SEPARATOR)) {
+            if (!v.trim().isEmpty()) {
+                values.add(v.trim());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Generate the index of the nucleus classes at build time.
+     *
+     * @param args directory of the compiled classes, then optionally the names of the classes implemented and
+     *             annotations to index, which default to {@link ImplementsService} and
+     *             {@link DeviceIdentityInterface}
+     * @throws IOException            if writing the index fails
+     * @throws ClassNotFoundException if a class or annotation to index isn't on the classpath
+     */
+    public static void main(String[] args) throws IOException, ClassNotFoundException {
+        if (args.length < 1) {
+            throw new IllegalArgumentException("Usage: PluginIndex <classes directory> [class or annotation...]");
+        }
+        Path classes = Paths.get(args[0]);
+        List<String> targets = args.length > 1 ? Arrays.asList(args).subList(1, args.length)
+                : Arrays.asList(ImplementsService.class.getName(), DeviceIdentityInterface.class.getName());
+
+        // the whole classpath is scanned so that class hierarchies are complete, only classes of the directory are
+        // indexed since anything else is scanned at runtime
+        ScanResult scan = new FastClasspathScanner(EZPlugins.GREENGRASS_PACKAGE).strictWhitelist().scan();
+        PluginIndex index = new PluginIndex(EZPlugins.GREENGRASS_PACKAGE, targets);
+        for (String target : targets) {
+            List<String> matched = Class.forName(target).isAnnotation()
+                    ? scan.getNamesOfClassesWithAnnotation(target) : scan.getNamesOfClassesImplementing(target);
+            matched.stream()
+                    .filter(c -> Files.exists(classes.resolve(c.replace('.', '/') + CLASS_FILE_EXTENSION)))
+                    .forEach(c -> index.addMatch(target, c));
+        }
+        index.stampClasses(classes);
+        index.write(classes.resolve(RESOURCE));
+    }
+}
@@ -158,7 +158,7 @@ public class DefaultDeploymentTask implements DeploymentTask {
             logger.atInfo(DEPLOYMENT_TASK_EVENT_TYPE).setEventType(DEPLOYMENT_TASK_EVENT_TYPE)
                     .log("Finished deployment task");
 
-            componentManager.cleanupStaleVersions();
+            componentManager.scheduleStaleVersionCleanup();
             return result;
         } catch (PackageLoadingException | DeploymentTaskFailureException | IOException e) {
             logger.atError().setCause(e).log("Error occurred while processing deployment");
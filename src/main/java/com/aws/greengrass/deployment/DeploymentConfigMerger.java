@@ -7,6 +7,7 @@ package com.aws.greengrass.deployment;
 
 
 import com.aws.greengrass.config.Topics;
+import com.aws.greengrass.dependency.Context;
 import com.aws.greengrass.dependency.Context.Value;
 import com.aws.greengrass.dependency.State;
 import com.aws.greengrass.deployment.activator.DeploymentActivator;
@@ -17,6 +18,7 @@ import com.aws.greengrass.deployment.exceptions.ServiceUpdateException;
 import com.aws.greengrass.deployment.model.Deployment;
 import com.aws.greengrass.deployment.model.DeploymentDocument;
 import com.aws.greengrass.deployment.model.DeploymentResult;
+import com.aws.greengrass.lifecyclemanager.GlobalStateChangeListener;
 import com.aws.greengrass.lifecyclemanager.GreengrassService;
 import com.aws.greengrass.lifecyclemanager.Kernel;
 import com.aws.greengrass.lifecyclemanager.UnloadableService;
@@ -35,12 +37,14 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.inject.Inject;
 
@@ -171,6 +175,11 @@ public class DeploymentConfigMerger {
     /**
      * Completes the provided future when all of the listed services are running.
      *
+     * <p>Waiting is driven by the global state change listener of the services' context, so it returns as soon as the
+     * last service reaches its desired state and fails as soon as one of them goes BROKEN. The services are also
+     * checked every {@link #WAIT_SVC_START_POLL_INTERVAL_MILLISEC} in case reaching the desired state didn't come with
+     * a state change.</p>
+     *
      * @param servicesToTrack       services to track
      * @param mergeTime             time the merge was started, used to check if a service is broken due to the merge
      * @throws InterruptedException   if the thread is interrupted while waiting here
@@ -178,35 +187,105 @@ public class DeploymentConfigMerger {
      */
     public static void waitForServicesToStart(Collection<GreengrassService> servicesToTrack, long mergeTime)
             throws InterruptedException, ServiceUpdateException {
-        // Relying on the fact that all service lifecycle steps should have timeouts,
-        // assuming this loop will not get stuck waiting forever
-        while (true) {
-            boolean allServicesRunning = true;
-            for (GreengrassService service : servicesToTrack) {
-                State state = service.getState();
-
-                // If a service is previously BROKEN, its state might have not been updated yet when this check
-                // executes. Therefore we first check the service state has been updated since merge map occurs.
-                if (service.getStateModTime() > mergeTime && State.BROKEN.equals(state)) {
-                    logger.atWarn(MERGE_CONFIG_EVENT_KEY).kv(SERVICE_NAME_LOG_KEY, service.getName())
-                            .log("merge-config-service BROKEN");
-                    throw new ServiceUpdateException(
-                            String.format("Service %s in broken state after deployment", service.getName()));
-                }
-                if (!service.reachedDesiredState()) {
-                    allServicesRunning = false;
-                    continue;
+        long waitStart = System.currentTimeMillis();
+        Context context = servicesToTrack.stream().map(GreengrassService::getContext).filter(Objects::nonNull)
+                .findFirst().orElse(null);
+        ServiceStateChanges stateChanges = new ServiceStateChanges(new HashSet<>(servicesToTrack));
+        if (context != null) {
+            context.addGlobalStateChangeListener(stateChanges);
+        }
+        try {
+            // Relying on the fact that all service lifecycle steps should have timeouts,
+            // assuming this loop will not get stuck waiting forever
+            while (true) {
+                long changesSeen = stateChanges.getChangeCount();
+                GreengrassService brokenService = stateChanges.getBrokenService();
+                if (brokenService != null) {
+                    throw brokenAfterDeployment(brokenService);
                 }
-                if (State.RUNNING.equals(state) || State.FINISHED.equals(state) || !service.shouldAutoStart()
-                        && service.reachedDesiredState()) {
-                    continue;
+                if (allServicesStarted(servicesToTrack, mergeTime)) {
+                    logger.atInfo(MERGE_CONFIG_EVENT_KEY).kv("waitMillis", System.currentTimeMillis() - waitStart)
+                            .log("merge-config-services-started");
+                    return;
                 }
+                stateChanges.awaitChange(changesSeen, WAIT_SVC_START_POLL_INTERVAL_MILLISEC);
+            }
+        } finally {
+            if (context != null) {
+                context.removeGlobalStateChangeListener(stateChanges);
+            }
+        }
+    }
+
+    private static boolean allServicesStarted(Collection<GreengrassService> servicesToTrack, long mergeTime)
+            throws ServiceUpdateException {
+        boolean allServicesRunning = true;
+        for (GreengrassService service : servicesToTrack) {
+            State state = service.getState();
+
+            // If a service is previously BROKEN, its state might have not been updated yet when this check
+            // executes. Therefore we first check the service state has been updated since merge map occurs.
+            if (service.getStateModTime() > mergeTime && State.BROKEN.equals(state)) {
+                throw brokenAfterDeployment(service);
+            }
+            if (!service.reachedDesiredState()) {
                 allServicesRunning = false;
+                continue;
             }
-            if (allServicesRunning) {
+            if (State.RUNNING.equals(state) || State.FINISHED.equals(state) || !service.shouldAutoStart()
+                    && service.reachedDesiredState()) {
+                continue;
+            }
+            allServicesRunning = false;
+        }
+        return allServicesRunning;
+    }
+
+    private static ServiceUpdateException brokenAfterDeployment(GreengrassService service) {
+        logger.atWarn(MERGE_CONFIG_EVENT_KEY).kv(SERVICE_NAME_LOG_KEY, service.getName())
+                .log("merge-config-service BROKEN");
+        return new ServiceUpdateException(
+                String.format("Service %s in broken state after deployment", service.getName()));
+    }
+
+    /**
+     * Counts state changes of the tracked services and remembers the first one which went BROKEN while waiting.
+     */
+    private static final class ServiceStateChanges implements GlobalStateChangeListener {
+        private final Set<GreengrassService> trackedServices;
+        private final AtomicReference<GreengrassService> brokenService = new AtomicReference<>();
+        private long changeCount;
+
+        ServiceStateChanges(Set<GreengrassService> trackedServices) {
+            this.trackedServices = trackedServices;
+        }
+
+        @Override
+        public void globalServiceStateChanged(GreengrassService service, State oldState, State newState) {
+            if (!trackedServices.contains(service)) {
                 return;
             }
-            Thread.sleep(WAIT_SVC_START_POLL_INTERVAL_MILLISEC); // hardcoded
+            if (State.BROKEN.equals(newState)) {
+                brokenService.compareAndSet(null, service);
+            }
+            synchronized (this) {
+                changeCount++;
+                notifyAll();
+            }
+        }
+
+        GreengrassService getBrokenService() {
+            return brokenService.get();
+        }
+
+        synchronized long getChangeCount() {
+            return changeCount;
+        }
+
+        synchronized void awaitChange(long changesSeen, long timeoutMillis) throws InterruptedException {
+            if (changeCount == changesSeen) {
+                wait(timeoutMillis);
+            }
         }
     }
 
@@ -11,25 +11,95 @@ import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
 
 import java.util.Iterator;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Deployments waiting to be processed by the {@link DeploymentService}. Offering a deployment, including a
+ * cancellation, signals the service so that it picks it up right away instead of on its next poll.
+ *
+ * <p>Deployments are kept in offer order, keyed by their type, id and whether they're a cancellation, so a deployment
+ * which is already queued is ignored without going through the queue. A shadow deployment supersedes the shadow
+ * deployment already queued, if any: the shadow only ever holds the latest desired state of the device, and
+ * ShadowDeploymentListener queues them in the order they were created in the cloud. IoT Jobs and local deployments
+ * are never superseded since each of them has its own status to report.</p>
+ */
 public class DeploymentQueue {
 
     private static final Logger logger = LogManager.getLogger(DeploymentQueue.class);
-    private final ConcurrentLinkedQueue<Deployment> deploymentsQueue = new ConcurrentLinkedQueue();
+    private final Map<Deployment, Queued> deployments = new LinkedHashMap<>();
+    private Queued queuedShadowDeployment;
+    private long supersededCount;
+    private long duplicateCount;
+    private boolean signalled;
 
     /**
      * Add a deployment to the queue.
      *
      * @param deployment deployment
+     * @return true if queued; false if the same deployment is already queued
      */
     public synchronized boolean offer(Deployment deployment) {
-        //For shadow deployment when desired state is reverted, it can result in scheduling a deployment which is
-        // same as
-        if (!DeploymentType.SHADOW.equals(deployment.getDeploymentType()) && deploymentsQueue.contains(deployment)) {
+        if (DeploymentType.SHADOW.equals(deployment.getDeploymentType())) {
+            //For shadow deployment when desired state is reverted, it can result in scheduling a deployment which is
+            // same as one already queued, the latest one wins either way
+            if (queuedShadowDeployment != null) {
+                logger.atInfo().kv("DEPLOYMENT_ID", queuedShadowDeployment.deployment.getId())
+                        .kv("SUPERSEDED_BY", deployment.getId())
+                        .log("Discarding device deployment");
+                deployments.remove(queuedShadowDeployment.deployment);
+                supersededCount++;
+            }
+        } else if (deployments.containsKey(deployment)) {
+            duplicateCount++;
             return false;
         }
-        return deploymentsQueue.offer(deployment);
+        Queued queued = new Queued(deployment, System.nanoTime());
+        deployments.put(deployment, queued);
+        if (DeploymentType.SHADOW.equals(deployment.getDeploymentType())) {
+            queuedShadowDeployment = queued;
+        }
+        signal();
+        return true;
+    }
+
+    /**
+     * Wake up a thread waiting in {@link #await(long)}, or make its next call return right away.
+     */
+    public synchronized void signal() {
+        signalled = true;
+        notifyAll();
+    }
+
+    /**
+     * Wait until a deployment is offered or the queue is signalled, unless that already happened since the last call.
+     *
+     * @param timeoutMillis how long to wait at most
+     * @return true if signalled, false if timed out
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized boolean await(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long remaining = timeoutMillis;
+        while (!signalled && remaining > 0) {
+            wait(remaining);
+            remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        }
+        boolean wasSignalled = signalled;
+        signalled = false;
+        return wasSignalled;
+    }
+
+    /**
+     * Get how long a deployment has been in the queue.
+     *
+     * @param deployment a queued deployment
+     * @return milliseconds since it was offered; -1 if it isn't queued
+     */
+    public synchronized long getQueuedMillis(Deployment deployment) {
+        Queued queued = get(deployment);
+        return queued == null ? -1 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued.offeredAtNanos);
     }
 
     /**
@@ -38,44 +108,78 @@ public class DeploymentQueue {
      * @return deployment
      */
     public synchronized Deployment peek() {
-        Deployment deployment = deploymentsQueue.peek();
-        // Discarding is not done at schedule time because the DeploymentService does not remove the deployments
-        // atomically DeploymentService first peeks and determine if the next deployment is actionable.
-        while (deployment != null && canDeploymentBeDiscarded(deployment)) {
-            logger.atInfo().kv("DEPLOYMENT_ID", deployment.getId())
-                    .kv("DEPLOYMENT_TYPE", deployment.getDeploymentType())
-                    .log("Discarding device deployment");
-            deploymentsQueue.remove();
-            deployment = deploymentsQueue.peek();
-        }
-        return deployment;
+        Iterator<Queued> iterator = deployments.values().iterator();
+        return iterator.hasNext() ? iterator.next().deployment : null;
     }
 
     /**
      * Removed the deployment from the head of the queue.
      */
     public synchronized void remove() {
-        deploymentsQueue.remove();
+        Deployment head = peek();
+        if (head != null) {
+            remove(head);
+        }
     }
 
-    public boolean isEmpty() {
-        return deploymentsQueue.isEmpty();
+    /**
+     * Remove a deployment returned by {@link #peek()}, unless it has been superseded since.
+     *
+     * @param deployment deployment
+     * @return true if it was still queued
+     */
+    @SuppressWarnings("PMD.NullAssignment")
+    public synchronized boolean remove(Deployment deployment) {
+        Queued queued = get(deployment);
+        if (queued == null) {
+            return false;
+        }
+        deployments.remove(deployment);
+        if (queued == queuedShadowDeployment) {
+            queuedShadowDeployment = null;
+        }
+        return true;
     }
 
-    private boolean canDeploymentBeDiscarded(Deployment selectedDeployment) {
-        // If the selected deployment is of type shadow and there is another deployment in the queue
-        // the selected deployment can be discarded. ShadowDeploymentListener ensures that shadow deployments are
-        // queued based on the order in which they are created in the cloud.
-        if (DeploymentType.SHADOW.equals(selectedDeployment.getDeploymentType())) {
-            Iterator<Deployment> iterator = deploymentsQueue.iterator();
-            while (iterator.hasNext()) {
-                Deployment nextDeployment = iterator.next();
-                if (!selectedDeployment.equals(nextDeployment)
-                        && nextDeployment.getDeploymentType().equals(DeploymentType.SHADOW)) {
-                    return true;
-                }
-            }
+    public synchronized boolean isEmpty() {
+        return deployments.isEmpty();
+    }
+
+    public synchronized int size() {
+        return deployments.size();
+    }
+
+    /**
+     * Get how many queued deployments were discarded because a newer one for the same target was offered.
+     *
+     * @return count since startup
+     */
+    public synchronized long getSupersededCount() {
+        return supersededCount;
+    }
+
+    /**
+     * Get how many offered deployments were ignored because they were already queued.
+     *
+     * @return count since startup
+     */
+    public synchronized long getDuplicateCount() {
+        return duplicateCount;
+    }
+
+    private Queued get(Deployment deployment) {
+        Queued queued = deployments.get(deployment);
+        // equal deployments are different ones if they aren't the same instance, e.g. a reverted shadow deployment
+        return queued == null || queued.deployment != deployment ? null : queued;
+    }
+
+    private static final class Queued {
+        private final Deployment deployment;
+        private final long offeredAtNanos;
+
+        Queued(Deployment deployment, long offeredAtNanos) {
+            this.deployment = deployment;
+            this.offeredAtNanos = offeredAtNanos;
         }
-        return false;
     }
 }
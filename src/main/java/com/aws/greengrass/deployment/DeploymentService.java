@@ -38,10 +38,18 @@ import com.aws.greengrass.lifecyclemanager.KernelAlternatives;
 import com.aws.greengrass.lifecyclemanager.UpdateSystemPolicyService;
 import com.aws.greengrass.lifecyclemanager.exceptions.ServiceLoadException;
 import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.telemetry.impl.Metric;
+import com.aws.greengrass.telemetry.impl.MetricFactory;
+import com.aws.greengrass.telemetry.metrics.Histogram;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
 import com.aws.greengrass.util.Coerce;
 import com.aws.greengrass.util.SerializerFactory;
 import com.aws.greengrass.util.Utils;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.vdurmont.semver4j.Semver;
+import com.vdurmont.semver4j.SemverException;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.io.FileUtils;
@@ -53,6 +61,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.time.Duration;
+import java.time.Instant;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -64,6 +73,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -96,9 +106,20 @@ public class DeploymentService extends GreengrassService {
     public static final String DEPLOYMENT_FAILURE_CAUSE_KEY = "deployment-failure-cause";
 
     private static final String DEPLOYMENT_ID_LOG_KEY_NAME = "DeploymentId";
+    private static final String METRIC_NAMESPACE = "DeploymentService";
+    static final String QUEUED_TIME_METRIC_NAME = "DeploymentQueuedTime";
+    static final String CANCELLATION_LATENCY_METRIC_NAME = "CancellationLatency";
+    static final String QUEUED_DEPLOYMENTS_METRIC_NAME = "QueuedDeployments";
+    static final String SUPERSEDED_DEPLOYMENTS_METRIC_NAME = "SupersededDeployments";
+    private static final Histogram QUEUED_TIME = MetricsRegistry.getInstance().histogram("Deployment/QueuedTime");
+    // time from a deployment being taken off the queue to it being finished
+    private static final Histogram PROCESSING_TIME =
+            MetricsRegistry.getInstance().histogram("Deployment/ProcessingTime");
     @Getter
     private final AtomicBoolean receivedShutdown = new AtomicBoolean(false);
     private final AtomicLong pollingFrequency = new AtomicLong();
+    private final MetricFactory mf = new MetricFactory(METRIC_NAMESPACE);
+    private final AtomicLong supersededCountReported = new AtomicLong();
     @Inject
     DeviceConfiguration deviceConfiguration;
     @Inject
@@ -119,6 +140,7 @@ public class DeploymentService extends GreengrassService {
     @Inject
     private Kernel kernel;
     private DeploymentTaskMetadata currentDeploymentTaskMetadata = null;
+    private long currentDeploymentStartNanos;
     @Inject
     private DeploymentQueue deploymentQueue;
     @Inject
@@ -183,25 +205,29 @@ public class DeploymentService extends GreengrassService {
     }
 
     @Override
-    @SuppressWarnings("PMD.AvoidDeeplyNestedIfStmts")
+    @SuppressWarnings({"PMD.AvoidDeeplyNestedIfStmts", "PMD.NcssCount"})
     protected void startup() throws InterruptedException {
         // Reset shutdown signal since we're trying to startup here
         this.receivedShutdown.set(false);
         reportState(State.RUNNING);
 
         while (!receivedShutdown.get()) {
+            // whether anything was done this round, in which case the queue is looked at again right away
+            boolean progressed = false;
             if (currentDeploymentTaskMetadata != null && currentDeploymentTaskMetadata.getDeploymentResultFuture()
                     .isDone()) {
                 finishCurrentDeployment();
+                progressed = true;
             }
-            //Cannot wait on queue because need to listen to queue as well as the currentProcessStatus future.
-            //One thread cannot wait on both. If we want to make this completely event driven then we need to put
-            // the waiting on currentProcessStatus in its own thread. I currently choose to not do this.
+            // Offering a deployment or a cancellation signals the queue, which wakes this loop up right away.
+            // Completion of the current deployment isn't signalled, it's noticed within the polling frequency.
             Deployment deployment = deploymentQueue.peek();
             if (deployment != null) {
                 if (deployment.isCancelled()) {
                     // Handle IoT Jobs cancellation
-                    deploymentQueue.remove();
+                    long queuedMillis = deploymentQueue.getQueuedMillis(deployment);
+                    deploymentQueue.remove(deployment);
+                    progressed = true;
 
                     if (currentDeploymentTaskMetadata != null && currentDeploymentTaskMetadata.getDeploymentType()
                             .equals(deployment.getDeploymentType()) && currentDeploymentTaskMetadata.isCancellable()) {
@@ -210,7 +236,9 @@ public class DeploymentService extends GreengrassService {
                         logger.atInfo().kv(DEPLOYMENT_ID_LOG_KEY_NAME, currentDeploymentTaskMetadata.getDeploymentId())
                                 .log("Canceling current deployment");
                         // Send interrupt signal to the deployment task.
-                        cancelCurrentDeployment();
+                        if (cancelCurrentDeployment()) {
+                            emitLatency(CANCELLATION_LATENCY_METRIC_NAME, queuedMillis);
+                        }
                     } else if (currentDeploymentTaskMetadata != null && !currentDeploymentTaskMetadata
                             .isCancellable()) {
                         // Ignore the cancelling signal if the deployment is NOT cancellable any more.
@@ -225,11 +253,13 @@ public class DeploymentService extends GreengrassService {
                         //deployment and wait till the new device deployment can be picked up.
                         logger.atInfo().kv(DEPLOYMENT_ID_LOG_KEY_NAME, currentDeploymentTaskMetadata.getDeploymentId())
                                 .log("Canceling current device deployment");
-                        cancelCurrentDeployment();
+                        if (cancelCurrentDeployment()) {
+                            emitLatency(CANCELLATION_LATENCY_METRIC_NAME, deploymentQueue.getQueuedMillis(deployment));
+                        }
                     } else if (currentDeploymentTaskMetadata == null) {
                         // Since no in progress deployment, just create a deployment.
-                        deploymentQueue.remove();
-                        createNewDeployment(deployment);
+                        startQueuedDeployment(deployment);
+                        progressed = true;
                     }
                 } else if (DeploymentType.IOT_JOBS.equals(deployment.getDeploymentType())) {
                     // The deployment type is IoT Jobs
@@ -237,28 +267,65 @@ public class DeploymentService extends GreengrassService {
                             .equals(deployment.getId()) && currentDeploymentTaskMetadata.getDeploymentType()
                             .equals(deployment.getDeploymentType())) {
                         // The new deployment is duplicate of current in progress deployment. Ignore the new one.
-                        deploymentQueue.remove();
+                        deploymentQueue.remove(deployment);
+                        progressed = true;
                         logger.atInfo().kv(DEPLOYMENT_ID_LOG_KEY_NAME, deployment.getId())
                                 .log("Skip the duplicated IoT Jobs deployment");
                     } else if (currentDeploymentTaskMetadata == null) {
                         // Since no in progress deployment, just create a new deployment.
-                        deploymentQueue.remove();
-                        createNewDeployment(deployment);
+                        startQueuedDeployment(deployment);
+                        progressed = true;
                     }
                 } else if (DeploymentType.LOCAL.equals(deployment.getDeploymentType())) {
                     // The deployment type is local
                     if (currentDeploymentTaskMetadata == null) {
                         // Since no in progress deployment, just create a new deployment.
-                        deploymentQueue.remove();
-                        createNewDeployment(deployment);
+                        startQueuedDeployment(deployment);
+                        progressed = true;
                     }
                 } else {
                     logger.atError().kv(DEPLOYMENT_ID_LOG_KEY_NAME, deployment.getId())
                             .kv("DeploymentType", deployment.getDeploymentType()).log("Unknown deployment type");
                 }
             }
-            Thread.sleep(pollingFrequency.get());
+            if (!progressed) {
+                deploymentQueue.await(pollingFrequency.get());
+            }
+        }
+    }
+
+    private void startQueuedDeployment(Deployment deployment) {
+        long queuedMillis = deploymentQueue.getQueuedMillis(deployment);
+        if (!deploymentQueue.remove(deployment)) {
+            // superseded by a newer deployment since it was looked at, which is picked up next round
+            return;
         }
+        emitLatency(QUEUED_TIME_METRIC_NAME, queuedMillis);
+        QUEUED_TIME.record(TimeUnit.MILLISECONDS.toMicros(queuedMillis));
+        emitMetric(QUEUED_DEPLOYMENTS_METRIC_NAME, TelemetryUnit.Count, deploymentQueue.size());
+        long superseded = deploymentQueue.getSupersededCount();
+        emitMetric(SUPERSEDED_DEPLOYMENTS_METRIC_NAME, TelemetryUnit.Count,
+                superseded - supersededCountReported.getAndSet(superseded));
+        createNewDeployment(deployment);
+    }
+
+    private void emitLatency(String name, long millis) {
+        if (millis < 0) {
+            // no longer queued
+            return;
+        }
+        emitMetric(name, TelemetryUnit.Milliseconds, millis);
+    }
+
+    private void emitMetric(String name, TelemetryUnit unit, long value) {
+        mf.putMetricData(Metric.builder()
+                .namespace(METRIC_NAMESPACE)
+                .name(name)
+                .unit(unit)
+                .aggregation(TelemetryAggregation.Average)
+                .value(value)
+                .timestamp(Instant.now().toEpochMilli())
+                .build());
     }
 
     private void subscribeToPollingFrequencyAndGet() {
@@ -273,6 +340,9 @@ public class DeploymentService extends GreengrassService {
     @Override
     protected void shutdown() {
         receivedShutdown.set(true);
+        if (deploymentQueue != null) {
+            deploymentQueue.signal();
+        }
         IotJobsHelper iotJobsHelper = context.get(IotJobsHelper.class);
         if (iotJobsHelper != null) {
             iotJobsHelper.unsubscribeFromIotJobsTopics();
@@ -355,6 +425,7 @@ public class DeploymentService extends GreengrassService {
             logger.atInfo().kv(DEPLOYMENT_ID_LOG_KEY_NAME, currentDeploymentTaskMetadata.getDeploymentId())
                     .log("Deployment task is cancelled");
         }
+        PROCESSING_TIME.recordMicrosSince(currentDeploymentStartNanos);
         // Setting this to null to indicate there is not current deployment being processed
         // Did not use optionals over null due to performance
         currentDeploymentTaskMetadata = null;
@@ -402,9 +473,11 @@ public class DeploymentService extends GreengrassService {
      *  - The deployment is already executing the update, so we let it finish
      * For cases when deployment cannot be cancelled customers can figure out what happened through logs
      * because in the case of IoT jobs, a cancelled job does not accept status update
+     *
+     * @return true if the deployment was cancelled by this call
      */
     @SuppressWarnings("PMD.NullAssignment")
-    private void cancelCurrentDeployment() {
+    private boolean cancelCurrentDeployment() {
         if (currentDeploymentTaskMetadata.getDeploymentResultFuture() != null && !currentDeploymentTaskMetadata
                 .getDeploymentResultFuture().isCancelled()) {
             if (currentDeploymentTaskMetadata.getDeploymentResultFuture().isDone() || !currentDeploymentTaskMetadata
@@ -424,6 +497,7 @@ public class DeploymentService extends GreengrassService {
                     }
                     logger.atInfo().kv(DEPLOYMENT_ID_LOG_KEY_NAME, currentDeploymentTaskMetadata.getDeploymentId())
                             .log("Deployment was cancelled");
+                    return true;
                 } else {
                     logger.atInfo().kv(DEPLOYMENT_ID_LOG_KEY_NAME, currentDeploymentTaskMetadata.getDeploymentId())
                             .log("Deployment is in a stage where it cannot be cancelled,"
@@ -431,9 +505,11 @@ public class DeploymentService extends GreengrassService {
                 }
             }
         }
+        return false;
     }
 
     private void createNewDeployment(Deployment deployment) {
+        currentDeploymentStartNanos = System.nanoTime();
         logger.atInfo().kv(DEPLOYMENT_ID_LOG_KEY, deployment.getId())
                 .kv("DeploymentType", deployment.getDeploymentType().toString())
                 .log("Received deployment in the queue");
@@ -486,10 +562,19 @@ public class DeploymentService extends GreengrassService {
 
             if (DeploymentType.LOCAL.equals(deployment.getDeploymentType())) {
                 try {
+                    // versions copied in aren't used by any service yet, a cleanup still running from the previous
+                    // deployment would take them for stale ones
+                    componentManager.stopStaleVersionCleanup();
                     copyRecipesAndArtifacts(deployment);
                 } catch (InvalidRequestException | IOException e) {
                     logger.atError().log("Error copying recipes and artifacts", e);
                     updateDeploymentResultAsFailed(deployment, deploymentTask, false, e);
+                    componentManager.scheduleStaleVersionCleanup();
+                    return;
+                } catch (InterruptedException e) {
+                    logger.atWarn().log("Interrupted while stopping the cleanup of stale versions");
+                    Thread.currentThread().interrupt();
+                    updateDeploymentResultAsFailed(deployment, deploymentTask, false, e);
                     return;
                 }
             }
@@ -562,12 +647,37 @@ public class DeploymentService extends GreengrassService {
                             String.format("Unable to copy artifacts from  %s due to: %s", artifactsDirectoryPath,
                                     e.getMessage()), e);
                 }
+                updateCopiedArtifactsSize(artifactsDirectoryPath);
             }
         } catch (JsonProcessingException e) {
             throw new InvalidRequestException("Unable to parse the deployment request - Invalid JSON", e);
         }
     }
 
+    /**
+     * Measure the artifacts of every component version copied into the component store again, so that the component
+     * store size limit accounts for them.
+     *
+     * @param artifactsDirectoryPath artifacts directory of the local deployment, laid out as name/version/artifact
+     * @throws IOException if the directory can't be listed
+     */
+    private void updateCopiedArtifactsSize(Path artifactsDirectoryPath) throws IOException {
+        try (Stream<Path> components = Files.list(artifactsDirectoryPath)) {
+            for (Path component : components.filter(Files::isDirectory).collect(Collectors.toList())) {
+                try (Stream<Path> versions = Files.list(component)) {
+                    for (Path version : versions.filter(Files::isDirectory).collect(Collectors.toList())) {
+                        try {
+                            componentStore.updateArtifactsSize(new ComponentIdentifier(
+                                    component.getFileName().toString(), new Semver(version.getFileName().toString())));
+                        } catch (SemverException e) {
+                            logger.atWarn().kv("path", version).log("Copied artifacts aren't under a version");
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     private void copyRecipesToComponentStore(Path from) throws IOException {
         try (Stream<Path> files = Files.walk(from)) {
             for (Path r : files.collect(Collectors.toList())) {
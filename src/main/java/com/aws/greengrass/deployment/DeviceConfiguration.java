@@ -113,7 +113,10 @@ public class DeviceConfiguration {
 
     public static final String IOT_ROLE_ALIAS_TOPIC = "iotRoleAlias";
     public static final String COMPONENT_STORE_MAX_SIZE_BYTES = "componentStoreMaxSizeBytes";
+    public static final String COMPONENT_STORE_HIGH_WATER_MARK_PERCENT = "componentStoreHighWaterMarkPercent";
     public static final String DEPLOYMENT_POLLING_FREQUENCY_SECONDS = "deploymentPollingFrequencySeconds";
+    public static final String IPC_EVENT_LOOP_THREADS = "ipcEventLoopThreads";
+    public static final String DOCKER_MAX_CONCURRENT_PULLS = "dockerMaxConcurrentPulls";
     public static final String NUCLEUS_CONFIG_LOGGING_TOPICS = "logging";
     public static final String TELEMETRY_CONFIG_LOGGING_TOPICS = "telemetry";
 
@@ -653,10 +656,22 @@ public class DeviceConfiguration {
         return getTopic(COMPONENT_STORE_MAX_SIZE_BYTES);
     }
 
+    public Topic getComponentStoreHighWaterMarkPercent() {
+        return getTopic(COMPONENT_STORE_HIGH_WATER_MARK_PERCENT);
+    }
+
     public Topic getDeploymentPollingFrequencySeconds() {
         return getTopic(DEPLOYMENT_POLLING_FREQUENCY_SECONDS);
     }
 
+    public Topic getIpcEventLoopThreads() {
+        return getTopic(IPC_EVENT_LOOP_THREADS);
+    }
+
+    public Topic getDockerMaxConcurrentPulls() {
+        return getTopic(DOCKER_MAX_CONCURRENT_PULLS);
+    }
+
     /**
      * Subscribe to all device configuration change.
      *
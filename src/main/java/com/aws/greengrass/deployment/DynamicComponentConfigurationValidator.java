@@ -117,6 +117,10 @@ public class DynamicComponentConfigurationValidator {
                 throw new InvalidConfigFormatException("Services config must be a map");
             }
             Map<String, Object> proposedServiceConfig = (Map) serviceConfig;
+            if (currentServiceConfig.contentEquals(proposedServiceConfig)) {
+                // nothing about the service changes
+                continue;
+            }
 
             if (!willChildTopicChange(proposedServiceConfig, currentServiceConfig, VERSION_CONFIG_KEY,
                     proposedTimestamp) && willChildTopicsChange(proposedServiceConfig, currentServiceConfig,
@@ -152,8 +156,7 @@ public class DynamicComponentConfigurationValidator {
 
     private boolean willNodeChange(Object proposedConfig, Node currentConfig, long proposedTimestamp) {
         return Objects.isNull(currentConfig) ? Objects.nonNull(proposedConfig)
-                : proposedTimestamp > currentConfig.getModtime() && !Objects
-                        .deepEquals(proposedConfig, currentConfig.toPOJO());
+                : proposedTimestamp > currentConfig.getModtime() && !currentConfig.contentEquals(proposedConfig);
     }
 
     private boolean validateOverIpc(Deployment deployment, Set<ComponentToValidate> componentsToValidate,
@@ -68,7 +68,7 @@ public class KernelUpdateDeploymentTask implements DeploymentTask {
                         getDeploymentStatusDetails());
             }
 
-            componentManager.cleanupStaleVersions();
+            componentManager.scheduleStaleVersionCleanup();
             return result;
         } catch (InterruptedException e) {
             logger.atError("deployment-interrupted", e).log();
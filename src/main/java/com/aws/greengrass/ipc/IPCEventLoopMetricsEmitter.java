@@ -0,0 +1,115 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.ipc;
+
+import com.aws.greengrass.telemetry.PeriodicMetricsEmitter;
+import com.aws.greengrass.telemetry.impl.Metric;
+import com.aws.greengrass.telemetry.impl.MetricFactory;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per event loop metrics of the IPC server.
+ *
+ * <p>The event loops are native threads owned by the CRT, so they can't be observed directly. Instead, each loop is
+ * discovered the first time it calls back into the nucleus to authenticate a new connection; after that its CPU time
+ * is read through {@link ThreadMXBean}. Utilization is the CPU time a loop used since the last emission, as a
+ * percentage of the wall clock time which passed.</p>
+ */
+public class IPCEventLoopMetricsEmitter extends PeriodicMetricsEmitter {
+    public static final String NAMESPACE = "IPCEventLoops";
+    private static final int PERCENTAGE_CONVERTER = 100;
+    private static final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final MetricFactory mf = new MetricFactory(NAMESPACE);
+    private final Map<Long, EventLoop> eventLoops = new ConcurrentHashMap<>();
+    private final AtomicInteger eventLoopCount = new AtomicInteger();
+
+    /**
+     * Record a new connection on the calling event loop thread.
+     */
+    public void recordConnection() {
+        Thread current = Thread.currentThread();
+        eventLoops.computeIfAbsent(current.getId(), id -> new EventLoop(id, eventLoopCount.getAndIncrement()))
+                .newConnections.incrementAndGet();
+    }
+
+    /**
+     * Emit IPC event loop metrics.
+     */
+    @Override
+    public void emitMetrics() {
+        for (Metric metric : getMetrics()) {
+            mf.putMetricData(metric);
+        }
+    }
+
+    /**
+     * Retrieve IPC event loop metrics. Connection counts and utilization are since the previous call.
+     *
+     * @return a list of {@link Metric}
+     */
+    @Override
+    public List<Metric> getMetrics() {
+        List<Metric> metricsList = new ArrayList<>();
+        long timestamp = Instant.now().toEpochMilli();
+        long now = System.nanoTime();
+        for (EventLoop loop : eventLoops.values()) {
+            String prefix = "EventLoop" + loop.index;
+            metricsList.add(Metric.builder()
+                    .namespace(NAMESPACE)
+                    .name(prefix + "NewConnections")
+                    .unit(TelemetryUnit.Count)
+                    .aggregation(TelemetryAggregation.Sum)
+                    .value(loop.newConnections.getAndSet(0))
+                    .timestamp(timestamp)
+                    .build());
+
+            long cpu = threadMXBean.getThreadCpuTime(loop.threadId);
+            if (cpu < 0) {
+                // thread is gone or CPU time isn't supported
+                continue;
+            }
+            long cpuDelta = cpu - loop.lastCpuNanos;
+            long wallDelta = now - loop.lastSampleNanos;
+            loop.lastCpuNanos = cpu;
+            loop.lastSampleNanos = now;
+            metricsList.add(Metric.builder()
+                    .namespace(NAMESPACE)
+                    .name(prefix + "Utilization")
+                    .unit(TelemetryUnit.Percent)
+                    .aggregation(TelemetryAggregation.Average)
+                    .value(wallDelta <= 0 ? 0 : (double) cpuDelta * PERCENTAGE_CONVERTER / wallDelta)
+                    .timestamp(timestamp)
+                    .build());
+        }
+        return metricsList;
+    }
+
+    private static class EventLoop {
+        private final long threadId;
+        private final int index;
+        private final AtomicLong newConnections = new AtomicLong();
+        private long lastCpuNanos;
+        private long lastSampleNanos;
+
+        EventLoop(long threadId, int index) {
+            this.threadId = threadId;
+            this.index = index;
+            this.lastCpuNanos = Math.max(0, threadMXBean.getThreadCpuTime(threadId));
+            this.lastSampleNanos = System.nanoTime();
+        }
+    }
+}
@@ -7,11 +7,13 @@ package com.aws.greengrass.ipc;
 
 import com.aws.greengrass.config.Configuration;
 import com.aws.greengrass.config.Topic;
+import com.aws.greengrass.deployment.DeviceConfiguration;
 import com.aws.greengrass.ipc.common.DefaultOperationHandler;
 import com.aws.greengrass.ipc.exceptions.UnauthenticatedException;
 import com.aws.greengrass.lifecyclemanager.Kernel;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.util.Coerce;
 import com.aws.greengrass.util.Utils;
 import com.aws.greengrass.util.platforms.Platform;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -37,6 +39,9 @@ import static com.aws.greengrass.lifecyclemanager.GreengrassService.SETENV_CONFI
 public class IPCEventStreamService implements Startable, Closeable {
     public static final long DEFAULT_STREAM_MESSAGE_TIMEOUT_SECONDS = 5;
     public static final int DEFAULT_PORT_NUMBER = 8033;
+    // Connections are spread over the event loops round-robin by the CRT server bootstrap
+    public static final int DEFAULT_EVENT_LOOP_THREADS =
+            Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
     private static final ObjectMapper OBJECT_MAPPER =
             new ObjectMapper().configure(DeserializationFeature.FAIL_ON_INVALID_SUBTYPE, false)
                     .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -57,6 +62,10 @@ public class IPCEventStreamService implements Startable, Closeable {
 
     private final Configuration config;
 
+    private final DeviceConfiguration deviceConfiguration;
+
+    private final IPCEventLoopMetricsEmitter eventLoopMetrics;
+
     private SocketOptions socketOptions;
     private EventLoopGroup eventLoopGroup;
 
@@ -64,11 +73,15 @@ public class IPCEventStreamService implements Startable, Closeable {
     IPCEventStreamService(Kernel kernel,
                           GreengrassCoreIPCService greengrassCoreIPCService,
                           Configuration config,
-                          AuthenticationHandler authenticationHandler) {
+                          AuthenticationHandler authenticationHandler,
+                          DeviceConfiguration deviceConfiguration,
+                          IPCEventLoopMetricsEmitter eventLoopMetrics) {
         this.kernel = kernel;
         this.greengrassCoreIPCService = greengrassCoreIPCService;
         this.config = config;
         this.authenticationHandler = authenticationHandler;
+        this.deviceConfiguration = deviceConfiguration;
+        this.eventLoopMetrics = eventLoopMetrics;
     }
 
     @SuppressWarnings({"PMD.AvoidCatchingGenericException", "PMD.ExceptionAsFlowControl"})
@@ -89,7 +102,9 @@ public class IPCEventStreamService implements Startable, Closeable {
             socketOptions.connectTimeoutMs = 3000;
             socketOptions.domain = SocketOptions.SocketDomain.LOCAL;
             socketOptions.type = SocketOptions.SocketType.STREAM;
-            eventLoopGroup = new EventLoopGroup(1);
+            int eventLoopThreads = getEventLoopThreads();
+            logger.atDebug().kv("eventLoopThreads", eventLoopThreads).log("Starting IPC event loops");
+            eventLoopGroup = new EventLoopGroup(eventLoopThreads);
 
             Topic kernelUri = config.getRoot().lookup(SETENV_CONFIG_NAMESPACE, NUCLEUS_DOMAIN_SOCKET_FILEPATH);
             kernelUri.withValue(Platform.getInstance().prepareIpcFilepath(rootPath));
@@ -113,6 +128,17 @@ public class IPCEventStreamService implements Startable, Closeable {
         Platform.getInstance().setIpcFilePermissions(rootPath);
     }
 
+    /**
+     * Get the number of IPC event loop threads. The event loop group can't be resized, so changes only take effect
+     * when the nucleus restarts.
+     *
+     * @return number of event loop threads
+     */
+    private int getEventLoopThreads() {
+        int threads = Coerce.toInt(deviceConfiguration.getIpcEventLoopThreads());
+        return threads > 0 ? threads : DEFAULT_EVENT_LOOP_THREADS;
+    }
+
     @SuppressWarnings("PMD.UnusedFormalParameter")
     private Authorization ipcAuthorizationHandler(AuthenticationData authenticationData) {
         // No authorization on service level exist for whole IPC right now so returning ACCEPT for all authenticated
@@ -122,6 +148,8 @@ public class IPCEventStreamService implements Startable, Closeable {
 
     @SuppressWarnings({"PMD.UnusedFormalParameter", "PMD.PreserveStackTrace"})
     private AuthenticationData ipcAuthenticationHandler(byte[] payload) {
+        // Called on the event loop which owns the new connection
+        eventLoopMetrics.recordConnection();
         String authToken = null;
 
         try {
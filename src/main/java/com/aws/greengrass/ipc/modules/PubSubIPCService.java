@@ -8,19 +8,30 @@ package com.aws.greengrass.ipc.modules;
 import com.aws.greengrass.authorization.AuthorizationHandler;
 import com.aws.greengrass.authorization.exceptions.AuthorizationException;
 import com.aws.greengrass.builtin.services.pubsub.PubSubIPCEventStreamAgent;
+import com.aws.greengrass.builtin.services.pubsub.PublishEvent;
 import com.aws.greengrass.dependency.InjectionActions;
 import com.aws.greengrass.ipc.Startable;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
+import com.aws.greengrass.util.SerializerFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import software.amazon.awssdk.aws.greengrass.GreengrassCoreIPCService;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.function.Consumer;
 import javax.inject.Inject;
 
 public class PubSubIPCService implements Startable, InjectionActions {
     public static final String PUB_SUB_SERVICE_NAME = "aws.greengrass.ipc.pubsub";
+    /**
+     * Publishing anything to this topic gets the nucleus to publish a JSON summary of its in-process metrics to
+     * {@link #METRICS_RESPONSE_TOPIC}. Both are authorized like any other local topic.
+     */
+    public static final String METRICS_REQUEST_TOPIC = "$aws/greengrass/nucleus/metrics/get";
+    public static final String METRICS_RESPONSE_TOPIC = METRICS_REQUEST_TOPIC + "/accepted";
     private static final Logger logger = LogManager.getLogger(PubSubIPCService.class);
     @Inject
     private AuthorizationHandler authorizationHandler;
@@ -31,6 +42,8 @@ public class PubSubIPCService implements Startable, InjectionActions {
     @Inject
     private GreengrassCoreIPCService greengrassCoreIPCService;
 
+    private final Consumer<PublishEvent> metricsRequestHandler = this::publishMetrics;
+
     @Override
     public void postInject() {
         List<String> opCodes = new ArrayList<>();
@@ -50,5 +63,15 @@ public class PubSubIPCService implements Startable, InjectionActions {
                 context -> eventStreamAgent.getSubscribeToTopicHandler(context));
         greengrassCoreIPCService.setPublishToTopicHandler(
                 context -> eventStreamAgent.getPublishToTopicHandler(context));
+        eventStreamAgent.subscribe(METRICS_REQUEST_TOPIC, metricsRequestHandler, PUB_SUB_SERVICE_NAME);
+    }
+
+    private void publishMetrics(PublishEvent request) {
+        try {
+            eventStreamAgent.publish(METRICS_RESPONSE_TOPIC, SerializerFactory.getFailSafeJsonObjectMapper()
+                    .writeValueAsBytes(MetricsRegistry.getInstance().snapshot()), PUB_SUB_SERVICE_NAME);
+        } catch (JsonProcessingException e) {
+            logger.atWarn().setCause(e).log("Unable to serialize nucleus metrics");
+        }
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jna;
+
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+import com.sun.jna.ptr.PointerByReference;
+
+/**
+ * Reentrant user and group database functions from the C library. These go through NSS, so they also resolve users
+ * and groups which are not in /etc/passwd or /etc/group (LDAP, SSSD, systemd-homed, ...).
+ */
+@SuppressWarnings({"checkstyle:MethodName", "checkstyle:MemberName", "checkstyle:VisibilityModifier",
+        "PMD.MethodNamingConventions", "PMD.FieldNamingConventions"})
+public interface UnixLibC extends Library {
+    UnixLibC INSTANCE = Native.load("c", UnixLibC.class);
+
+    int ERANGE = 34;
+
+    int getuid();
+
+    int getgid();
+
+    int getpwnam_r(String name, Passwd pwd, Pointer buf, NativeLong buflen, PointerByReference result);
+
+    int getpwuid_r(int uid, Passwd pwd, Pointer buf, NativeLong buflen, PointerByReference result);
+
+    int getgrnam_r(String name, Group grp, Pointer buf, NativeLong buflen, PointerByReference result);
+
+    int getgrgid_r(int gid, Group grp, Pointer buf, NativeLong buflen, PointerByReference result);
+
+    /**
+     * struct passwd. The fields up to pw_gid are the same everywhere; Linux follows them with pw_gecos, pw_dir and
+     * pw_shell while macOS and the BSDs have more fields, so the rest is only reserved with room for the longest.
+     */
+    @Structure.FieldOrder({"pw_name", "pw_passwd", "pw_uid", "pw_gid", "pw_reserved"})
+    class Passwd extends Structure {
+        public String pw_name;
+        public String pw_passwd;
+        public int pw_uid;
+        public int pw_gid;
+        public Pointer[] pw_reserved = new Pointer[8];
+    }
+
+    /**
+     * struct group.
+     */
+    @Structure.FieldOrder({"gr_name", "gr_passwd", "gr_gid", "gr_mem"})
+    class Group extends Structure {
+        public String gr_name;
+        public String gr_passwd;
+        public int gr_gid;
+        public Pointer gr_mem;
+    }
+}
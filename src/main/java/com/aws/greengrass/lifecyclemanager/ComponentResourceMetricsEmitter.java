@@ -0,0 +1,140 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.lifecyclemanager;
+
+import com.aws.greengrass.telemetry.PeriodicMetricsEmitter;
+import com.aws.greengrass.telemetry.impl.Metric;
+import com.aws.greengrass.telemetry.impl.MetricFactory;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import com.aws.greengrass.util.platforms.Platform;
+import com.aws.greengrass.util.platforms.unix.linux.ComponentResourceSampler;
+import com.aws.greengrass.util.platforms.unix.linux.ComponentResourceSampler.ResourceUsage;
+import com.aws.greengrass.util.platforms.unix.linux.LinuxPlatform;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.inject.Inject;
+
+/**
+ * Resources used by each generic external component: CPU utilization, resident memory, threads, and bytes read and
+ * written. Only supported on Linux, see {@link ComponentResourceSampler} for where the values come from.
+ *
+ * <p>Metrics are named after the component, e.g. {@code MyComponent/CpuUsage}. CPU utilization and I/O are since the
+ * previous emission, so the first emission for a component only has its memory and threads.</p>
+ */
+public class ComponentResourceMetricsEmitter extends PeriodicMetricsEmitter {
+    public static final String NAMESPACE = "ComponentResources";
+    private static final int MB_CONVERTER = 1024 * 1024;
+    private static final int PERCENTAGE_CONVERTER = 100;
+    private final Kernel kernel;
+    private final ComponentResourceSampler sampler;
+    private final MetricFactory mf = new MetricFactory(NAMESPACE);
+    private final Map<String, Sample> previousSamples = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param kernel {@link Kernel}
+     */
+    @Inject
+    public ComponentResourceMetricsEmitter(Kernel kernel) {
+        this(kernel, Platform.getInstance() instanceof LinuxPlatform ? new ComponentResourceSampler() : null);
+    }
+
+    ComponentResourceMetricsEmitter(Kernel kernel, ComponentResourceSampler sampler) {
+        super();
+        this.kernel = kernel;
+        this.sampler = sampler;
+    }
+
+    /**
+     * Emit component resource metrics.
+     */
+    @Override
+    public void emitMetrics() {
+        for (Metric metric : getMetrics()) {
+            mf.putMetricData(metric);
+        }
+    }
+
+    /**
+     * Retrieve component resource metrics.
+     *
+     * @return a list of {@link Metric}
+     */
+    @Override
+    public synchronized List<Metric> getMetrics() {
+        List<Metric> metricsList = new ArrayList<>();
+        if (sampler == null) {
+            return metricsList;
+        }
+        Map<String, Collection<Integer>> components = new LinkedHashMap<>();
+        for (GreengrassService service : kernel.orderedDependencies()) {
+            if (service instanceof GenericExternalService) {
+                components.put(service.getServiceName(), ((GenericExternalService) service).getRunningProcessIds());
+            }
+        }
+        long now = System.nanoTime();
+        long timestamp = Instant.now().toEpochMilli();
+        Map<String, ResourceUsage> usages = sampler.sample(components);
+        // forget components which are gone, or they'd be compared against stale totals once back
+        previousSamples.keySet().retainAll(usages.keySet());
+        usages.forEach((component, usage) -> {
+            String prefix = component + "/";
+            metricsList.add(metric(prefix + "MemoryUsage", TelemetryUnit.Megabytes,
+                    (double) usage.getRssBytes() / MB_CONVERTER, timestamp));
+            metricsList.add(metric(prefix + "NumberOfThreads", TelemetryUnit.Count, usage.getThreads(), timestamp));
+
+            Sample previous = previousSamples.put(component, new Sample(now, usage));
+            if (previous == null || now <= previous.nanos) {
+                return;
+            }
+            // totals go down when processes exit, which isn't negative usage
+            long cpuDelta = Math.max(0, usage.getCpuNanos() - previous.usage.getCpuNanos());
+            metricsList.add(metric(prefix + "CpuUsage", TelemetryUnit.Percent,
+                    (double) cpuDelta * PERCENTAGE_CONVERTER / (now - previous.nanos), timestamp));
+            metricsList.add(metric(prefix + "IoRead", TelemetryUnit.Megabytes, TelemetryAggregation.Sum,
+                    (double) Math.max(0, usage.getReadBytes() - previous.usage.getReadBytes()) / MB_CONVERTER,
+                    timestamp));
+            metricsList.add(metric(prefix + "IoWrite", TelemetryUnit.Megabytes, TelemetryAggregation.Sum,
+                    (double) Math.max(0, usage.getWriteBytes() - previous.usage.getWriteBytes()) / MB_CONVERTER,
+                    timestamp));
+        });
+        return metricsList;
+    }
+
+    private static Metric metric(String name, TelemetryUnit unit, double value, long timestamp) {
+        return metric(name, unit, TelemetryAggregation.Average, value, timestamp);
+    }
+
+    private static Metric metric(String name, TelemetryUnit unit, TelemetryAggregation aggregation, double value,
+                                 long timestamp) {
+        return Metric.builder()
+                .namespace(NAMESPACE)
+                .name(name)
+                .unit(unit)
+                .aggregation(aggregation)
+                .value(value)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static class Sample {
+        private final long nanos;
+        private final ResourceUsage usage;
+
+        Sample(long nanos, ResourceUsage usage) {
+            this.nanos = nanos;
+            this.usage = usage;
+        }
+    }
+}
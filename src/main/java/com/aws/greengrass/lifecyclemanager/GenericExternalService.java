@@ -369,6 +369,16 @@ public class GenericExternalService extends GreengrassService {
         }
     }
 
+    /**
+     * Get the IDs of the lifecycle processes of the component which are running.
+     *
+     * @return process IDs
+     */
+    List<Integer> getRunningProcessIds() {
+        return lifecycleProcesses.stream().filter(Exec::isRunning).map(Exec::getPid).filter(pid -> pid > 0)
+                .collect(Collectors.toList());
+    }
+
     /**
      * Pause a running component.
      *
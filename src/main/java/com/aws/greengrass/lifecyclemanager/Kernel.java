@@ -535,7 +535,7 @@ public class Kernel {
         try {
             AtomicReference<Class<?>> classReference = new AtomicReference<>();
             EZPlugins ezPlugins = context.get(EZPlugins.class);
-            ezPlugins.loadPlugin(pluginJar, (sc) -> sc.matchClassesWithAnnotation(ImplementsService.class, (c) -> {
+            ezPlugins.loadPlugin(pluginJar, ImplementsService.class, (c) -> {
                 // Only use the class whose name matches what we want
                 ImplementsService serviceImplementation = c.getAnnotation(ImplementsService.class);
                 if (serviceImplementation.name().equals(name)) {
@@ -547,7 +547,7 @@ public class Kernel {
                     }
                     classReference.set(c);
                 }
-            }));
+            });
             clazz = classReference.get();
         } catch (Throwable e) {
             throw new ServiceLoadException(String.format("Unable to load %s as a plugin", name), e);
@@ -12,6 +12,7 @@ import com.aws.greengrass.config.Topics;
 import com.aws.greengrass.config.UpdateBehaviorTree;
 import com.aws.greengrass.dependency.EZPlugins;
 import com.aws.greengrass.dependency.ImplementsService;
+import com.aws.greengrass.dependency.State;
 import com.aws.greengrass.deployment.DeviceConfiguration;
 import com.aws.greengrass.ipc.IPCEventStreamService;
 import com.aws.greengrass.ipc.Startable;
@@ -31,7 +32,11 @@ import com.aws.greengrass.provisioning.ProvisionContext;
 import com.aws.greengrass.provisioning.ProvisioningConfigUpdateHelper;
 import com.aws.greengrass.provisioning.ProvisioningPluginFactory;
 import com.aws.greengrass.provisioning.exceptions.RetryableProvisioningException;
+import com.aws.greengrass.telemetry.impl.Metric;
+import com.aws.greengrass.telemetry.impl.MetricFactory;
 import com.aws.greengrass.telemetry.impl.config.TelemetryConfig;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
 import com.aws.greengrass.util.CommitableFile;
 import com.aws.greengrass.util.NucleusPaths;
 import com.aws.greengrass.util.RetryUtils;
@@ -45,6 +50,7 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -64,6 +70,8 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -84,6 +92,7 @@ public class KernelLifecycle {
     public static final String MULTIPLE_PROVISIONING_PLUGINS_FOUND_EXCEPTION = "Multiple provisioning plugins found "
             + "[%s]. Greengrass expects only one provisioning plugin";
     public static final String UPDATED_PROVISIONING_MESSAGE = "Updated provisioning configuration";
+    public static final String SHUTDOWN_NAMESPACE = "NucleusShutdown";
 
     private final Kernel kernel;
     private final KernelCommandLine kernelCommandLine;
@@ -102,6 +111,11 @@ public class KernelLifecycle {
     private ConfigurationWriter tlog;
     private GreengrassService mainService;
     private final AtomicBoolean isShutdownInitiated = new AtomicBoolean(false);
+    @Getter
+    private final StartupProfiler startupProfiler = new StartupProfiler();
+    private final MetricFactory shutdownMetricFactory = new MetricFactory(SHUTDOWN_NAMESPACE);
+    private final GlobalStateChangeListener startupListener = this::serviceStateChangedDuringStartup;
+    private String nucleusVersion;
 
     /**
      * Constructor.
@@ -122,22 +136,28 @@ public class KernelLifecycle {
      * Startup the Kernel and all services.
      */
     public void launch() {
-        logger.atInfo("system-start").kv("version",
-                kernel.getContext().get(DeviceConfiguration.class).getNucleusVersion())
+        nucleusVersion = kernel.getContext().get(DeviceConfiguration.class).getNucleusVersion();
+        logger.atInfo("system-start").kv("version", nucleusVersion)
                 .kv("rootPath", nucleusPaths.rootPath())
                 .kv("configPath", nucleusPaths.configPath()).log("Launch Nucleus");
+        // trace the services until main has started
+        kernel.getContext().addGlobalStateChangeListener(startupListener);
 
         // Startup builtin non-services. This is blocking, so it will wait for them to be running.
         // This guarantees that IPC, for example, is running before any user code
         for (Class<? extends Startable> c : startables) {
+            StartupProfiler.Phase phase = startupProfiler.begin("startup" + c.getSimpleName());
             kernel.getContext().get(c).startup();
+            phase.end();
         }
 
+        StartupProfiler.Phase phase = startupProfiler.begin("pluginDiscovery");
         final List<DeviceIdentityInterface> provisioningPlugins = findProvisioningPlugins();
         // Must be called before everything else so that these are available to be
         // referenced by main/dependencies of main
         final Queue<String> autostart = findBuiltInServicesAndPlugins(); //NOPMD
         loadPlugins();
+        phase.end();
         // run the provisioning if device is not provisioned
         if (!kernel.getContext().get(DeviceConfiguration.class).isDeviceConfiguredToTalkToCloud()
                 && !provisioningPlugins.isEmpty()) {
@@ -151,6 +171,7 @@ public class KernelLifecycle {
             executeProvisioningPlugin(provisioningPlugins.get(0));
         }
 
+        phase = startupProfiler.begin("resolveMain");
         mainService = kernel.locateIgnoreError(KernelCommandLine.MAIN_SERVICE_NAME);
 
         autostart.forEach(s -> {
@@ -162,12 +183,28 @@ public class KernelLifecycle {
                 logger.atError().log("Unable to add auto-starting dependency {} to main", s, e);
             }
         });
+        phase.end();
 
+        phase = startupProfiler.begin("writeEffectiveConfig");
         kernel.writeEffectiveConfig();
+        phase.end();
 
         logger.atInfo().setEventType("system-start").addKeyValue("main", kernel.getMain()).log();
+        phase = startupProfiler.begin("startupAllServices");
         startupAllServices();
+        phase.end();
+    }
 
+    private void serviceStateChangedDuringStartup(GreengrassService service, State oldState, State newState) {
+        startupProfiler.serviceStateChanged(service.getName(), newState);
+        if (KernelCommandLine.MAIN_SERVICE_NAME.equals(service.getName())
+                && (State.RUNNING.equals(newState) || State.FINISHED.equals(newState)
+                || State.BROKEN.equals(newState))) {
+            kernel.getContext().removeGlobalStateChangeListener(startupListener);
+            // off the thread notifying state changes, writing the trace may take a moment
+            kernel.getContext().get(ExecutorService.class)
+                    .execute(() -> startupProfiler.complete(nucleusPaths.rootPath(), nucleusVersion));
+        }
     }
 
     @SuppressWarnings("PMD.AvoidCatchingGenericException")
@@ -181,6 +218,7 @@ public class KernelLifecycle {
         executorService.execute(() -> {
             String pluginName = provisioningPlugin.name();
             logger.atInfo().log("Running provisioning plugin: " + pluginName);
+            StartupProfiler.Phase phase = startupProfiler.begin("provisioning");
             Topics pluginConfig = kernel.getConfig()
                     .findTopics(SERVICES_NAMESPACE_TOPIC, pluginName, CONFIGURATION_CONFIG_KEY);
             ProvisionConfiguration provisionConfiguration = null;
@@ -193,6 +231,7 @@ public class KernelLifecycle {
             } catch (Exception e) {
                 logger.atError().setCause(e).log("Caught exception while running provisioning plugin. "
                         + "Moving on to run Greengrass without provisioning");
+                phase.end();
                 return;
             }
 
@@ -200,6 +239,7 @@ public class KernelLifecycle {
                     .getSystemConfiguration(), UpdateBehaviorTree.UpdateBehavior.MERGE);
             provisioningConfigUpdateHelper.updateNucleusConfiguration(provisionConfiguration
                     .getNucleusConfiguration(), UpdateBehaviorTree.UpdateBehavior.MERGE);
+            phase.end();
             logger.atDebug().kv("PluginName", pluginName)
                     .log(UPDATED_PROVISIONING_MESSAGE);
         });
@@ -241,6 +281,7 @@ public class KernelLifecycle {
     }
 
     void initConfigAndTlog() {
+        StartupProfiler.Phase phase = startupProfiler.begin("initConfigAndTlog");
         try {
             Path transactionLogPath = nucleusPaths.configPath().resolve(Kernel.DEFAULT_CONFIG_TLOG_FILE);
             boolean readFromNonTlog = false;
@@ -338,6 +379,7 @@ public class KernelLifecycle {
             // hook tlog to config so that changes over time are persisted to the tlog
             tlog = ConfigurationWriter.logTransactionsTo(kernel.getConfig(), transactionLogPath)
                     .flushImmediately(true).withAutoTruncate(kernel.getContext());
+            phase.end();
         } catch (IOException ioe) {
             logger.atError().setEventType("nucleus-read-config-error").setCause(ioe).log();
             throw new RuntimeException(ioe);
@@ -392,29 +434,43 @@ public class KernelLifecycle {
     }
 
     /**
-     * Shutdown all services in dependency order.
+     * Shutdown all services in reverse dependency order. A service starts stopping once every service which depends on
+     * it, with any type of dependency, has stopped, so that independent branches of the dependency graph stop at the
+     * same time. The time taken is logged and emitted as a {@value #SHUTDOWN_NAMESPACE} metric.
      *
      * @param timeoutSeconds timeout seconds for waiting all services to shutdown. Use -1 to wait infinitely.
      */
-    @SuppressWarnings("PMD.AvoidCatchingThrowable")
     public void stopAllServices(int timeoutSeconds) {
         GreengrassService[] d = kernel.orderedDependencies().toArray(new GreengrassService[0]);
+        long shutdownStartNanos = System.nanoTime();
+
+        // Like a service waiting for its dependers to exit when closed, only hard dependers hold back a dependency
+        Map<GreengrassService, List<GreengrassService>> dependers = new HashMap<>();
+        for (GreengrassService service : d) {
+            for (Map.Entry<GreengrassService, DependencyType> dependency : service.getDependencies().entrySet()) {
+                if (DependencyType.HARD.equals(dependency.getValue())) {
+                    dependers.computeIfAbsent(dependency.getKey(), k -> new ArrayList<>()).add(service);
+                }
+            }
+        }
 
+        // Milliseconds each service took to stop once asked to, -1 until it has stopped
+        AtomicLongArray stopMillis = new AtomicLongArray(d.length);
+        // Whether each service was asked to close, so that it's asked only once
+        AtomicIntegerArray askedToClose = new AtomicIntegerArray(d.length);
+        Map<GreengrassService, CompletableFuture<?>> closeFutures = new HashMap<>();
         CompletableFuture<?>[] arr = new CompletableFuture[d.length];
-        for (int i = d.length - 1; i >= 0; --i) { // shutdown in reverse order
-            String serviceName = d[i].getName();
-            try {
-                arr[i] = d[i].close();
-                arr[i].whenComplete((v, t) -> {
-                    if (t != null) {
-                        logger.atError("service-shutdown-error", t).kv(GreengrassService.SERVICE_NAME_KEY, serviceName)
-                                .log();
-                    }
-                });
-            } catch (Throwable t) {
-                logger.atError("service-shutdown-error", t).kv(GreengrassService.SERVICE_NAME_KEY, serviceName).log();
-                arr[i] = CompletableFuture.completedFuture(Optional.empty());
-            }
+        for (int i = d.length - 1; i >= 0; --i) { // dependers come after their dependencies in the ordered list
+            GreengrassService service = d[i];
+            int index = i;
+            stopMillis.set(index, -1);
+            // Dependers not scheduled yet are only found in a dependency cycle, which is stopped in list order
+            CompletableFuture<?>[] dependersClosed = dependers.getOrDefault(service, Collections.emptyList()).stream()
+                    .map(closeFutures::get).filter(Objects::nonNull).toArray(CompletableFuture[]::new);
+            // Failures of the dependers are already logged, stop the service regardless
+            arr[i] = CompletableFuture.allOf(dependersClosed).handle((v, t) -> null)
+                    .thenCompose(v -> closeService(service, true, askedToClose, stopMillis, index));
+            closeFutures.put(service, arr[i]);
         }
 
         try {
@@ -422,15 +478,70 @@ public class KernelLifecycle {
             logger.atInfo().log("Waiting for services to shutdown");
             if (timeoutSeconds == -1) {
                 combinedFuture.get();
-                return;
+            } else {
+                combinedFuture.get(timeoutSeconds, TimeUnit.SECONDS);
             }
-            combinedFuture.get(timeoutSeconds, TimeUnit.SECONDS);
         } catch (ExecutionException | InterruptedException | TimeoutException e) {
             List<String> unclosedServices =
                     IntStream.range(0, arr.length).filter((i) -> !arr[i].isDone() || arr[i].isCompletedExceptionally())
                             .mapToObj((i) -> d[i].getName()).collect(Collectors.toList());
             logger.atError("services-shutdown-errored", e).kv("unclosedServices", unclosedServices).log();
+            // a service still held back by a depender which didn't stop is at least asked to close, without waiting
+            for (int i = 0; i < d.length; i++) {
+                closeService(d[i], false, askedToClose, stopMillis, i);
+            }
+        }
+        reportShutdownTime(d, stopMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - shutdownStartNanos));
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private CompletableFuture<?> closeService(GreengrassService service, boolean waitForDependers,
+                                              AtomicIntegerArray askedToClose, AtomicLongArray stopMillis, int index) {
+        if (!askedToClose.compareAndSet(index, 0, 1)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        String serviceName = service.getName();
+        long startNanos = System.nanoTime();
+        CompletableFuture<?> closeFuture;
+        try {
+            closeFuture = waitForDependers ? service.close() : service.close(false);
+        } catch (Throwable t) {
+            logger.atError("service-shutdown-error", t).kv(GreengrassService.SERVICE_NAME_KEY, serviceName).log();
+            stopMillis.set(index, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return closeFuture.whenComplete((v, t) -> {
+            stopMillis.set(index, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            if (t != null) {
+                logger.atError("service-shutdown-error", t).kv(GreengrassService.SERVICE_NAME_KEY, serviceName).log();
+            }
+        });
+    }
+
+    private void reportShutdownTime(GreengrassService[] services, AtomicLongArray stopMillis, long shutdownMillis) {
+        int slowest = -1;
+        Map<String, Long> serviceStopMillis = new HashMap<>();
+        for (int i = 0; i < services.length; i++) {
+            long millis = stopMillis.get(i);
+            if (millis >= 0) {
+                serviceStopMillis.put(services[i].getName(), millis);
+                if (slowest == -1 || millis > stopMillis.get(slowest)) {
+                    slowest = i;
+                }
+            }
         }
+        logger.atInfo("services-shutdown-finished").kv("shutdownMillis", shutdownMillis)
+                .kv("slowestService", slowest == -1 ? null : services[slowest].getName())
+                .log("Finished shutting down services");
+        logger.atDebug("services-shutdown-finished").kv("serviceStopMillis", serviceStopMillis).log();
+        shutdownMetricFactory.putMetricData(Metric.builder()
+                .namespace(SHUTDOWN_NAMESPACE)
+                .name("ShutdownTime")
+                .unit(TelemetryUnit.Milliseconds)
+                .aggregation(TelemetryAggregation.Average)
+                .value(shutdownMillis)
+                .timestamp(Instant.now().toEpochMilli())
+                .build());
     }
 
     /**
@@ -0,0 +1,269 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.lifecyclemanager;
+
+import com.aws.greengrass.dependency.State;
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.impl.Metric;
+import com.aws.greengrass.telemetry.impl.MetricFactory;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+import com.aws.greengrass.util.SerializerFactory;
+import com.sun.management.OperatingSystemMXBean;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace of the cold start of the nucleus.
+ *
+ * <p>Records the wall clock and process CPU time of each startup phase, and every state transition of each service
+ * until it's running. Once the nucleus has started, the trace is written as a single line of JSON to
+ * {@value #TRACE_FILE} under the nucleus root, and a summary is emitted as {@value #NAMESPACE} metrics. All times are
+ * relative to the start of the JVM. Completing the trace waits for the phases still open, since services may have
+ * started before the phase starting them ends.</p>
+ */
+public class StartupProfiler {
+    public static final String NAMESPACE = "NucleusStartup";
+    static final String TRACE_FILE = "startup-trace.json";
+    private static final Logger logger = LogManager.getLogger(StartupProfiler.class);
+    private static final String JVM_PHASE = "jvm";
+
+    private final MetricFactory mf = new MetricFactory(NAMESPACE);
+    private final long jvmStartMillis;
+    // nanoTime at the start of the JVM, so that times are measured with the monotonic clock from then on
+    private final long jvmStartNanos;
+    private final List<Map<String, Object>> phases = new ArrayList<>();
+    private final Map<String, List<Map<String, Object>>> services = new LinkedHashMap<>();
+    private boolean completed;
+    private int openPhases;
+    // completion requested while phases were still open, run once the last of them ends
+    private Runnable pendingCompletion;
+
+    /**
+     * Constructor. The time between the start of the JVM and now is recorded as the first phase.
+     */
+    public StartupProfiler() {
+        this(ManagementFactory.getRuntimeMXBean().getStartTime());
+    }
+
+    StartupProfiler(long jvmStartMillis) {
+        this.jvmStartMillis = jvmStartMillis;
+        this.jvmStartNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0, System.currentTimeMillis() - jvmStartMillis));
+        phases.add(entry(JVM_PHASE, 0, elapsedMillis(), processCpuMillis()));
+    }
+
+    /**
+     * Begin timing a startup phase.
+     *
+     * @param name phase name
+     * @return the phase, to {@link Phase#end() end} once done
+     */
+    public Phase begin(String name) {
+        return new Phase(name);
+    }
+
+    /**
+     * Record a state transition of a service, unless it has already started.
+     *
+     * @param serviceName name of the service
+     * @param newState    state it transitioned to
+     */
+    public synchronized void serviceStateChanged(String serviceName, State newState) {
+        if (completed) {
+            return;
+        }
+        List<Map<String, Object>> transitions = services.computeIfAbsent(serviceName, k -> new ArrayList<>());
+        if (!transitions.isEmpty() && isStarted((String) transitions.get(transitions.size() - 1).get("state"))) {
+            return;
+        }
+        Map<String, Object> transition = new LinkedHashMap<>();
+        transition.put("state", newState.toString());
+        transition.put("atMillis", elapsedMillis());
+        transition.put("cpuMillis", processCpuMillis());
+        transitions.add(transition);
+    }
+
+    /**
+     * Complete the trace: write it to the nucleus root and emit the summary. Only the first call does anything. If
+     * phases are still open, the trace is completed once the last of them ends instead.
+     *
+     * @param rootPath       nucleus root
+     * @param nucleusVersion version of the nucleus which started
+     * @return true if the trace was completed by this call
+     */
+    public boolean complete(Path rootPath, String nucleusVersion) {
+        synchronized (this) {
+            if (completed || pendingCompletion != null) {
+                return false;
+            }
+            if (openPhases > 0) {
+                pendingCompletion = () -> completeNow(rootPath, nucleusVersion);
+                return false;
+            }
+        }
+        return completeNow(rootPath, nucleusVersion);
+    }
+
+    private boolean completeNow(Path rootPath, String nucleusVersion) {
+        Map<String, Object> trace = new LinkedHashMap<>();
+        long startupMillis;
+        long cpuMillis;
+        synchronized (this) {
+            if (completed) {
+                return false;
+            }
+            completed = true;
+            startupMillis = elapsedMillis();
+            cpuMillis = processCpuMillis();
+            trace.put("nucleusVersion", nucleusVersion);
+            trace.put("jvmStart", Instant.ofEpochMilli(jvmStartMillis).toString());
+            trace.put("startupMillis", startupMillis);
+            trace.put("cpuMillis", cpuMillis);
+            trace.put("phases", new ArrayList<>(phases));
+            trace.put("services", new LinkedHashMap<>(services));
+        }
+        write(rootPath.resolve(TRACE_FILE), trace);
+        emitSummary(startupMillis, cpuMillis);
+        logger.atInfo("system-start").kv("startupMillis", startupMillis).kv("cpuMillis", cpuMillis)
+                .log("Nucleus started");
+        return true;
+    }
+
+    synchronized List<Map<String, Object>> getPhases() {
+        return new ArrayList<>(phases);
+    }
+
+    synchronized List<Map<String, Object>> getTransitions(String serviceName) {
+        return new ArrayList<>(services.getOrDefault(serviceName, new ArrayList<>()));
+    }
+
+    private void write(Path traceFile, Map<String, Object> trace) {
+        Path temp = traceFile.resolveSibling(TRACE_FILE + ".tmp");
+        try {
+            Files.write(temp, SerializerFactory.getFailSafeJsonObjectMapper().writeValueAsBytes(trace));
+            Files.move(temp, traceFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            logger.atWarn().kv("traceFile", traceFile).setCause(e).log("Unable to write startup trace");
+        }
+    }
+
+    private void emitSummary(long startupMillis, long cpuMillis) {
+        long timestamp = Instant.now().toEpochMilli();
+        emit("StartupTime", startupMillis, timestamp);
+        if (cpuMillis >= 0) {
+            emit("StartupCpuTime", cpuMillis, timestamp);
+        }
+        for (Map<String, Object> phase : getPhases()) {
+            String name = (String) phase.get("name");
+            emit(Character.toUpperCase(name.charAt(0)) + name.substring(1) + "Time", (long) phase.get("wallMillis"),
+                    timestamp);
+        }
+    }
+
+    private void emit(String name, long millis, long timestamp) {
+        mf.putMetricData(Metric.builder()
+                .namespace(NAMESPACE)
+                .name(name)
+                .unit(TelemetryUnit.Milliseconds)
+                .aggregation(TelemetryAggregation.Average)
+                .value(millis)
+                .timestamp(timestamp)
+                .build());
+    }
+
+    private synchronized void opened() {
+        openPhases++;
+    }
+
+    /**
+     * Record a phase which ended.
+     *
+     * @return the completion to run if it was waiting for this phase
+     */
+    private synchronized Runnable record(String name, long startMillis, long wallMillis, long cpuMillis) {
+        if (!completed) {
+            phases.add(entry(name, startMillis, wallMillis, cpuMillis));
+        }
+        openPhases--;
+        if (openPhases > 0) {
+            return null;
+        }
+        Runnable completion = pendingCompletion;
+        pendingCompletion = null;
+        return completion;
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - jvmStartNanos);
+    }
+
+    private static boolean isStarted(String state) {
+        return State.RUNNING.toString().equals(state) || State.FINISHED.toString().equals(state);
+    }
+
+    private static Map<String, Object> entry(String name, long startMillis, long wallMillis, long cpuMillis) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("name", name);
+        entry.put("startMillis", startMillis);
+        entry.put("wallMillis", wallMillis);
+        entry.put("cpuMillis", cpuMillis);
+        return entry;
+    }
+
+    /**
+     * CPU time used by all threads of the process, as phases hand work off to other threads.
+     *
+     * @return CPU time; -1 if it isn't available
+     */
+    private static long processCpuMillis() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof OperatingSystemMXBean) {
+            long nanos = ((OperatingSystemMXBean) os).getProcessCpuTime();
+            return nanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+        return -1;
+    }
+
+    /**
+     * A startup phase being timed.
+     */
+    public final class Phase {
+        private final String name;
+        private final long startMillis;
+        private final long startCpuMillis;
+
+        private Phase(String name) {
+            this.name = name;
+            this.startMillis = elapsedMillis();
+            this.startCpuMillis = processCpuMillis();
+            opened();
+        }
+
+        /**
+         * End the phase and record it, then complete the trace if that was waiting for this phase.
+         */
+        public void end() {
+            long cpuMillis = processCpuMillis();
+            Runnable completion = record(name, startMillis, elapsedMillis() - startMillis,
+                    cpuMillis < 0 || startCpuMillis < 0 ? -1 : cpuMillis - startCpuMillis);
+            if (completion != null) {
+                completion.run();
+            }
+        }
+    }
+}
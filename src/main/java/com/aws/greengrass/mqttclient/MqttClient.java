@@ -127,6 +127,8 @@ public class MqttClient implements Closeable {
 
     private ScheduledExecutorService ses;
     private final AtomicReference<Future<?>> spoolingFuture = new AtomicReference<>();
+    // completed once the spooled QoS 1 message with the id was acknowledged, or failed once it was dropped
+    private final Map<Long, CompletableFuture<Integer>> deliveries = new ConcurrentHashMap<>();
     private int maxInFlightPublishes;
     private static final String reservedTopicTemplate = "^\\$aws/rules/\\S+/\\S+";
     private static final String prefixOfReservedTopic = "^\\$aws/rules/\\S+?/";
@@ -486,8 +488,25 @@ public class MqttClient implements Closeable {
      * Publish to a MQTT topic.
      *
      * @param request publish request
+     * @return future which completes once the message is spooled
      */
     public CompletableFuture<Integer> publish(PublishRequest request) {
+        return publish(request, false);
+    }
+
+    /**
+     * Publish to a MQTT topic and wait for the broker to acknowledge it. Only QoS 1 messages are acknowledged, so for
+     * QoS 0 this is the same as {@link #publish(PublishRequest)}.
+     *
+     * @param request publish request
+     * @return future which completes once the message is delivered, or exceptionally if it isn't spooled, it's
+     *     dropped after running out of retries or the client is closed first
+     */
+    public CompletableFuture<Integer> publishAndAwaitDelivery(PublishRequest request) {
+        return publish(request, true);
+    }
+
+    private CompletableFuture<Integer> publish(PublishRequest request, boolean awaitDelivery) {
         CompletableFuture<Integer> future = new CompletableFuture<>();
 
         if (!deviceConfiguration.isDeviceConfiguredToTalkToCloud()) {
@@ -516,15 +535,22 @@ public class MqttClient implements Closeable {
             return future;
         }
 
+        boolean tracked = awaitDelivery && request.getQos().getValue() > 0;
         try {
-            spool.addMessage(request);
+            if (tracked) {
+                // the spooler may publish it as soon as its id is queued, so the future is registered before that
+                spool.addMessage(request, m -> deliveries.put(m.getId(), future));
+            } else {
+                spool.addMessage(request);
+            }
             triggerSpooler();
         } catch (InterruptedException | SpoolerStoreException e) {
             logger.atDebug().log("Fail to add publish request to spooler queue", e);
+            deliveries.values().remove(future);
             future.completeExceptionally(e);
             return future;
         }
-        return CompletableFuture.completedFuture(0);
+        return tracked ? future : CompletableFuture.completedFuture(0);
     }
 
     protected void isValidPublishRequest(PublishRequest request) throws MqttRequestException {
@@ -587,6 +613,10 @@ public class MqttClient implements Closeable {
                             spool.removeMessageById(finalId);
                             logger.atTrace().kv("id", finalId).kv("topic", request.getTopic())
                                     .log("Successfully published message");
+                            CompletableFuture<Integer> delivery = deliveries.remove(finalId);
+                            if (delivery != null) {
+                                delivery.complete(0);
+                            }
                         } else {
                             if (maxPublishRetryCount == -1 || spooledMessage.getRetried().getAndIncrement()
                                     < maxPublishRetryCount) {
@@ -597,6 +627,10 @@ public class MqttClient implements Closeable {
                                 logger.atError().log("Failed to publish the message via Spooler"
                                                 + " after retried {} times and will drop the message",
                                         maxPublishRetryCount, throwable);
+                                CompletableFuture<Integer> delivery = deliveries.remove(finalId);
+                                if (delivery != null) {
+                                    delivery.completeExceptionally(throwable);
+                                }
                             }
 
                         }
@@ -766,6 +800,15 @@ public class MqttClient implements Closeable {
             spoolingFuture.get().cancel(true);
         }
 
+        // nothing will deliver the messages still awaited anymore
+        for (Long id : deliveries.keySet()) {
+            CompletableFuture<Integer> delivery = deliveries.remove(id);
+            if (delivery != null) {
+                delivery.completeExceptionally(
+                        new SpoolerStoreException("MQTT client closed before the message was delivered"));
+            }
+        }
+
         connections.forEach(AwsIotMqttClient::close);
         proxyTlsOptions.close();
         proxyTlsContext.close();
@@ -11,15 +11,21 @@ import com.aws.greengrass.deployment.DeviceConfiguration;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
 import com.aws.greengrass.mqttclient.PublishRequest;
+import com.aws.greengrass.telemetry.metrics.Histogram;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
 import com.aws.greengrass.util.Coerce;
 
 import java.util.Iterator;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 public class Spool {
     private static final Logger logger = LogManager.getLogger(Spool.class);
+    private static final Histogram ENQUEUE_TIME = MetricsRegistry.getInstance().histogram("Spool/EnqueueTime");
+    // time from a message being spooled to it being removed, once published or dropped
+    private static final Histogram DWELL_TIME = MetricsRegistry.getInstance().histogram("Spool/DwellTime");
     private final DeviceConfiguration deviceConfiguration;
     private final CloudMessageSpool spooler;
 
@@ -47,6 +53,8 @@ public class Spool {
         Topics topics = this.deviceConfiguration.getSpoolerNamespace();
         setSpoolerConfigFromDeviceConfig(topics);
         spooler = setupSpooler();
+        MetricsRegistry.getInstance().gauge("Spool/MessageCount", this, Spool::getCurrentMessageCount);
+        MetricsRegistry.getInstance().gauge("Spool/SizeInBytes", this, Spool::getCurrentSpoolerSize);
         // To subscribe to the topics of spooler configuration
         topics.subscribe((what, node) -> {
             if (WhatHappened.childChanged.equals(what) && node != null) {
@@ -106,8 +114,23 @@ public class Spool {
      * @throws InterruptedException result from the queue implementation
      * @throws SpoolerStoreException  if the message cannot be inserted into the message spool
      */
-    public synchronized SpoolMessage addMessage(PublishRequest request) throws InterruptedException,
-            SpoolerStoreException {
+    public SpoolMessage addMessage(PublishRequest request) throws InterruptedException, SpoolerStoreException {
+        return addMessage(request, null);
+    }
+
+    /**
+     * Spool the given PublishRequest, handing the spooled message to the given callback before its id is queued, so
+     * before the spooler can publish it.
+     *
+     * @param request      publish request
+     * @param beforeQueued called with the spooled message before it is visible to the spooler, may be null
+     * @return SpoolMessage spool message
+     * @throws InterruptedException result from the queue implementation
+     * @throws SpoolerStoreException  if the message cannot be inserted into the message spool
+     */
+    public synchronized SpoolMessage addMessage(PublishRequest request, Consumer<SpoolMessage> beforeQueued)
+            throws InterruptedException, SpoolerStoreException {
+        long startNanos = System.nanoTime();
         int messageSizeInBytes = request.getPayload().length;
         if (messageSizeInBytes > getSpoolConfig().getSpoolSizeInBytes()) {
             throw new SpoolerStoreException("Message is larger than the size of message spool.");
@@ -126,7 +149,11 @@ public class Spool {
         long id = nextId.getAndIncrement();
         SpoolMessage message = SpoolMessage.builder().id(id).request(request).build();
         addMessageToSpooler(id, message);
+        if (beforeQueued != null) {
+            beforeQueued.accept(message);
+        }
         queueOfMessageId.putLast(id);
+        ENQUEUE_TIME.recordMicrosSince(startNanos);
 
         return message;
     }
@@ -169,6 +196,7 @@ public class Spool {
             spooler.removeMessageById(messageId);
             int messageSize = toBeRemovedMessage.getRequest().getPayload().length;
             curMessageQueueSizeInBytes.getAndAdd(-1L * messageSize);
+            DWELL_TIME.recordMicrosSince(toBeRemovedMessage.getSpooledAtNanos());
         }
     }
 
@@ -19,4 +19,6 @@ public class SpoolMessage {
     @Builder.Default @Setter
     private AtomicInteger retried = new AtomicInteger(0);
     private PublishRequest request;
+    @Builder.Default
+    private long spooledAtNanos = System.nanoTime();
 }
@@ -32,6 +32,7 @@ import software.amazon.awssdk.iot.iotjobs.model.JobStatus;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -66,6 +67,7 @@ public class FleetStatusService extends GreengrassService {
     static final String FLEET_STATUS_SEQUENCE_NUMBER_TOPIC = "sequenceNumber";
     static final String FLEET_STATUS_LAST_PERIODIC_UPDATE_TIME_TOPIC = "lastPeriodicUpdateTime";
     private static final int MAX_PAYLOAD_LENGTH_BYTES = 128_000;
+    static final long DEFAULT_STATE_CHANGE_COALESCE_WINDOW_MILLIS = 5_000;
     private final DeviceConfiguration deviceConfiguration;
 
     private String updateTopic;
@@ -89,6 +91,19 @@ public class FleetStatusService extends GreengrassService {
     @Getter(AccessLevel.PACKAGE) // Needed for unit tests.
     private int periodicPublishIntervalSec;
     private ScheduledFuture<?> periodicUpdateFuture;
+    // Uploads triggered by a component breaking are debounced: the first one in a window is sent right away, and the
+    // ones after it are coalesced into a single upload at the end of the window.
+    @Setter(AccessLevel.PACKAGE) // Needed for unit tests.
+    private long stateChangeCoalesceWindowMillis = DEFAULT_STATE_CHANGE_COALESCE_WINDOW_MILLIS;
+    private final Object stateChangeUploadLock = new Object();
+    private boolean stateChangeUploaded;
+    private long lastStateChangeUploadNanos;
+    private ScheduledFuture<?> pendingStateChangeUpload;
+    // What the cloud last acknowledged receiving, so that state change uploads only carry what changed since
+    private final Object acknowledgedLock = new Object();
+    private final Map<String, ComponentStatusDetails> acknowledgedComponentStatus = new HashMap<>();
+    private OverallStatus acknowledgedOverallStatus;
+    private long acknowledgedSequenceNumber = -1;
 
     @Getter
     public MqttClientConnectionEvents callbacks = new MqttClientConnectionEvents() {
@@ -141,6 +156,7 @@ public class FleetStatusService extends GreengrassService {
         this.deploymentStatusKeeper = deploymentStatusKeeper;
         this.kernel = kernel;
         this.publisher = new MqttChunkedPayloadPublisher<>(this.mqttClient);
+        this.publisher.setAwaitDelivery(true);
         this.architecture = platformResolver.getCurrentPlatform()
                 .getOrDefault(PlatformResolver.ARCHITECTURE_KEY, PlatformResolver.UNKNOWN_KEYWORD);
         this.periodicPublishIntervalSec = TestFeatureParameters.retrieveWithDefault(Double.class,
@@ -257,7 +273,38 @@ public class FleetStatusService extends GreengrassService {
 
         // if there is no ongoing deployment and we encounter a BROKEN component, update the fleet status as UNHEALTHY.
         if (!isDeploymentInProgress.get() && newState.equals(State.BROKEN)) {
-            uploadFleetStatusServiceData(updatedGreengrassServiceSet, OverallStatus.UNHEALTHY, null);
+            requestStateChangeUpload();
+        }
+    }
+
+    private void requestStateChangeUpload() {
+        synchronized (stateChangeUploadLock) {
+            if (pendingStateChangeUpload != null) {
+                // the upload already scheduled picks this change up
+                return;
+            }
+            long sinceLastUploadMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastStateChangeUploadNanos);
+            if (stateChangeUploaded && sinceLastUploadMillis < stateChangeCoalesceWindowMillis) {
+                ScheduledExecutorService ses = getContext().get(ScheduledExecutorService.class);
+                pendingStateChangeUpload = ses.schedule(this::uploadCoalescedStateChanges,
+                        stateChangeCoalesceWindowMillis - sinceLastUploadMillis, TimeUnit.MILLISECONDS);
+                return;
+            }
+            stateChangeUploaded = true;
+            lastStateChangeUploadNanos = System.nanoTime();
+        }
+        uploadFleetStatusServiceData(updatedGreengrassServiceSet, OverallStatus.UNHEALTHY, null, true);
+    }
+
+    @SuppressWarnings("PMD.NullAssignment")
+    private void uploadCoalescedStateChanges() {
+        synchronized (stateChangeUploadLock) {
+            pendingStateChangeUpload = null;
+            lastStateChangeUploadNanos = System.nanoTime();
+        }
+        // a deployment which started since reports the status once it's done
+        if (!isDeploymentInProgress.get()) {
+            uploadFleetStatusServiceData(updatedGreengrassServiceSet, OverallStatus.UNHEALTHY, null, true);
         }
     }
 
@@ -290,7 +337,7 @@ public class FleetStatusService extends GreengrassService {
             greengrassServiceSet.add(greengrassService);
             overAllStatus.set(getOverallStatusBasedOnServiceState(overAllStatus.get(), greengrassService));
         });
-        uploadFleetStatusServiceData(greengrassServiceSet, overAllStatus.get(), null);
+        uploadFleetStatusServiceData(greengrassServiceSet, overAllStatus.get(), null, false);
     }
 
     private Boolean deploymentStatusChanged(Map<String, Object> deploymentDetails) {
@@ -345,13 +392,23 @@ public class FleetStatusService extends GreengrassService {
         });
         removedDependenciesSet.forEach(serviceFssTracksMap::remove);
         removedDependenciesSet.clear();
-        uploadFleetStatusServiceData(updatedGreengrassServiceSet, overAllStatus.get(), deploymentInformation);
+        uploadFleetStatusServiceData(updatedGreengrassServiceSet, overAllStatus.get(), deploymentInformation, false);
         isEventTriggeredUpdateInProgress.set(false);
     }
 
+    /**
+     * Upload the status of services.
+     *
+     * @param greengrassServiceSet  services to upload the status of, cleared once uploaded
+     * @param overAllStatus         overall status of the device
+     * @param deploymentInformation deployment the upload is for, if any
+     * @param changesOnly           whether to leave out components whose status the cloud already acknowledged, and
+     *                              skip the upload if nothing changed
+     */
     private void uploadFleetStatusServiceData(Set<GreengrassService> greengrassServiceSet,
                                               OverallStatus overAllStatus,
-                                              DeploymentInformation deploymentInformation) {
+                                              DeploymentInformation deploymentInformation,
+                                              boolean changesOnly) {
         if (!isConnected.get()) {
             logger.atDebug().log("Not updating fleet status data since MQTT connection is interrupted.");
             return;
@@ -439,6 +496,10 @@ public class FleetStatusService extends GreengrassService {
                 components.add(componentStatusDetails);
             });
             greengrassServiceSet.clear();
+            if (changesOnly && !removeAcknowledged(components, overAllStatus)) {
+                logger.atDebug().log("Not updating fleet status data since nothing changed since it was acknowledged");
+                return;
+            }
             Topic sequenceNumberTopic = getSequenceNumberTopic();
             sequenceNumber = Coerce.toLong(sequenceNumberTopic);
             sequenceNumberTopic.withValue(sequenceNumber + 1);
@@ -454,10 +515,37 @@ public class FleetStatusService extends GreengrassService {
                 .deploymentInformation(deploymentInformation)
                 .build();
 
-        publisher.publish(fleetStatusDetails, components);
+        // only once the broker acknowledged every chunk, until then the components stay in later uploads
+        publisher.publish(fleetStatusDetails, components)
+                .thenRun(() -> acknowledged(sequenceNumber, overAllStatus, components));
         logger.atInfo().event("fss-status-update-published").log("Status update published to FSS");
     }
 
+    /**
+     * Remove the components whose status is the same as the cloud last acknowledged.
+     *
+     * @return true if there's anything left to upload
+     */
+    private boolean removeAcknowledged(List<ComponentStatusDetails> components, OverallStatus overAllStatus) {
+        synchronized (acknowledgedLock) {
+            components.removeIf(c -> c.equals(acknowledgedComponentStatus.get(c.getComponentName())));
+            return !components.isEmpty() || !overAllStatus.equals(acknowledgedOverallStatus);
+        }
+    }
+
+    private void acknowledged(long sequenceNumber, OverallStatus overAllStatus,
+                              List<ComponentStatusDetails> components) {
+        synchronized (acknowledgedLock) {
+            // an upload acknowledged after a later one is out of date
+            if (sequenceNumber < acknowledgedSequenceNumber) {
+                return;
+            }
+            acknowledgedSequenceNumber = sequenceNumber;
+            acknowledgedOverallStatus = overAllStatus;
+            components.forEach(c -> acknowledgedComponentStatus.put(c.getComponentName(), c));
+        }
+    }
+
     private Topic getSequenceNumberTopic() {
         return config.lookup(FLEET_STATUS_SEQUENCE_NUMBER_TOPIC);
     }
@@ -506,6 +594,11 @@ public class FleetStatusService extends GreengrassService {
         if (this.periodicUpdateFuture != null && !this.periodicUpdateFuture.isCancelled()) {
             this.periodicUpdateFuture.cancel(true);
         }
+        synchronized (stateChangeUploadLock) {
+            if (pendingStateChangeUpload != null) {
+                pendingStateChangeUpload.cancel(false);
+            }
+        }
         TestFeatureParameters.unRegisterHandlerCallback(this.getName());
     }
 
@@ -0,0 +1,97 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry;
+
+import com.aws.greengrass.telemetry.impl.Metric;
+import com.aws.greengrass.telemetry.impl.MetricFactory;
+import com.aws.greengrass.telemetry.metrics.Histogram;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
+import com.aws.greengrass.telemetry.models.TelemetryAggregation;
+import com.aws.greengrass.telemetry.models.TelemetryUnit;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Emits the metrics of the {@link MetricsRegistry}. Counters and histograms are emitted as what changed since the
+ * previous emission: a histogram as its count, 50th and 99th percentiles and maximum, in milliseconds as histograms
+ * are recorded in microseconds.
+ */
+public class MetricsRegistryEmitter extends PeriodicMetricsEmitter {
+    public static final String NAMESPACE = "NucleusMetrics";
+    private static final double MICROS_PER_MILLI = 1000;
+    private final MetricsRegistry registry;
+    private final MetricFactory mf = new MetricFactory(NAMESPACE);
+    private final Map<String, Long> previousCounters = new HashMap<>();
+    private final Map<String, Histogram.Snapshot> previousHistograms = new HashMap<>();
+
+    public MetricsRegistryEmitter() {
+        this(MetricsRegistry.getInstance());
+    }
+
+    MetricsRegistryEmitter(MetricsRegistry registry) {
+        super();
+        this.registry = registry;
+    }
+
+    /**
+     * Emit the registry metrics.
+     */
+    @Override
+    public void emitMetrics() {
+        for (Metric metric : getMetrics()) {
+            mf.putMetricData(metric);
+        }
+    }
+
+    /**
+     * Retrieve the registry metrics.
+     *
+     * @return a list of {@link Metric}
+     */
+    @Override
+    public synchronized List<Metric> getMetrics() {
+        List<Metric> metricsList = new ArrayList<>();
+        long timestamp = Instant.now().toEpochMilli();
+        registry.getCounterValues().forEach((name, value) -> {
+            Long previous = previousCounters.put(name, value);
+            metricsList.add(metric(name, TelemetryUnit.Count, TelemetryAggregation.Sum,
+                    value - (previous == null ? 0 : previous), timestamp));
+        });
+        registry.getGaugeValues().forEach((name, value) -> metricsList.add(
+                metric(name, TelemetryUnit.Count, TelemetryAggregation.Average, value, timestamp)));
+        registry.getHistogramSnapshots().forEach((name, snapshot) -> {
+            Histogram.Snapshot delta = snapshot.since(previousHistograms.put(name, snapshot));
+            metricsList.add(metric(name + "/Count", TelemetryUnit.Count, TelemetryAggregation.Sum, delta.getCount(),
+                    timestamp));
+            if (delta.getCount() == 0) {
+                return;
+            }
+            metricsList.add(metric(name + "/P50", TelemetryUnit.Milliseconds, TelemetryAggregation.Average,
+                    delta.getValueAtPercentile(50) / MICROS_PER_MILLI, timestamp));
+            metricsList.add(metric(name + "/P99", TelemetryUnit.Milliseconds, TelemetryAggregation.Average,
+                    delta.getValueAtPercentile(99) / MICROS_PER_MILLI, timestamp));
+            metricsList.add(metric(name + "/Max", TelemetryUnit.Milliseconds, TelemetryAggregation.Maximum,
+                    delta.getMax() / MICROS_PER_MILLI, timestamp));
+        });
+        return metricsList;
+    }
+
+    private static Metric metric(String name, TelemetryUnit unit, TelemetryAggregation aggregation, double value,
+                                 long timestamp) {
+        return Metric.builder()
+                .namespace(NAMESPACE)
+                .name(name)
+                .unit(unit)
+                .aggregation(aggregation)
+                .value(value)
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -9,6 +9,8 @@ import com.aws.greengrass.config.Topic;
 import com.aws.greengrass.config.Topics;
 import com.aws.greengrass.dependency.ImplementsService;
 import com.aws.greengrass.deployment.DeviceConfiguration;
+import com.aws.greengrass.ipc.IPCEventLoopMetricsEmitter;
+import com.aws.greengrass.lifecyclemanager.ComponentResourceMetricsEmitter;
 import com.aws.greengrass.lifecyclemanager.GreengrassService;
 import com.aws.greengrass.lifecyclemanager.KernelMetricsEmitter;
 import com.aws.greengrass.mqttclient.MqttClient;
@@ -23,6 +25,7 @@ import software.amazon.awssdk.crt.mqtt.MqttClientConnectionEvents;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
@@ -90,14 +93,59 @@ public class TelemetryAgent extends GreengrassService {
      * @param ma                  {@link MetricsAggregator}
      * @param sme                 {@link SystemMetricsEmitter}
      * @param kme                 {@link KernelMetricsEmitter}
+     * @param ieme                {@link IPCEventLoopMetricsEmitter}
+     * @param crme                {@link ComponentResourceMetricsEmitter}
      * @param ses                 {@link ScheduledExecutorService}
      * @param executorService     {@link ExecutorService}
      */
     @Inject
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public TelemetryAgent(Topics topics, MqttClient mqttClient, DeviceConfiguration deviceConfiguration,
+                          MetricsAggregator ma, SystemMetricsEmitter sme, KernelMetricsEmitter kme,
+                          IPCEventLoopMetricsEmitter ieme, ComponentResourceMetricsEmitter crme,
+                          ScheduledExecutorService ses, ExecutorService executorService) {
+        this(topics, mqttClient, deviceConfiguration, ma, Arrays.asList(sme, kme, ieme, crme), ses, executorService,
+                DEFAULT_PERIODIC_PUBLISH_INTERVAL_SEC, DEFAULT_PERIODIC_AGGREGATE_INTERVAL_SEC);
+    }
+
+    /**
+     * Constructor for the class.
+     *
+     * @param topics              root configuration topic for this service
+     * @param mqttClient          {@link MqttClient}
+     * @param deviceConfiguration {@link DeviceConfiguration}
+     * @param ma                  {@link MetricsAggregator}
+     * @param sme                 {@link SystemMetricsEmitter}
+     * @param kme                 {@link KernelMetricsEmitter}
+     * @param ieme                {@link IPCEventLoopMetricsEmitter}
+     * @param ses                 {@link ScheduledExecutorService}
+     * @param executorService     {@link ExecutorService}
+     */
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    public TelemetryAgent(Topics topics, MqttClient mqttClient, DeviceConfiguration deviceConfiguration,
+                          MetricsAggregator ma, SystemMetricsEmitter sme, KernelMetricsEmitter kme,
+                          IPCEventLoopMetricsEmitter ieme, ScheduledExecutorService ses,
+                          ExecutorService executorService) {
+        this(topics, mqttClient, deviceConfiguration, ma, Arrays.asList(sme, kme, ieme), ses, executorService,
+                DEFAULT_PERIODIC_PUBLISH_INTERVAL_SEC, DEFAULT_PERIODIC_AGGREGATE_INTERVAL_SEC);
+    }
+
+    /**
+     * Constructor for the class.
+     *
+     * @param topics              root configuration topic for this service
+     * @param mqttClient          {@link MqttClient}
+     * @param deviceConfiguration {@link DeviceConfiguration}
+     * @param ma                  {@link MetricsAggregator}
+     * @param sme                 {@link SystemMetricsEmitter}
+     * @param kme                 {@link KernelMetricsEmitter}
+     * @param ses                 {@link ScheduledExecutorService}
+     * @param executorService     {@link ExecutorService}
+     */
     public TelemetryAgent(Topics topics, MqttClient mqttClient, DeviceConfiguration deviceConfiguration,
                           MetricsAggregator ma, SystemMetricsEmitter sme, KernelMetricsEmitter kme,
                           ScheduledExecutorService ses, ExecutorService executorService) {
-        this(topics, mqttClient, deviceConfiguration, ma, sme, kme, ses, executorService,
+        this(topics, mqttClient, deviceConfiguration, ma, Arrays.asList(sme, kme), ses, executorService,
                 DEFAULT_PERIODIC_PUBLISH_INTERVAL_SEC, DEFAULT_PERIODIC_AGGREGATE_INTERVAL_SEC);
     }
 
@@ -120,6 +168,15 @@ public class TelemetryAgent extends GreengrassService {
                    MetricsAggregator ma, SystemMetricsEmitter sme, KernelMetricsEmitter kme,
                    ScheduledExecutorService ses, ExecutorService executorService, int periodicPublishMetricsIntervalSec,
                    int periodicAggregateMetricsIntervalSec) {
+        this(topics, mqttClient, deviceConfiguration, ma, Arrays.asList(sme, kme), ses, executorService,
+                periodicPublishMetricsIntervalSec, periodicAggregateMetricsIntervalSec);
+    }
+
+    @SuppressWarnings("PMD.ExcessiveParameterList")
+    private TelemetryAgent(Topics topics, MqttClient mqttClient, DeviceConfiguration deviceConfiguration,
+                           MetricsAggregator ma, List<PeriodicMetricsEmitter> emitters, ScheduledExecutorService ses,
+                           ExecutorService executorService, int periodicPublishMetricsIntervalSec,
+                           int periodicAggregateMetricsIntervalSec) {
         super(topics);
         this.mqttClient = mqttClient;
         this.publisher = new MqttChunkedPayloadPublisher<>(this.mqttClient);
@@ -137,8 +194,9 @@ public class TelemetryAgent extends GreengrassService {
                 .periodicAggregateMetricsIntervalSeconds(finalPeriodicAggregateMetricsIntervalSec)
                 .periodicPublishMetricsIntervalSeconds(finalPeriodicPublishMetricsIntervalSec)
                 .build());
-        periodicMetricsEmitters.add(sme);
-        periodicMetricsEmitters.add(kme);
+        periodicMetricsEmitters.addAll(emitters);
+        // the in-process registry is a singleton which every nucleus has, so it isn't injected
+        periodicMetricsEmitters.add(new MetricsRegistryEmitter());
         getPeriodicAggregateTimeTopic();
         getPeriodicPublishTimeTopic();
         schedulePeriodicAggregateMetrics(false);
@@ -0,0 +1,181 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.metrics;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of non-negative values, typically latencies in microseconds.
+ *
+ * <p>Buckets are laid out like HDR histograms: values below 32 have a bucket each, and every power of two above is
+ * split into 16 buckets, so a value is known within 1/16th of itself whatever its magnitude, with a fixed 7.5KB of
+ * counters. Recording is a few atomic increments, with no allocation and no lock, so it's cheap enough for hot paths
+ * whether or not anything reads the histogram.</p>
+ */
+public final class Histogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_BUCKETS = SUB_BUCKETS * 2;
+    // exponent of the first power of two which is split into sub buckets
+    private static final int FIRST_EXPONENT = Long.SIZE - 1 - Long.numberOfLeadingZeros(LINEAR_BUCKETS);
+    static final int BUCKETS = LINEAR_BUCKETS + (Long.SIZE - 1 - FIRST_EXPONENT) * SUB_BUCKETS;
+
+    @Getter
+    private final String name;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record a value. Negative values are recorded as 0.
+     *
+     * @param value value
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(bucketOf(v));
+        count.increment();
+        sum.add(v);
+        long currentMax = max.get();
+        while (v > currentMax && !max.compareAndSet(currentMax, v)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Record the microseconds elapsed since a time.
+     *
+     * @param startNanos {@link System#nanoTime()} at the start
+     */
+    public void recordMicrosSince(long startNanos) {
+        record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Take a snapshot of the values recorded so far. Values recorded while the snapshot is taken may only be partly
+     * in it, which is fine for monitoring.
+     *
+     * @return snapshot
+     */
+    public Snapshot snapshot() {
+        long[] snapshotCounts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshotCounts[i] = counts.get(i);
+        }
+        return new Snapshot(snapshotCounts, count.sum(), sum.sum(), max.get());
+    }
+
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (exponent - FIRST_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Highest value which falls in a bucket.
+     *
+     * @param bucket bucket index
+     * @return highest value of the bucket
+     */
+    static long highestValueOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = FIRST_EXPONENT + (bucket - LINEAR_BUCKETS) / SUB_BUCKETS;
+        long subBucket = SUB_BUCKETS + (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return (subBucket << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Values of a histogram at some point.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        @Getter
+        private final long count;
+        @Getter
+        private final long sum;
+        // highest value recorded, only exact for snapshots taken from the histogram itself
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * Values recorded since an earlier snapshot of the same histogram.
+         *
+         * @param previous earlier snapshot; null for all values
+         * @return snapshot of the difference
+         */
+        public Snapshot since(Snapshot previous) {
+            if (previous == null) {
+                return this;
+            }
+            long[] deltaCounts = new long[BUCKETS];
+            int highest = -1;
+            for (int i = 0; i < BUCKETS; i++) {
+                deltaCounts[i] = Math.max(0, counts[i] - previous.counts[i]);
+                if (deltaCounts[i] > 0) {
+                    highest = i;
+                }
+            }
+            long deltaMax = highest < 0 ? 0 : Math.min(max, highestValueOf(highest));
+            return new Snapshot(deltaCounts, Math.max(0, count - previous.count), Math.max(0, sum - previous.sum),
+                    deltaMax);
+        }
+
+        /**
+         * Get a percentile, as the highest value of the bucket it falls in.
+         *
+         * @param percentile percentile between 0 and 100
+         * @return value; 0 if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(max, highestValueOf(i));
+                }
+            }
+            return max;
+        }
+
+        public long getMax() {
+            return count == 0 ? 0 : max;
+        }
+
+        public double getMean() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+}
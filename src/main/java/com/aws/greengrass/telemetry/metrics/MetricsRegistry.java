@@ -0,0 +1,151 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.metrics;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * In-process registry of counters, gauges and histograms of the nucleus hot paths.
+ *
+ * <p>Unlike metrics emitted through {@link com.aws.greengrass.telemetry.impl.MetricFactory}, which are written out as
+ * log lines when they happen, these are only kept in memory and read when something asks for them: periodically by the
+ * telemetry agent, or on demand through the local metrics query. Callers look their metric up once and keep it, after
+ * which updating it is lock-free. Gauges cost nothing until they are read.</p>
+ */
+public final class MetricsRegistry {
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Gauge<?>> gauges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get a counter, creating it if needed.
+     *
+     * @param name counter name
+     * @return counter
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Get a histogram, creating it if needed.
+     *
+     * @param name histogram name
+     * @return histogram
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, Histogram::new);
+    }
+
+    /**
+     * Register a gauge, replacing any gauge of the same name. The gauge only keeps a weak reference to its target, and
+     * is dropped once the target is garbage collected.
+     *
+     * @param name   gauge name
+     * @param target object the value is read from
+     * @param value  function reading the value
+     * @param <T>    type of the target
+     */
+    public <T> void gauge(String name, T target, ToLongFunction<T> value) {
+        gauges.put(name, new Gauge<>(target, value));
+    }
+
+    /**
+     * Read the current value of every counter.
+     *
+     * @return values by name
+     */
+    public Map<String, Long> getCounterValues() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.get()));
+        return values;
+    }
+
+    /**
+     * Read the current value of every gauge.
+     *
+     * @return values by name
+     */
+    public Map<String, Long> getGaugeValues() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            Long value = gauge.read();
+            if (value == null) {
+                gauges.remove(name, gauge);
+            } else {
+                values.put(name, value);
+            }
+        });
+        return values;
+    }
+
+    /**
+     * Take a snapshot of every histogram.
+     *
+     * @return snapshots by name
+     */
+    public Map<String, Histogram.Snapshot> getHistogramSnapshots() {
+        Map<String, Histogram.Snapshot> snapshots = new TreeMap<>();
+        histograms.forEach((name, histogram) -> snapshots.put(name, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * Summary of every metric, suitable for serializing as JSON. Histogram values are in the unit they were recorded
+     * in.
+     *
+     * @return counters, gauges and histograms by name
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> histogramSummaries = new TreeMap<>();
+        getHistogramSnapshots().forEach((name, snapshot) -> {
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("count", snapshot.getCount());
+            summary.put("mean", snapshot.getMean());
+            summary.put("p50", snapshot.getValueAtPercentile(50));
+            summary.put("p90", snapshot.getValueAtPercentile(90));
+            summary.put("p99", snapshot.getValueAtPercentile(99));
+            summary.put("max", snapshot.getMax());
+            histogramSummaries.put(name, summary);
+        });
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("counters", getCounterValues());
+        snapshot.put("gauges", getGaugeValues());
+        snapshot.put("histograms", Collections.unmodifiableMap(histogramSummaries));
+        return snapshot;
+    }
+
+    private static final class Gauge<T> {
+        private final WeakReference<T> target;
+        private final ToLongFunction<T> value;
+
+        Gauge(T target, ToLongFunction<T> value) {
+            this.target = new WeakReference<>(target);
+            this.value = value;
+        }
+
+        Long read() {
+            T t = target.get();
+            return t == null ? null : value.applyAsLong(t);
+        }
+    }
+}
@@ -16,6 +16,9 @@ import com.aws.greengrass.ipc.AuthenticationHandler;
 import com.aws.greengrass.ipc.exceptions.UnauthenticatedException;
 import com.aws.greengrass.logging.api.Logger;
 import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.metrics.Counter;
+import com.aws.greengrass.telemetry.metrics.Histogram;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
 import com.aws.greengrass.util.DefaultConcurrentHashMap;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -37,6 +40,12 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import javax.inject.Inject;
 
@@ -63,6 +72,19 @@ public class CredentialRequestHandler implements HttpHandler {
     public static final int CLOUD_4XX_ERROR_CACHE_IN_MIN = 2;
     public static final int CLOUD_5XX_ERROR_CACHE_IN_MIN = 1;
     public static final int UNKNOWN_ERROR_CACHE_IN_MIN = 5;
+    static final Duration REFRESH_RETRY_INTERVAL = Duration.ofMinutes(1);
+    private static final double REFRESH_MIN_LIFETIME_FRACTION = 0.7;
+    private static final double REFRESH_MAX_LIFETIME_FRACTION = 0.85;
+    private static final Counter CACHE_HITS = MetricsRegistry.getInstance().counter("TES/CacheHits");
+    private static final Counter CACHE_MISSES = MetricsRegistry.getInstance().counter("TES/CacheMisses");
+    private static final Histogram REFRESH_TIME = MetricsRegistry.getInstance().histogram("TES/RefreshTime");
+
+    static {
+        MetricsRegistry.getInstance().gauge("TES/CacheHitPercent", CACHE_HITS, hits -> {
+            long total = hits.get() + CACHE_MISSES.get();
+            return total == 0 ? 0 : hits.get() * 100 / total;
+        });
+    }
 
     private String iotCredentialsPath;
 
@@ -74,23 +96,60 @@ public class CredentialRequestHandler implements HttpHandler {
 
     private final IotConnectionManager iotConnectionManager;
 
+    private final ScheduledExecutorService ses;
+
+    private final ExecutorService executorService;
+
+    private boolean refreshing;
+
+    private ScheduledFuture<?> scheduledRefresh;
+
     private Clock clock = Clock.systemUTC();
 
-    private final Map<String, TESCache> tesCache = new DefaultConcurrentHashMap<>(() -> {
-        TESCache cache = new TESCache();
-        cache.expiry = Instant.EPOCH;
-        return cache;
-    });
+    private final Map<String, TESCache> tesCache = new DefaultConcurrentHashMap<>(TESCache::new);
     @Setter
     private String thingName;
 
     private static class TESCache {
-        private byte[] credentials;
-        private int responseCode;
-        private Instant expiry;
+        private volatile CachedResponse response = CachedResponse.EMPTY;
         private final AtomicReference<CompletableFuture<Void>> future = new AtomicReference<>(null);
     }
 
+    /**
+     * Response encoded once when fetched, then served as is to every request until it expires.
+     */
+    private static final class CachedResponse {
+        private static final CachedResponse EMPTY = new CachedResponse((byte[]) null, 0, Instant.EPOCH);
+
+        private final byte[] body;
+        private final int responseCode;
+        private final Instant expiry;
+
+        private CachedResponse(byte[] body, int responseCode, Instant expiry) {
+            this.body = body;
+            this.responseCode = responseCode;
+            this.expiry = expiry;
+        }
+
+        private CachedResponse(String body, int responseCode, Instant expiry) {
+            this(body.getBytes(StandardCharsets.UTF_8), responseCode, expiry);
+        }
+    }
+
+    /**
+     * Constructor for a handler which only fetches credentials when they are requested.
+     *
+     * @param cloudHelper           {@link IotCloudHelper} for making http requests to cloud.
+     * @param connectionManager     {@link IotConnectionManager} underlying connection manager for cloud.
+     * @param authenticationHandler {@link AuthenticationHandler} authN module for authenticating requests.
+     * @param authZHandler          {@link AuthorizationHandler} authZ module for authorizing requests.
+     */
+    public CredentialRequestHandler(final IotCloudHelper cloudHelper, final IotConnectionManager connectionManager,
+                                    final AuthenticationHandler authenticationHandler,
+                                    final AuthorizationHandler authZHandler) {
+        this(cloudHelper, connectionManager, authenticationHandler, authZHandler, null, null);
+    }
+
     /**
      * Constructor.
      *
@@ -98,15 +157,21 @@ public class CredentialRequestHandler implements HttpHandler {
      * @param connectionManager     {@link IotConnectionManager} underlying connection manager for cloud.
      * @param authenticationHandler {@link AuthenticationHandler} authN module for authenticating requests.
      * @param authZHandler          {@link AuthorizationHandler} authZ module for authorizing requests.
+     * @param ses                   scheduler to time the refreshes of credentials ahead of their expiry.
+     * @param executorService       executor to fetch the refreshed credentials on.
      */
     @Inject
     public CredentialRequestHandler(final IotCloudHelper cloudHelper, final IotConnectionManager connectionManager,
                                     final AuthenticationHandler authenticationHandler,
-                                    final AuthorizationHandler authZHandler) {
+                                    final AuthorizationHandler authZHandler,
+                                    final ScheduledExecutorService ses,
+                                    final ExecutorService executorService) {
         this.iotCloudHelper = cloudHelper;
         this.iotConnectionManager = connectionManager;
         this.authNHandler = authenticationHandler;
         this.authZHandler = authZHandler;
+        this.ses = ses;
+        this.executorService = executorService;
     }
 
     /**
@@ -134,9 +199,10 @@ public class CredentialRequestHandler implements HttpHandler {
                 return;
             }
             doAuth(exchange);
-            final byte[] credentials = getCredentials();
-            exchange.sendResponseHeaders(tesCache.get(iotCredentialsPath).responseCode, credentials.length);
-            exchange.getResponseBody().write(credentials);
+            // Status and body come from the same immutable entry, so a concurrent refresh can't mix them up
+            final CachedResponse response = getCachedResponse();
+            exchange.sendResponseHeaders(response.responseCode, response.body.length);
+            exchange.getResponseBody().write(response.body);
         } catch (AuthorizationException e) {
             LOGGER.atInfo().log("Request is not authorized");
             generateError(exchange, HttpURLConnection.HTTP_FORBIDDEN);
@@ -167,7 +233,17 @@ public class CredentialRequestHandler implements HttpHandler {
      * @return credentials
      */
     private byte[] getCredentialsBypassCache() {
-        byte[] response;
+        return fetchCredentials(false).body;
+    }
+
+    /**
+     * Fetch credentials from the cloud and cache the response.
+     *
+     * @param background true when refreshing ahead of expiry. A failed refresh then keeps the cached credentials for
+     *                   as long as they are valid instead of replacing them with the error.
+     * @return the response now cached
+     */
+    private CachedResponse fetchCredentials(boolean background) {
         LOGGER.atDebug().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).log("Got request for credentials, querying iot");
 
         TESCache cacheEntry = tesCache.get(iotCredentialsPath);
@@ -179,111 +255,195 @@ public class CredentialRequestHandler implements HttpHandler {
             future = cacheEntry.future.get();
             if (future == null || future.isDone()) {
                 future = new CompletableFuture<>();
-                tesCache.get(iotCredentialsPath).future.set(future);
+                cacheEntry.future.set(future);
             }
         }
-        Instant newExpiry = tesCache.get(iotCredentialsPath).expiry;
 
         try {
+            long startNanos = System.nanoTime();
             final IotCloudResponse cloudResponse = iotCloudHelper
                     .sendHttpRequest(iotConnectionManager, thingName,
                             iotCredentialsPath, IOT_CREDENTIALS_HTTP_VERB, null);
+            REFRESH_TIME.recordMicrosSince(startNanos);
             final String credentials = cloudResponse.toString();
             final int cloudResponseCode = cloudResponse.getStatusCode();
             LOGGER.atDebug().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).kv("statusCode", cloudResponseCode)
                     .log("Received response from cloud: {}",
                             cloudResponseCode == 200 ? "response code 200, not logging credentials" : credentials);
 
+            final CachedResponse response;
             if (cloudResponseCode == 0) {
                 // Client errors should expire immediately
-                String responseString = "Failed to get credentials from TES";
-                response = responseString.getBytes(StandardCharsets.UTF_8);
-                newExpiry = Instant.now(clock);
-                tesCache.get(iotCredentialsPath).responseCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
+                response = new CachedResponse("Failed to get credentials from TES",
+                        HttpURLConnection.HTTP_INTERNAL_ERROR, Instant.now(clock));
             } else if (cloudResponseCode == HttpURLConnection.HTTP_OK) {
                 // Get response successfully, cache credentials according to expiry in response
-                try {
-                    response = translateToAwsSdkFormat(credentials);
-                    String expiryString = parseExpiryFromResponse(credentials);
-                    Instant expiry = Instant.parse(expiryString);
-
-                    if (expiry.isBefore(Instant.now(clock))) {
-                        String responseString = "TES responded with expired credentials: " + credentials;
-                        response = responseString.getBytes(StandardCharsets.UTF_8);
-                        tesCache.get(iotCredentialsPath).responseCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
-                        LOGGER.atError().kv(IOT_CRED_PATH_KEY, iotCredentialsPath)
-                                .log("Unable to cache expired credentials which expired at {}", expiry);
-                    } else {
-                        newExpiry = expiry.minus(Duration.ofMinutes(TIME_BEFORE_CACHE_EXPIRE_IN_MIN));
-                        tesCache.get(iotCredentialsPath).responseCode = HttpURLConnection.HTTP_OK;
-
-                        if (newExpiry.isBefore(Instant.now(clock))) {
-                            LOGGER.atWarn().kv(IOT_CRED_PATH_KEY, iotCredentialsPath)
-                                    .log("Can't cache credentials as new credentials {} will "
-                                                    + "expire in less than {} minutes", expiry,
-                                            TIME_BEFORE_CACHE_EXPIRE_IN_MIN);
-                        } else {
-                            LOGGER.atInfo().kv(IOT_CRED_PATH_KEY, iotCredentialsPath)
-                                    .log("Received IAM credentials that will be cached until {}", newExpiry);
-                        }
-                    }
-                } catch (AWSIotException e) {
-                    String responseString = "Bad TES response: " + credentials;
-                    response = responseString.getBytes(StandardCharsets.UTF_8);
-                    tesCache.get(iotCredentialsPath).responseCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
-                    LOGGER.atError().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).log("Unable to parse response body", e);
-                }
+                response = parseCredentials(credentials);
             } else {
                 // Cloud errors should be cached
                 String responseString =
                         String.format("TES responded with status code: %d. Caching response. %s", cloudResponseCode,
                                 credentials);
-                response = responseString.getBytes(StandardCharsets.UTF_8);
-                newExpiry = getExpiryPolicyForErr(cloudResponseCode);
-                tesCache.get(iotCredentialsPath).responseCode = cloudResponseCode;
+                response = new CachedResponse(responseString, cloudResponseCode,
+                        getExpiryPolicyForErr(cloudResponseCode));
                 LOGGER.atError().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).log(responseString);
             }
-
-            tesCache.get(iotCredentialsPath).expiry = newExpiry;
-            tesCache.get(iotCredentialsPath).credentials = response;
+            return cache(cacheEntry, response, background);
         } catch (AWSIotException e) {
             // Http connection error should expire immediately
-            String responseString = "Failed to get connection";
-            response = responseString.getBytes(StandardCharsets.UTF_8);
-            newExpiry = Instant.now(clock);
-            tesCache.get(iotCredentialsPath).responseCode = HttpURLConnection.HTTP_INTERNAL_ERROR;
-            tesCache.get(iotCredentialsPath).expiry = newExpiry;
-            tesCache.get(iotCredentialsPath).credentials = response;
             LOGGER.atWarn().kv(IOT_CRED_PATH_KEY, iotCredentialsPath)
                     .log("Encountered error while fetching credentials", e);
+            return cache(cacheEntry, new CachedResponse("Failed to get connection",
+                    HttpURLConnection.HTTP_INTERNAL_ERROR, Instant.now(clock)), background);
         } finally {
             synchronized (cacheEntry) {
                 // Complete the future to notify listeners that we're done.
                 // Clear the future so that any new requests trigger an updated request instead of
                 // pulling from the cache when the cached credentials are invalid
-                CompletableFuture<Void> oldFuture = tesCache.get(iotCredentialsPath).future.getAndSet(null);
+                CompletableFuture<Void> oldFuture = cacheEntry.future.getAndSet(null);
                 if (oldFuture != null && !oldFuture.isDone()) {
                     oldFuture.complete(null);
                 }
             }
         }
+    }
 
+    private CachedResponse parseCredentials(String credentials) {
+        try {
+            byte[] translated = translateToAwsSdkFormat(credentials);
+            Instant expiry = Instant.parse(parseExpiryFromResponse(credentials));
+
+            if (expiry.isBefore(Instant.now(clock))) {
+                LOGGER.atError().kv(IOT_CRED_PATH_KEY, iotCredentialsPath)
+                        .log("Unable to cache expired credentials which expired at {}", expiry);
+                return new CachedResponse("TES responded with expired credentials: " + credentials,
+                        HttpURLConnection.HTTP_INTERNAL_ERROR, Instant.now(clock));
+            }
+            Instant newExpiry = expiry.minus(Duration.ofMinutes(TIME_BEFORE_CACHE_EXPIRE_IN_MIN));
+            if (newExpiry.isBefore(Instant.now(clock))) {
+                LOGGER.atWarn().kv(IOT_CRED_PATH_KEY, iotCredentialsPath)
+                        .log("Can't cache credentials as new credentials {} will "
+                                        + "expire in less than {} minutes", expiry,
+                                TIME_BEFORE_CACHE_EXPIRE_IN_MIN);
+            } else {
+                LOGGER.atInfo().kv(IOT_CRED_PATH_KEY, iotCredentialsPath)
+                        .log("Received IAM credentials that will be cached until {}", newExpiry);
+            }
+            return new CachedResponse(translated, HttpURLConnection.HTTP_OK, newExpiry);
+        } catch (AWSIotException e) {
+            LOGGER.atError().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).log("Unable to parse response body", e);
+            return new CachedResponse("Bad TES response: " + credentials, HttpURLConnection.HTTP_INTERNAL_ERROR,
+                    Instant.now(clock));
+        }
+    }
+
+    private CachedResponse cache(TESCache cacheEntry, CachedResponse response, boolean background) {
+        CachedResponse previous = cacheEntry.response;
+        if (background && response.responseCode != HttpURLConnection.HTTP_OK
+                && previous.responseCode == HttpURLConnection.HTTP_OK && areCredentialsValid(previous)) {
+            LOGGER.atWarn().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).kv("statusCode", response.responseCode)
+                    .log("Unable to refresh credentials, keeping the cached ones which are valid until {}",
+                            previous.expiry);
+            scheduleRefresh(REFRESH_RETRY_INTERVAL);
+            return previous;
+        }
+        cacheEntry.response = response;
+        scheduleRefresh(getRefreshDelay(response));
         return response;
     }
 
+    /**
+     * Refresh ahead of the cache expiry at a random point between 70% and 85% of the remaining lifetime, so that
+     * requests keep hitting the cache and devices started together don't all refresh at the same time. Errors are
+     * retried once they expire from the cache, and no sooner than {@link #REFRESH_RETRY_INTERVAL}.
+     */
+    private Duration getRefreshDelay(CachedResponse response) {
+        Duration untilExpiry = Duration.between(Instant.now(clock), response.expiry);
+        if (response.responseCode != HttpURLConnection.HTTP_OK || untilExpiry.compareTo(REFRESH_RETRY_INTERVAL) < 0) {
+            return untilExpiry.compareTo(REFRESH_RETRY_INTERVAL) > 0 ? untilExpiry : REFRESH_RETRY_INTERVAL;
+        }
+        double fraction = ThreadLocalRandom.current().nextDouble(REFRESH_MIN_LIFETIME_FRACTION,
+                REFRESH_MAX_LIFETIME_FRACTION);
+        return Duration.ofMillis((long) (untilExpiry.toMillis() * fraction));
+    }
+
+    private synchronized void scheduleRefresh(Duration delay) {
+        if (!refreshing) {
+            return;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        // the scheduler only times the refresh, the blocking fetch runs on the executor to keep the scheduler free
+        scheduledRefresh = ses.schedule(this::submitRefresh, delay.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void submitRefresh() {
+        try {
+            executorService.execute(this::refreshInBackground);
+        } catch (RejectedExecutionException e) {
+            LOGGER.atWarn().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).log("Unable to refresh credentials", e);
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private void refreshInBackground() {
+        if (iotCredentialsPath == null) {
+            return;
+        }
+        LOGGER.atDebug().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).log("Refreshing credentials ahead of expiry");
+        try {
+            fetchCredentials(true);
+        } catch (Throwable e) {
+            LOGGER.atWarn().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).log("Unable to refresh credentials", e);
+            scheduleRefresh(REFRESH_RETRY_INTERVAL);
+        }
+    }
+
+    /**
+     * Start refreshing credentials in the background ahead of their expiry, beginning with an immediate fetch. Does
+     * nothing if the handler was created without executors to refresh on.
+     */
+    public synchronized void startRefreshing() {
+        if (ses == null || executorService == null || refreshing) {
+            return;
+        }
+        refreshing = true;
+        scheduleRefresh(Duration.ZERO);
+    }
+
+    /**
+     * Stop refreshing credentials in the background. Cached credentials are still served until they expire.
+     */
+    public synchronized void stopRefreshing() {
+        refreshing = false;
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+            scheduledRefresh = null;
+        }
+    }
+
     /**
      * API for kernel to directly fetch credentials from TES instead of using HTTP server. Note that it bypasses
      * authN/authZ, so should be used carefully.
      *
-     * @return AWS credentials from cloud.
+     * @return AWS credentials from cloud, a copy which the caller may modify.
      */
     public byte[] getCredentials() {
+        byte[] body = getCachedResponse().body;
+        return body == null ? null : body.clone();
+    }
+
+    private CachedResponse getCachedResponse() {
         TESCache cacheEntry = tesCache.get(iotCredentialsPath);
         CompletableFuture<Void> future = null;
         synchronized (cacheEntry) {
-            if (areCredentialsValid(cacheEntry)) {
-                return cacheEntry.credentials;
+            CachedResponse cached = cacheEntry.response;
+            if (areCredentialsValid(cached)) {
+                CACHE_HITS.increment();
+                return cached;
             }
+            CACHE_MISSES.increment();
             CompletableFuture<Void> newFut = new CompletableFuture<>();
             // "take the lock" by immediately setting the future non-null while inside the sync block
             if (!cacheEntry.future.compareAndSet(null, newFut)) {
@@ -301,13 +461,13 @@ public class CredentialRequestHandler implements HttpHandler {
             } catch (ExecutionException ignore) {
                 // We never complete the future exceptionally
             }
-            return tesCache.get(iotCredentialsPath).credentials;
+            return tesCache.get(iotCredentialsPath).response;
         }
 
         // Get new credentials from cloud
         LOGGER.atDebug().kv(IOT_CRED_PATH_KEY, iotCredentialsPath)
                 .log("IAM credentials not found in cache or already expired. Fetching new ones from TES");
-        return getCredentialsBypassCache();
+        return fetchCredentials(false);
     }
 
     /**
@@ -316,7 +476,7 @@ public class CredentialRequestHandler implements HttpHandler {
      * @return AwsCredentials instance compatible with the AWS SDK for credentials received from cloud.
      */
     public AwsCredentials getAwsCredentials() {
-        return getCredentialsFromByte(getCredentials());
+        return getCredentialsFromByte(getCachedResponse().body);
     }
 
     /**
@@ -394,22 +554,19 @@ public class CredentialRequestHandler implements HttpHandler {
      *
      * @return if the cached credentials are valid.
      */
-    private boolean areCredentialsValid(TESCache cacheEntry) {
+    private boolean areCredentialsValid(CachedResponse response) {
         Instant now = Instant.now(clock);
-        return cacheEntry.credentials != null && now.isBefore(cacheEntry.expiry);
+        return response.body != null && now.isBefore(response.expiry);
     }
 
     /**
      * Clear cached credentials.
      */
-    @SuppressWarnings("PMD.NullAssignment")
     public void clearCache() {
         if (iotCredentialsPath != null && tesCache.containsKey(iotCredentialsPath)) {
             LOGGER.atDebug().kv(IOT_CRED_PATH_KEY, iotCredentialsPath).log("Clearing TES cache");
             TESCache cacheEntry = tesCache.get(iotCredentialsPath);
-            cacheEntry.credentials = null;
-            cacheEntry.responseCode = 0;
-            cacheEntry.expiry = Instant.EPOCH;
+            cacheEntry.response = CachedResponse.EMPTY;
             synchronized (cacheEntry) {
                 CompletableFuture<Void> oldFuture = cacheEntry.future.getAndSet(null);
                 if (oldFuture != null && !oldFuture.isDone()) {
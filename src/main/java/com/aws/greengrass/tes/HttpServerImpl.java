@@ -5,51 +5,153 @@
 
 package com.aws.greengrass.tes;
 
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.aws.greengrass.telemetry.metrics.Counter;
+import com.aws.greengrass.telemetry.metrics.MetricsRegistry;
+import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
 
 import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
-import java.util.concurrent.ExecutorService;
-import javax.inject.Inject;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Credential server with its own bounded pool of workers, so that a burst of components asking for credentials at once
+ * neither waits behind nucleus work nor grows the shared executor without bound. Connections are kept alive between
+ * requests. Requests beyond what the workers and their queue can hold are turned down straight away with a 503 and a
+ * Retry-After header, which the AWS SDKs retry, rather than left to time out. They're turned down by a small pool of
+ * their own, so that reading a request from a slow client doesn't hold up the dispatcher accepting connections.
+ */
 public class HttpServerImpl implements Server {
     public static final String URL = "/2016-11-01/credentialprovider/";
+    static final int DEFAULT_BACKLOG = 1024;
+    static final int DEFAULT_WORKER_THREADS = 8;
+    static final int DEFAULT_MAX_QUEUED_REQUESTS = 1000;
+    static final int SHEDDING_THREADS = 2;
+    static final String RETRY_AFTER_HEADER = "Retry-After";
+    static final String RETRY_AFTER_SECONDS = "1";
+    private static final Logger LOGGER = LogManager.getLogger(HttpServerImpl.class);
     private static final int TIME_TO_WAIT_BEFORE_SHUTDOWN_IN_SECONDS = 1;
-    private final HttpServer httpImpl;
+    private static final Counter SHED_REQUESTS = MetricsRegistry.getInstance().counter("TES/ShedRequests");
+    // Set while an exchange runs only to be turned down
+    private static final ThreadLocal<Boolean> SHEDDING = new ThreadLocal<>();
 
-    @Inject
+    private final HttpServer httpImpl;
     private final HttpHandler credentialRequestHandler;
+    private final ThreadPoolExecutor workers;
+    private final ThreadPoolExecutor shedders;
 
-    @Inject
-    private final ExecutorService executorService;
+    /**
+     * Constructor with the default backlog and worker pool.
+     *
+     * @param port                     Http server port
+     * @param credentialRequestHandler request handler for server requests
+     * @throws IOException When server creation fails
+     */
+    HttpServerImpl(int port, HttpHandler credentialRequestHandler) throws IOException {
+        this(port, credentialRequestHandler, DEFAULT_BACKLOG, DEFAULT_WORKER_THREADS, DEFAULT_MAX_QUEUED_REQUESTS);
+    }
 
     /**
      * Constructor.
-     * @param port Http server port
+     *
+     * @param port                     Http server port
      * @param credentialRequestHandler request handler for server requests
-     * @param executorService executor service instance
+     * @param backlog                  connections the OS queues before the server accepts them
+     * @param workerThreads            threads handling requests
+     * @param maxQueuedRequests        requests waiting for a worker before new ones are turned down
      * @throws IOException When server creation fails
      */
-    HttpServerImpl(int port, HttpHandler credentialRequestHandler, ExecutorService executorService) throws IOException {
-        httpImpl = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    HttpServerImpl(int port, HttpHandler credentialRequestHandler, int backlog, int workerThreads,
+                   int maxQueuedRequests) throws IOException {
+        this(port, credentialRequestHandler, backlog, workerThreads, new ArrayBlockingQueue<>(maxQueuedRequests));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param port                     Http server port
+     * @param credentialRequestHandler request handler for server requests
+     * @param backlog                  connections the OS queues before the server accepts them
+     * @param workerThreads            threads handling requests
+     * @param queuedRequests           bounded queue of requests waiting for a worker
+     * @throws IOException When server creation fails
+     */
+    HttpServerImpl(int port, HttpHandler credentialRequestHandler, int backlog, int workerThreads,
+                   BlockingQueue<Runnable> queuedRequests) throws IOException {
+        httpImpl = HttpServer.create(new InetSocketAddress("localhost", port), backlog);
         this.credentialRequestHandler = credentialRequestHandler;
-        this.executorService = executorService;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                queuedRequests, r -> {
+                    Thread t = new Thread(r, "tes-http-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, this::shed);
+        AtomicInteger shedCount = new AtomicInteger();
+        // only once these are all busy too, the dispatcher turns requests down itself
+        this.shedders = new ThreadPoolExecutor(SHEDDING_THREADS, SHEDDING_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(DEFAULT_MAX_QUEUED_REQUESTS), r -> {
+                    Thread t = new Thread(r, "tes-http-shed-" + shedCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     @Override
     public void start() {
-        httpImpl.createContext(URL, credentialRequestHandler);
-        httpImpl.setExecutor(executorService);
+        httpImpl.createContext(URL, this::handle);
+        httpImpl.setExecutor(workers);
         httpImpl.start();
     }
 
     @Override
     public void stop() {
         httpImpl.stop(TIME_TO_WAIT_BEFORE_SHUTDOWN_IN_SECONDS);
+        workers.shutdownNow();
+        shedders.shutdownNow();
     }
 
     int getServerPort() {
         return httpImpl.getAddress().getPort();
     }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!Boolean.TRUE.equals(SHEDDING.get())) {
+            credentialRequestHandler.handle(exchange);
+            return;
+        }
+        try {
+            exchange.getResponseHeaders().set(RETRY_AFTER_HEADER, RETRY_AFTER_SECONDS);
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_UNAVAILABLE, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Called by the dispatcher when every worker is busy and the queue is full. The exchange can only be answered by
+     * running it, which reads the request, so it's handed to the shedding pool to only write back a 503 without
+     * calling the handler.
+     */
+    private void shed(Runnable exchange, ThreadPoolExecutor executor) {
+        SHED_REQUESTS.increment();
+        LOGGER.atDebug().kv("queuedRequests", executor.getQueue().size())
+                .log("Credential server is at capacity, turning down request");
+        shedders.execute(() -> {
+            SHEDDING.set(Boolean.TRUE);
+            try {
+                exchange.run();
+            } finally {
+                SHEDDING.remove();
+            }
+        });
+    }
 }
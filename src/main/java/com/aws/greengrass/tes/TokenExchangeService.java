@@ -21,7 +21,6 @@ import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.concurrent.ExecutorService;
 import javax.inject.Inject;
 
 import static com.aws.greengrass.componentmanager.KernelConfigResolver.CONFIGURATION_CONFIG_KEY;
@@ -31,6 +30,9 @@ import static com.aws.greengrass.deployment.DeviceConfiguration.IOT_ROLE_ALIAS_T
 @ImplementsService(name = TokenExchangeService.TOKEN_EXCHANGE_SERVICE_TOPICS)
 public class TokenExchangeService extends GreengrassService implements AwsCredentialsProvider {
     public static final String PORT_TOPIC = "port";
+    public static final String BACKLOG_TOPIC = "backlog";
+    public static final String WORKER_THREADS_TOPIC = "workerThreads";
+    public static final String MAX_QUEUED_REQUESTS_TOPIC = "maxQueuedRequests";
     public static final String TOKEN_EXCHANGE_SERVICE_TOPICS = "aws.greengrass.TokenExchangeService";
     public static final String TES_URI_ENV_VARIABLE_NAME = "AWS_CONTAINER_CREDENTIALS_FULL_URI";
     public static final String AUTHZ_TES_OPERATION = "getCredentials";
@@ -43,21 +45,18 @@ public class TokenExchangeService extends GreengrassService implements AwsCreden
 
     private final AuthorizationHandler authZHandler;
     private final CredentialRequestHandler credentialRequestHandler;
-    private final ExecutorService executor;
 
     /**
      * Constructor.
      * @param topics the configuration coming from kernel
      * @param credentialRequestHandler {@link CredentialRequestHandler}
      * @param authZHandler {@link AuthorizationHandler}
-     * @param executor executor service shared with kernel
      * @param deviceConfiguration device's system configuration
      */
     @Inject
     public TokenExchangeService(Topics topics,
                                 CredentialRequestHandler credentialRequestHandler,
-                                AuthorizationHandler authZHandler,
-                                ExecutorService executor, DeviceConfiguration deviceConfiguration) {
+                                AuthorizationHandler authZHandler, DeviceConfiguration deviceConfiguration) {
         super(topics);
         // Port change should not be allowed
         topics.lookup(CONFIGURATION_CONFIG_KEY, PORT_TOPIC).dflt(DEFAULT_PORT)
@@ -78,7 +77,6 @@ public class TokenExchangeService extends GreengrassService implements AwsCreden
 
         this.authZHandler = authZHandler;
         this.credentialRequestHandler = credentialRequestHandler;
-        this.executor = executor;
     }
 
     @Override
@@ -98,11 +96,16 @@ public class TokenExchangeService extends GreengrassService implements AwsCreden
                 .log("Attempting to start server at configured port {}", port);
         try {
             validateConfig();
-            server = new HttpServerImpl(port, credentialRequestHandler, executor);
+            server = new HttpServerImpl(port, credentialRequestHandler,
+                    getServerSetting(BACKLOG_TOPIC, HttpServerImpl.DEFAULT_BACKLOG),
+                    getServerSetting(WORKER_THREADS_TOPIC, HttpServerImpl.DEFAULT_WORKER_THREADS),
+                    getServerSetting(MAX_QUEUED_REQUESTS_TOPIC, HttpServerImpl.DEFAULT_MAX_QUEUED_REQUESTS));
             server.start();
             logger.atInfo().log("Started server at port {}", server.getServerPort());
             // Get port from the server, in case no port was specified and server started on a random port
             setEnvVariablesForDependencies(server.getServerPort());
+            // Keep credentials fresh so that components never wait on the cloud for them
+            credentialRequestHandler.startRefreshing();
             reportState(State.RUNNING);
         } catch (IOException | IllegalArgumentException e) {
             serviceErrored(e);
@@ -112,6 +115,7 @@ public class TokenExchangeService extends GreengrassService implements AwsCreden
     @Override
     protected void shutdown() {
         logger.atInfo().log("TokenExchangeService is shutting down!");
+        credentialRequestHandler.stopRefreshing();
         if (server != null) {
             server.stop();
             logger.atInfo().log("Stopped server at port {}", server.getServerPort());
@@ -124,6 +128,11 @@ public class TokenExchangeService extends GreengrassService implements AwsCreden
         tesUri.withValue(tesUriValue);
     }
 
+    private int getServerSetting(String key, int defaultValue) {
+        int value = Coerce.toInt(config.findOrDefault(defaultValue, CONFIGURATION_CONFIG_KEY, key));
+        return value > 0 ? value : defaultValue;
+    }
+
     private void validateConfig() {
         // Validate roleAlias
         if (Utils.isEmpty(iotRoleAlias)) {
@@ -10,15 +10,11 @@ import com.aws.greengrass.logging.impl.LogManager;
 import com.aws.greengrass.util.platforms.Platform;
 import com.aws.greengrass.util.platforms.ShellDecorator;
 import com.aws.greengrass.util.platforms.UserDecorator;
-import lombok.Getter;
 
-import java.io.BufferedReader;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Duration;
@@ -77,7 +73,7 @@ public abstract class Exec implements Closeable {
     private IntConsumer whenDone;
     private Consumer<CharSequence> stdout = NOP;
     private Consumer<CharSequence> stderr = NOP;
-    private AtomicInteger numberOfCopiers;
+    private AtomicInteger numberOfOpenStreams;
     protected String[] cmds;
 
     protected ShellDecorator shellDecorator;
@@ -86,8 +82,8 @@ public abstract class Exec implements Closeable {
     protected File dir = userdir;
     private long timeout = -1;
     private TimeUnit timeunit = TimeUnit.SECONDS;
-    private Copier stderrc;
-    private Copier stdoutc;
+    private ProcessOutputPump.PumpedStream stderrc;
+    private ProcessOutputPump.PumpedStream stdoutc;
     protected Duration gracefulShutdownTimeout = Duration.ofSeconds(5);
 
     public static void setDefaultEnv(String key, String value) {
@@ -316,10 +312,8 @@ public abstract class Exec implements Closeable {
         process = createProcess();
         logger.debug("Created process with pid {}", getPid());
 
-        stderrc = new Copier(process.getErrorStream(), stderr);
-        stdoutc = new Copier(process.getInputStream(), stdout);
-        stderrc.start();
-        stdoutc.start();
+        stderrc = pumpOutput(process.getErrorStream(), stderr);
+        stdoutc = pumpOutput(process.getInputStream(), stdout);
         if (whenDone == null) {
             try {
                 if (timeout < 0) {
@@ -339,8 +333,11 @@ public abstract class Exec implements Closeable {
                 }
                 throw ie;
             }
-            stderrc.join(5000);
-            stdoutc.join(5000);
+            // what's left of the output is read right away rather than when the next poll is due
+            stderrc.wakeUp();
+            stdoutc.wakeUp();
+            stderrc.await(5000, TimeUnit.MILLISECONDS);
+            stdoutc.await(5000, TimeUnit.MILLISECONDS);
             return Optional.of(process.exitValue());
         }
         return Optional.empty();
@@ -416,61 +413,22 @@ public abstract class Exec implements Closeable {
     /**
      * Sends the lines of an InputStream to a consumer in the background.
      */
-    @SuppressWarnings("PMD.AvoidCatchingThrowable")
-    private class Copier extends Thread {
-        private final Consumer<CharSequence> out;
-        private final InputStream in;
-        @Getter
-        private int nlines = 0;
-
-        Copier(InputStream i, Consumer<CharSequence> s) {
-            super("Copier");
-            in = i;
-            out = s;
-            // Set as a daemon thread so that it dies when the main thread exits
-            setDaemon(true);
-            if (whenDone != null) {
-                if (numberOfCopiers == null) {
-                    numberOfCopiers = new AtomicInteger(1);
-                } else {
-                    numberOfCopiers.incrementAndGet();
-                }
-            }
-        }
-
-        @Override
-        public void run() {
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 200)) {
-                StringBuilder sb = new StringBuilder();
-                while (true) {
-                    int c;
-                    for (c = br.read(); c >= 0 && c != '\n'; c = br.read()) {
-                        sb.append((char) c);
-                    }
-                    if (c >= 0) {
-                        sb.append('\n');
-                        nlines++;
-                    }
-                    if (out != null && sb.length() > 0) {
-                        out.accept(sb);
-                    }
-                    sb.setLength(0);
-                    if (c < 0) {
-                        break;
-                    }
-                }
-            } catch (Throwable ignore) {
-                // nothing that can go wrong here worries us, they're
-                // all EOFs
+    private ProcessOutputPump.PumpedStream pumpOutput(InputStream in, Consumer<CharSequence> out) {
+        final Process p = process;
+        ProcessOutputPump.PumpedStream stream = ProcessOutputPump.getInstance().pump(in, out, p::isAlive);
+        if (whenDone != null) {
+            if (numberOfOpenStreams == null) {
+                numberOfOpenStreams = new AtomicInteger(1);
+            } else {
+                numberOfOpenStreams.incrementAndGet();
             }
-            if (whenDone != null && numberOfCopiers.decrementAndGet() <= 0) {
-                try {
-                    process.waitFor();
-                    setClosed();
-                } catch (InterruptedException ignore) {
-                    // Ignore as this thread is done running anyway and will exit
+            stream.whenDone(() -> {
+                if (numberOfOpenStreams.decrementAndGet() <= 0) {
+                    // the process has usually exited once its output ended, but it may have closed it on its own
+                    ProcessOutputPump.getInstance().whenExited(p, this::setClosed);
                 }
-            }
+            });
         }
+        return stream;
     }
 }
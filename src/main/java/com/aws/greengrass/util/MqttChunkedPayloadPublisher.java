@@ -11,12 +11,13 @@ import com.aws.greengrass.mqttclient.MqttClient;
 import com.aws.greengrass.mqttclient.PublishRequest;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.Builder;
-import lombok.Getter;
 import lombok.Setter;
 import software.amazon.awssdk.crt.mqtt.QualityOfService;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class MqttChunkedPayloadPublisher<T> {
     private static final Logger logger = LogManager.getLogger(MqttChunkedPayloadPublisher.class);
@@ -26,6 +27,9 @@ public class MqttChunkedPayloadPublisher<T> {
     private String updateTopic;
     @Setter
     private int maxPayloadLengthBytes;
+    // whether the futures returned wait for the broker to acknowledge the chunks, or only for them to be spooled
+    @Setter
+    private boolean awaitDelivery;
 
     public MqttChunkedPayloadPublisher(MqttClient mqttClient) {
         this.mqttClient = mqttClient;
@@ -34,65 +38,73 @@ public class MqttChunkedPayloadPublisher<T> {
     /**
      * Publish the payload using MQTT.
      *
+     * <p>Each variable object is serialized once to size it. Chunks are filled in order up to the maximum payload
+     * length, so every chunk fits regardless of how the sizes of the objects vary.</p>
+     *
      * @param chunkablePayload  The common object payload included in all the messages
      * @param variablePayloads  The variable objects in the payload to chunk
+     * @return future completing once every chunk was spooled, or acknowledged by the broker when awaiting delivery,
+     *     exceptionally if any of them couldn't be
      */
-    public void publish(Chunkable<T> chunkablePayload, List<T> variablePayloads) {
-
+    public CompletableFuture<Void> publish(Chunkable<T> chunkablePayload, List<T> variablePayloads) {
+        List<CompletableFuture<Integer>> publishes = new ArrayList<>();
         try {
+            chunkablePayload.setVariablePayload(Collections.emptyList());
+            // the empty list is replaced by the elements separated with commas
+            int available = maxPayloadLengthBytes - SERIALIZER.writeValueAsBytes(chunkablePayload).length;
             int start = 0;
-            int payloadVariableInformationSize = SERIALIZER.writeValueAsBytes(variablePayloads).length;
-            int payloadCommonInformationSize = SERIALIZER.writeValueAsBytes(chunkablePayload).length;
-
-            MqttChunkingInformation chunkingInformation =
-                    getChunkingInformation(payloadVariableInformationSize, variablePayloads.size(),
-                            payloadCommonInformationSize);
-            for (int chunkId = 0; chunkId < chunkingInformation.getNumberOfChunks(); chunkId++,
-                    start += chunkingInformation.getNumberOfComponentsPerPublish()) {
-                chunkablePayload.setVariablePayload(variablePayloads.subList(start,
-                        start + chunkingInformation.getNumberOfComponentsPerPublish()));
-                this.mqttClient.publish(PublishRequest.builder()
-                        .qos(QualityOfService.AT_LEAST_ONCE)
-                        .topic(this.updateTopic)
-                        .payload(SERIALIZER.writeValueAsBytes(chunkablePayload)).build())
-                        .exceptionally((t) -> {
-                            logger.atWarn().log("MQTT publish failed", t);
-                            return 0;
-                        });
+            int chunkSize = 0;
+            for (int i = 0; i < variablePayloads.size(); i++) {
+                int elementSize = SERIALIZER.writeValueAsBytes(variablePayloads.get(i)).length;
+                int separatorSize = i == start ? 0 : 1;
+                if (i > start && chunkSize + separatorSize + elementSize > available) {
+                    publishes.add(publishChunk(chunkablePayload, variablePayloads.subList(start, i)));
+                    start = i;
+                    chunkSize = elementSize;
+                } else {
+                    chunkSize += separatorSize + elementSize;
+                }
+                if (chunkSize > available) {
+                    logger.atWarn().kv("topic", updateTopic).kv("size", elementSize)
+                            .log("Publishing object larger than the maximum payload length on its own");
+                }
+            }
+            if (start < variablePayloads.size() || variablePayloads.isEmpty()) {
+                publishes.add(publishChunk(chunkablePayload, variablePayloads.subList(start,
+                        variablePayloads.size())));
             }
         } catch (JsonProcessingException e) {
             logger.atError().cause(e).kv("topic", updateTopic).log("Unable to publish data via topic.");
+            CompletableFuture<Void> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
         }
+        return CompletableFuture.allOf(publishes.toArray(new CompletableFuture[0]));
     }
 
-    /**
-     * Gets the chunking information based on the variable payload size and the common payload size.
-     *
-     * @param payloadVariableInformationByteSize variable payload size in bytes.
-     * @param payloadVariableInformationListSize variable payload list size.
-     * @param payloadCommonInformationSize       common payload size in bytes.
-     * @return the chunking information containing the number of chunks to be sent along with number of variable
-     *     payload object count to be sent in each chunk.
-     */
-    private MqttChunkingInformation getChunkingInformation(int payloadVariableInformationByteSize,
-                                                                 int payloadVariableInformationListSize,
-                                                                 int payloadCommonInformationSize) {
-        // The number of chunks to send would be the variable payload byte size divided by the available bytes in per
-        // publish message after adding the common payload byte size.
-        int numberOfChunks = Math.floorDiv(payloadVariableInformationByteSize,
-                maxPayloadLengthBytes - payloadCommonInformationSize) + 1;
-        int numberOfComponentsPerPublish = Math.floorDiv(payloadVariableInformationListSize, numberOfChunks);
-        return MqttChunkingInformation.builder()
-                .numberOfChunks(numberOfChunks)
-                .numberOfComponentsPerPublish(numberOfComponentsPerPublish)
-                .build();
-    }
-
-    @Builder
-    private static class MqttChunkingInformation {
-        @Getter
-        private int numberOfChunks;
-        @Getter
-        private int numberOfComponentsPerPublish;
+    private CompletableFuture<Integer> publishChunk(Chunkable<T> chunkablePayload, List<T> chunk)
+            throws JsonProcessingException {
+        chunkablePayload.setVariablePayload(chunk);
+        PublishRequest request = PublishRequest.builder()
+                .qos(QualityOfService.AT_LEAST_ONCE)
+                .topic(this.updateTopic)
+                .payload(SERIALIZER.writeValueAsBytes(chunkablePayload)).build();
+        CompletableFuture<Integer> published =
+                awaitDelivery ? this.mqttClient.publishAndAwaitDelivery(request) : this.mqttClient.publish(request);
+        if (published == null && !awaitDelivery) {
+            return CompletableFuture.completedFuture(0);
+        }
+        if (published == null) {
+            // nothing tells whether it was delivered
+            CompletableFuture<Integer> unknown = new CompletableFuture<>();
+            unknown.completeExceptionally(new IllegalStateException("No delivery status for MQTT publish"));
+            return unknown;
+        }
+        published.whenComplete((i, t) -> {
+            if (t != null) {
+                logger.atWarn().log("MQTT publish failed", t);
+            }
+        });
+        return published;
     }
 }
@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.nio.file.Path;
 
 import static com.aws.greengrass.componentmanager.ComponentStore.ARTIFACTS_DECOMPRESSED_DIRECTORY;
+import static com.aws.greengrass.componentmanager.ComponentStore.ARTIFACT_BLOB_DIRECTORY;
 import static com.aws.greengrass.componentmanager.ComponentStore.ARTIFACT_DIRECTORY;
 import static com.aws.greengrass.componentmanager.ComponentStore.RECIPE_DIRECTORY;
 
@@ -113,6 +114,9 @@ public class NucleusPaths {
         Utils.createPaths(unarchivePath());
         Permissions.setArtifactStorePermission(unarchivePath());
 
+        Utils.createPaths(artifactBlobPath());
+        Permissions.setArtifactStorePermission(artifactBlobPath());
+
         Utils.createPaths(recipePath());
         Permissions.setRecipeStorePermission(recipePath());
     }
@@ -133,6 +137,17 @@ public class NucleusPaths {
         return p;
     }
 
+    public Path artifactBlobPath() {
+        return componentStorePath.resolve(ARTIFACT_BLOB_DIRECTORY);
+    }
+
+    public Path artifactBlobPath(String algorithmDirectory) throws IOException {
+        Path p = artifactBlobPath().resolve(algorithmDirectory);
+        Utils.createPaths(p);
+        Permissions.setArtifactStorePermission(p);
+        return p;
+    }
+
     public Path recipePath() {
         return componentStorePath.resolve(RECIPE_DIRECTORY);
     }
@@ -182,6 +197,13 @@ public class NucleusPaths {
         return rootPath.resolve("plugins");
     }
 
+    public Path ipcSharedMemoryPath() throws IOException {
+        Path p = rootPath.resolve("ipc-shm");
+        Utils.createPaths(p);
+        Permissions.setIpcSharedMemoryPermission(p);
+        return p;
+    }
+
     public void setTelemetryPath(Path p) throws IOException {
         Utils.createPaths(p);
         Permissions.setTelemetryPermission(p);
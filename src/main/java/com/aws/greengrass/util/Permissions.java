@@ -7,11 +7,14 @@ package com.aws.greengrass.util;
 
 import com.aws.greengrass.config.PlatformResolver;
 import com.aws.greengrass.util.platforms.Platform;
+import com.aws.greengrass.util.platforms.unix.UnixPlatform;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
 import java.util.Iterator;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static com.aws.greengrass.util.FileSystemPermission.Option.SetMode;
@@ -19,6 +22,7 @@ import static com.aws.greengrass.util.FileSystemPermission.Option.SetMode;
 public final class Permissions {
     static Platform platform = Platform.getInstance();
 
+    static final FileSystemPermission OWNER_R_ONLY = FileSystemPermission.builder().ownerRead(true).build();
     static final FileSystemPermission OWNER_RWX_ONLY =  FileSystemPermission.builder()
             .ownerRead(true).ownerWrite(true).ownerExecute(true).build();
     public static final FileSystemPermission OWNER_RWX_EVERYONE_RX = FileSystemPermission.builder()
@@ -26,6 +30,16 @@ public final class Permissions {
             .groupRead(true).groupExecute(true)
             .otherRead(true).otherExecute(true)
             .build();
+    static final FileSystemPermission OWNER_RWX_EVERYONE_X = FileSystemPermission.builder()
+            .ownerRead(true).ownerWrite(true).ownerExecute(true)
+            .groupExecute(true)
+            .otherExecute(true)
+            .build();
+    static final FileSystemPermission OWNER_RW_EVERYONE_R = FileSystemPermission.builder()
+            .ownerRead(true).ownerWrite(true)
+            .groupRead(true)
+            .otherRead(true)
+            .build();
 
     private Permissions() {
     }
@@ -51,16 +65,56 @@ public final class Permissions {
                 }
             }
         } else {
-            if (!PlatformResolver.isWindows && !platform.lookupCurrentUser().isSuperUser()
-                    && !permission.isOwnerWrite()) {
-                // If not running on windows, and not running as a super user, ownership cannot be changed and users
-                // can override permissions outside of Greengrass. Set write permission so the file can be deleted on
-                // cleanup of artifacts.
-                permission = permission.toBuilder().ownerWrite(true).build();
-            }
             // don't reset the owner when setting permissions
-            platform.setPermissions(permission, p, SetMode);
+            platform.setPermissions(getArtifactFilePermission(permission), p, SetMode);
+        }
+    }
+
+    /**
+     * Set the permissions of an artifact blob: those of the artifact it was stored from, without any write permission,
+     * so that the content shared by every artifact linked to it can't be changed through any of them.
+     *
+     * @param p          the blob path.
+     * @param permission the permission of the artifact; null if permissions aren't managed.
+     * @throws IOException if permissions cannot be set.
+     */
+    public static void setArtifactBlobPermission(Path p, FileSystemPermission permission) throws IOException {
+        FileSystemPermission readOnly = permission == null ? OWNER_R_ONLY
+                : permission.toBuilder().ownerWrite(false).groupWrite(false).otherWrite(false).build();
+        platform.setPermissions(readOnly, p, SetMode);
+    }
+
+    /**
+     * Check if an artifact file can be a hard link to a blob. Linked files share their permissions, so the blob has to
+     * be read only and already have the permissions which {@link #setArtifactPermission} would set on the artifact.
+     *
+     * @param blob       the blob path.
+     * @param permission the permission to apply to the artifact; null if permissions aren't managed.
+     * @return true if the artifact can be linked; false if it has to be a copy.
+     * @throws IOException if the file mode can't be read.
+     */
+    public static boolean canLinkArtifactToBlob(Path blob, FileSystemPermission permission) throws IOException {
+        if (PlatformResolver.isWindows) {
+            return false;
         }
+        Set<PosixFilePermission> blobMode = Files.getPosixFilePermissions(blob);
+        if (blobMode.contains(PosixFilePermission.OWNER_WRITE) || blobMode.contains(PosixFilePermission.GROUP_WRITE)
+                || blobMode.contains(PosixFilePermission.OTHERS_WRITE)) {
+            return false;
+        }
+        return permission == null || blobMode.equals(UnixPlatform.PosixFileSystemPermissionView
+                .posixFilePermissions(getArtifactFilePermission(permission)));
+    }
+
+    private static FileSystemPermission getArtifactFilePermission(FileSystemPermission permission)
+            throws IOException {
+        if (!PlatformResolver.isWindows && !platform.lookupCurrentUser().isSuperUser() && !permission.isOwnerWrite()) {
+            // If not running on windows, and not running as a super user, ownership cannot be changed and users
+            // can override permissions outside of Greengrass. Set write permission so the file can be deleted on
+            // cleanup of artifacts.
+            return permission.toBuilder().ownerWrite(true).build();
+        }
+        return permission;
     }
 
     public static void setComponentStorePermission(Path p) throws IOException {
@@ -125,6 +179,27 @@ public final class Permissions {
         platform.setPermissions(OWNER_RWX_EVERYONE_RX, p);
     }
 
+    /**
+     * Set permission for the shared memory directory. Components can open regions whose name they were given, but
+     * can't list the directory.
+     *
+     * @param p path to the shared memory directory
+     * @throws IOException if permissions cannot be set.
+     */
+    public static void setIpcSharedMemoryPermission(Path p) throws IOException {
+        platform.setPermissions(OWNER_RWX_EVERYONE_X, p);
+    }
+
+    /**
+     * Set permission for a shared memory region. Any subscriber which is handed its name can map it.
+     *
+     * @param p path to the region
+     * @throws IOException if permissions cannot be set.
+     */
+    public static void setIpcSharedMemoryRegionPermission(Path p) throws IOException {
+        platform.setPermissions(OWNER_RW_EVERYONE_R, p);
+    }
+
     /**
      * Set permissions on the IPC socket path.
      *
@@ -0,0 +1,392 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.util;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Reads the stdout and stderr pipes of every {@link Exec} and hands their lines to the consumers.
+ *
+ * <p>Process pipes can't be selected in Java, so every stream is polled by a fixed pool of {@link #POLL_THREADS}
+ * threads, whatever the number of processes. A poll only reads the bytes that {@link InputStream#available()} reports,
+ * so it never blocks. A stream which had nothing to read is polled less and less often, down to once every
+ * {@link #MAX_POLL_INTERVAL_MILLIS} ms, and as often as it's read otherwise. Output is read in blocks and split into
+ * lines over a reused buffer.</p>
+ *
+ * <p>The end of a stream can't be told from a quiet one without a read, so once the process which writes it has
+ * exited, the rest of the stream is read to its end on a separate thread. That read returns right away unless a
+ * child of the process still holds the pipe open, and then it doesn't hold up the pollers.</p>
+ *
+ * <p>Lines are queued to the consumer, which runs on one of {@link #CONSUMER_THREADS} pooled threads while the stream
+ * has lines for it, so a slow consumer doesn't hold up the reading of other streams. Once {@link #MAX_QUEUED_LINES}
+ * lines are waiting, the stream isn't read until the consumer catches up. Each stream is also limited to
+ * {@link #MAX_LINES_PER_SECOND} lines per second, and isn't read while it's over. Either way the process is slowed down by the full pipe rather than losing output.</p>
+ */
+public final class ProcessOutputPump {
+    public static final String MAX_LINES_PER_SECOND_PROPERTY = "aws.greengrass.exec.maxLinesPerSecond";
+    public static final int MAX_LINES_PER_SECOND = Integer.getInteger(MAX_LINES_PER_SECOND_PROPERTY, 10_000);
+    public static final int MAX_QUEUED_LINES = 1000;
+    public static final int POLL_THREADS = 2;
+    public static final int CONSUMER_THREADS = 4;
+    public static final long MIN_POLL_INTERVAL_MICROS = 500;
+    public static final long MAX_POLL_INTERVAL_MILLIS = 50;
+    private static final Logger logger = LogManager.getLogger(ProcessOutputPump.class);
+    private static final int READ_BUFFER_SIZE = 8192;
+    private static final int INITIAL_LINE_SIZE = 256;
+    private static final ProcessOutputPump INSTANCE = new ProcessOutputPump(MAX_LINES_PER_SECOND, MAX_QUEUED_LINES);
+
+    private final ScheduledExecutorService pollers;
+    private final ExecutorService drainers;
+    private final ExecutorService consumers;
+    private final int maxLinesPerSecond;
+    private final int maxQueuedLines;
+    private final ThreadLocal<byte[]> readBuffer = ThreadLocal.withInitial(() -> new byte[READ_BUFFER_SIZE]);
+
+    ProcessOutputPump(int maxLinesPerSecond, int maxQueuedLines) {
+        this.pollers = Executors.newScheduledThreadPool(POLL_THREADS, daemonThreads("OutputPump-poll"));
+        this.drainers = Executors.newCachedThreadPool(daemonThreads("OutputPump-drain"));
+        this.consumers = Executors.newFixedThreadPool(CONSUMER_THREADS, daemonThreads("OutputPump-consume"));
+        this.maxLinesPerSecond = maxLinesPerSecond;
+        this.maxQueuedLines = Math.max(1, maxQueuedLines);
+    }
+
+    public static ProcessOutputPump getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Start pumping a stream.
+     *
+     * @param in          stream to read, closed once fully read
+     * @param out         receives each line including its trailing newline, one line at a time
+     * @param writerAlive whether the process writing the stream is still running
+     * @return handle to the pumped stream
+     */
+    public PumpedStream pump(InputStream in, Consumer<CharSequence> out, BooleanSupplier writerAlive) {
+        PumpedStream stream = new PumpedStream(in, out, writerAlive);
+        stream.startReading();
+        return stream;
+    }
+
+    /**
+     * Run a callback once a process has exited. Whether it's still running is polled like a stream, so that no
+     * thread waits for it.
+     *
+     * @param process process
+     * @param action  callback
+     */
+    public void whenExited(Process process, Runnable action) {
+        whenExited(process, action, MIN_POLL_INTERVAL_MICROS);
+    }
+
+    private void whenExited(Process process, Runnable action, long intervalMicros) {
+        if (process.isAlive()) {
+            pollers.schedule(() -> whenExited(process, action, nextPollInterval(intervalMicros)), intervalMicros,
+                    TimeUnit.MICROSECONDS);
+        } else {
+            consumers.execute(action);
+        }
+    }
+
+    private static long nextPollInterval(long intervalMicros) {
+        return Math.min(intervalMicros * 2, TimeUnit.MILLISECONDS.toMicros(MAX_POLL_INTERVAL_MILLIS));
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, name + "-" + count.incrementAndGet());
+            // Set as daemon threads so that they die when the main thread exits
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * A stream being read by the pump.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    public final class PumpedStream {
+        private final InputStream in;
+        private final Consumer<CharSequence> out;
+        private final BooleanSupplier writerAlive;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        // Single permit to read the stream. It's held by whichever task reads next, whether it's running, waiting for
+        // its next poll or the line budget, or queued, so reads never overlap.
+        private final AtomicBoolean reading = new AtomicBoolean(false);
+        private final AtomicBoolean paused = new AtomicBoolean(false);
+        private final AtomicBoolean consuming = new AtomicBoolean(false);
+        private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queuedLines = new AtomicInteger();
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private byte[] line = new byte[INITIAL_LINE_SIZE];
+        private int lineLength;
+        private CharBuffer decodeBuffer = CharBuffer.allocate(INITIAL_LINE_SIZE);
+        private double lineBudget;
+        private long lastRefillNanos = System.nanoTime();
+        private long pollIntervalMicros = MIN_POLL_INTERVAL_MICROS;
+        private volatile ScheduledFuture<?> nextPoll;
+        private volatile boolean ended;
+        @Getter
+        private volatile int nlines;
+
+        private PumpedStream(InputStream in, Consumer<CharSequence> out, BooleanSupplier writerAlive) {
+            this.in = in;
+            this.out = out;
+            this.writerAlive = writerAlive;
+            this.lineBudget = maxLinesPerSecond;
+        }
+
+        /**
+         * Wait for the stream to be read to the end and every line to be consumed.
+         *
+         * @param timeout how long to wait
+         * @param unit    unit of the timeout
+         * @throws InterruptedException if interrupted while waiting
+         */
+        public void await(long timeout, TimeUnit unit) throws InterruptedException {
+            try {
+                done.get(timeout, unit);
+            } catch (ExecutionException | TimeoutException ignore) {
+                // same as a Thread.join(timeout), callers only wait for a best effort
+            }
+        }
+
+        /**
+         * Register a callback to run once the stream has been read to the end and every line consumed.
+         *
+         * @param action callback
+         */
+        public void whenDone(Runnable action) {
+            done.thenRunAsync(action, consumers);
+        }
+
+        /**
+         * Poll the stream right away instead of when its next poll is due, such as once its process has exited.
+         */
+        public void wakeUp() {
+            ScheduledFuture<?> poll = nextPoll;
+            // only the task which cancelled the pending poll holds the permit, so a poll which started isn't doubled
+            if (poll != null && poll.cancel(false)) {
+                pollIntervalMicros = MIN_POLL_INTERVAL_MICROS;
+                pollers.execute(this::read);
+            }
+        }
+
+        private void startReading() {
+            if (reading.compareAndSet(false, true)) {
+                pollers.execute(this::read);
+            }
+        }
+
+        private void schedulePoll(long delayMicros) {
+            // keep the permit and give the thread back until the poll is due
+            nextPoll = pollers.schedule(this::read, delayMicros, TimeUnit.MICROSECONDS);
+        }
+
+        private void read() {
+            try {
+                byte[] buf = readBuffer.get();
+                while (true) {
+                    if (queuedLines.get() >= maxQueuedLines) {
+                        pause();
+                        return;
+                    }
+                    if (maxLinesPerSecond > 0 && !refillBudget()) {
+                        schedulePoll((long) ((1 - lineBudget) * TimeUnit.SECONDS.toMicros(1) / maxLinesPerSecond)
+                                + 1);
+                        return;
+                    }
+                    int available = in.available();
+                    if (available <= 0) {
+                        waitForOutput();
+                        return;
+                    }
+                    pollIntervalMicros = MIN_POLL_INTERVAL_MICROS;
+                    int n = in.read(buf, 0, Math.min(available, buf.length));
+                    if (n < 0) {
+                        end();
+                        return;
+                    }
+                    accept(buf, n);
+                    startConsuming();
+                }
+            } catch (IOException e) {
+                // the stream was closed, which is the same as reaching its end
+                end();
+            } catch (Throwable t) {
+                logger.atWarn().setCause(t).log("Error reading process output");
+                end();
+            }
+        }
+
+        private void waitForOutput() {
+            if (writerAlive.getAsBoolean()) {
+                schedulePoll(pollIntervalMicros);
+                pollIntervalMicros = nextPollInterval(pollIntervalMicros);
+            } else {
+                // the permit goes along to the drain
+                drainers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                byte[] buf = readBuffer.get();
+                int n = in.read(buf);
+                if (n < 0) {
+                    end();
+                    return;
+                }
+                accept(buf, n);
+                startConsuming();
+                // there was more, which is read by the pollers as usual
+                pollers.execute(this::read);
+            } catch (IOException e) {
+                end();
+            } catch (Throwable t) {
+                logger.atWarn().setCause(t).log("Error reading process output");
+                end();
+            }
+        }
+
+        private void pause() {
+            // give up the permit before pausing, so that a consumer resuming right away can take it
+            reading.set(false);
+            paused.set(true);
+            // the consumer may have caught up in the meantime, and then it won't resume reading
+            if (queuedLines.get() < maxQueuedLines) {
+                resume();
+            }
+        }
+
+        private void resume() {
+            if (paused.compareAndSet(true, false)) {
+                startReading();
+            }
+        }
+
+        private boolean refillBudget() {
+            long now = System.nanoTime();
+            lineBudget = Math.min(maxLinesPerSecond,
+                    lineBudget + (now - lastRefillNanos) * maxLinesPerSecond / (double) TimeUnit.SECONDS.toNanos(1));
+            lastRefillNanos = now;
+            return lineBudget >= 1;
+        }
+
+        private void accept(byte[] buf, int n) {
+            int start = 0;
+            for (int i = 0; i < n; i++) {
+                if (buf[i] == '\n') {
+                    append(buf, start, i + 1 - start);
+                    emitLine(true);
+                    start = i + 1;
+                }
+            }
+            append(buf, start, n - start);
+        }
+
+        private void append(byte[] buf, int off, int len) {
+            if (lineLength + len > line.length) {
+                byte[] bigger = new byte[Math.max(line.length * 2, lineLength + len)];
+                System.arraycopy(line, 0, bigger, 0, lineLength);
+                line = bigger;
+            }
+            System.arraycopy(buf, off, line, lineLength, len);
+            lineLength += len;
+        }
+
+        private void emitLine(boolean complete) {
+            if (lineLength == 0) {
+                return;
+            }
+            if (complete) {
+                nlines++;
+                lineBudget--;
+            }
+            if (out == null) {
+                lineLength = 0;
+                return;
+            }
+            if (decodeBuffer.capacity() < lineLength) {
+                decodeBuffer = CharBuffer.allocate(Math.max(decodeBuffer.capacity() * 2, lineLength));
+            }
+            decodeBuffer.clear();
+            decoder.reset();
+            decoder.decode(ByteBuffer.wrap(line, 0, lineLength), decodeBuffer, true);
+            decoder.flush(decodeBuffer);
+            decodeBuffer.flip();
+            lineLength = 0;
+            lines.add(decodeBuffer.toString());
+            queuedLines.incrementAndGet();
+        }
+
+        private void end() {
+            // the last line may not end with a newline
+            emitLine(false);
+            try {
+                in.close();
+            } catch (IOException ignore) {
+                // already closed
+            }
+            // the permit is kept, so the stream is never read again
+            ended = true;
+            startConsuming();
+        }
+
+        private void startConsuming() {
+            if (consuming.compareAndSet(false, true)) {
+                consumers.execute(this::consume);
+            }
+        }
+
+        private void consume() {
+            do {
+                for (String l = lines.poll(); l != null; l = lines.poll()) {
+                    try {
+                        out.accept(l);
+                    } catch (Throwable t) {
+                        logger.atWarn().setCause(t).log("Error consuming process output");
+                    }
+                    queuedLines.decrementAndGet();
+                }
+                // only completed while holding the permit, so that no line is still being consumed elsewhere
+                if (ended && lines.isEmpty()) {
+                    done.complete(null);
+                }
+                consuming.set(false);
+                // work which came in after it was checked but before the permit was given up is taken here
+            } while ((!lines.isEmpty() || ended && !done.isDone()) && consuming.compareAndSet(false, true));
+            resume();
+        }
+    }
+}
@@ -619,13 +619,13 @@ public final class Utils {
     }
 
     /**
-     * Clean up a file or a directory recursively.
+     * Clean up a file or a directory recursively. Symbolic links are deleted without following them.
      *
      * @param filePath path to the file
      * @throws IOException if deletion fails
      */
     public static void deleteFileRecursively(File filePath) throws IOException {
-        File[] files = filePath.listFiles();
+        File[] files = Files.isSymbolicLink(filePath.toPath()) ? null : filePath.listFiles();
         if (files != null) {
             for (File file : files) {
                 deleteFileRecursively(file);
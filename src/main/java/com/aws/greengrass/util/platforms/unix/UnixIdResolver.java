@@ -0,0 +1,351 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.util.platforms.unix;
+
+import com.aws.greengrass.jna.UnixLibC;
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import com.sun.jna.Memory;
+import com.sun.jna.NativeLong;
+import com.sun.jna.Pointer;
+import com.sun.jna.Structure;
+import com.sun.jna.ptr.PointerByReference;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Value;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves users and groups in process instead of running `id` for every lookup.
+ *
+ * <p>Lookups first check /etc/passwd and /etc/group, which are parsed once and re-parsed only when their
+ * modification time or size changes. Names which aren't in the files are resolved with the reentrant libc functions
+ * (getpwnam_r, getgrnam_r, ...) so that NSS sources like LDAP still work. Results from libc are cached for
+ * {@link #DEFAULT_TTL_MILLIS}, and the whole cache is dropped when either file changes.</p>
+ *
+ * <p>Lookups return {@link Optional#empty()} when a user or group doesn't exist; they only throw when /etc/group is
+ * malformed. If libc can't be loaded, {@link #isNativeAvailable()} is false and callers should fall back to `id`.</p>
+ */
+@SuppressFBWarnings(value = "DMI_HARDCODED_ABSOLUTE_FILENAME", justification = "user databases are at fixed paths")
+class UnixIdResolver {
+    static final long DEFAULT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final Logger logger = LogManager.getLogger(UnixIdResolver.class);
+    private static final String PASSWD_FILE = "/etc/passwd";
+    private static final String GROUP_FILE = "/etc/group";
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+    // uid_t and gid_t are unsigned 32 bit
+    private static final long MAX_ID = 0xFFFF_FFFFL;
+    private static final int MAX_ID_DIGITS = 10;
+
+    private final Path passwdFile;
+    private final Path groupFile;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private final UnixLibC libc;
+
+    private volatile FileSnapshot<UnixUserAttributes> passwd;
+    private volatile FileSnapshot<UnixGroupAttributes> group;
+    private final Map<String, CachedEntry<UnixUserAttributes>> nativeUsers = new ConcurrentHashMap<>();
+    private final Map<String, CachedEntry<UnixGroupAttributes>> nativeGroups = new ConcurrentHashMap<>();
+
+    UnixIdResolver() {
+        this(Paths.get(PASSWD_FILE), Paths.get(GROUP_FILE), DEFAULT_TTL_MILLIS, System::currentTimeMillis,
+                loadLibC());
+    }
+
+    UnixIdResolver(Path passwdFile, Path groupFile, long ttlMillis, LongSupplier clock, UnixLibC libc) {
+        this.passwdFile = passwdFile;
+        this.groupFile = groupFile;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.libc = libc;
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingThrowable")
+    private static UnixLibC loadLibC() {
+        try {
+            return UnixLibC.INSTANCE;
+        } catch (Throwable e) {
+            logger.atDebug().setCause(e).log("Unable to load libc, falling back to id for user lookups");
+            return null;
+        }
+    }
+
+    boolean isNativeAvailable() {
+        return libc != null;
+    }
+
+    /**
+     * Get the real uid and primary gid of this process.
+     *
+     * @return uid and gid, or empty if libc isn't available
+     */
+    Optional<long[]> currentIds() {
+        if (libc == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new long[]{Integer.toUnsignedLong(libc.getuid()), Integer.toUnsignedLong(libc.getgid())});
+    }
+
+    /**
+     * Look up a user by name or numeric id.
+     *
+     * @param user name or uid
+     * @return user attributes, or empty if the user is unknown
+     * @throws IOException if /etc/passwd cannot be read
+     */
+    Optional<UnixUserAttributes> lookupUser(String user) throws IOException {
+        if (refreshSnapshots()) {
+            nativeUsers.clear();
+            nativeGroups.clear();
+        }
+        UnixUserAttributes attributes = passwd.get(user);
+        if (attributes != null) {
+            return Optional.of(attributes);
+        }
+        if (libc == null) {
+            return Optional.empty();
+        }
+        CachedEntry<UnixUserAttributes> cached = nativeUsers.get(user);
+        long now = clock.getAsLong();
+        if (cached == null || cached.getExpiresAt() < now) {
+            cached = new CachedEntry<>(nativeLookupUser(user), now + ttlMillis);
+            nativeUsers.put(user, cached);
+        }
+        return Optional.ofNullable(cached.getValue());
+    }
+
+    /**
+     * Look up a group by name or numeric id.
+     *
+     * @param name name or gid
+     * @return group attributes, or empty if the group is unknown
+     * @throws IOException if /etc/group cannot be read or is malformed
+     */
+    Optional<UnixGroupAttributes> lookupGroup(String name) throws IOException {
+        if (refreshSnapshots()) {
+            nativeUsers.clear();
+            nativeGroups.clear();
+        }
+        UnixGroupAttributes attributes = group.get(name);
+        if (attributes != null) {
+            return Optional.of(attributes);
+        }
+        if (libc == null) {
+            return Optional.empty();
+        }
+        CachedEntry<UnixGroupAttributes> cached = nativeGroups.get(name);
+        long now = clock.getAsLong();
+        if (cached == null || cached.getExpiresAt() < now) {
+            cached = new CachedEntry<>(nativeLookupGroup(name), now + ttlMillis);
+            nativeGroups.put(name, cached);
+        }
+        return Optional.ofNullable(cached.getValue());
+    }
+
+    /**
+     * Re-parse the files if they changed.
+     *
+     * @return true if either file was (re)loaded
+     */
+    private synchronized boolean refreshSnapshots() throws IOException {
+        boolean changed = false;
+        FileSnapshot.Stamp passwdStamp = FileSnapshot.stamp(passwdFile);
+        if (passwd == null || !passwd.stamp.equals(passwdStamp)) {
+            passwd = parsePasswd(passwdFile, passwdStamp);
+            changed = true;
+        }
+        FileSnapshot.Stamp groupStamp = FileSnapshot.stamp(groupFile);
+        if (group == null || !group.stamp.equals(groupStamp)) {
+            group = parseGroup(groupFile, groupStamp);
+            changed = true;
+        }
+        return changed;
+    }
+
+    @SuppressWarnings("PMD.AssignmentInOperand")
+    private static FileSnapshot<UnixUserAttributes> parsePasswd(Path file, FileSnapshot.Stamp stamp)
+            throws IOException {
+        Map<String, UnixUserAttributes> byName = new HashMap<>();
+        Map<String, UnixUserAttributes> byId = new HashMap<>();
+        if (stamp != FileSnapshot.MISSING) {
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.startsWith("#") || line.isEmpty()) {
+                        continue;
+                    }
+                    // name:passwd:uid:gid:gecos:dir:shell
+                    String[] parts = line.split(":");
+                    if (parts.length < 4 || !parseId(parts[2]).isPresent()) {
+                        continue;
+                    }
+                    OptionalLong gid = parseId(parts[3]);
+                    if (!gid.isPresent()) {
+                        continue;
+                    }
+                    UnixUserAttributes user = UnixUserAttributes.builder().principalName(parts[0])
+                            .principalIdentifier(parts[2]).primaryGid(gid.getAsLong()).build();
+                    byName.putIfAbsent(parts[0], user);
+                    byId.putIfAbsent(parts[2], user);
+                }
+            }
+        }
+        return new FileSnapshot<>(stamp, byName, byId);
+    }
+
+    @SuppressWarnings("PMD.AssignmentInOperand")
+    private static FileSnapshot<UnixGroupAttributes> parseGroup(Path file, FileSnapshot.Stamp stamp)
+            throws IOException {
+        Map<String, UnixGroupAttributes> byName = new HashMap<>();
+        Map<String, UnixGroupAttributes> byId = new HashMap<>();
+        if (stamp != FileSnapshot.MISSING) {
+            try (BufferedReader reader = Files.newBufferedReader(file)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.startsWith("#") || line.isEmpty()) {
+                        continue;
+                    }
+                    String[] parts = line.split(":");
+                    if (parts.length < 3) {
+                        throw new IOException(String.format(
+                                "Unrecognized %s file. Expected syntax: name:passwd:gid[:userlist]. Got: %s", file,
+                                line));
+                    }
+                    UnixGroupAttributes group =
+                            UnixGroupAttributes.builder().principalName(parts[0]).principalIdentifier(parts[2])
+                                    .build();
+                    byName.putIfAbsent(parts[0], group);
+                    byId.putIfAbsent(parts[2], group);
+                }
+            }
+        }
+        return new FileSnapshot<>(stamp, byName, byId);
+    }
+
+    private UnixUserAttributes nativeLookupUser(String user) throws IOException {
+        // digits which aren't a valid uid can still be a name
+        OptionalLong uid = parseId(user);
+        UnixLibC.Passwd pwd = new UnixLibC.Passwd();
+        UnixLibC.Passwd result = callWithBuffer(pwd, (buf, len, out) -> uid.isPresent()
+                ? libc.getpwuid_r((int) uid.getAsLong(), pwd, buf, len, out)
+                : libc.getpwnam_r(user, pwd, buf, len, out));
+        if (result == null) {
+            return null;
+        }
+        return UnixUserAttributes.builder().principalName(result.pw_name)
+                .principalIdentifier(Long.toString(Integer.toUnsignedLong(result.pw_uid)))
+                .primaryGid(Integer.toUnsignedLong(result.pw_gid)).build();
+    }
+
+    private UnixGroupAttributes nativeLookupGroup(String name) throws IOException {
+        OptionalLong gid = parseId(name);
+        UnixLibC.Group grp = new UnixLibC.Group();
+        UnixLibC.Group result = callWithBuffer(grp, (buf, len, out) -> gid.isPresent()
+                ? libc.getgrgid_r((int) gid.getAsLong(), grp, buf, len, out)
+                : libc.getgrnam_r(name, grp, buf, len, out));
+        if (result == null) {
+            return null;
+        }
+        return UnixGroupAttributes.builder().principalName(result.gr_name)
+                .principalIdentifier(Long.toString(Integer.toUnsignedLong(result.gr_gid))).build();
+    }
+
+    /**
+     * Call a *_r function, growing the string buffer while it returns ERANGE.
+     *
+     * @return the struct if an entry was found, or null if it doesn't exist
+     */
+    private static <T extends Structure> T callWithBuffer(T struct, ReentrantCall call) throws IOException {
+        for (int size = INITIAL_BUFFER_SIZE; size <= MAX_BUFFER_SIZE; size *= 2) {
+            PointerByReference out = new PointerByReference();
+            int err = call.invoke(new Memory(size), new NativeLong(size), out);
+            if (err == UnixLibC.ERANGE) {
+                continue;
+            }
+            if (err != 0) {
+                throw new IOException("User database lookup failed with errno " + err);
+            }
+            return out.getValue() == null ? null : struct;
+        }
+        throw new IOException("User database entry is larger than " + MAX_BUFFER_SIZE + " bytes");
+    }
+
+    /**
+     * Parse a uid or gid.
+     *
+     * @return the id, or empty if it isn't a number or out of the range of ids
+     */
+    private static OptionalLong parseId(String s) {
+        if (s.isEmpty() || s.length() > MAX_ID_DIGITS || !s.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            return OptionalLong.empty();
+        }
+        long id = Long.parseLong(s);
+        return id > MAX_ID ? OptionalLong.empty() : OptionalLong.of(id);
+    }
+
+    @FunctionalInterface
+    private interface ReentrantCall {
+        int invoke(Pointer buf, NativeLong buflen, PointerByReference result);
+    }
+
+    @Value
+    private static class CachedEntry<T> {
+        T value;
+        long expiresAt;
+    }
+
+    private static class FileSnapshot<T> {
+        static final Stamp MISSING = new Stamp(-1, -1);
+
+        private final Stamp stamp;
+        private final Map<String, T> byName;
+        private final Map<String, T> byId;
+
+        FileSnapshot(Stamp stamp, Map<String, T> byName, Map<String, T> byId) {
+            this.stamp = stamp;
+            this.byName = Collections.unmodifiableMap(byName);
+            this.byId = Collections.unmodifiableMap(byId);
+        }
+
+        T get(String nameOrId) {
+            T value = byName.get(nameOrId);
+            return value == null ? byId.get(nameOrId) : value;
+        }
+
+        static Stamp stamp(Path file) throws IOException {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                return new Stamp(attrs.lastModifiedTime().toMillis(), attrs.size());
+            } catch (NoSuchFileException e) {
+                return MISSING;
+            }
+        }
+
+        @Value
+        private static class Stamp {
+            long modified;
+            long size;
+        }
+    }
+}
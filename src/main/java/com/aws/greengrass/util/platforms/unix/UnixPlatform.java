@@ -61,7 +61,6 @@ public class UnixPlatform extends Platform {
     public static final String STDERR = "stderr";
     protected static final int SIGTERM = 15;
     protected static final int SIGKILL = 9;
-    private static final String POSIX_GROUP_FILE = "/etc/group";
 
     public static final String IPC_SERVER_DOMAIN_SOCKET_FILENAME = "ipc.socket";
     public static final String IPC_SERVER_DOMAIN_SOCKET_FILENAME_SYMLINK = "./nucleusRoot/ipc.socket";
@@ -78,6 +77,7 @@ public class UnixPlatform extends Platform {
 
     private static UnixUserAttributes CURRENT_USER;
     private static UnixGroupAttributes CURRENT_USER_PRIMARY_GROUP;
+    private static final UnixIdResolver ID_RESOLVER = new UnixIdResolver();
 
     private final SystemResourceController systemResourceController = new StubResourceController();
     private final UnixRunWithGenerator runWithGenerator;
@@ -161,6 +161,18 @@ public class UnixPlatform extends Platform {
      */
     private static synchronized UnixUserAttributes loadCurrentUser() throws IOException {
         if (CURRENT_USER == null) {
+            Optional<long[]> ids = ID_RESOLVER.currentIds();
+            if (ids.isPresent()) {
+                String uid = Long.toString(ids.get()[0]);
+                String gid = Long.toString(ids.get()[1]);
+                CURRENT_USER = UnixUserAttributes.builder().principalIdentifier(uid)
+                        .principalName(ID_RESOLVER.lookupUser(uid).map(UnixUserAttributes::getPrincipalName)
+                                .orElse(uid))
+                        .primaryGid(ids.get()[1]).build();
+                CURRENT_USER_PRIMARY_GROUP = lookupGroup(gid);
+                return CURRENT_USER;
+            }
+
             Optional<String> id = id(null, IdOption.User, false);
             id.orElseThrow(() -> new IOException("Could not lookup current user: " + System.getProperty("user.name")));
 
@@ -184,6 +196,19 @@ public class UnixPlatform extends Platform {
             throw new IOException("No user to lookup");
         }
         boolean isNumeric = user.chars().allMatch(Character::isDigit);
+
+        Optional<UnixUserAttributes> resolved = ID_RESOLVER.lookupUser(user);
+        if (resolved.isPresent()) {
+            return resolved.get();
+        }
+        if (ID_RESOLVER.isNativeAvailable()) {
+            // libc went through every NSS source, so the user doesn't exist. A uid is still usable without a user
+            if (isNumeric) {
+                return UnixUserAttributes.builder().principalIdentifier(user).principalName(user).build();
+            }
+            throw new IOException("Unrecognized user: " + user);
+        }
+
         UnixUserAttributes.UnixUserAttributesBuilder builder = UnixUserAttributes.builder();
 
         if (isNumeric) {
@@ -207,28 +232,13 @@ public class UnixPlatform extends Platform {
         return builder.build();
     }
 
-    @SuppressWarnings("PMD.AssignmentInOperand")
     private static UnixGroupAttributes lookupGroup(String name) throws IOException {
         if (Utils.isEmpty(name)) {
             throw new IOException("No group to lookup");
         }
-        try (BufferedReader reader = Files.newBufferedReader(Paths.get(POSIX_GROUP_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                line = line.trim();
-                if (line.startsWith("#") || line.isEmpty()) {
-                    continue;
-                }
-                String[] parts = line.split(":");
-                if (parts.length < 3) {
-                    throw new IOException(
-                            String.format("Unrecognized %s file. Expected syntax: name:passwd:gid[:userlist]. Got: %s",
-                                    POSIX_GROUP_FILE, line));
-                }
-                if (name.equals(parts[0]) || name.equals(parts[2])) {
-                    return UnixGroupAttributes.builder().principalName(parts[0]).principalIdentifier(parts[2]).build();
-                }
-            }
+        Optional<UnixGroupAttributes> resolved = ID_RESOLVER.lookupGroup(name);
+        if (resolved.isPresent()) {
+            return resolved.get();
         }
 
         // if customer put in an ID it does not need to exist on the system
@@ -24,6 +24,9 @@ public enum Cgroup {
     private static final String CPU_CFS_PERIOD_US = "cpu.cfs_period_us";
     private static final String CPU_CFS_QUOTA_US = "cpu.cfs_quota_us";
     private static final String CGROUP_PROCS = "cgroup.procs";
+    private static final String CGROUP_TASKS = "tasks";
+    private static final String CPUACCT_USAGE = "cpuacct.usage";
+    private static final String MEMORY_STAT = "memory.stat";
     private static final String FREEZER_STATE_FILE = "freezer.state";
 
     private final String osString;
@@ -79,6 +82,18 @@ public enum Cgroup {
         return getSubsystemComponentPath(componentName).resolve(CGROUP_PROCS);
     }
 
+    public Path getCgroupTasksPath(String componentName) {
+        return getSubsystemComponentPath(componentName).resolve(CGROUP_TASKS);
+    }
+
+    public Path getComponentCpuUsagePath(String componentName) {
+        return getSubsystemComponentPath(componentName).resolve(CPUACCT_USAGE);
+    }
+
+    public Path getComponentMemoryStatPath(String componentName) {
+        return getSubsystemComponentPath(componentName).resolve(MEMORY_STAT);
+    }
+
     public Path getCgroupFreezerStateFilePath(String componentName) {
         return getSubsystemComponentPath(componentName).resolve(FREEZER_STATE_FILE);
     }
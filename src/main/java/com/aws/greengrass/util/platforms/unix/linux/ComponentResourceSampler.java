@@ -0,0 +1,314 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.util.platforms.unix.linux;
+
+import com.aws.greengrass.logging.api.Logger;
+import com.aws.greengrass.logging.impl.LogManager;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import lombok.Value;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the resources used by the processes of components.
+ *
+ * <p>A component whose processes were added to the cgroups of {@link LinuxSystemResourceController} is read from them:
+ * CPU time from cpuacct, resident memory from the memory cgroup and threads from the tasks of the CPU cgroup. Any other
+ * component is read from its process trees in /proc. I/O bytes are always the sum of /proc/[pid]/io of its
+ * processes.</p>
+ *
+ * <p>The cost of a sample is bounded by the number of processes rather than components: cgroups only take a few small
+ * reads per component, and /proc/[pid]/stat of every process is read at most once per sample to find the process trees,
+ * whatever the number of components which need them. Nothing is forked. Unlike {@link ProcfsProcessTree}, which only
+ * needs parent pids, the CPU time, threads and resident memory of each process are kept from the same read.</p>
+ */
+public class ComponentResourceSampler {
+    private static final Logger logger = LogManager.getLogger(ComponentResourceSampler.class);
+    // USER_HZ, the unit of CPU times in /proc, which is 100 on every architecture Linux supports
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+    private static final long NANOS_PER_TICK = TimeUnit.SECONDS.toNanos(1) / CLOCK_TICKS_PER_SECOND;
+    private static final long ONE_KB = 1024;
+    private static final long DEFAULT_PAGE_SIZE = 4096;
+    // fields of /proc/[pid]/stat, counted from the state which follows the command name
+    private static final int STAT_PPID = 1;
+    private static final int STAT_UTIME = 11;
+    private static final int STAT_CSTIME = 14;
+    private static final int STAT_NUM_THREADS = 17;
+    private static final int STAT_RSS = 21;
+    private static final String KERNEL_PAGE_SIZE = "KernelPageSize:";
+    private static final String READ_BYTES = "read_bytes:";
+    private static final String WRITE_BYTES = "write_bytes:";
+    private static final String TOTAL_RSS = "total_rss ";
+
+    private final Path procRoot;
+    private final Path cgroupRoot;
+    private final long pageSize;
+
+    @SuppressFBWarnings(value = "DMI_HARDCODED_ABSOLUTE_FILENAME", justification = "proc filesystem path")
+    public ComponentResourceSampler() {
+        this(Paths.get("/proc"), Cgroup.getRootPath(), readPageSize(Paths.get("/proc/self/smaps")));
+    }
+
+    ComponentResourceSampler(Path procRoot, Path cgroupRoot, long pageSize) {
+        this.procRoot = procRoot;
+        this.cgroupRoot = cgroupRoot;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Sample the resources used by components.
+     *
+     * @param components IDs of the processes each component started, by component name
+     * @return usage by component name; components which have no processes left aren't included
+     */
+    public Map<String, ResourceUsage> sample(Map<String, Collection<Integer>> components) {
+        Map<String, ResourceUsage> usages = new LinkedHashMap<>();
+        ProcessTable processes = null;
+        for (Map.Entry<String, Collection<Integer>> component : components.entrySet()) {
+            ResourceUsage usage = sampleCgroups(component.getKey());
+            if (usage == null && !component.getValue().isEmpty()) {
+                if (processes == null) {
+                    processes = readProcesses();
+                }
+                usage = sampleProcessTrees(component.getValue(), processes);
+            }
+            if (usage != null) {
+                usages.put(component.getKey(), usage);
+            }
+        }
+        return usages;
+    }
+
+    private ResourceUsage sampleCgroups(String component) {
+        Path procs = cgroupPath(Cgroup.CPU.getCgroupProcsPath(component));
+        if (!Files.exists(procs)) {
+            return null;
+        }
+        try {
+            List<Integer> pids = readPids(procs);
+            if (pids.isEmpty()) {
+                // processes may not have been added yet
+                return null;
+            }
+            long cpuNanos = Long.parseLong(read(cgroupPath(Cgroup.CPU.getComponentCpuUsagePath(component))).trim());
+            int threads = readPids(cgroupPath(Cgroup.CPU.getCgroupTasksPath(component))).size();
+            long rssBytes = -1;
+            Path memoryStat = cgroupPath(Cgroup.Memory.getComponentMemoryStatPath(component));
+            if (Files.exists(memoryStat)) {
+                rssBytes = valueOf(read(memoryStat), TOTAL_RSS, 1);
+            }
+            if (rssBytes < 0) {
+                rssBytes = 0;
+                for (int pid : pids) {
+                    ProcessStat stat = parseStat(readProcess(pid, "stat"));
+                    if (stat != null) {
+                        rssBytes += stat.getRssPages() * pageSize;
+                    }
+                }
+            }
+            long[] io = readIo(pids);
+            return new ResourceUsage(cpuNanos, rssBytes, threads, io[0], io[1]);
+        } catch (IOException | NumberFormatException e) {
+            logger.atDebug().kv("componentName", component).setCause(e)
+                    .log("Unable to read the cgroups of the component, reading its processes instead");
+            return null;
+        }
+    }
+
+    private ResourceUsage sampleProcessTrees(Collection<Integer> rootPids, ProcessTable processes) {
+        Set<Integer> tree = new HashSet<>();
+        Deque<Integer> toVisit = new ArrayDeque<>(rootPids);
+        while (!toVisit.isEmpty()) {
+            Integer pid = toVisit.pop();
+            if (processes.stats.containsKey(pid) && tree.add(pid)) {
+                toVisit.addAll(processes.children.getOrDefault(pid, Collections.emptyList()));
+            }
+        }
+        if (tree.isEmpty()) {
+            return null;
+        }
+        long cpuTicks = 0;
+        int threads = 0;
+        long rssBytes = 0;
+        for (int pid : tree) {
+            ProcessStat stat = processes.stats.get(pid);
+            cpuTicks += stat.getCpuTicks();
+            threads += stat.getThreads();
+            rssBytes += stat.getRssPages() * pageSize;
+        }
+        long[] io = readIo(tree);
+        return new ResourceUsage(cpuTicks * NANOS_PER_TICK, rssBytes, threads, io[0], io[1]);
+    }
+
+    private ProcessTable readProcesses() {
+        ProcessTable processes = new ProcessTable();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(procRoot, "[0-9]*")) {
+            for (Path entry : entries) {
+                int pid;
+                try {
+                    pid = Integer.parseInt(entry.getFileName().toString());
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                ProcessStat stat = parseStat(readProcess(pid, "stat"));
+                if (stat != null) {
+                    processes.stats.put(pid, stat);
+                    processes.children.computeIfAbsent(stat.getPpid(), k -> new ArrayList<>()).add(pid);
+                }
+            }
+        } catch (IOException e) {
+            logger.atWarn().kv("procRoot", procRoot).setCause(e).log("Unable to list processes");
+        }
+        return processes;
+    }
+
+    static ProcessStat parseStat(String stat) {
+        // the command name is in parentheses and may contain anything, including spaces and parentheses
+        int commandEnd = stat.lastIndexOf(')');
+        if (commandEnd < 0) {
+            return null;
+        }
+        String[] fields = stat.substring(commandEnd + 1).trim().split(" ");
+        if (fields.length <= STAT_RSS) {
+            return null;
+        }
+        try {
+            long cpuTicks = 0;
+            // utime, stime, and the cutime and cstime of children which exited and were waited for
+            for (int i = STAT_UTIME; i <= STAT_CSTIME; i++) {
+                cpuTicks += Long.parseLong(fields[i]);
+            }
+            return new ProcessStat(Integer.parseInt(fields[STAT_PPID]), cpuTicks,
+                    Integer.parseInt(fields[STAT_NUM_THREADS]), Math.max(0, Long.parseLong(fields[STAT_RSS])));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private long[] readIo(Collection<Integer> pids) {
+        long[] io = new long[2];
+        for (int pid : pids) {
+            // only readable by the owner of the process or root
+            String content = readProcess(pid, "io");
+            io[0] += Math.max(0, valueOf(content, READ_BYTES, 1));
+            io[1] += Math.max(0, valueOf(content, WRITE_BYTES, 1));
+        }
+        return io;
+    }
+
+    private String readProcess(int pid, String file) {
+        try {
+            return read(procRoot.resolve(Integer.toString(pid)).resolve(file));
+        } catch (IOException e) {
+            // exited since it was listed, or not ours to read
+            return "";
+        }
+    }
+
+    /**
+     * Get the size of the pages resident memory is counted in by /proc/[pid]/stat, from the first mapping of the
+     * process itself.
+     *
+     * @param smaps /proc/self/smaps
+     * @return page size in bytes
+     */
+    private static long readPageSize(Path smaps) {
+        try (BufferedReader reader = Files.newBufferedReader(smaps, StandardCharsets.UTF_8)) {
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                if (line.startsWith(KERNEL_PAGE_SIZE)) {
+                    long pageSize = valueOf(line, KERNEL_PAGE_SIZE, ONE_KB);
+                    return pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE;
+                }
+            }
+        } catch (IOException e) {
+            logger.atDebug().kv("path", smaps).setCause(e).log("Unable to read the page size, assuming 4 kB");
+        }
+        return DEFAULT_PAGE_SIZE;
+    }
+
+    private Path cgroupPath(Path path) {
+        return cgroupRoot.resolve(Cgroup.getRootPath().relativize(path));
+    }
+
+    private static List<Integer> readPids(Path file) throws IOException {
+        List<Integer> pids = new ArrayList<>();
+        for (String line : read(file).split("\n")) {
+            if (!line.trim().isEmpty()) {
+                pids.add(Integer.parseInt(line.trim()));
+            }
+        }
+        return pids;
+    }
+
+    /**
+     * Get a value of a file of "key value" lines.
+     *
+     * @param content    content of the file
+     * @param key        key, including what separates it from the value
+     * @param multiplier unit of the value in bytes
+     * @return the value; -1 if the key isn't there
+     */
+    private static long valueOf(String content, String key, long multiplier) {
+        for (String line : content.split("\n")) {
+            if (line.startsWith(key)) {
+                String[] value = line.substring(key.length()).trim().split(" ");
+                try {
+                    return Long.parseLong(value[0]) * multiplier;
+                } catch (NumberFormatException e) {
+                    return -1;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static final class ProcessTable {
+        private final Map<Integer, ProcessStat> stats = new HashMap<>();
+        private final Map<Integer, List<Integer>> children = new HashMap<>();
+    }
+
+    @Value
+    static class ProcessStat {
+        int ppid;
+        long cpuTicks;
+        int threads;
+        long rssPages;
+    }
+
+    /**
+     * Resources used by the processes of a component. CPU time and I/O bytes are totals since the processes started.
+     */
+    @Value
+    public static class ResourceUsage {
+        long cpuNanos;
+        long rssBytes;
+        int threads;
+        long readBytes;
+        long writeBytes;
+    }
+}
@@ -7,6 +7,10 @@ package com.aws.greengrass.util.platforms.unix.linux;
 
 import com.aws.greengrass.util.platforms.SystemResourceController;
 import com.aws.greengrass.util.platforms.unix.UnixPlatform;
+import org.zeroturnaround.process.Processes;
+
+import java.io.IOException;
+import java.util.Set;
 
 public class LinuxPlatform extends UnixPlatform {
     SystemResourceController systemResourceController = new LinuxSystemResourceController(this);
@@ -15,4 +19,26 @@ public class LinuxPlatform extends UnixPlatform {
     public SystemResourceController getSystemResourceController() {
         return systemResourceController;
     }
+
+    /**
+     * Get the child PIDs of a process by reading the process tree from /proc, without forking a process. Falls back
+     * to `ps` if /proc isn't available.
+     *
+     * @param process process
+     * @return a set of PIDs
+     * @throws IOException IO exception
+     * @throws InterruptedException InterruptedException
+     */
+    @Override
+    public Set<Integer> getChildPids(Process process) throws IOException, InterruptedException {
+        if (!ProcfsProcessTree.isAvailable()) {
+            return super.getChildPids(process);
+        }
+        try {
+            return ProcfsProcessTree.getDescendantPids(Processes.newPidProcess(process).getPid());
+        } catch (IOException e) {
+            logger.atDebug().setCause(e).log("Unable to read process tree from /proc, falling back to ps");
+            return super.getChildPids(process);
+        }
+    }
 }
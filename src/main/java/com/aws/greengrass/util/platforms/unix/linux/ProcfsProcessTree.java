@@ -0,0 +1,142 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.util.platforms.unix.linux;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads the process tree from the proc filesystem, so that finding the descendants of a process doesn't require
+ * forking a `ps` process.
+ */
+@SuppressFBWarnings(value = "DMI_HARDCODED_ABSOLUTE_FILENAME", justification = "proc virtual filesystem path "
+        + "cannot be relative")
+public final class ProcfsProcessTree {
+    private static final Path PROC_ROOT = Paths.get("/proc");
+    private static final String STAT_FILE = "stat";
+
+    private ProcfsProcessTree() {
+    }
+
+    /**
+     * Check whether the process tree can be read from /proc on this host.
+     *
+     * @return true if /proc is mounted and readable
+     */
+    public static boolean isAvailable() {
+        return Files.isReadable(PROC_ROOT.resolve("self").resolve(STAT_FILE));
+    }
+
+    /**
+     * Get all descendants of a process.
+     *
+     * @param pid process id
+     * @return pids of all children, grandchildren and so on of the process; does not include the process itself
+     * @throws IOException if /proc cannot be listed
+     */
+    public static Set<Integer> getDescendantPids(int pid) throws IOException {
+        return getDescendantPids(PROC_ROOT, pid);
+    }
+
+    static Set<Integer> getDescendantPids(Path procRoot, int pid) throws IOException {
+        Map<Integer, List<Integer>> parentToChildren = new HashMap<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(procRoot)) {
+            for (Path entry : entries) {
+                int childPid = parsePid(entry.getFileName().toString());
+                if (childPid <= 0) {
+                    continue;
+                }
+                int parentPid = readParentPid(entry.resolve(STAT_FILE));
+                if (parentPid > 0) {
+                    parentToChildren.computeIfAbsent(parentPid, k -> new ArrayList<>()).add(childPid);
+                }
+            }
+        }
+
+        Set<Integer> descendants = new HashSet<>();
+        Deque<Integer> toVisit = new ArrayDeque<>();
+        toVisit.add(pid);
+        while (!toVisit.isEmpty()) {
+            List<Integer> children = parentToChildren.get(toVisit.poll());
+            if (children == null) {
+                continue;
+            }
+            for (Integer child : children) {
+                // guard against pid reuse creating a cycle while the tree changes under us
+                if (child != pid && descendants.add(child)) {
+                    toVisit.add(child);
+                }
+            }
+        }
+        return descendants;
+    }
+
+    /**
+     * Read the parent pid from /proc/[pid]/stat. The format is "pid (comm) state ppid ...", where comm may itself
+     * contain spaces and parentheses, so parsing starts after the last closing parenthesis.
+     *
+     * @param statFile path of the stat file
+     * @return parent pid; -1 if the process exited or the file cannot be parsed
+     */
+    static int readParentPid(Path statFile) {
+        byte[] stat;
+        try {
+            stat = Files.readAllBytes(statFile);
+        } catch (IOException e) {
+            // process exited while scanning
+            return -1;
+        }
+        int i = stat.length - 1;
+        while (i >= 0 && stat[i] != ')') {
+            i--;
+        }
+        // skip ") S "
+        i += 2;
+        while (i < stat.length && stat[i] != ' ') {
+            i++;
+        }
+        i++;
+        if (i >= stat.length) {
+            return -1;
+        }
+        int ppid = 0;
+        for (; i < stat.length && stat[i] != ' '; i++) {
+            if (stat[i] < '0' || stat[i] > '9') {
+                return -1;
+            }
+            ppid = ppid * 10 + stat[i] - '0';
+        }
+        return ppid;
+    }
+
+    private static int parsePid(String name) {
+        if (name.isEmpty() || name.length() > 10) {
+            return -1;
+        }
+        int pid = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            pid = pid * 10 + c - '0';
+        }
+        return pid;
+    }
+}
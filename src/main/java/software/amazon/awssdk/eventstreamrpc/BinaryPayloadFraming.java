@@ -0,0 +1,139 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package software.amazon.awssdk.eventstreamrpc;
+
+import java.util.List;
+
+import software.amazon.awssdk.crt.eventstream.Header;
+import software.amazon.awssdk.crt.eventstream.HeaderType;
+
+/**
+ * Optional raw binary framing for operations which carry opaque payloads, such as pub/sub.
+ *
+ * With the default JSON framing a byte array is Base64 encoded inside the JSON body of every frame. With binary
+ * framing the bytes are the frame body as is, the content type is application/octet-stream and everything else the
+ * operation needs is carried in headers.
+ *
+ * A client opts in per stream:
+ * - a request sent with the octet-stream content type is decoded by the operation handler, if it supports it
+ * - a client which sets the accept header to octet-stream on its initial request receives stream events the
+ *   handler can encode as raw frames. Any other event, and every event for clients which didn't ask, stays JSON
+ */
+public final class BinaryPayloadFraming {
+    public static final String CONTENT_TYPE_APPLICATION_OCTET_STREAM = "application/octet-stream";
+    public static final String ACCEPT_HEADER = "accept";
+    public static final String TOPIC_HEADER = "topic";
+
+    private BinaryPayloadFraming() {
+    }
+
+    /**
+     * @param headers frame headers
+     * @return true if the frame body is a raw payload rather than JSON
+     */
+    public static boolean isBinaryPayload(final List<Header> headers) {
+        return CONTENT_TYPE_APPLICATION_OCTET_STREAM.equals(getContentType(headers));
+    }
+
+    /**
+     * @param headers frame headers
+     * @return true if the frame has a content type other than JSON
+     */
+    public static boolean isNonJsonPayload(final List<Header> headers) {
+        final String contentType = getContentType(headers);
+        return contentType != null && !EventStreamRPCServiceModel.CONTENT_TYPE_APPLICATION_JSON.equals(contentType);
+    }
+
+    /**
+     * @param headers frame headers
+     * @return content type of the frame, null if it has none
+     */
+    public static String getContentType(final List<Header> headers) {
+        return getHeaderValue(headers, EventStreamRPCServiceModel.CONTENT_TYPE_HEADER);
+    }
+
+    /**
+     * @param headers initial request headers
+     * @return true if the client asked for binary stream events
+     */
+    public static boolean acceptsBinaryPayload(final List<Header> headers) {
+        return accepts(headers, CONTENT_TYPE_APPLICATION_OCTET_STREAM);
+    }
+
+    /**
+     * @param headers initial request headers
+     * @param contentType content type
+     * @return true if the accept header of the request lists the content type
+     */
+    public static boolean accepts(final List<Header> headers, final String contentType) {
+        final String accept = getHeaderValue(headers, ACCEPT_HEADER);
+        return accept != null && accept.contains(contentType);
+    }
+
+    /**
+     * @param headers frame headers
+     * @param name header name
+     * @return value of the first string header with the given name, null if there is none
+     */
+    public static String getHeaderValue(final List<Header> headers, final String name) {
+        final Header header = getHeader(headers, name, HeaderType.String);
+        return header == null ? null : header.getValueAsString();
+    }
+
+    /**
+     * @param headers frame headers
+     * @param name header name
+     * @return value of the first 64 bit integer header with the given name, null if there is none
+     */
+    public static Long getLongHeaderValue(final List<Header> headers, final String name) {
+        final Header header = getHeader(headers, name, HeaderType.Int64);
+        return header == null ? null : header.getValueAsLong();
+    }
+
+    private static Header getHeader(final List<Header> headers, final String name, final HeaderType type) {
+        if (headers == null) {
+            return null;
+        }
+        for (Header header : headers) {
+            if (header.getHeaderType() == type && name.equalsIgnoreCase(header.getName())) {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Content type, body and operation specific headers of a raw binary frame. The content type and service model
+     * type headers are added when the frame is sent.
+     */
+    public static final class Frame {
+        private final String contentType;
+        private final List<Header> headers;
+        private final byte[] payload;
+
+        public Frame(final List<Header> headers, final byte[] payload) {
+            this(CONTENT_TYPE_APPLICATION_OCTET_STREAM, headers, payload);
+        }
+
+        public Frame(final String contentType, final List<Header> headers, final byte[] payload) {
+            this.contentType = contentType;
+            this.headers = headers;
+            this.payload = payload;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public List<Header> getHeaders() {
+            return headers;
+        }
+
+        public byte[] getPayload() {
+            return payload;
+        }
+    }
+}
@@ -30,6 +30,7 @@ public abstract class OperationContinuationHandler
     private OperationContinuationHandlerContext context;
     private List<Header> initialRequestHeaders;
     private RequestType initialRequest;
+    private volatile boolean acceptsBinaryPayload;
 
     abstract public OperationModelContext<RequestType, ResponseType, StreamingRequestType, StreamingResponseType>
         getOperationModelContext();
@@ -124,6 +125,39 @@ public abstract class OperationContinuationHandler
      */
     public abstract void handleStreamEvent(final StreamingRequestType streamRequestEvent);
 
+    /**
+     * Override to accept requests framed as raw binary (see {@link BinaryPayloadFraming}) instead of JSON.
+     *
+     * @param headers request headers, carrying whatever the operation needs besides the payload
+     * @param payload raw request body
+     * @return the decoded request, or null if the operation only accepts JSON requests
+     */
+    protected RequestType decodeBinaryRequest(final List<Header> headers, final byte[] payload) {
+        return null;
+    }
+
+    /**
+     * Override to send stream events as raw binary frames (see {@link BinaryPayloadFraming}) to clients which
+     * asked for them on their initial request.
+     *
+     * @param streamingResponse event to send
+     * @return the raw frame, or null to send this event as JSON
+     */
+    protected BinaryPayloadFraming.Frame encodeBinaryStreamEvent(final StreamingResponseType streamingResponse) {
+        return null;
+    }
+
+    /**
+     * Override to accept stream events from the client with a content type other than JSON.
+     *
+     * @param headers event headers
+     * @param payload raw event body
+     * @return true if the event was handled, false if the operation doesn't accept it
+     */
+    protected boolean handleBinaryStreamEvent(final List<Header> headers, final byte[] payload) {
+        return false;
+    }
+
     /**
      * Retrieves the underlying EventStream request headers for inspection. Pulling these headers
      * out shouldn't be necessary as it means operations are aware of the underlying protocol. Any
@@ -184,9 +218,34 @@ public abstract class OperationContinuationHandler
      * @param streamingResponse
      */
     final public CompletableFuture<Void> sendStreamEvent(final StreamingResponseType streamingResponse) {
+        if (acceptsBinaryPayload) {
+            final BinaryPayloadFraming.Frame frame = encodeBinaryStreamEvent(streamingResponse);
+            if (frame != null) {
+                return sendBinaryFrame(frame, streamingResponse.getApplicationModelType());
+            }
+        }
         return sendMessage(streamingResponse, false);
     }
 
+    /**
+     * Sends a raw binary frame as a stream event, e.g. for operations which define their own content types.
+     *
+     * @param frame frame to send
+     * @param modelType service model type of the event
+     * @return completes once the frame is sent
+     */
+    final protected CompletableFuture<Void> sendBinaryFrame(final BinaryPayloadFraming.Frame frame,
+                                                           final String modelType) {
+        if (continuation.isClosed()) {
+            return CompletableFuture.supplyAsync(() -> { throw new EventStreamClosedException(continuation.getNativeHandle()); });
+        }
+        final List<Header> responseHeaders = new ArrayList<>(frame.getHeaders().size() + 2);
+        responseHeaders.add(Header.createHeader(EventStreamRPCServiceModel.CONTENT_TYPE_HEADER, frame.getContentType()));
+        responseHeaders.add(Header.createHeader(EventStreamRPCServiceModel.SERVICE_MODEL_TYPE_HEADER, modelType));
+        responseHeaders.addAll(frame.getHeaders());
+        return continuation.sendMessage(responseHeaders, frame.getPayload(), MessageType.ApplicationMessage, 0);
+    }
+
     final protected CompletableFuture<Void> sendMessage(final EventStreamJsonMessage message, final boolean close) {
         if (continuation.isClosed()) { //is this check necessary?
             return CompletableFuture.supplyAsync(() -> { throw new EventStreamClosedException(continuation.getNativeHandle()); });
@@ -259,6 +318,11 @@ public abstract class OperationContinuationHandler
                 // Empty close stream messages from the client are valid. Do not need any processing here.
                 if ((messageFlags & MessageFlags.TerminateStream.getByteValue()) != 0 && (bytes == null || bytes.length == 0)) {
                     return;
+                } else if (BinaryPayloadFraming.isNonJsonPayload(list)) {
+                    if (!handleBinaryStreamEvent(list, bytes)) {
+                        throw new UnsupportedOperationException("Operation [" + getOperationName()
+                                + "] does not accept " + BinaryPayloadFraming.getContentType(list) + " stream events");
+                    }
                 } else {
                     final StreamingRequestType streamEvent = serviceModel.fromJson(getStreamingRequestClass(), bytes);
                     //exceptions occurring during this processing will result in closure of stream
@@ -266,7 +330,16 @@ public abstract class OperationContinuationHandler
                 }
             } else { //this is the initial request
                 initialRequestHeaders = new ArrayList<>(list);
-                initialRequest = serviceModel.fromJson(getRequestClass(), bytes);
+                acceptsBinaryPayload = BinaryPayloadFraming.acceptsBinaryPayload(list);
+                if (BinaryPayloadFraming.isBinaryPayload(list)) {
+                    initialRequest = decodeBinaryRequest(list, bytes);
+                    if (initialRequest == null) {
+                        throw new UnsupportedOperationException("Operation [" + getOperationName()
+                                + "] does not accept binary requests");
+                    }
+                } else {
+                    initialRequest = serviceModel.fromJson(getRequestClass(), bytes);
+                }
                 //call into business logic
                 final ResponseType result = handleRequest(initialRequest);
                 if (result != null) {
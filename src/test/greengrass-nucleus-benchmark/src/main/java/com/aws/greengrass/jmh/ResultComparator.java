@@ -0,0 +1,104 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files written with {@code -rf json}, typically from two commits, and reports every
+ * benchmark whose score got worse by more than a threshold. Higher is better for throughput, lower is better for the
+ * time based modes.
+ *
+ * <p>Usage: {@code java -cp target/benchmarks.jar com.aws.greengrass.jmh.ResultComparator baseline.json
+ * candidate.json [thresholdPercent]}. Exits with 1 if anything regressed, so it can gate a build.</p>
+ */
+public final class ResultComparator {
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    private ResultComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ResultComparator <baseline.json> <candidate.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, JsonNode> baseline = read(args[0]);
+        Map<String, JsonNode> candidate = read(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("NEW        %s: %s%n", entry.getKey(), score(entry.getValue()));
+                continue;
+            }
+            double beforeScore = before.get("primaryMetric").get("score").asDouble();
+            double afterScore = entry.getValue().get("primaryMetric").get("score").asDouble();
+            double change = beforeScore == 0 ? 0 : (afterScore - beforeScore) * 100 / beforeScore;
+            // positive when worse
+            double worse = "thrpt".equals(entry.getValue().get("mode").asText()) ? -change : change;
+            String verdict = worse > threshold ? "REGRESSED" : worse < -threshold ? "IMPROVED" : "SAME";
+            if (worse > threshold) {
+                regressions++;
+            }
+            System.out.printf("%-10s %s: %s -> %s (%+.1f%%)%n", verdict, entry.getKey(), score(before),
+                    score(entry.getValue()), change);
+        }
+        for (String removed : baseline.keySet()) {
+            if (!candidate.containsKey(removed)) {
+                System.out.printf("REMOVED    %s%n", removed);
+            }
+        }
+        System.out.printf("%d regression(s) above %.1f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    /**
+     * Read a result file.
+     *
+     * @param file path of the file
+     * @return results by benchmark name and parameters
+     * @throws IOException if the file can't be read
+     */
+    static Map<String, JsonNode> read(String file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(Paths.get(file).toFile())) {
+            results.put(key(result), result);
+        }
+        return results;
+    }
+
+    private static String key(JsonNode result) {
+        StringBuilder key = new StringBuilder(result.get("benchmark").asText());
+        JsonNode params = result.get("params");
+        if (params != null) {
+            Map<String, String> sorted = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                sorted.put(field.getKey(), field.getValue().asText());
+            }
+            key.append(sorted);
+        }
+        return key.toString();
+    }
+
+    private static String score(JsonNode result) {
+        JsonNode metric = result.get("primaryMetric");
+        return String.format("%.3f ± %.3f %s", metric.get("score").asDouble(), metric.get("scoreError").asDouble(),
+                metric.get("scoreUnit").asText());
+    }
+}
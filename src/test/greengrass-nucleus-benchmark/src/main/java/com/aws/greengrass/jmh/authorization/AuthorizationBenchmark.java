@@ -0,0 +1,120 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.authorization;
+
+import com.aws.greengrass.authorization.AuthorizationHandler;
+import com.aws.greengrass.authorization.AuthorizationPolicy;
+import com.aws.greengrass.authorization.Permission;
+import com.aws.greengrass.authorization.exceptions.AuthorizationException;
+import com.aws.greengrass.jmh.BasicExampleBenchmark;
+import com.aws.greengrass.lifecyclemanager.Kernel;
+import com.aws.greengrass.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Authorization checks of a component against a destination with many policies, as when a pub/sub or MQTT proxy
+ * policy lists a resource per topic. Allowed requests match the last policy loaded; denied requests match none, and
+ * pay for the exception. Listing the authorized resources is what services matching wildcard resources do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+public class AuthorizationBenchmark {
+    private static final String DESTINATION = "benchmark.destination";
+    private static final String OPERATION = "publish";
+    // a component of the config, so that policies for it are valid
+    private static final String PRINCIPAL = "main";
+
+    @Param({"10", "1000", "10000"})
+    public int policies;
+
+    private Path rootDir;
+    private Kernel kernel;
+    private AuthorizationHandler authorizationHandler;
+    private Permission allowed;
+    private Permission denied;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, AuthorizationException {
+        rootDir = Files.createTempDirectory("authorization-benchmark");
+        kernel = new Kernel();
+        kernel.parseArgs("-r", rootDir.toString(), "-i",
+                BasicExampleBenchmark.class.getResource("config.yaml").toString());
+        kernel.launch();
+        authorizationHandler = kernel.getContext().get(AuthorizationHandler.class);
+        authorizationHandler.registerComponent(DESTINATION, new HashSet<>(Collections.singletonList(OPERATION)));
+
+        List<AuthorizationPolicy> policyList = new ArrayList<>(policies);
+        for (int i = 0; i < policies; i++) {
+            policyList.add(AuthorizationPolicy.builder()
+                    .policyId("policy" + i)
+                    .principals(Collections.singleton(PRINCIPAL))
+                    .operations(Collections.singleton(OPERATION))
+                    .resources(new HashSet<>(Arrays.asList("devices/" + i + "/state",
+                            "devices/" + i + "/telemetry/*")))
+                    .build());
+        }
+        authorizationHandler.loadAuthorizationPolicies(DESTINATION, policyList, false);
+
+        int last = policies - 1;
+        allowed = permission("devices/" + last + "/state");
+        denied = permission("devices/" + policies + "/state");
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        kernel.shutdown();
+        Utils.deleteFileRecursively(rootDir.toFile());
+    }
+
+    @Benchmark
+    public boolean exactResourceAllowed() throws AuthorizationException {
+        return authorizationHandler.isAuthorized(DESTINATION, allowed);
+    }
+
+    @Benchmark
+    public List<String> authorizedResources() throws AuthorizationException {
+        return authorizationHandler.getAuthorizedResources(DESTINATION, PRINCIPAL, OPERATION);
+    }
+
+    @Benchmark
+    public boolean resourceDenied() {
+        try {
+            return authorizationHandler.isAuthorized(DESTINATION, denied);
+        } catch (AuthorizationException e) {
+            return false;
+        }
+    }
+
+    private static Permission permission(String resource) {
+        return Permission.builder().principal(PRINCIPAL).operation(OPERATION).resource(resource).build();
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.config;
+
+import com.aws.greengrass.config.Configuration;
+import com.aws.greengrass.config.Topic;
+import com.aws.greengrass.config.Topics;
+import com.aws.greengrass.dependency.Context;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.aws.greengrass.componentmanager.KernelConfigResolver.CONFIGURATION_CONFIG_KEY;
+import static com.aws.greengrass.lifecyclemanager.GreengrassService.SERVICES_NAMESPACE_TOPIC;
+
+/**
+ * Lookups and updates of a config tree shaped like a nucleus with many components, with watchers on the topic being
+ * updated. An update is measured until its watchers have been notified on the publish queue.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+public class ConfigTreeBenchmark {
+    private static final int SERVICES = 100;
+    private static final int KEYS_PER_SERVICE = 10;
+    private static final String UPDATED_SERVICE = "service" + (SERVICES - 1);
+
+    @Param({"0", "10", "100"})
+    public int watchers;
+
+    private final AtomicLong notifications = new AtomicLong();
+    private final AtomicLong nextValue = new AtomicLong();
+    private Context context;
+    private Configuration config;
+    private Topic updated;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = new Context();
+        config = new Configuration(context);
+        for (int i = 0; i < SERVICES; i++) {
+            Topics configuration = config.lookupTopics(SERVICES_NAMESPACE_TOPIC, "service" + i,
+                    CONFIGURATION_CONFIG_KEY);
+            for (int j = 0; j < KEYS_PER_SERVICE; j++) {
+                configuration.lookup("key" + j).withValue("value" + j);
+            }
+        }
+        updated = config.lookup(SERVICES_NAMESPACE_TOPIC, UPDATED_SERVICE, CONFIGURATION_CONFIG_KEY, "key0");
+        for (int i = 0; i < watchers; i++) {
+            updated.subscribe((what, topic) -> notifications.incrementAndGet());
+        }
+        context.waitForPublishQueueToClear();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        context.close();
+    }
+
+    @Benchmark
+    public Topic lookup() {
+        return config.find(SERVICES_NAMESPACE_TOPIC, UPDATED_SERVICE, CONFIGURATION_CONFIG_KEY, "key5");
+    }
+
+    @Benchmark
+    public Topic update() {
+        Topic topic = updated.withValue(nextValue.incrementAndGet());
+        context.waitForPublishQueueToClear();
+        return topic;
+    }
+
+    @Benchmark
+    @Group("lookupWhileUpdating")
+    @GroupThreads(3)
+    public Topic concurrentLookup() {
+        return lookup();
+    }
+
+    @Benchmark
+    @Group("lookupWhileUpdating")
+    @GroupThreads(1)
+    public Topic concurrentUpdate() {
+        return update();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.config;
+
+import com.aws.greengrass.config.Configuration;
+import com.aws.greengrass.config.ConfigurationReader;
+import com.aws.greengrass.config.ConfigurationWriter;
+import com.aws.greengrass.dependency.Context;
+import com.aws.greengrass.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static com.aws.greengrass.componentmanager.KernelConfigResolver.CONFIGURATION_CONFIG_KEY;
+import static com.aws.greengrass.lifecyclemanager.GreengrassService.SERVICES_NAMESPACE_TOPIC;
+
+/**
+ * Writing config changes to a transaction log, and replaying a transaction log into an empty config as the nucleus
+ * does when it starts.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+public class TlogBenchmark {
+    private static final int WRITES = 1000;
+
+    @Param({"1000", "10000"})
+    public int entries;
+
+    private Path dir;
+    private Path replayTlog;
+    private Context context;
+    private Configuration writtenConfig;
+    private ConfigurationWriter writer;
+    private long nextValue;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("tlog-benchmark");
+        context = new Context();
+
+        // the log replayed by every invocation
+        replayTlog = dir.resolve("replay.tlog");
+        Configuration config = new Configuration(context);
+        for (int i = 0; i < entries; i++) {
+            config.lookup(SERVICES_NAMESPACE_TOPIC, "service" + i % 100, CONFIGURATION_CONFIG_KEY, "key" + i)
+                    .withValue("value" + i);
+        }
+        context.waitForPublishQueueToClear();
+        ConfigurationWriter.dump(config, replayTlog);
+
+        writtenConfig = new Configuration(context);
+        writer = ConfigurationWriter.logTransactionsTo(writtenConfig, dir.resolve("write.tlog"));
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        writer.close();
+        context.close();
+        Utils.deleteFileRecursively(dir.toFile());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WRITES)
+    public ConfigurationWriter write() {
+        for (int i = 0; i < WRITES; i++) {
+            writtenConfig.lookup(SERVICES_NAMESPACE_TOPIC, "service", CONFIGURATION_CONFIG_KEY, "key" + i)
+                    .withValue(nextValue++);
+        }
+        // changes are written as they are published
+        context.waitForPublishQueueToClear();
+        return writer;
+    }
+
+    @Benchmark
+    public Configuration replay() throws IOException {
+        Configuration config = new Configuration(context);
+        ConfigurationReader.mergeTLogInto(config, replayTlog, false, null);
+        return config;
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.ipc;
+
+import com.aws.greengrass.jmh.BasicExampleBenchmark;
+import com.aws.greengrass.lifecyclemanager.Kernel;
+import com.aws.greengrass.util.Coerce;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.aws.greengrass.GreengrassCoreIPCClient;
+import software.amazon.awssdk.aws.greengrass.model.GetConfigurationRequest;
+import software.amazon.awssdk.crt.io.ClientBootstrap;
+import software.amazon.awssdk.crt.io.EventLoopGroup;
+import software.amazon.awssdk.crt.io.SocketOptions;
+import software.amazon.awssdk.eventstreamrpc.EventStreamRPCConnection;
+import software.amazon.awssdk.eventstreamrpc.EventStreamRPCConnectionConfig;
+import software.amazon.awssdk.eventstreamrpc.GreengrassConnectMessageSupplier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.aws.greengrass.componentmanager.KernelConfigResolver.CONFIGURATION_CONFIG_KEY;
+import static com.aws.greengrass.deployment.DeviceConfiguration.DEFAULT_NUCLEUS_COMPONENT_NAME;
+import static com.aws.greengrass.deployment.DeviceConfiguration.IPC_EVENT_LOOP_THREADS;
+import static com.aws.greengrass.ipc.AuthenticationHandler.SERVICE_UNIQUE_ID_KEY;
+import static com.aws.greengrass.ipc.IPCEventStreamService.DEFAULT_PORT_NUMBER;
+import static com.aws.greengrass.ipc.IPCEventStreamService.NUCLEUS_DOMAIN_SOCKET_FILEPATH_FOR_COMPONENT;
+import static com.aws.greengrass.lifecyclemanager.GreengrassService.PRIVATE_STORE_NAMESPACE_TOPIC;
+import static com.aws.greengrass.lifecyclemanager.GreengrassService.SERVICES_NAMESPACE_TOPIC;
+import static com.aws.greengrass.lifecyclemanager.GreengrassService.SETENV_CONFIG_NAMESPACE;
+
+/**
+ * Load generator for the IPC server. Opens many concurrent component connections over the domain socket, then
+ * measures request throughput with every connection sending requests at the same time, for different numbers of IPC
+ * event loop threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@State(Scope.Benchmark)
+public class IPCConnectionLoadBenchmark {
+    private static final int REQUESTS_PER_CONNECTION = 10;
+    private static final int CONNECTIONS = 200;
+
+    @Param({"1", "2", "4"})
+    public int eventLoopThreads;
+
+    private Kernel kernel;
+    private EventLoopGroup clientEventLoopGroup;
+    private ClientBootstrap clientBootstrap;
+    private SocketOptions socketOptions;
+    private final List<EventStreamRPCConnection> connections = new ArrayList<>();
+    private final List<GreengrassCoreIPCClient> clients = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        kernel = new Kernel();
+        kernel.parseArgs("-i", BasicExampleBenchmark.class.getResource("config.yaml").toString());
+        kernel.getConfig().lookup(SERVICES_NAMESPACE_TOPIC, DEFAULT_NUCLEUS_COMPONENT_NAME, CONFIGURATION_CONFIG_KEY,
+                IPC_EVENT_LOOP_THREADS).withValue(eventLoopThreads);
+        kernel.launch();
+
+        String socketPath = Coerce.toString(kernel.getConfig().getRoot()
+                .lookup(SETENV_CONFIG_NAMESPACE, NUCLEUS_DOMAIN_SOCKET_FILEPATH_FOR_COMPONENT));
+        String authToken = Coerce.toString(kernel.getConfig()
+                .find(SERVICES_NAMESPACE_TOPIC, "main", PRIVATE_STORE_NAMESPACE_TOPIC, SERVICE_UNIQUE_ID_KEY));
+
+        clientEventLoopGroup = new EventLoopGroup(Runtime.getRuntime().availableProcessors());
+        clientBootstrap = new ClientBootstrap(clientEventLoopGroup, null);
+        socketOptions = new SocketOptions();
+        socketOptions.connectTimeoutMs = 3000;
+        socketOptions.domain = SocketOptions.SocketDomain.LOCAL;
+        socketOptions.type = SocketOptions.SocketType.STREAM;
+
+        // open all the connections at once, like components starting together
+        List<CompletableFuture<Void>> connected = new ArrayList<>();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            EventStreamRPCConnection connection = new EventStreamRPCConnection(
+                    new EventStreamRPCConnectionConfig(clientBootstrap, clientEventLoopGroup, socketOptions, null,
+                            socketPath, DEFAULT_PORT_NUMBER,
+                            GreengrassConnectMessageSupplier.connectMessageSupplier(authToken)));
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            connection.connect(new EventStreamRPCConnection.LifecycleHandler() {
+                @Override
+                public void onConnect() {
+                    future.complete(null);
+                }
+
+                @Override
+                public void onDisconnect(int errorCode) {
+                    future.completeExceptionally(new IllegalStateException("Disconnected " + errorCode));
+                }
+
+                @Override
+                public boolean onError(Throwable t) {
+                    future.completeExceptionally(t);
+                    return true;
+                }
+            });
+            connections.add(connection);
+            connected.add(future);
+        }
+        CompletableFuture.allOf(connected.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+        for (EventStreamRPCConnection connection : connections) {
+            clients.add(new GreengrassCoreIPCClient(connection));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        connections.forEach(EventStreamRPCConnection::close);
+        clientBootstrap.close();
+        clientEventLoopGroup.close();
+        socketOptions.close();
+        kernel.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONNECTIONS * REQUESTS_PER_CONNECTION)
+    public void concurrentRequests() throws Exception {
+        List<CompletableFuture<?>> responses = new ArrayList<>(CONNECTIONS * REQUESTS_PER_CONNECTION);
+        for (int i = 0; i < REQUESTS_PER_CONNECTION; i++) {
+            for (GreengrassCoreIPCClient client : clients) {
+                responses.add(client.getConfiguration(
+                        new GetConfigurationRequest().withKeyPath(Collections.emptyList()), Optional.empty())
+                        .getResponse());
+            }
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0])).get(60, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.ipc;
+
+import com.aws.greengrass.builtin.services.pubsub.PubSubIPCEventStreamAgent;
+import com.aws.greengrass.builtin.services.pubsub.PublishEvent;
+import com.aws.greengrass.jmh.BasicExampleBenchmark;
+import com.aws.greengrass.lifecyclemanager.Kernel;
+import com.aws.greengrass.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Local pub/sub fan-out: one publish delivered to many subscribers of the topic, measured until every subscriber has
+ * received the message. Subscribers are in-process like those of plugin services, so this is the cost of the nucleus
+ * routing and dispatching to the per-subscriber ordered executors, without the IPC connections.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+public class PubSubFanOutBenchmark {
+    private static final String TOPIC = "benchmark/fanout";
+    private static final String PUBLISHER = "main";
+
+    @Param({"1", "10", "100"})
+    public int subscribers;
+
+    @Param({"128", "16384"})
+    public int payloadSize;
+
+    private final AtomicReference<CountDownLatch> delivered = new AtomicReference<>();
+    private Path rootDir;
+    private Kernel kernel;
+    private PubSubIPCEventStreamAgent agent;
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        rootDir = Files.createTempDirectory("pubsub-benchmark");
+        kernel = new Kernel();
+        kernel.parseArgs("-r", rootDir.toString(), "-i",
+                BasicExampleBenchmark.class.getResource("config.yaml").toString());
+        kernel.launch();
+        agent = kernel.getContext().get(PubSubIPCEventStreamAgent.class);
+
+        payload = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(payload);
+        for (int i = 0; i < subscribers; i++) {
+            Consumer<PublishEvent> subscriber = event -> delivered.get().countDown();
+            agent.subscribe(TOPIC, subscriber, "subscriber" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        kernel.shutdown();
+        Utils.deleteFileRecursively(rootDir.toFile());
+    }
+
+    @Benchmark
+    public CountDownLatch publish() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(subscribers);
+        delivered.set(latch);
+        agent.publish(TOPIC, payload, PUBLISHER);
+        if (!latch.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Message was not delivered to every subscriber");
+        }
+        return latch;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.ipc;
+
+import com.aws.greengrass.jmh.profilers.MiscResultRecorderProfiler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.AggregationPolicy;
+import software.amazon.awssdk.aws.greengrass.GreengrassCoreIPCServiceModel;
+import software.amazon.awssdk.aws.greengrass.model.BinaryMessage;
+import software.amazon.awssdk.aws.greengrass.model.SubscriptionResponseMessage;
+import software.amazon.awssdk.crt.eventstream.Header;
+import software.amazon.awssdk.crt.eventstream.Message;
+import software.amazon.awssdk.eventstreamrpc.BinaryPayloadFraming;
+import software.amazon.awssdk.eventstreamrpc.EventStreamRPCServiceModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of delivering one binary pub/sub message to a subscriber with JSON framing, where the payload is Base64
+ * encoded inside the JSON body, versus raw binary framing, where the payload is the frame body. Each operation
+ * encodes the subscription event into an event stream frame as the server does, then decodes the payload from the
+ * frame as a client does. Run with {@code -prof com.aws.greengrass.jmh.profilers.MiscResultRecorderProfiler} to see
+ * the size of each frame.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@State(Scope.Benchmark)
+public class PubSubPayloadFramingBenchmark {
+    private static final String TOPIC = "camera/frames";
+
+    @Param({"1024", "65536", "1048576"})
+    public int payloadSize;
+
+    private final GreengrassCoreIPCServiceModel serviceModel = GreengrassCoreIPCServiceModel.getInstance();
+    private SubscriptionResponseMessage event;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        byte[] payload = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(payload);
+        BinaryMessage binaryMessage = new BinaryMessage();
+        binaryMessage.setMessage(payload);
+        event = new SubscriptionResponseMessage();
+        event.setBinaryMessage(binaryMessage);
+    }
+
+    @Benchmark
+    public byte[] jsonFraming() {
+        List<Header> headers = new ArrayList<>(2);
+        headers.add(Header.createHeader(EventStreamRPCServiceModel.CONTENT_TYPE_HEADER,
+                EventStreamRPCServiceModel.CONTENT_TYPE_APPLICATION_JSON));
+        headers.add(Header.createHeader(EventStreamRPCServiceModel.SERVICE_MODEL_TYPE_HEADER,
+                event.getApplicationModelType()));
+        byte[] body = serviceModel.toJson(event);
+        try (Message frame = new Message(headers, body)) {
+            recordFrameSize("jsonFrameSize", frame);
+        }
+        return serviceModel.fromJson(SubscriptionResponseMessage.class, body).getBinaryMessage().getMessage();
+    }
+
+    @Benchmark
+    public byte[] binaryFraming() {
+        List<Header> headers = new ArrayList<>(3);
+        headers.add(Header.createHeader(EventStreamRPCServiceModel.CONTENT_TYPE_HEADER,
+                BinaryPayloadFraming.CONTENT_TYPE_APPLICATION_OCTET_STREAM));
+        headers.add(Header.createHeader(EventStreamRPCServiceModel.SERVICE_MODEL_TYPE_HEADER,
+                event.getApplicationModelType()));
+        headers.add(Header.createHeader(BinaryPayloadFraming.TOPIC_HEADER, TOPIC));
+        byte[] body = event.getBinaryMessage().getMessage();
+        try (Message frame = new Message(headers, body)) {
+            recordFrameSize("binaryFrameSize", frame);
+        }
+        if (!BinaryPayloadFraming.isBinaryPayload(headers)) {
+            throw new IllegalStateException("Frame is not binary");
+        }
+        return body;
+    }
+
+    private static void recordFrameSize(String key, Message frame) {
+        MiscResultRecorderProfiler.setResult(key, frame.getMessageBuffer().remaining(), "bytes",
+                AggregationPolicy.MAX);
+    }
+}
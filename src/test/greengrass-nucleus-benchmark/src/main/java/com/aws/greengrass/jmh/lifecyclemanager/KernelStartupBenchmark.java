@@ -0,0 +1,91 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.lifecyclemanager;
+
+import com.aws.greengrass.lifecyclemanager.Kernel;
+import com.aws.greengrass.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start of the nucleus with a given number of components, from creating the kernel to main being up. Every
+ * invocation starts from an empty root, so the config is read from the init config rather than a tlog. The components
+ * have no lifecycle so that the time is spent in the nucleus rather than in the processes it would start.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Measurement(iterations = 10)
+@Warmup(iterations = 2)
+@State(Scope.Benchmark)
+public class KernelStartupBenchmark {
+    @Param({"1", "25", "100"})
+    public int services;
+
+    private Path rootDir;
+    private Path configFile;
+    private Kernel kernel;
+
+    @Setup(Level.Invocation)
+    public void setup() throws IOException {
+        rootDir = Files.createTempDirectory("startup-benchmark");
+        configFile = Files.createTempFile("startup-benchmark", ".yaml");
+        StringBuilder config = new StringBuilder("services:\n  main:\n    dependencies:\n");
+        for (int i = 0; i < services; i++) {
+            config.append("      - service").append(i).append('\n');
+        }
+        for (int i = 0; i < services; i++) {
+            config.append("  service").append(i).append(":\n    lifecycle: {}\n");
+        }
+        Files.write(configFile, config.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown(Level.Invocation)
+    public void teardown() throws IOException {
+        if (kernel != null) {
+            kernel.shutdown();
+        }
+        Utils.deleteFileRecursively(rootDir.toFile());
+        Files.deleteIfExists(configFile);
+    }
+
+    @Benchmark
+    public Kernel coldStart() throws InterruptedException {
+        kernel = new Kernel();
+        kernel.parseArgs("-r", rootDir.toString(), "-i", configFile.toString());
+        CountDownLatch mainStarted = new CountDownLatch(1);
+        kernel.getContext().addGlobalStateChangeListener((service, oldState, newState) -> {
+            // State is the JMH annotation here
+            if ("main".equals(service.getName()) && (com.aws.greengrass.dependency.State.RUNNING.equals(newState)
+                    || com.aws.greengrass.dependency.State.FINISHED.equals(newState))) {
+                mainStarted.countDown();
+            }
+        });
+        kernel.launch();
+        if (!mainStarted.await(60, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("main did not start");
+        }
+        return kernel;
+    }
+}
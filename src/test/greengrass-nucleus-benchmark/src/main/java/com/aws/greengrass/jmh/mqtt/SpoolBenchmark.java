@@ -0,0 +1,90 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.mqtt;
+
+import com.aws.greengrass.deployment.DeviceConfiguration;
+import com.aws.greengrass.jmh.BasicExampleBenchmark;
+import com.aws.greengrass.lifecyclemanager.Kernel;
+import com.aws.greengrass.mqttclient.PublishRequest;
+import com.aws.greengrass.mqttclient.spool.Spool;
+import com.aws.greengrass.mqttclient.spool.SpoolerStoreException;
+import com.aws.greengrass.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.crt.mqtt.QualityOfService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spooling MQTT publishes while offline and draining the spool once back online, as the MQTT client does: each
+ * message is added, then its id is popped and the message removed once published.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+public class SpoolBenchmark {
+    private static final int MESSAGES = 1000;
+
+    @Param({"128", "2048"})
+    public int payloadSize;
+
+    private Path rootDir;
+    private Kernel kernel;
+    private Spool spool;
+    private PublishRequest request;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        rootDir = Files.createTempDirectory("spool-benchmark");
+        kernel = new Kernel();
+        kernel.parseArgs("-r", rootDir.toString(), "-i",
+                BasicExampleBenchmark.class.getResource("config.yaml").toString());
+        kernel.launch();
+        // the default spool of 2.5MB holds every message of an invocation at the largest payload size
+        spool = new Spool(kernel.getContext().get(DeviceConfiguration.class));
+        request = PublishRequest.builder().topic("devices/benchmark/telemetry").qos(QualityOfService.AT_LEAST_ONCE)
+                .payload(new byte[payloadSize]).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        kernel.shutdown();
+        Utils.deleteFileRecursively(rootDir.toFile());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public long enqueueThenDrain() throws InterruptedException, SpoolerStoreException {
+        for (int i = 0; i < MESSAGES; i++) {
+            spool.addMessage(request);
+        }
+        long drained = 0;
+        while (spool.getCurrentMessageCount() > 0) {
+            long id = spool.popId();
+            spool.removeMessageById(id);
+            drained++;
+        }
+        return drained;
+    }
+}
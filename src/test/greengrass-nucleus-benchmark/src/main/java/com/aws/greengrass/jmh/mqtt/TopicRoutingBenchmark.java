@@ -0,0 +1,87 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.mqtt;
+
+import com.aws.greengrass.mqttclient.MockedConnectionMqttClient;
+import com.aws.greengrass.mqttclient.SubscribeRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.crt.mqtt.MqttMessage;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Routing of inbound MQTT messages to the callbacks of local subscriptions by the {@link
+ * com.aws.greengrass.mqttclient.MqttClient}. Subscriptions are made through the client, whose connection to the cloud
+ * is a mock, and messages are handed to the message handler of that connection as if they were received.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+public class TopicRoutingBenchmark {
+    @Param({"10", "100", "1000"})
+    public int subscriptions;
+
+    private final AtomicLong received = new AtomicLong();
+    private MockedConnectionMqttClient mqttClient;
+    private MqttMessage exactMatch;
+    private MqttMessage wildcardMatch;
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException, ExecutionException, TimeoutException {
+        mqttClient = new MockedConnectionMqttClient();
+        for (int i = 0; i < subscriptions; i++) {
+            // a mix of exact and wildcard filters, like components subscribing to their own topics
+            String filter = i % 2 == 0 ? "devices/" + i + "/commands" : "devices/" + i + "/+/telemetry/#";
+            mqttClient.getClient().subscribe(SubscribeRequest.builder().topic(filter)
+                    .callback(message -> received.incrementAndGet()).build());
+        }
+        exactMatch = new MqttMessage("devices/0/commands", new byte[0]);
+        wildcardMatch = new MqttMessage("devices/" + (subscriptions - 1) + "/sensor/telemetry/temperature",
+                new byte[0]);
+        // the client only logs messages nobody subscribed to, so make sure both are routed
+        routeExactTopic();
+        routeWildcardTopic();
+        if (received.get() != 2) {
+            throw new IllegalStateException("Expected both messages to be routed, got " + received.get());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        mqttClient.close();
+    }
+
+    @Benchmark
+    public long routeExactTopic() {
+        mqttClient.receive(exactMatch);
+        return received.get();
+    }
+
+    @Benchmark
+    public long routeWildcardTopic() {
+        mqttClient.receive(wildcardMatch);
+        return received.get();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.packagemanager;
+
+import com.aws.greengrass.componentmanager.converter.RecipeLoader;
+import com.aws.greengrass.componentmanager.exceptions.PackageLoadingException;
+import com.aws.greengrass.componentmanager.models.ComponentRecipe;
+import com.aws.greengrass.jmh.BasicExampleBenchmark;
+import com.aws.greengrass.lifecyclemanager.Kernel;
+import com.aws.greengrass.util.Utils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Loading the recipes of the mock component store: parsing the YAML alone, and parsing then resolving the manifest
+ * for the platform as the component store does for every recipe it hasn't parsed yet.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+public class RecipeLoadingBenchmark {
+    // number of recipes in mock_artifact_source/recipes
+    private static final int RECIPES = 30;
+
+    private Path rootDir;
+    private Kernel kernel;
+    private RecipeLoader recipeLoader;
+    private List<String> recipes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        rootDir = Files.createTempDirectory("recipe-benchmark");
+        kernel = new Kernel();
+        kernel.parseArgs("-r", rootDir.toString(), "-i",
+                BasicExampleBenchmark.class.getResource("config.yaml").toString());
+        kernel.launch();
+        recipeLoader = kernel.getContext().get(RecipeLoader.class);
+
+        Path recipeDir = Paths.get(System.getProperty("user.dir"))
+                .resolve("src/test/greengrass-nucleus-benchmark/mock_artifact_source/recipes");
+        try (Stream<Path> files = Files.list(recipeDir)) {
+            List<Path> recipeFiles = files.sorted().collect(Collectors.toList());
+            recipes = new ArrayList<>(recipeFiles.size());
+            for (Path recipeFile : recipeFiles) {
+                recipes.add(new String(Files.readAllBytes(recipeFile), StandardCharsets.UTF_8));
+            }
+        }
+        if (recipes.size() != RECIPES) {
+            throw new IllegalStateException("Expected " + RECIPES + " recipes in " + recipeDir);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException {
+        kernel.shutdown();
+        Utils.deleteFileRecursively(rootDir.toFile());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECIPES)
+    public int parse() throws PackageLoadingException {
+        int parsed = 0;
+        for (String recipe : recipes) {
+            if (RecipeLoader.parseRecipe(recipe, RecipeLoader.RecipeFormat.YAML) != null) {
+                parsed++;
+            }
+        }
+        return parsed;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECIPES)
+    public int load() throws PackageLoadingException {
+        int loaded = 0;
+        for (String recipe : recipes) {
+            Optional<ComponentRecipe> componentRecipe = recipeLoader.loadFromFile(recipe);
+            if (componentRecipe.isPresent()) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.platform;
+
+import com.aws.greengrass.jmh.profilers.MiscResultRecorderProfiler;
+import com.aws.greengrass.util.Exec;
+import com.aws.greengrass.util.platforms.Platform;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.AggregationPolicy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs many processes which write to stdout and stderr continuously, and records how many threads the nucleus needs
+ * to read their output and how much CPU it spends doing so. Run with
+ * {@code -prof com.aws.greengrass.jmh.profilers.MiscResultRecorderProfiler} to see the thread and CPU results.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 1)
+@State(Scope.Benchmark)
+public class ProcessOutputBenchmark {
+    @Param({"200"})
+    public int processes;
+
+    @Param({"200"})
+    public int linesPerProcess;
+
+    @Benchmark
+    public long chattyProcesses() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuBefore = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+        int threadsBefore = threads.getThreadCount();
+        AtomicLong lines = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(processes);
+        List<Exec> execs = new ArrayList<>(processes);
+        String script = "i=0; while [ $i -lt " + linesPerProcess + " ]; do echo \"stdout line $i\"; "
+                + "echo \"stderr line $i\" >&2; i=$((i+1)); sleep 0.01; done";
+        int peakThreads = 0;
+        try {
+            for (int i = 0; i < processes; i++) {
+                Exec exec = Platform.getInstance().createNewProcessRunner().withShell(script)
+                        .withOut(l -> lines.incrementAndGet()).withErr(l -> lines.incrementAndGet());
+                execs.add(exec);
+                exec.background(exit -> done.countDown());
+            }
+            while (!done.await(100, TimeUnit.MILLISECONDS)) {
+                peakThreads = Math.max(peakThreads, threads.getThreadCount());
+            }
+        } finally {
+            for (Exec exec : execs) {
+                exec.close();
+            }
+        }
+        long cpuAfter = ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+        MiscResultRecorderProfiler.setResult("peakExtraThreads", peakThreads - threadsBefore, "threads",
+                AggregationPolicy.MAX);
+        MiscResultRecorderProfiler.setResult("cpuTime", TimeUnit.NANOSECONDS.toMillis(cpuAfter - cpuBefore), "ms",
+                AggregationPolicy.AVG);
+        return lines.get();
+    }
+}
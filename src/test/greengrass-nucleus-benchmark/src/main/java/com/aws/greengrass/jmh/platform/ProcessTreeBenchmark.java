@@ -0,0 +1,62 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.platform;
+
+import com.aws.greengrass.util.platforms.unix.UnixPlatform;
+import com.aws.greengrass.util.platforms.unix.linux.ProcfsProcessTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zeroturnaround.process.Processes;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares finding the descendants of a process by forking `ps` against scanning /proc directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Measurement(iterations = 10)
+@Warmup(iterations = 3)
+@State(Scope.Benchmark)
+public class ProcessTreeBenchmark {
+    private final UnixPlatform unixPlatform = new UnixPlatform();
+    private Process process;
+    private int pid;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        process = new ProcessBuilder("sh", "-c", "sleep 600 & sleep 600 & (sleep 600 & wait) & wait").start();
+        pid = Processes.newPidProcess(process).getPid();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws IOException, InterruptedException {
+        unixPlatform.killProcessAndChildren(process, true, null, unixPlatform.getUserDecorator());
+    }
+
+    @Benchmark
+    public Set<Integer> forkPs() throws IOException, InterruptedException {
+        return unixPlatform.getChildPids(process);
+    }
+
+    @Benchmark
+    public Set<Integer> readProcfs() throws IOException {
+        return ProcfsProcessTree.getDescendantPids(pid);
+    }
+}
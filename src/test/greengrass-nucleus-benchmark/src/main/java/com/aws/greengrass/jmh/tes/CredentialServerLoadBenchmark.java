@@ -0,0 +1,95 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.jmh.tes;
+
+import com.aws.greengrass.tes.StubCredentialServer;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load on the credential server of the token exchange service from many components asking for credentials at once.
+ * Every benchmark thread is a client sending one request after the other over a kept alive connection, and the latency
+ * of each request is sampled, so the percentiles show how long clients wait under load. Requests turned down with a
+ * 503 are counted apart from those answered.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Measurement(iterations = 5)
+@Warmup(iterations = 2)
+@Threads(CredentialServerLoadBenchmark.CLIENTS)
+public class CredentialServerLoadBenchmark {
+    static final int CLIENTS = 500;
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        private StubCredentialServer server;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            server = new StubCredentialServer("{\"AccessKeyId\":\"benchmark\"}".getBytes(StandardCharsets.UTF_8));
+        }
+
+        @TearDown(Level.Trial)
+        public void teardown() {
+            server.close();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Responses {
+        public long answered;
+        public long shed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            answered = 0;
+            shed = 0;
+        }
+    }
+
+    @Benchmark
+    public int requestCredentials(Server server, Responses responses) throws IOException {
+        HttpURLConnection con = (HttpURLConnection) server.server.getUrl().openConnection();
+        con.setConnectTimeout(TIMEOUT_MILLIS);
+        con.setReadTimeout(TIMEOUT_MILLIS);
+        int status = con.getResponseCode();
+        // read the body fully so the connection goes back to the keep-alive cache
+        try (InputStream in = status == HttpURLConnection.HTTP_OK ? con.getInputStream() : con.getErrorStream()) {
+            while (in != null && in.read() != -1) {
+                // drain
+            }
+        }
+        if (status == HttpURLConnection.HTTP_OK) {
+            responses.answered++;
+        } else if (status == HttpURLConnection.HTTP_UNAVAILABLE) {
+            responses.shed++;
+        } else {
+            throw new IllegalStateException("Unexpected response " + status);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.mqttclient;
+
+import com.aws.greengrass.config.Configuration;
+import com.aws.greengrass.dependency.Context;
+import com.aws.greengrass.deployment.DeviceConfiguration;
+import software.amazon.awssdk.crt.mqtt.MqttMessage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A real {@link MqttClient} whose connection to the cloud is a mock, so that what the client does on the device can be
+ * benchmarked on its own. It's in the package of the client since connections aren't visible outside of it.
+ */
+public final class MockedConnectionMqttClient implements Closeable {
+    private final Context context = new Context();
+    private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+    private final AwsIotMqttClient connection = mock(AwsIotMqttClient.class);
+    private final MqttClient client;
+    private final Consumer<MqttMessage> messageHandler;
+
+    /**
+     * Create a client which takes every subscription on a single mocked connection.
+     */
+    public MockedConnectionMqttClient() {
+        DeviceConfiguration deviceConfiguration = mock(DeviceConfiguration.class);
+        when(deviceConfiguration.getMQTTNamespace()).thenReturn(new Configuration(context).lookupTopics("mqtt"));
+        when(deviceConfiguration.isDeviceConfiguredToTalkToCloud()).thenReturn(true);
+        when(connection.subscribe(any(), any())).thenReturn(CompletableFuture.completedFuture(0));
+        when(connection.canAddNewSubscription()).thenReturn(true);
+        client = new MqttClient(deviceConfiguration, null, false, null, executorService) {
+            @Override
+            protected AwsIotMqttClient getNewMqttClient() {
+                return connection;
+            }
+        };
+        messageHandler = client.getMessageHandlerForClient(connection);
+    }
+
+    public MqttClient getClient() {
+        return client;
+    }
+
+    /**
+     * Hand a message to the client as if the connection received it from the cloud.
+     *
+     * @param message message
+     */
+    public void receive(MqttMessage message) {
+        messageHandler.accept(message);
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+        executorService.shutdownNow();
+        context.close();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.tes;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * The credential server of the token exchange service with the default backlog and workers, whose handler answers
+ * every request with the same body instead of asking the cloud for credentials, so that the server can be benchmarked
+ * on its own. It's in the package of the server since the server can't be created outside of it.
+ */
+public final class StubCredentialServer implements Closeable {
+    private final HttpServerImpl server;
+    private final URL url;
+
+    /**
+     * Start the server on a free port.
+     *
+     * @param body body of every response
+     * @throws IOException if the server can't be started
+     */
+    public StubCredentialServer(byte[] body) throws IOException {
+        server = new HttpServerImpl(0, exchange -> {
+            exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        url = new URL("http://localhost:" + server.getServerPort() + HttpServerImpl.URL);
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    @Override
+    public void close() {
+        server.stop();
+    }
+}
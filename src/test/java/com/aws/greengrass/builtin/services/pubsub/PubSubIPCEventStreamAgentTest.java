@@ -27,12 +27,15 @@ import software.amazon.awssdk.aws.greengrass.model.PublishToTopicResponse;
 import software.amazon.awssdk.aws.greengrass.model.SubscribeToTopicRequest;
 import software.amazon.awssdk.aws.greengrass.model.SubscribeToTopicResponse;
 import software.amazon.awssdk.aws.greengrass.model.SubscriptionResponseMessage;
+import software.amazon.awssdk.crt.eventstream.Header;
 import software.amazon.awssdk.crt.eventstream.ServerConnectionContinuation;
 import software.amazon.awssdk.eventstreamrpc.AuthenticationData;
+import software.amazon.awssdk.eventstreamrpc.BinaryPayloadFraming;
 import software.amazon.awssdk.eventstreamrpc.OperationContinuationHandlerContext;
 import software.amazon.awssdk.eventstreamrpc.StreamEventPublisher;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -303,6 +306,46 @@ class PubSubIPCEventStreamAgentTest {
         assertEquals(0, pubSubIPCEventStreamAgent.getListeners().size());
     }
 
+    @Test
+    void GIVEN_binary_publish_frame_WHEN_decode_THEN_request_has_topic_and_raw_message() {
+        List<Header> headers = Collections.singletonList(
+                Header.createHeader(BinaryPayloadFraming.TOPIC_HEADER, TEST_TOPIC));
+        try (PubSubIPCEventStreamAgent.PublishToTopicOperationHandler publishToTopicHandler =
+                     pubSubIPCEventStreamAgent.getPublishToTopicHandler(mockContext)) {
+            PublishToTopicRequest request = publishToTopicHandler.decodeBinaryRequest(headers, "ABCD".getBytes());
+
+            assertEquals(TEST_TOPIC, request.getTopic());
+            assertNull(request.getPublishMessage().getJsonMessage());
+            assertEquals("ABCD", new String(request.getPublishMessage().getBinaryMessage().getMessage()));
+        }
+    }
+
+    @Test
+    void GIVEN_subscribed_to_topic_WHEN_encode_binary_stream_event_THEN_only_binary_messages_are_raw_frames() {
+        SubscribeToTopicRequest subscribeToTopicRequest = new SubscribeToTopicRequest();
+        subscribeToTopicRequest.setTopic(TEST_TOPIC);
+        try (PubSubIPCEventStreamAgent.SubscribeToTopicOperationHandler subscribeToTopicHandler =
+                     pubSubIPCEventStreamAgent.getSubscribeToTopicHandler(mockContext)) {
+            subscribeToTopicHandler.handleRequest(subscribeToTopicRequest);
+
+            SubscriptionResponseMessage binaryEvent = new SubscriptionResponseMessage();
+            BinaryMessage binaryMessage = new BinaryMessage();
+            binaryMessage.setMessage("ABCD".getBytes());
+            binaryEvent.setBinaryMessage(binaryMessage);
+            BinaryPayloadFraming.Frame frame = subscribeToTopicHandler.encodeBinaryStreamEvent(binaryEvent);
+            assertNotNull(frame);
+            assertEquals("ABCD", new String(frame.getPayload()));
+            assertEquals(TEST_TOPIC,
+                    BinaryPayloadFraming.getHeaderValue(frame.getHeaders(), BinaryPayloadFraming.TOPIC_HEADER));
+
+            SubscriptionResponseMessage jsonEvent = new SubscriptionResponseMessage();
+            JsonMessage jsonMessage = new JsonMessage();
+            jsonMessage.setMessage(Collections.singletonMap("SomeKey", "SomeValue"));
+            jsonEvent.setJsonMessage(jsonMessage);
+            assertNull(subscribeToTopicHandler.encodeBinaryStreamEvent(jsonEvent));
+        }
+    }
+
     private static Consumer<PublishEvent> getConsumer(CountDownLatch cdl) {
         return subscriptionResponseMessage -> cdl.countDown();
     }
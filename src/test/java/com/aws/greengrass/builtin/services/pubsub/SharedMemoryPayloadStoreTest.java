@@ -0,0 +1,259 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.builtin.services.pubsub;
+
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import com.aws.greengrass.util.NucleusPaths;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith({MockitoExtension.class, GGExtension.class})
+class SharedMemoryPayloadStoreTest {
+    private static final int REGION_SIZE = 1024;
+
+    @TempDir
+    Path rootPath;
+    @Mock
+    ScheduledExecutorService ses;
+    private NucleusPaths nucleusPaths;
+    private final Object subscriberA = new Object();
+    private final Object subscriberB = new Object();
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        nucleusPaths = new NucleusPaths();
+        nucleusPaths.setRootPath(rootPath);
+    }
+
+    @Test
+    void GIVEN_payload_WHEN_write_THEN_subscriber_can_map_it_until_released() throws IOException {
+        SharedMemoryPayloadStore store = store(60_000);
+        byte[] payload = payload(100, (byte) 1);
+
+        SharedMemoryPayloadStore.Lease lease = store.write(Collections.singletonList(subscriberA), payload);
+
+        assertThat(lease, is(not(nullValue())));
+        assertTrue(lease.isWrittenFor(subscriberA));
+        assertTrue(Paths.get(lease.getFile()).startsWith(rootPath));
+        assertArrayEquals(payload, read(lease));
+
+        assertFalse(store.release(subscriberB, lease.getFile(), lease.getOffset(), lease.getGeneration()));
+        assertTrue(store.release(subscriberA, lease.getFile(), lease.getOffset(), lease.getGeneration()));
+        assertFalse(store.release(subscriberA, lease.getFile(), lease.getOffset(), lease.getGeneration()));
+        assertThat(store.getLiveLeases(), is(0));
+        verify(ses).schedule(any(Runnable.class), eq(60_000L), eq(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void GIVEN_two_subscribers_WHEN_write_THEN_written_once_and_held_until_both_released() {
+        SharedMemoryPayloadStore store = store(60_000);
+
+        SharedMemoryPayloadStore.Lease lease =
+                store.write(Arrays.asList(subscriberA, subscriberB), payload(600, (byte) 1));
+        SharedMemoryPayloadStore.Lease next = store.write(Arrays.asList(subscriberA, subscriberB),
+                payload(100, (byte) 2));
+
+        // one region, the second payload follows the first
+        assertThat(next.getFile(), is(lease.getFile()));
+        assertThat(next.getOffset(), is(640L));
+        assertTrue(lease.isWrittenFor(subscriberA));
+        assertTrue(lease.isWrittenFor(subscriberB));
+
+        store.release(lease, subscriberA);
+        store.release(next, subscriberA);
+        store.release(next, subscriberB);
+        assertThat(store.getLiveLeases(), is(1));
+        // still held by B, so the region can't start over
+        assertThat(store.write(Collections.singletonList(subscriberA), payload(600, (byte) 3)), is(nullValue()));
+
+        store.release(lease, subscriberB);
+        assertThat(store.getLiveLeases(), is(0));
+        assertThat(store.write(Collections.singletonList(subscriberA), payload(600, (byte) 3)).getOffset(), is(0L));
+    }
+
+    @Test
+    void GIVEN_subscriber_not_registered_WHEN_write_THEN_left_out() {
+        SharedMemoryPayloadStore store = store(60_000);
+        Object unknown = new Object();
+
+        assertThat(store.write(Collections.singletonList(unknown), payload(100, (byte) 1)), is(nullValue()));
+
+        SharedMemoryPayloadStore.Lease lease = store.write(Arrays.asList(subscriberA, unknown),
+                payload(100, (byte) 1));
+        assertTrue(lease.isWrittenFor(subscriberA));
+        assertFalse(lease.isWrittenFor(unknown));
+        assertFalse(store.release(lease, unknown));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void GIVEN_payload_WHEN_write_THEN_region_readable_but_directory_not_listable() throws IOException {
+        SharedMemoryPayloadStore store = store(60_000);
+
+        SharedMemoryPayloadStore.Lease lease = store.write(Collections.singletonList(subscriberA),
+                payload(100, (byte) 1));
+
+        assertThat(Files.getPosixFilePermissions(Paths.get(lease.getFile())),
+                is(EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE,
+                        PosixFilePermission.GROUP_READ, PosixFilePermission.OTHERS_READ)));
+        assertFalse(Files.getPosixFilePermissions(Paths.get(lease.getFile()).getParent())
+                .contains(PosixFilePermission.OTHERS_READ));
+    }
+
+    @Test
+    void GIVEN_full_region_released_WHEN_write_THEN_region_starts_over_with_new_generation() {
+        SharedMemoryPayloadStore store = store(60_000);
+        SharedMemoryPayloadStore.Lease first = store.write(Collections.singletonList(subscriberA),
+                payload(600, (byte) 1));
+        store.release(first, subscriberA);
+
+        SharedMemoryPayloadStore.Lease second = store.write(Collections.singletonList(subscriberA),
+                payload(600, (byte) 2));
+
+        assertThat(second.getOffset(), is(0L));
+        assertThat(second.getGeneration(), is(first.getGeneration() + 1));
+        // a late acknowledgement of the old payload doesn't release the new one
+        assertFalse(store.release(subscriberA, first.getFile(), first.getOffset(), first.getGeneration()));
+        assertThat(store.getLiveLeases(), is(1));
+    }
+
+    @Test
+    void GIVEN_full_region_still_held_WHEN_write_THEN_nothing_written_and_held_payload_intact() throws IOException {
+        SharedMemoryPayloadStore store = store(60_000);
+        byte[] firstPayload = payload(600, (byte) 1);
+        SharedMemoryPayloadStore.Lease first = store.write(Collections.singletonList(subscriberA), firstPayload);
+
+        assertThat(store.write(Collections.singletonList(subscriberB), payload(600, (byte) 2)), is(nullValue()));
+        assertThat(store.write(Collections.singletonList(subscriberB), payload(REGION_SIZE * 2, (byte) 2)),
+                is(nullValue()));
+
+        assertArrayEquals(firstPayload, read(first));
+        store.release(first, subscriberA);
+        assertThat(store.write(Collections.singletonList(subscriberB), payload(600, (byte) 2)), is(not(nullValue())));
+    }
+
+    @Test
+    void GIVEN_payload_larger_than_region_WHEN_write_THEN_region_sized_for_payload() throws IOException {
+        SharedMemoryPayloadStore store = store(60_000);
+        SharedMemoryPayloadStore.Lease first = store.write(Collections.singletonList(subscriberA),
+                payload(100, (byte) 1));
+        store.release(first, subscriberA);
+        byte[] payload = payload(REGION_SIZE * 3, (byte) 3);
+
+        SharedMemoryPayloadStore.Lease lease = store.write(Collections.singletonList(subscriberA), payload);
+
+        assertArrayEquals(payload, read(lease));
+        assertThat(lease.getGeneration(), is(first.getGeneration() + 1));
+        assertFalse(Files.exists(Paths.get(first.getFile())));
+    }
+
+    @Test
+    void GIVEN_subscriber_closed_WHEN_remove_THEN_its_holds_released_and_no_longer_written_for() {
+        SharedMemoryPayloadStore store = store(60_000);
+        SharedMemoryPayloadStore.Lease shared = store.write(Arrays.asList(subscriberA, subscriberB),
+                payload(100, (byte) 1));
+        SharedMemoryPayloadStore.Lease onlyA = store.write(Collections.singletonList(subscriberA),
+                payload(100, (byte) 1));
+
+        store.remove(subscriberA);
+
+        assertFalse(store.release(onlyA, subscriberA));
+        // still held by B
+        assertThat(store.getLiveLeases(), is(1));
+        assertTrue(store.release(shared, subscriberB));
+        assertThat(store.getLiveLeases(), is(0));
+        // a publish racing with the close doesn't write for it any more
+        assertThat(store.write(Collections.singletonList(subscriberA), payload(100, (byte) 1)), is(nullValue()));
+    }
+
+    @Test
+    void GIVEN_idle_region_WHEN_swept_THEN_only_deleted_once_nothing_held() {
+        SharedMemoryPayloadStore store = store(0);
+        SharedMemoryPayloadStore.Lease held = store.write(Collections.singletonList(subscriberA),
+                payload(100, (byte) 1));
+
+        store.removeIdleRegions();
+        assertTrue(Files.exists(Paths.get(held.getFile())));
+
+        store.release(held, subscriberA);
+        store.removeIdleRegions();
+        assertFalse(Files.exists(Paths.get(held.getFile())));
+
+        // mapped again on the next write
+        SharedMemoryPayloadStore.Lease next = store.write(Collections.singletonList(subscriberA),
+                payload(100, (byte) 1));
+        assertThat(next.getFile(), is(not(held.getFile())));
+        assertThat(next.getGeneration(), is(not(held.getGeneration())));
+        verify(ses, times(3)).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    void GIVEN_regions_of_previous_run_WHEN_first_write_THEN_deleted() throws IOException {
+        Path stale = nucleusPaths.ipcSharedMemoryPath().resolve("stale");
+        Files.write(stale, new byte[10]);
+        SharedMemoryPayloadStore store = store(60_000);
+
+        store.write(Collections.singletonList(subscriberA), payload(100, (byte) 1));
+
+        assertFalse(Files.exists(stale));
+    }
+
+    private SharedMemoryPayloadStore store(long idleTimeoutMillis) {
+        SharedMemoryPayloadStore store =
+                new SharedMemoryPayloadStore(nucleusPaths, ses, REGION_SIZE, 0, idleTimeoutMillis);
+        store.register(subscriberA);
+        store.register(subscriberB);
+        return store;
+    }
+
+    private static byte[] payload(int length, byte value) {
+        byte[] payload = new byte[length];
+        Arrays.fill(payload, value);
+        return payload;
+    }
+
+    private static byte[] read(SharedMemoryPayloadStore.Lease lease) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(lease.getFile()), StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, lease.getOffset(), lease.getLength());
+            byte[] read = new byte[lease.getLength()];
+            mapped.get(read);
+            return read;
+        }
+    }
+}
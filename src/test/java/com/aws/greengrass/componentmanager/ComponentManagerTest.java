@@ -75,6 +75,7 @@ import java.util.concurrent.TimeUnit;
 
 import static com.aws.greengrass.componentmanager.KernelConfigResolver.PREV_VERSION_CONFIG_KEY;
 import static com.aws.greengrass.componentmanager.KernelConfigResolver.VERSION_CONFIG_KEY;
+import static com.aws.greengrass.deployment.DeviceConfiguration.COMPONENT_STORE_HIGH_WATER_MARK_PERCENT;
 import static com.aws.greengrass.deployment.DeviceConfiguration.COMPONENT_STORE_MAX_SIZE_BYTES;
 import static com.aws.greengrass.deployment.DeviceConfiguration.COMPONENT_STORE_MAX_SIZE_DEFAULT_BYTES;
 import static com.aws.greengrass.testcommons.testutilities.ExceptionLogProtector.ignoreExceptionOfType;
@@ -204,6 +205,28 @@ class ComponentManagerTest {
         assertEquals("binary1", fileCaptor.getValue().getName());
     }
 
+    @Test
+    void GIVEN_artifact_content_in_blob_store_WHEN_prepare_artifacts_THEN_download_skipped() throws Exception {
+        ComponentIdentifier pkgId = new ComponentIdentifier("CoolService", new Semver("1.0.0"));
+        ComponentArtifact artifact =
+                ComponentArtifact.builder().artifactUri(new URI("greengrass:binary1")).checksum("checksum")
+                        .algorithm("SHA-256").build();
+
+        when(componentStore.resolveArtifactDirectoryPath(pkgId)).thenReturn(tempDir);
+        when(artifactDownloader.canDeduplicateArtifact()).thenReturn(true);
+        when(artifactDownloader.getArtifactFile()).thenReturn(tempDir.resolve("binary1").toFile());
+        when(componentStore.linkArtifactFromBlobStore(pkgId, artifact, tempDir.resolve("binary1"),
+                artifact.getPermission().toFileSystemPermission())).thenReturn(true);
+
+        componentManager.prepareArtifacts(pkgId, Collections.singletonList(artifact));
+
+        verify(artifactDownloader, never()).download();
+        verify(componentStore, never()).getContentSize();
+        verify(componentStore).addArtifactToBlobStore(pkgId, artifact, tempDir.resolve("binary1"),
+                artifact.getPermission().toFileSystemPermission());
+        verify(componentStore).updateArtifactsSize(pkgId);
+    }
+
     @Test
     void GIVEN_package_identifier_WHEN_request_to_prepare_package_THEN_task_succeed() throws Exception {
         ComponentIdentifier pkgId = new ComponentIdentifier("MonitoringService", new Semver("1.0.0"));
@@ -223,6 +246,7 @@ class ComponentManagerTest {
         assertThat(future.isDone(), is(true));
 
         verify(componentStore).getPackageRecipe(pkgId);
+        verify(componentStore).updateArtifactsSize(pkgId);
         verifyNoMoreInteractions(componentStore);
 
     }
@@ -543,6 +567,7 @@ class ComponentManagerTest {
                 .deleteComponent(new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("3.0.0")));
         verify(componentStore, times(1)).deleteComponent(new ComponentIdentifier(anotherCompName, new Semver("1.0.0")));
         verify(componentStore, times(1)).deleteComponent(new ComponentIdentifier(anotherCompName, new Semver("2.0.0")));
+        verify(componentStore).cleanupUnreferencedArtifactBlobs();
 
         // verify digest was cleaned up
         verify(digestTopic, times(3)).remove();
@@ -551,6 +576,70 @@ class ComponentManagerTest {
                                       anotherCompName + "-v2.0.0"));
     }
 
+    @Test
+    void GIVEN_high_water_mark_WHEN_stale_version_cleanup_scheduled_THEN_largest_deleted_until_under_mark()
+            throws Exception {
+        when(kernel.orderedDependencies()).thenReturn(Collections.emptyList());
+        GreengrassService mockKernelService = mock(GreengrassService.class);
+        when(kernel.getMain()).thenReturn(mockKernelService);
+        when(mockKernelService.getRuntimeConfig()).thenReturn(mock(Topics.class));
+
+        ComponentIdentifier a1 = new ComponentIdentifier(componentA, new Semver("1.0.0"));
+        ComponentIdentifier a2 = new ComponentIdentifier(componentA, new Semver("2.0.0"));
+        ComponentIdentifier a3 = new ComponentIdentifier(componentA, new Semver("3.0.0"));
+        Map<String, Set<String>> mockArtifacts = new HashMap<>();
+        mockArtifacts.put(componentA, Sets.newSet("1.0.0", "2.0.0", "3.0.0"));
+        when(componentStore.listAvailableComponentVersions()).thenReturn(mockArtifacts);
+        when(componentStore.getArtifactsSize(a1)).thenReturn(100L);
+        when(componentStore.getArtifactsSize(a2)).thenReturn(300L);
+        when(componentStore.getArtifactsSize(a3)).thenReturn(200L);
+
+        // high-water mark is half of the default maximum size, store is over it until the largest version is deleted
+        Topic highWaterMarkTopic = Topic.of(context, COMPONENT_STORE_HIGH_WATER_MARK_PERCENT, 50);
+        when(deviceConfiguration.getComponentStoreHighWaterMarkPercent()).thenReturn(highWaterMarkTopic);
+        when(componentStore.getContentSize()).thenReturn(6_000_000_000L, 4_000_000_000L);
+
+        componentManager.scheduleStaleVersionCleanup();
+        // single thread executor, the cleanup is done once the next task runs
+        executor.submit(() -> null).get(5, TimeUnit.SECONDS);
+
+        verify(componentStore).deleteComponent(a2);
+        verify(componentStore, never()).deleteComponent(a1);
+        verify(componentStore, never()).deleteComponent(a3);
+        verify(componentStore).cleanupUnreferencedArtifactBlobs();
+    }
+
+    @Test
+    void GIVEN_stale_version_cleanup_pending_WHEN_scheduled_again_after_deployment_THEN_only_latest_cleanup_runs()
+            throws Exception {
+        GreengrassService mockKernelService = mock(GreengrassService.class);
+        when(kernel.getMain()).thenReturn(mockKernelService);
+        when(mockKernelService.getRuntimeConfig()).thenReturn(mock(Topics.class));
+
+        ComponentIdentifier a3 = new ComponentIdentifier(componentA, new Semver("3.0.0"));
+        Map<String, Set<String>> mockArtifacts = new HashMap<>();
+        mockArtifacts.put(componentA, Sets.newSet("1.0.0", "2.0.0", "3.0.0"));
+        when(componentStore.listAvailableComponentVersions()).thenReturn(mockArtifacts);
+        when(componentStore.getArtifactsSize(a3)).thenReturn(200L);
+
+        CountDownLatch deploymentDone = new CountDownLatch(1);
+        executor.submit(() -> deploymentDone.await(5, TimeUnit.SECONDS));
+        // scheduled before the deployment, when every version was stale
+        componentManager.scheduleStaleVersionCleanup();
+        // the deployment made 2.0.0 active and kept 1.0.0 as previous version
+        GreengrassService deployedService = getMockGreengrassService(componentA);
+        when(kernel.orderedDependencies()).thenReturn(Collections.singletonList(deployedService));
+        componentManager.scheduleStaleVersionCleanup();
+        deploymentDone.countDown();
+        // single thread executor, both cleanups are done once the next task runs
+        executor.submit(() -> null).get(5, TimeUnit.SECONDS);
+
+        verify(componentStore, times(1)).deleteComponent(a3);
+        verify(componentStore, never()).deleteComponent(new ComponentIdentifier(componentA, new Semver("1.0.0")));
+        verify(componentStore, never()).deleteComponent(new ComponentIdentifier(componentA, new Semver("2.0.0")));
+        verify(componentStore, times(1)).cleanupUnreferencedArtifactBlobs();
+    }
+
     @Test
     void GIVEN_deployment_WHEN_dependency_closure_has_download_prereq_component_THEN_succeed()
             throws Exception {
@@ -8,14 +8,19 @@ package com.aws.greengrass.componentmanager;
 import com.amazon.aws.iot.greengrass.component.common.RecipeFormatVersion;
 import com.aws.greengrass.componentmanager.converter.RecipeLoader;
 import com.aws.greengrass.componentmanager.exceptions.PackageLoadingException;
+import com.aws.greengrass.componentmanager.models.ComponentArtifact;
 import com.aws.greengrass.componentmanager.models.ComponentIdentifier;
 import com.aws.greengrass.componentmanager.models.ComponentMetadata;
 import com.aws.greengrass.componentmanager.models.ComponentRecipe;
+import com.aws.greengrass.componentmanager.models.Permission;
+import com.aws.greengrass.componentmanager.models.PermissionType;
 import com.aws.greengrass.componentmanager.models.RecipeMetadata;
 import com.aws.greengrass.config.PlatformResolver;
 import com.aws.greengrass.testcommons.testutilities.GGExtension;
 import com.aws.greengrass.util.Digest;
+import com.aws.greengrass.util.FileSystemPermission;
 import com.aws.greengrass.util.NucleusPaths;
+import com.aws.greengrass.util.Permissions;
 import com.aws.greengrass.util.SerializerFactory;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.vdurmont.semver4j.Requirement;
@@ -23,29 +28,39 @@ import com.vdurmont.semver4j.Semver;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
 import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static com.aws.greengrass.helper.PreloadComponentStoreHelper.getHashFromComponentName;
 import static com.aws.greengrass.helper.PreloadComponentStoreHelper.getRecipeStorageFilenameFromTestSource;
 import static com.aws.greengrass.testcommons.testutilities.ExceptionLogProtector.ignoreExceptionOfType;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsEqual.equalTo;
 import static org.hamcrest.io.FileMatchers.anExistingDirectory;
@@ -271,6 +286,56 @@ class ComponentStoreTest {
         assertThat(optionalPackageRecipe.get(), equalTo(expectedRecipe));
     }
 
+    @Test
+    void GIVEN_a_recipe_found_WHEN_findPackageRecipe_again_THEN_parsed_recipe_reused() throws Exception {
+        preloadRecipeFileFromTestResource(MONITORING_SERVICE_PKG_RECIPE_FILE_NAME);
+
+        ComponentRecipe first = componentStore.findPackageRecipe(MONITORING_SERVICE_PKG_ID).get();
+
+        assertThat(componentStore.findPackageRecipe(MONITORING_SERVICE_PKG_ID).get(), is(sameInstance(first)));
+    }
+
+    @Test
+    void GIVEN_a_recipe_found_WHEN_recipe_changes_THEN_findPackageRecipe_returns_new_recipe() throws Exception {
+        preloadRecipeFileFromTestResource(MONITORING_SERVICE_PKG_RECIPE_FILE_NAME);
+        String recipeContent =
+                new String(Files.readAllBytes(RECIPE_RESOURCE_PATH.resolve(MONITORING_SERVICE_PKG_RECIPE_FILE_NAME)));
+        assertThat(componentStore.findPackageRecipe(MONITORING_SERVICE_PKG_ID).get().getPublisher(), is("Me"));
+
+        // saved through the store
+        componentStore.savePackageRecipe(MONITORING_SERVICE_PKG_ID,
+                recipeContent.replace("ComponentPublisher: Me", "ComponentPublisher: Saved"));
+        assertThat(componentStore.findPackageRecipe(MONITORING_SERVICE_PKG_ID).get().getPublisher(), is("Saved"));
+
+        // changed on disk by something else
+        Files.write(componentStore.resolveRecipePath(MONITORING_SERVICE_PKG_ID),
+                recipeContent.replace("ComponentPublisher: Me", "ComponentPublisher: Edited on disk").getBytes());
+        assertThat(componentStore.findPackageRecipe(MONITORING_SERVICE_PKG_ID).get().getPublisher(),
+                is("Edited on disk"));
+    }
+
+    @Test
+    void GIVEN_versions_listed_WHEN_recipes_saved_deleted_or_copied_in_THEN_listing_is_current() throws Exception {
+        preloadRecipeFileFromTestResource("MonitoringService-1.0.0.yaml");
+        Requirement anyVersion = Requirement.buildNPM("*");
+        assertThat(componentStore.listAvailableComponent(MONITORING_SERVICE_PKG_NAME, anyVersion),
+                is(Collections.singletonList(MONITORING_SERVICE_PKG_ID)));
+
+        ComponentIdentifier newVersion = new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("1.2.0"));
+        componentStore.savePackageRecipe(newVersion, "RecipeFormatVersion: '2020-01-25'");
+        assertThat(componentStore.listAvailableComponent(MONITORING_SERVICE_PKG_NAME, anyVersion),
+                is(Arrays.asList(newVersion, MONITORING_SERVICE_PKG_ID)));
+
+        componentStore.deleteComponent(newVersion);
+        assertThat(componentStore.listAvailableComponent(MONITORING_SERVICE_PKG_NAME, anyVersion),
+                is(Collections.singletonList(MONITORING_SERVICE_PKG_ID)));
+
+        preloadRecipeFileFromTestResource("MonitoringService-2.0.0.yaml");
+        assertThat(componentStore.listAvailableComponent(MONITORING_SERVICE_PKG_NAME, anyVersion),
+                is(Arrays.asList(new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("2.0.0")),
+                        MONITORING_SERVICE_PKG_ID)));
+    }
+
     @Test
     void WHEN_resolve_setup_upack_dir_THEN_dir_created() throws Exception {
         // WHEN
@@ -443,9 +508,212 @@ class ComponentStoreTest {
         assertEquals(0, componentStore.getContentSize());
 
         // put in a recipe, should include that file size
-        preloadRecipeFileFromTestResource(MONITORING_SERVICE_PKG_RECIPE_FILE_NAME);
-        long recipeLength = RECIPE_RESOURCE_PATH.resolve(MONITORING_SERVICE_PKG_RECIPE_FILE_NAME).toFile().length();
-        assertEquals(recipeLength, componentStore.getContentSize());
+        Path sourceRecipe = RECIPE_RESOURCE_PATH.resolve(MONITORING_SERVICE_PKG_RECIPE_FILE_NAME);
+        componentStore.savePackageRecipe(MONITORING_SERVICE_PKG_ID,
+                new String(Files.readAllBytes(sourceRecipe), StandardCharsets.UTF_8));
+        assertEquals(sourceRecipe.toFile().length(), componentStore.getContentSize());
+    }
+
+    @Test
+    void GIVEN_artifacts_size_updated_WHEN_delete_package_THEN_content_size_updated() throws Exception {
+        byte[] content = "artifact content".getBytes(StandardCharsets.UTF_8);
+        Files.write(componentStore.resolveArtifactDirectoryPath(MONITORING_SERVICE_PKG_ID).resolve("artifact.zip"),
+                content);
+        componentStore.updateArtifactsSize(MONITORING_SERVICE_PKG_ID);
+        Files.write(nucleusPaths.unarchiveArtifactPath(MONITORING_SERVICE_PKG_ID, "artifact").resolve("file.txt"),
+                content);
+        componentStore.updateUnarchivedArtifactsSize(MONITORING_SERVICE_PKG_ID);
+
+        assertEquals(2L * content.length, componentStore.getArtifactsSize(MONITORING_SERVICE_PKG_ID));
+        assertEquals(2L * content.length, componentStore.getContentSize());
+
+        componentStore.deleteComponent(MONITORING_SERVICE_PKG_ID);
+
+        assertEquals(0, componentStore.getArtifactsSize(MONITORING_SERVICE_PKG_ID));
+        assertEquals(0, componentStore.getContentSize());
+    }
+
+    @Test
+    void GIVEN_content_size_recorded_WHEN_store_reopened_THEN_size_read_from_ledger() throws Exception {
+        ComponentIdentifier v2 = new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("2.0.0"));
+        Path v1Artifact = componentStore.resolveArtifactDirectoryPath(MONITORING_SERVICE_PKG_ID).resolve("v1.bin");
+        Files.write(v1Artifact, new byte[100]);
+        Files.write(componentStore.resolveArtifactDirectoryPath(v2).resolve("v2.bin"), new byte[10]);
+        assertEquals(110, componentStore.getContentSize());
+        assertThat(packageStoreRootPath.resolve(ContentSizeLedger.LEDGER_FILE_NAME).toFile(), anExistingFile());
+
+        // the ledger is kept up to date by whoever changes a version, versions which are gone are dropped
+        Files.write(v1Artifact, new byte[1000]);
+        componentStore.updateArtifactsSize(MONITORING_SERVICE_PKG_ID);
+        FileUtils.deleteDirectory(componentStore.resolveArtifactDirectoryPath(v2).toFile());
+
+        ComponentStore reopened = new ComponentStore(nucleusPaths, platformResolver, recipeLoader);
+        assertEquals(1000, reopened.getContentSize());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void GIVEN_artifact_added_to_blob_store_WHEN_link_for_another_version_THEN_content_shared() throws Exception {
+        byte[] content = "shared artifact content".getBytes(StandardCharsets.UTF_8);
+        ComponentArtifact artifact = sharedArtifact(content);
+        ComponentIdentifier v1 = new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("1.0.0"));
+        ComponentIdentifier v2 = new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("2.0.0"));
+        Path v1Artifact = componentStore.resolveArtifactDirectoryPath(v1).resolve("shared.bin");
+        Path v2Artifact = componentStore.resolveArtifactDirectoryPath(v2).resolve("shared.bin");
+
+        // nothing stored yet
+        assertFalse(componentStore.linkArtifactFromBlobStore(v2, artifact, v2Artifact, null));
+
+        Files.write(v1Artifact, content);
+        componentStore.addArtifactToBlobStore(v1, artifact, v1Artifact, null);
+
+        assertTrue(componentStore.linkArtifactFromBlobStore(v2, artifact, v2Artifact, null));
+        assertThat(Files.readAllBytes(v2Artifact), is(content));
+        assertTrue(Files.isSameFile(v1Artifact, v2Artifact));
+        // shared content is only counted once
+        assertEquals(content.length, componentStore.getContentSize());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void GIVEN_artifact_WHEN_added_to_blob_store_THEN_blob_is_read_only_copy() throws Exception {
+        byte[] content = "shared artifact content".getBytes(StandardCharsets.UTF_8);
+        ComponentArtifact artifact = sharedArtifact(content);
+        Path artifactFile = tempFileOutsideOfStore("shared.bin", content);
+
+        componentStore.addArtifactToBlobStore(MONITORING_SERVICE_PKG_ID, artifact, artifactFile, null);
+
+        Path blob;
+        try (Stream<Path> blobs = Files.list(packageStoreRootPath.resolve(ComponentStore.ARTIFACT_BLOB_DIRECTORY)
+                .resolve("sha256"))) {
+            blob = blobs.findFirst().get();
+        }
+        assertThat(Files.getPosixFilePermissions(blob), is(EnumSet.of(PosixFilePermission.OWNER_READ)));
+        assertThat(Files.readAllBytes(blob), is(content));
+    }
+
+    @Test
+    void GIVEN_artifact_not_matching_checksum_WHEN_add_to_blob_store_THEN_not_stored() throws Exception {
+        ComponentArtifact artifact = sharedArtifact("shared artifact content".getBytes(StandardCharsets.UTF_8));
+        ComponentIdentifier v2 = new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("2.0.0"));
+        Path v1Artifact = componentStore.resolveArtifactDirectoryPath(MONITORING_SERVICE_PKG_ID).resolve("shared.bin");
+        Path v2Artifact = componentStore.resolveArtifactDirectoryPath(v2).resolve("shared.bin");
+        Files.write(v1Artifact, "changed".getBytes(StandardCharsets.UTF_8));
+
+        componentStore.addArtifactToBlobStore(MONITORING_SERVICE_PKG_ID, artifact, v1Artifact, null);
+
+        assertFalse(componentStore.linkArtifactFromBlobStore(v2, artifact, v2Artifact, null));
+        assertThat(v2Artifact.toFile(), not(anExistingFile()));
+        assertThat(packageStoreRootPath.resolve(ComponentStore.ARTIFACT_BLOB_DIRECTORY).resolve("sha256").toFile()
+                .list(), is(new String[0]));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void GIVEN_blob_with_other_permission_WHEN_link_for_another_version_THEN_content_copied() throws Exception {
+        byte[] content = "shared artifact content".getBytes(StandardCharsets.UTF_8);
+        ComponentArtifact artifact = sharedArtifact(content);
+        FileSystemPermission ownerOnly = Permission.builder().build().toFileSystemPermission();
+        FileSystemPermission everyone = Permission.builder().read(PermissionType.ALL).execute(PermissionType.ALL)
+                .build().toFileSystemPermission();
+        ComponentIdentifier v2 = new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("2.0.0"));
+        Path v1Artifact = componentStore.resolveArtifactDirectoryPath(MONITORING_SERVICE_PKG_ID).resolve("shared.bin");
+        Path v2Artifact = componentStore.resolveArtifactDirectoryPath(v2).resolve("shared.bin");
+        Files.write(v1Artifact, content);
+        Permissions.setArtifactPermission(v1Artifact, everyone);
+        componentStore.addArtifactToBlobStore(MONITORING_SERVICE_PKG_ID, artifact, v1Artifact, everyone);
+
+        assertTrue(componentStore.linkArtifactFromBlobStore(v2, artifact, v2Artifact, ownerOnly));
+        assertFalse(Files.isSameFile(v1Artifact, v2Artifact));
+        Permissions.setArtifactPermission(v2Artifact, ownerOnly);
+
+        // the blob keeps the permissions it was stored with, without write permission
+        Path blob;
+        try (Stream<Path> blobs = Files.list(packageStoreRootPath.resolve(ComponentStore.ARTIFACT_BLOB_DIRECTORY)
+                .resolve("sha256"))) {
+            blob = blobs.findFirst().get();
+        }
+        assertThat(Files.getPosixFilePermissions(blob), is(EnumSet.of(PosixFilePermission.OWNER_READ,
+                PosixFilePermission.OWNER_EXECUTE, PosixFilePermission.GROUP_READ, PosixFilePermission.GROUP_EXECUTE,
+                PosixFilePermission.OTHERS_READ, PosixFilePermission.OTHERS_EXECUTE)));
+    }
+
+    @Test
+    void GIVEN_artifact_without_checksum_WHEN_add_to_blob_store_THEN_not_stored() throws Exception {
+        ComponentArtifact artifact =
+                ComponentArtifact.builder().artifactUri(new URI("greengrass:local.bin")).build();
+        Path artifactFile = componentStore.resolveArtifactDirectoryPath(MONITORING_SERVICE_PKG_ID).resolve("local.bin");
+        Files.write(artifactFile, "local".getBytes(StandardCharsets.UTF_8));
+
+        componentStore.addArtifactToBlobStore(MONITORING_SERVICE_PKG_ID, artifact, artifactFile, null);
+
+        assertThat(packageStoreRootPath.resolve(ComponentStore.ARTIFACT_BLOB_DIRECTORY).toFile().list(),
+                is(new String[0]));
+        assertFalse(componentStore.linkArtifactFromBlobStore(MONITORING_SERVICE_PKG_ID, artifact, artifactFile, null));
+    }
+
+    @Test
+    void GIVEN_blobs_WHEN_cleanup_unreferenced_blobs_THEN_only_referenced_blobs_kept() throws Exception {
+        byte[] keptContent = "kept".getBytes(StandardCharsets.UTF_8);
+        byte[] removedContent = "removed".getBytes(StandardCharsets.UTF_8);
+        byte[] orphanContent = "orphan".getBytes(StandardCharsets.UTF_8);
+        ComponentArtifact keptArtifact = sharedArtifact(keptContent);
+        ComponentArtifact removedArtifact = sharedArtifact(removedContent);
+        ComponentArtifact orphanArtifact = sharedArtifact(orphanContent);
+        ComponentIdentifier v2 = new ComponentIdentifier(MONITORING_SERVICE_PKG_NAME, new Semver("2.0.0"));
+
+        // only the kept artifact is referenced by a recipe remaining in the store
+        componentStore.savePackageRecipe(MONITORING_SERVICE_PKG_ID, String.format("---%n"
+                + "RecipeFormatVersion: '2020-01-25'%n"
+                + "ComponentName: %s%n"
+                + "ComponentVersion: '%s'%n"
+                + "Manifests:%n"
+                + "  - Platform:%n"
+                + "      os: all%n"
+                + "    Artifacts:%n"
+                + "      - URI: greengrass:shared.bin%n"
+                + "        Digest: %s%n"
+                + "        Algorithm: SHA-256%n", MONITORING_SERVICE_PKG_NAME, MONITORING_SERVICE_PKG_VERSION,
+                keptArtifact.getChecksum()));
+        Path keptFile = componentStore.resolveArtifactDirectoryPath(MONITORING_SERVICE_PKG_ID).resolve("shared.bin");
+        Files.write(keptFile, keptContent);
+        componentStore.addArtifactToBlobStore(MONITORING_SERVICE_PKG_ID, keptArtifact, keptFile, null);
+        Path removedFile = componentStore.resolveArtifactDirectoryPath(v2).resolve("shared.bin");
+        Files.write(removedFile, removedContent);
+        componentStore.addArtifactToBlobStore(v2, removedArtifact, removedFile, null);
+
+        // still used by v2 until it's deleted
+        componentStore.cleanupUnreferencedArtifactBlobs();
+        Path newArtifact = packageStoreRootPath.resolve("new.bin");
+        assertTrue(componentStore.linkArtifactFromBlobStore(v2, removedArtifact, newArtifact, null));
+
+        componentStore.deleteComponent(v2);
+        componentStore.cleanupUnreferencedArtifactBlobs();
+
+        assertTrue(componentStore.linkArtifactFromBlobStore(MONITORING_SERVICE_PKG_ID, keptArtifact, newArtifact,
+                null));
+        assertFalse(componentStore.linkArtifactFromBlobStore(MONITORING_SERVICE_PKG_ID, removedArtifact, newArtifact,
+                null));
+
+        // a store opened later knows the blobs in use from the recipes
+        componentStore.addArtifactToBlobStore(v2, orphanArtifact, tempFileOutsideOfStore("orphan.bin",
+                orphanContent), null);
+        ComponentStore reopened = new ComponentStore(nucleusPaths, platformResolver, recipeLoader);
+        reopened.cleanupUnreferencedArtifactBlobs();
+        assertTrue(reopened.linkArtifactFromBlobStore(MONITORING_SERVICE_PKG_ID, keptArtifact, newArtifact, null));
+        assertFalse(reopened.linkArtifactFromBlobStore(v2, orphanArtifact, newArtifact, null));
+    }
+
+    private static ComponentArtifact sharedArtifact(byte[] content) throws Exception {
+        return ComponentArtifact.builder().artifactUri(new URI("greengrass:shared.bin")).algorithm(Digest.SHA_256)
+                .checksum(Base64.getEncoder().encodeToString(MessageDigest.getInstance(Digest.SHA_256)
+                        .digest(content))).build();
+    }
+
+    private Path tempFileOutsideOfStore(String fileName, byte[] content) throws IOException {
+        Path file = packageStoreRootPath.resolve(fileName);
+        Files.write(file, content);
+        return file;
     }
 
     private void preloadRecipeFileFromTestResource(String recipeFileName) throws Exception {
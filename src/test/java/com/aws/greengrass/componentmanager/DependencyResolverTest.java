@@ -40,9 +40,14 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static com.aws.greengrass.componentmanager.DependencyResolver.NON_EXPLICIT_NUCLEUS_UPDATE_ERROR_MESSAGE_FMT;
 import static com.aws.greengrass.componentmanager.DependencyResolver.NO_ACTIVE_NUCLEUS_VERSION_ERROR_MSG;
@@ -694,6 +699,182 @@ class DependencyResolverTest {
         assertThat(versionRequirements, IsMapContaining.hasEntry("B2", Requirement.buildNPM("<=1.2.0")));
     }
 
+    @Test
+    void GIVEN_group_deployed_before_WHEN_one_root_component_changes_THEN_only_changed_component_is_resolved()
+            throws Exception {
+        /*
+         *             group1
+         *    (1.0.0)/      \(1.0.0 -> 2.0.0)
+         *          A        B
+         *  (>=1.0.0)\
+         *            C1
+         */
+        Map<String, String> dependenciesA_1_x = new HashMap<>();
+        dependenciesA_1_x.put(componentC1, ">=1.0.0");
+        ComponentMetadata componentA_1_0_0 =
+                new ComponentMetadata(new ComponentIdentifier(componentA, v1_0_0), dependenciesA_1_x);
+        when(componentManager.resolveComponentVersion(eq(componentA), any())).thenReturn(componentA_1_0_0);
+        ComponentMetadata componentC_1_2_0 =
+                new ComponentMetadata(new ComponentIdentifier(componentC1, v1_2_0), Collections.emptyMap());
+        when(componentManager.resolveComponentVersion(eq(componentC1), any())).thenReturn(componentC_1_2_0);
+        ComponentMetadata componentB_1_0_0 =
+                new ComponentMetadata(new ComponentIdentifier(componentB, v1_0_0), Collections.emptyMap());
+        ComponentMetadata componentB_2_0_0 =
+                new ComponentMetadata(new ComponentIdentifier(componentB, v2_0_0), Collections.emptyMap());
+        when(componentManager.resolveComponentVersion(eq(componentB), any())).thenReturn(componentB_1_0_0)
+                .thenReturn(componentB_2_0_0);
+
+        DeploymentDocument firstDoc = new DeploymentDocument("mockId", "mockJob1",
+                Arrays.asList(new DeploymentPackageConfiguration(componentA, true, v1_0_0.getValue()),
+                        new DeploymentPackageConfiguration(componentB, true, v1_0_0.getValue())),
+                Collections.emptyList(), "mockGroup1", 1L, FailureHandlingPolicy.DO_NOTHING, componentUpdatePolicy,
+                configurationValidationPolicy);
+        dependencyResolver.resolveDependencies(firstDoc, new HashMap<>());
+
+        // what was deployed is running now
+        when(componentManager.getActiveAndSatisfiedComponentMetadata(eq(componentA), any()))
+                .thenReturn(componentA_1_0_0);
+        when(componentManager.getActiveAndSatisfiedComponentMetadata(eq(componentC1), any()))
+                .thenReturn(componentC_1_2_0);
+
+        DeploymentDocument secondDoc = new DeploymentDocument("mockId2", "mockJob2",
+                Arrays.asList(new DeploymentPackageConfiguration(componentA, true, v1_0_0.getValue()),
+                        new DeploymentPackageConfiguration(componentB, true, v2_0_0.getValue())),
+                Collections.emptyList(), "mockGroup1", 2L, FailureHandlingPolicy.DO_NOTHING, componentUpdatePolicy,
+                configurationValidationPolicy);
+        List<ComponentIdentifier> result = dependencyResolver.resolveDependencies(secondDoc, new HashMap<>());
+
+        assertThat(result, containsInAnyOrder(new ComponentIdentifier(componentA, v1_0_0),
+                new ComponentIdentifier(componentB, v2_0_0), new ComponentIdentifier(componentC1, v1_2_0)));
+        verify(componentManager, times(1)).resolveComponentVersion(eq(componentA), any());
+        verify(componentManager, times(1)).resolveComponentVersion(eq(componentC1), any());
+        verify(componentManager, times(2)).resolveComponentVersion(eq(componentB), any());
+    }
+
+    @Test
+    void GIVEN_cloud_deployment_to_group_before_WHEN_deployed_again_unchanged_THEN_not_negotiated_again()
+            throws Exception {
+        /*
+         *             group1
+         *                \(^1.0.0)
+         *                 A
+         *        (>=1.0.0)\
+         *                  C1
+         */
+        Map<String, String> dependenciesA_1_x = new HashMap<>();
+        dependenciesA_1_x.put(componentC1, ">=1.0.0");
+        ComponentMetadata componentA_1_0_0 =
+                new ComponentMetadata(new ComponentIdentifier(componentA, v1_0_0), dependenciesA_1_x);
+        when(componentManager.resolveComponentVersion(eq(componentA), any())).thenReturn(componentA_1_0_0);
+        ComponentMetadata componentC_1_2_0 =
+                new ComponentMetadata(new ComponentIdentifier(componentC1, v1_2_0), Collections.emptyMap());
+        when(componentManager.resolveComponentVersion(eq(componentC1), any())).thenReturn(componentC_1_2_0);
+        // deployed from the cloud rather than locally
+        DeploymentDocument doc = new DeploymentDocument("mockId", "mockJob1",
+                Collections.singletonList(new DeploymentPackageConfiguration(componentA, true, "^1.0.0")),
+                Collections.emptyList(), "thinggroup/mockGroup1", 1L, FailureHandlingPolicy.DO_NOTHING,
+                componentUpdatePolicy, configurationValidationPolicy);
+        dependencyResolver.resolveDependencies(doc, new HashMap<>());
+
+        when(componentManager.getActiveAndSatisfiedComponentMetadata(eq(componentA), any()))
+                .thenReturn(componentA_1_0_0);
+        when(componentManager.getActiveAndSatisfiedComponentMetadata(eq(componentC1), any()))
+                .thenReturn(componentC_1_2_0);
+        List<ComponentIdentifier> result = dependencyResolver.resolveDependencies(doc, new HashMap<>());
+
+        assertThat(result, containsInAnyOrder(new ComponentIdentifier(componentA, v1_0_0),
+                new ComponentIdentifier(componentC1, v1_2_0)));
+        // only negotiated for the first deployment
+        verify(componentManager, times(1)).resolveComponentVersion(eq(componentA), any());
+        verify(componentManager, times(1)).resolveComponentVersion(eq(componentC1), any());
+    }
+
+    @Test
+    void GIVEN_independent_dependencies_WHEN_resolve_THEN_resolved_concurrently() throws Exception {
+        /*
+         *             group1
+         *                \(1.0.0)
+         *                 A
+         *        (1.0.0)/   \(1.0.0)
+         *              B     C
+         */
+        Map<String, String> dependenciesA = new HashMap<>();
+        dependenciesA.put(componentB, "1.0.0");
+        dependenciesA.put(componentC, "1.0.0");
+        when(componentManager.resolveComponentVersion(eq(componentA), any())).thenReturn(
+                new ComponentMetadata(new ComponentIdentifier(componentA, v1_0_0), dependenciesA));
+        // each of B and C only resolves once the other one has started resolving too
+        CountDownLatch bothResolving = new CountDownLatch(2);
+        when(componentManager.resolveComponentVersion(eq(componentB), any())).thenAnswer(invocation -> {
+            bothResolving.countDown();
+            assertTrue(bothResolving.await(5, TimeUnit.SECONDS));
+            return new ComponentMetadata(new ComponentIdentifier(componentB, v1_0_0), Collections.emptyMap());
+        });
+        when(componentManager.resolveComponentVersion(eq(componentC), any())).thenAnswer(invocation -> {
+            bothResolving.countDown();
+            assertTrue(bothResolving.await(5, TimeUnit.SECONDS));
+            return new ComponentMetadata(new ComponentIdentifier(componentC, v1_0_0), Collections.emptyMap());
+        });
+        ExecutorService executor = Executors.newCachedThreadPool();
+        dependencyResolver.setExecutorService(executor);
+        DeploymentDocument doc = new DeploymentDocument("mockId", "mockJob1",
+                Collections.singletonList(new DeploymentPackageConfiguration(componentA, true, v1_0_0.getValue())),
+                Collections.emptyList(), "mockGroup1", 1L, FailureHandlingPolicy.DO_NOTHING, componentUpdatePolicy,
+                configurationValidationPolicy);
+
+        try {
+            List<ComponentIdentifier> result = dependencyResolver.resolveDependencies(doc, new HashMap<>());
+
+            assertThat(result, containsInAnyOrder(new ComponentIdentifier(componentA, v1_0_0),
+                    new ComponentIdentifier(componentB, v1_0_0), new ComponentIdentifier(componentC, v1_0_0)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void GIVEN_requirements_change_after_prefetch_WHEN_resolve_THEN_resolved_again_with_new_requirements()
+            throws Exception {
+        /*
+         *             group1
+         *                \(1.0.0)
+         *                 A
+         *        (1.0.0)/   \(>=1.0.0)
+         *              C --> B
+         *             (<2.0.0)
+         */
+        Map<String, String> dependenciesA = new LinkedHashMap<>();
+        dependenciesA.put(componentC, "1.0.0");
+        dependenciesA.put(componentB, ">=1.0.0");
+        when(componentManager.resolveComponentVersion(eq(componentA), any())).thenReturn(
+                new ComponentMetadata(new ComponentIdentifier(componentA, v1_0_0), dependenciesA));
+        when(componentManager.resolveComponentVersion(eq(componentC), any())).thenReturn(
+                new ComponentMetadata(new ComponentIdentifier(componentC, v1_0_0),
+                        Collections.singletonMap(componentB, "<2.0.0")));
+        // B is prefetched with only A's requirement while C is resolved
+        when(componentManager.resolveComponentVersion(eq(componentB), any())).thenAnswer(invocation -> {
+            Map<String, Requirement> requirements = invocation.getArgument(1);
+            return new ComponentMetadata(new ComponentIdentifier(componentB,
+                    requirements.containsKey(componentC) ? v1_5_0 : v2_0_0), Collections.emptyMap());
+        });
+        ExecutorService executor = Executors.newCachedThreadPool();
+        dependencyResolver.setExecutorService(executor);
+        DeploymentDocument doc = new DeploymentDocument("mockId", "mockJob1",
+                Collections.singletonList(new DeploymentPackageConfiguration(componentA, true, v1_0_0.getValue())),
+                Collections.emptyList(), "mockGroup1", 1L, FailureHandlingPolicy.DO_NOTHING, componentUpdatePolicy,
+                configurationValidationPolicy);
+
+        try {
+            List<ComponentIdentifier> result = dependencyResolver.resolveDependencies(doc, new HashMap<>());
+
+            // the same as resolving one at a time
+            assertThat(result, containsInAnyOrder(new ComponentIdentifier(componentA, v1_0_0),
+                    new ComponentIdentifier(componentB, v1_5_0), new ComponentIdentifier(componentC, v1_0_0)));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void GIVEN_resolved_components_contains_new_nucleus_patch_version_WHEN_minor_version_is_unchanged_THEN_pass()
             throws Exception {
@@ -0,0 +1,91 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.componentmanager;
+
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import com.vdurmont.semver4j.Semver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+@ExtendWith(GGExtension.class)
+class RecipeIndexTest {
+    private static final String SUFFIX = ".recipe.yaml";
+    private static final String NAME_HASH = "hash";
+
+    @TempDir
+    Path recipeDirectory;
+    private RecipeIndex recipeIndex;
+
+    @BeforeEach
+    void beforeEach() {
+        recipeIndex = new RecipeIndex(SUFFIX, RecipeIndex.DEFAULT_MAX_PARSED_RECIPES);
+    }
+
+    @Test
+    void GIVEN_index_loaded_WHEN_recipe_saved_by_store_THEN_applied_without_listing_again() throws IOException {
+        writeRecipe("1.0.0");
+        // changed long ago, so the listing is trusted
+        Files.setLastModifiedTime(recipeDirectory, FileTime.fromMillis(1_600_000_000_123L));
+        recipeIndex.load(recipeDirectory);
+
+        recipeIndex.recipeSaved(writeRecipe("2.0.0"), "recipe");
+        FileTime savedModified = Files.getLastModifiedTime(recipeDirectory);
+        // written by something else, but the directory looks the same as after the save
+        writeRecipe("3.0.0");
+        Files.setLastModifiedTime(recipeDirectory, savedModified);
+
+        assertThat(recipeIndex.getVersions(recipeDirectory, NAME_HASH),
+                is(Arrays.asList(new Semver("2.0.0"), new Semver("1.0.0"))));
+
+        // once the directory changes, it's listed again
+        Files.setLastModifiedTime(recipeDirectory, FileTime.fromMillis(savedModified.toMillis() + 1));
+        assertThat(recipeIndex.getVersions(recipeDirectory, NAME_HASH),
+                is(Arrays.asList(new Semver("3.0.0"), new Semver("2.0.0"), new Semver("1.0.0"))));
+    }
+
+    @Test
+    void GIVEN_index_loaded_WHEN_recipe_deleted_by_store_THEN_applied_without_listing_again() throws IOException {
+        Path recipe = writeRecipe("1.0.0");
+        Files.setLastModifiedTime(recipeDirectory, FileTime.fromMillis(1_600_000_000_123L));
+        recipeIndex.load(recipeDirectory);
+
+        Files.delete(recipe);
+        recipeIndex.recipeDeleted(recipe);
+
+        assertThat(recipeIndex.getVersions(recipeDirectory, NAME_HASH), is(Collections.emptyList()));
+    }
+
+    @Test
+    void GIVEN_coarse_directory_time_changed_before_listing_WHEN_changed_again_THEN_listed_again()
+            throws IOException {
+        FileTime coarse = FileTime.fromMillis(System.currentTimeMillis() / 1000 * 1000);
+        Files.setLastModifiedTime(recipeDirectory, coarse);
+        recipeIndex.load(recipeDirectory);
+
+        // changed within the same second, so its modification time doesn't change
+        writeRecipe("1.0.0");
+        Files.setLastModifiedTime(recipeDirectory, coarse);
+
+        assertThat(recipeIndex.getVersions(recipeDirectory, NAME_HASH),
+                is(Collections.singletonList(new Semver("1.0.0"))));
+    }
+
+    private Path writeRecipe(String version) throws IOException {
+        return Files.write(recipeDirectory.resolve(NAME_HASH + "@" + version + SUFFIX), new byte[0]);
+    }
+}
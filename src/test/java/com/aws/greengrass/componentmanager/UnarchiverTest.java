@@ -0,0 +1,270 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.componentmanager;
+
+import com.amazon.aws.iot.greengrass.component.common.Unarchive;
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(GGExtension.class)
+class UnarchiverTest {
+    private static final int ENTRY_COUNT = 100;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void GIVEN_zip_with_many_entries_WHEN_unarchive_in_parallel_THEN_all_entries_extracted() throws Exception {
+        Path zip = tempDir.resolve("artifact.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zip))) {
+            zos.putNextEntry(new ZipEntry("dir/"));
+            for (int i = 0; i < ENTRY_COUNT; i++) {
+                zos.putNextEntry(new ZipEntry("dir/sub" + i % 5 + "/file" + i));
+                zos.write(("content" + i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        Path dest = tempDir.resolve("out");
+
+        new Unarchiver(executor, 4).unarchive(Unarchive.ZIP, zip.toFile(), dest);
+
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertThat(new String(Files.readAllBytes(dest.resolve("dir/sub" + i % 5 + "/file" + i)),
+                    StandardCharsets.UTF_8), is("content" + i));
+        }
+    }
+
+    @Test
+    void GIVEN_unchanged_file_already_extracted_WHEN_unarchive_again_THEN_file_not_rewritten() throws Exception {
+        Path zip = tempDir.resolve("artifact.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zip))) {
+            zos.putNextEntry(new ZipEntry("same"));
+            zos.write("same".getBytes(StandardCharsets.UTF_8));
+            zos.putNextEntry(new ZipEntry("changed"));
+            zos.write("new!".getBytes(StandardCharsets.UTF_8));
+        }
+        Path dest = tempDir.resolve("out");
+        Files.createDirectories(dest);
+        Files.write(dest.resolve("same"), "same".getBytes(StandardCharsets.UTF_8));
+        Files.write(dest.resolve("changed"), "old!".getBytes(StandardCharsets.UTF_8));
+        FileTime oldTime = FileTime.fromMillis(0);
+        Files.setLastModifiedTime(dest.resolve("same"), oldTime);
+
+        new Unarchiver().unarchive(Unarchive.ZIP, zip.toFile(), dest);
+
+        assertEquals(oldTime, Files.getLastModifiedTime(dest.resolve("same")));
+        assertThat(new String(Files.readAllBytes(dest.resolve("changed")), StandardCharsets.UTF_8), is("new!"));
+    }
+
+    @Test
+    void GIVEN_zip_with_entry_outside_of_destination_WHEN_unarchive_THEN_throws_and_cleans_up() throws Exception {
+        Path zip = tempDir.resolve("artifact.zip");
+        try (ZipOutputStream zos = new ZipOutputStream(Files.newOutputStream(zip))) {
+            zos.putNextEntry(new ZipEntry("good"));
+            zos.putNextEntry(new ZipEntry("../evil"));
+        }
+        Path dest = tempDir.resolve("out");
+
+        assertThrows(IOException.class, () -> new Unarchiver().unarchive(Unarchive.ZIP, zip.toFile(), dest));
+        assertFalse(Files.exists(tempDir.resolve("evil")));
+        assertFalse(Files.exists(dest));
+    }
+
+    @Test
+    void GIVEN_tar_gz_artifact_WHEN_unarchive_THEN_entries_extracted() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, "pkg/", '5', new byte[0]);
+        writeTarEntry(tar, "pkg/lib.py", '0', "print('hello')".getBytes(StandardCharsets.UTF_8));
+        writeTarEntry(tar, "pkg/empty", '0', new byte[0]);
+        tar.write(new byte[1024]);
+        Path tarGz = tempDir.resolve("artifact.tar.gz");
+        try (OutputStream os = new GZIPOutputStream(Files.newOutputStream(tarGz))) {
+            os.write(tar.toByteArray());
+        }
+        Path dest = tempDir.resolve("out");
+
+        new Unarchiver().unarchive(Unarchive.ZIP, tarGz.toFile(), dest);
+
+        assertThat(new String(Files.readAllBytes(dest.resolve("pkg/lib.py")), StandardCharsets.UTF_8),
+                is("print('hello')"));
+        assertEquals(0, Files.size(dest.resolve("pkg/empty")));
+    }
+
+    @Test
+    void GIVEN_tar_with_entry_outside_of_destination_WHEN_unarchive_THEN_throws() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, "../evil", '0', "evil".getBytes(StandardCharsets.UTF_8));
+        tar.write(new byte[1024]);
+        Path tarFile = tempDir.resolve("artifact.tar");
+        Files.write(tarFile, tar.toByteArray());
+        Path dest = tempDir.resolve("out");
+
+        assertThrows(IOException.class, () -> new Unarchiver().unarchive(Unarchive.ZIP, tarFile.toFile(), dest));
+        assertFalse(Files.exists(tempDir.resolve("evil")));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void GIVEN_tar_with_chained_links_WHEN_unarchive_THEN_throws_and_nothing_written_outside() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        // each link stays inside the destination on its own, but a/b is .. once a is followed
+        writeTarEntry(tar, "a", '2', ".", new byte[0]);
+        writeTarEntry(tar, "a/b", '2', "..", new byte[0]);
+        writeTarEntry(tar, "a/b/evil", '0', "evil".getBytes(StandardCharsets.UTF_8));
+        tar.write(new byte[1024]);
+        Path tarFile = tempDir.resolve("artifact.tar");
+        Files.write(tarFile, tar.toByteArray());
+        Path dest = tempDir.resolve("out");
+
+        assertThrows(IOException.class, () -> new Unarchiver().unarchive(Unarchive.ZIP, tarFile.toFile(), dest));
+        assertFalse(Files.exists(tempDir.resolve("evil")));
+        assertFalse(Files.exists(dest));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void GIVEN_tar_with_link_target_leaving_through_link_WHEN_unarchive_THEN_throws() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        // a/a/../.. is the destination lexically, but its parent's parent once a is followed
+        writeTarEntry(tar, "a", '2', ".", new byte[0]);
+        writeTarEntry(tar, "c", '2', "a/a/../..", new byte[0]);
+        tar.write(new byte[1024]);
+        Path tarFile = tempDir.resolve("artifact.tar");
+        Files.write(tarFile, tar.toByteArray());
+        Path dest = tempDir.resolve("out");
+
+        assertThrows(IOException.class, () -> new Unarchiver().unarchive(Unarchive.ZIP, tarFile.toFile(), dest));
+        assertFalse(Files.exists(dest));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void GIVEN_tar_with_links_inside_destination_WHEN_unarchive_THEN_links_extracted() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, "lib/libfoo.so.1", '0', "foo".getBytes(StandardCharsets.UTF_8));
+        writeTarEntry(tar, "lib/libfoo.so", '2', "libfoo.so.1", new byte[0]);
+        writeTarEntry(tar, "current", '2', "lib", new byte[0]);
+        tar.write(new byte[1024]);
+        Path tarFile = tempDir.resolve("artifact.tar");
+        Files.write(tarFile, tar.toByteArray());
+        Path dest = tempDir.resolve("out");
+
+        new Unarchiver().unarchive(Unarchive.ZIP, tarFile.toFile(), dest);
+
+        assertThat(new String(Files.readAllBytes(dest.resolve("current/libfoo.so")), StandardCharsets.UTF_8),
+                is("foo"));
+    }
+
+    @Test
+    void GIVEN_tar_with_hard_link_WHEN_unarchive_THEN_target_copied_to_link() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, "bin/tool", '0', "tool".getBytes(StandardCharsets.UTF_8));
+        writeTarEntry(tar, "sbin/tool", '1', "bin/tool", new byte[0]);
+        tar.write(new byte[1024]);
+        Path tarFile = tempDir.resolve("artifact.tar");
+        Files.write(tarFile, tar.toByteArray());
+        Path dest = tempDir.resolve("out");
+
+        new Unarchiver().unarchive(Unarchive.ZIP, tarFile.toFile(), dest);
+
+        assertThat(new String(Files.readAllBytes(dest.resolve("sbin/tool")), StandardCharsets.UTF_8), is("tool"));
+        assertThat(new String(Files.readAllBytes(dest.resolve("bin/tool")), StandardCharsets.UTF_8), is("tool"));
+    }
+
+    @Test
+    void GIVEN_tar_with_hard_link_to_outside_of_destination_WHEN_unarchive_THEN_throws() throws Exception {
+        Files.write(tempDir.resolve("secret"), "secret".getBytes(StandardCharsets.UTF_8));
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, "secret", '1', "../secret", new byte[0]);
+        tar.write(new byte[1024]);
+        Path tarFile = tempDir.resolve("artifact.tar");
+        Files.write(tarFile, tar.toByteArray());
+        Path dest = tempDir.resolve("out");
+
+        assertThrows(IOException.class, () -> new Unarchiver().unarchive(Unarchive.ZIP, tarFile.toFile(), dest));
+        assertFalse(Files.exists(dest.resolve("secret")));
+    }
+
+    @Test
+    void GIVEN_tar_with_hard_link_to_missing_file_WHEN_unarchive_THEN_throws() throws Exception {
+        ByteArrayOutputStream tar = new ByteArrayOutputStream();
+        writeTarEntry(tar, "sbin/tool", '1', "bin/tool", new byte[0]);
+        tar.write(new byte[1024]);
+        Path tarFile = tempDir.resolve("artifact.tar");
+        Files.write(tarFile, tar.toByteArray());
+        Path dest = tempDir.resolve("out");
+
+        assertThrows(IOException.class, () -> new Unarchiver().unarchive(Unarchive.ZIP, tarFile.toFile(), dest));
+    }
+
+    private static void writeTarEntry(ByteArrayOutputStream tar, String name, char type, byte[] content)
+            throws IOException {
+        writeTarEntry(tar, name, type, "", content);
+    }
+
+    private static void writeTarEntry(ByteArrayOutputStream tar, String name, char type, String linkName,
+                                      byte[] content) throws IOException {
+        byte[] header = new byte[512];
+        putTarField(header, 0, name);
+        putTarField(header, 157, linkName);
+        putTarField(header, 100, "0000644");
+        putTarField(header, 108, "0000000");
+        putTarField(header, 116, "0000000");
+        putTarField(header, 124, String.format("%011o", content.length));
+        putTarField(header, 136, String.format("%011o", 1_600_000_000L));
+        header[156] = (byte) type;
+        putTarField(header, 257, "ustar");
+        putTarField(header, 263, "00");
+        // checksum is computed with the checksum field filled with spaces
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        putTarField(header, 148, String.format("%06o", checksum));
+        tar.write(header);
+        tar.write(content);
+        int padding = (512 - content.length % 512) % 512;
+        tar.write(new byte[padding]);
+    }
+
+    private static void putTarField(byte[] header, int offset, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+}
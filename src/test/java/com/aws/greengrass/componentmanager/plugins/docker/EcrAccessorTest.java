@@ -19,6 +19,7 @@ import software.amazon.awssdk.services.ecr.model.GetAuthorizationTokenRequest;
 import software.amazon.awssdk.services.ecr.model.GetAuthorizationTokenResponse;
 
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
 
@@ -27,8 +28,10 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -72,4 +75,29 @@ public class EcrAccessorTest {
         assertThat(err.getCause(), is(instanceOf(EcrException.class)));
         verify(ecrClient).getAuthorizationToken(any(GetAuthorizationTokenRequest.class));
     }
+
+    @Test
+    void GIVEN_credentials_fetched_WHEN_get_credentials_again_THEN_cached_until_close_to_expiry() throws Exception {
+        Instant longExpiry = Instant.now().plus(Duration.ofHours(12));
+        Instant shortExpiry = Instant.now().plus(EcrAccessor.CREDENTIALS_REFRESH_BEFORE_EXPIRY).minusSeconds(60);
+        when(ecrClient.getAuthorizationToken(any(GetAuthorizationTokenRequest.class)))
+                .thenReturn(authorizationTokenResponse(longExpiry))
+                .thenReturn(authorizationTokenResponse(shortExpiry));
+
+        Registry.Credentials credentials = ecrAccessor.getCredentials("some_registry_id");
+        assertSame(credentials, ecrAccessor.getCredentials("some_registry_id"));
+        verify(ecrClient, times(1)).getAuthorizationToken(any(GetAuthorizationTokenRequest.class));
+
+        // Another registry has its own credentials, and ones close to expiry aren't reused
+        assertEquals(shortExpiry, ecrAccessor.getCredentials("other_registry_id").getExpiresAt());
+        ecrAccessor.getCredentials("other_registry_id");
+        verify(ecrClient, times(3)).getAuthorizationToken(any(GetAuthorizationTokenRequest.class));
+    }
+
+    private GetAuthorizationTokenResponse authorizationTokenResponse(Instant expiry) {
+        String token = Base64.getEncoder().encodeToString("username:password".getBytes(StandardCharsets.UTF_8));
+        AuthorizationData authorizationData =
+                AuthorizationData.builder().authorizationToken(token).expiresAt(expiry).build();
+        return GetAuthorizationTokenResponse.builder().authorizationData(authorizationData).build();
+    }
 }
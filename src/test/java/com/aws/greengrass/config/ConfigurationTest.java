@@ -24,6 +24,7 @@ import java.io.InputStream;
 import java.io.StringWriter;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -735,6 +736,43 @@ class ConfigurationTest {
         assertEquals(expectedConfig, config.toPOJO());
     }
 
+    @Test
+    void GIVEN_config_WHEN_content_compared_with_map_THEN_equal_iff_toPOJO_is_equal() throws Exception {
+        try (InputStream inputStream = new ByteArrayInputStream(
+                "a:\n  b: 1\n  c: [x, y]\n  _private: p\nd:\n  e: true\n".getBytes())) {
+            config.mergeMap(0, MAPPER.readValue(inputStream, Map.class));
+        }
+        Topics a = config.findTopics("a");
+        Map<String, Object> proposed = new HashMap<>();
+        proposed.put("b", 1);
+        proposed.put("c", Arrays.asList("x", "y"));
+
+        // entries starting with _ aren't part of the content
+        assertTrue(a.contentEquals(proposed));
+        byte[] digestOfD = config.findTopics("d").getContentDigest();
+
+        // names are compared as they are, like toPOJO() returns them
+        proposed.put("B", proposed.remove("b"));
+        assertFalse(a.contentEquals(proposed));
+        proposed.put("b", proposed.remove("B"));
+        proposed.put("b", 1L);
+        assertFalse(a.contentEquals(proposed));
+        proposed.put("b", 2);
+        assertFalse(a.contentEquals(proposed));
+
+        config.lookup("a", "b").withValue(2);
+        assertTrue(a.contentEquals(proposed));
+        assertTrue(config.getRoot().contentEquals(config.toPOJO()));
+        // other subtrees keep their digest
+        assertTrue(Arrays.equals(digestOfD, config.findTopics("d").getContentDigest()));
+
+        config.lookup("a", "f").withValue("new");
+        assertFalse(a.contentEquals(proposed));
+        config.find("a", "f").remove();
+        assertTrue(a.contentEquals(proposed));
+        assertTrue(config.getRoot().contentEquals(config.toPOJO()));
+    }
+
     private <T> Map<String, T> createNewMap(String key, T value) {
         Map<String, T> result = new HashMap<>();
         result.put(key, value);
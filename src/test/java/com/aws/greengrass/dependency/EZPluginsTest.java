@@ -0,0 +1,149 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.dependency;
+
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static com.aws.greengrass.testcommons.testutilities.ExceptionLogProtector.ignoreExceptionOfType;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith({GGExtension.class})
+class EZPluginsTest {
+    private static final String TARGET = TestPlugin.class.getName();
+
+    @TempDir
+    Path rootPath;
+    private ExecutorService executorService;
+    private EZPlugins ezPlugins;
+    private Path jar;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        executorService = Executors.newCachedThreadPool();
+        ezPlugins = new EZPlugins(executorService, rootPath.resolve("plugins"));
+        jar = pluginJar(rootPath.resolve("plugin.jar"), ScannedPlugin.class);
+    }
+
+    @AfterEach
+    void afterEach() throws IOException {
+        ezPlugins.close();
+        executorService.shutdownNow();
+    }
+
+    @Test
+    void GIVEN_cached_index_WHEN_load_plugin_THEN_indexed_classes_loaded_without_scanning() throws IOException {
+        PluginIndex index = new PluginIndex("", Collections.singletonList(TARGET));
+        // only in the index, so it's found only if the jar isn't scanned
+        index.addMatch(TARGET, IndexedPlugin.class.getName());
+        index.write(cachedIndexPath());
+
+        assertThat(loadPlugin(), contains(IndexedPlugin.class.getName()));
+    }
+
+    @Test
+    void GIVEN_corrupted_cached_index_WHEN_load_plugin_THEN_jar_scanned_and_index_cached_again(
+            ExtensionContext context) throws IOException {
+        ignoreExceptionOfType(context, IOException.class);
+        Files.createDirectories(cachedIndexPath().getParent());
+        Files.write(cachedIndexPath(), "matches.x=y".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(loadPlugin(), contains(ScannedPlugin.class.getName()));
+        PluginIndex cached = PluginIndex.read(cachedIndexPath());
+        assertThat(cached, is(not(nullValue())));
+        assertTrue(cached.covers("", Collections.singletonList(TARGET)));
+    }
+
+    @Test
+    void GIVEN_cached_index_for_other_targets_WHEN_load_plugin_THEN_jar_scanned() throws IOException {
+        PluginIndex index = new PluginIndex("", Collections.singletonList(ImplementsService.class.getName()));
+        index.addMatch(ImplementsService.class.getName(), IndexedPlugin.class.getName());
+        index.write(cachedIndexPath());
+
+        assertThat(loadPlugin(), contains(ScannedPlugin.class.getName()));
+    }
+
+    @Test
+    void GIVEN_cached_index_of_previous_jar_WHEN_jar_changed_THEN_jar_scanned() throws IOException {
+        PluginIndex index = new PluginIndex("", Collections.singletonList(TARGET));
+        index.addMatch(TARGET, IndexedPlugin.class.getName());
+        index.write(cachedIndexPath());
+
+        pluginJar(jar, ScannedPlugin.class, IndexedPlugin.class);
+
+        assertThat(loadPlugin(), contains(IndexedPlugin.class.getName(), ScannedPlugin.class.getName()));
+    }
+
+    private List<String> loadPlugin() throws IOException {
+        List<String> loaded = new CopyOnWriteArrayList<>();
+        ezPlugins.loadPlugin(jar, TestPlugin.class, c -> loaded.add(c.getName()));
+        loaded.sort(String::compareTo);
+        return loaded;
+    }
+
+    private Path cachedIndexPath() throws IOException {
+        return rootPath.resolve("plugins").resolve("index").resolve(PluginIndex.cachedIndexFileName(jar));
+    }
+
+    private static Path pluginJar(Path path, Class<?>... classes) throws IOException {
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(path))) {
+            for (Class<?> c : classes) {
+                String entry = c.getName().replace('.', '/') + ".class";
+                out.putNextEntry(new JarEntry(entry));
+                try (InputStream in = EZPluginsTest.class.getClassLoader().getResourceAsStream(entry)) {
+                    copy(in, out);
+                }
+                out.closeEntry();
+            }
+        }
+        return path;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[4096];
+        for (int n = in.read(buffer); n != -1; n = in.read(buffer)) {
+            out.write(buffer, 0, n);
+        }
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface TestPlugin {
+    }
+
+    @TestPlugin
+    static class ScannedPlugin {
+    }
+
+    @TestPlugin
+    static class IndexedPlugin {
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.dependency;
+
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith({GGExtension.class})
+class PluginIndexTest {
+    private static final String PACKAGES = "com.aws.greengrass";
+    private static final String SERVICE = "com.aws.greengrass.dependency.ImplementsService";
+    private static final String PROVISIONING = "com.aws.greengrass.provisioning.DeviceIdentityInterface";
+
+    @TempDir
+    Path rootPath;
+
+    @Test
+    void GIVEN_index_WHEN_written_and_read_THEN_same_matches() throws IOException {
+        PluginIndex index = new PluginIndex(PACKAGES, Arrays.asList(SERVICE, PROVISIONING));
+        index.addMatch(SERVICE, "com.aws.greengrass.B");
+        index.addMatch(SERVICE, "com.aws.greengrass.A");
+        Path file = rootPath.resolve(PluginIndex.RESOURCE);
+
+        index.stampClasses(rootPath);
+        index.write(file);
+        PluginIndex read = PluginIndex.readBundled(rootPath);
+
+        assertThat(read, is(not(nullValue())));
+        assertThat(read.getMatches(SERVICE), contains("com.aws.greengrass.A", "com.aws.greengrass.B"));
+        // a target without matches is still covered
+        assertThat(read.getMatches(PROVISIONING), is(empty()));
+        assertTrue(read.covers(PACKAGES, Collections.singletonList(PROVISIONING)));
+    }
+
+    @Test
+    void GIVEN_index_WHEN_scan_for_other_packages_or_targets_THEN_not_covered() {
+        PluginIndex index = new PluginIndex(PACKAGES, Collections.singletonList(SERVICE));
+
+        assertTrue(index.covers(PACKAGES, Collections.singletonList(SERVICE)));
+        assertFalse(index.covers("", Collections.singletonList(SERVICE)));
+        assertFalse(index.covers(PACKAGES, Arrays.asList(SERVICE, PROVISIONING)));
+    }
+
+    @Test
+    void GIVEN_no_or_corrupted_index_WHEN_read_bundled_THEN_null() throws IOException {
+        assertThat(PluginIndex.readBundled(rootPath), is(nullValue()));
+
+        Path file = rootPath.resolve(PluginIndex.RESOURCE);
+        Files.createDirectories(file.getParent());
+        Files.write(file, "matches.x=y".getBytes(StandardCharsets.UTF_8));
+        assertThat(PluginIndex.readBundled(rootPath), is(nullValue()));
+    }
+
+    @Test
+    void GIVEN_index_of_class_directory_WHEN_classes_change_THEN_not_used() throws IOException {
+        Path classFile = rootPath.resolve("com/aws/greengrass/A.class");
+        Files.createDirectories(classFile.getParent());
+        Files.write(classFile, new byte[]{1});
+        PluginIndex index = new PluginIndex(PACKAGES, Collections.singletonList(SERVICE));
+        index.addMatch(SERVICE, "com.aws.greengrass.A");
+        index.stampClasses(rootPath);
+        index.write(rootPath.resolve(PluginIndex.RESOURCE));
+        assertThat(PluginIndex.readBundled(rootPath), is(not(nullValue())));
+
+        // added without generating the index again
+        Files.write(rootPath.resolve("com/aws/greengrass/B.class"), new byte[]{1});
+        assertThat(PluginIndex.readBundled(rootPath), is(nullValue()));
+
+        // compiled again without generating the index again
+        Files.delete(rootPath.resolve("com/aws/greengrass/B.class"));
+        index.stampClasses(rootPath);
+        index.write(rootPath.resolve(PluginIndex.RESOURCE));
+        Files.setLastModifiedTime(classFile, FileTime.fromMillis(Files.getLastModifiedTime(classFile).toMillis()
+                + 2000));
+        assertThat(PluginIndex.readBundled(rootPath), is(nullValue()));
+
+        // an index without the state of the classes isn't trusted either
+        new PluginIndex(PACKAGES, Collections.singletonList(SERVICE)).write(rootPath.resolve(PluginIndex.RESOURCE));
+        assertThat(PluginIndex.readBundled(rootPath), is(nullValue()));
+    }
+
+    @Test
+    void GIVEN_jars_WHEN_cached_index_file_name_THEN_follows_content() throws IOException {
+        Path first = Files.write(rootPath.resolve("first.jar"), "a".getBytes(StandardCharsets.UTF_8));
+        Path second = Files.write(rootPath.resolve("second.jar"), "a".getBytes(StandardCharsets.UTF_8));
+        Path third = Files.write(rootPath.resolve("third.jar"), "b".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(PluginIndex.cachedIndexFileName(first), is(PluginIndex.cachedIndexFileName(second)));
+        assertThat(PluginIndex.cachedIndexFileName(first), is(not(PluginIndex.cachedIndexFileName(third))));
+    }
+}
@@ -46,6 +46,7 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -296,6 +297,40 @@ class DeploymentConfigMergerTest {
         });
     }
 
+    @Test
+    void GIVEN_waitForServicesToStart_WHEN_service_goes_broken_THEN_throw_without_polling() throws Exception {
+        try (Context realContext = new Context()) {
+            GreengrassService mockService = mock(GreengrassService.class);
+            when(mockService.getContext()).thenReturn(realContext);
+            // the polled state never shows the failure, only the state change does
+            CountDownLatch checked = new CountDownLatch(1);
+            doAnswer(invocation -> {
+                checked.countDown();
+                return State.INSTALLED;
+            }).when(mockService).getState();
+            when(mockService.reachedDesiredState()).thenReturn(false);
+            lenient().when(mockService.getName()).thenReturn("mockService");
+
+            CompletableFuture<Void> waited = CompletableFuture.runAsync(() -> {
+                try {
+                    DeploymentConfigMerger.waitForServicesToStart(newOrderedSet(mockService),
+                            System.currentTimeMillis());
+                } catch (ServiceUpdateException | InterruptedException e) {
+                    throw new CompletionException(e);
+                }
+            });
+            // listening by the time services are first checked
+            assertTrue(checked.await(5, TimeUnit.SECONDS));
+            assertFalse(waited.isDone());
+
+            realContext.globalNotifyStateChanged(mockService, State.INSTALLED, State.BROKEN);
+
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> waited.get(3 * WAIT_SVC_START_POLL_INTERVAL_MILLISEC, TimeUnit.MILLISECONDS));
+            assertTrue(e.getCause() instanceof ServiceUpdateException);
+        }
+    }
+
     @Test
     void GIVEN_deployment_WHEN_check_safety_selected_THEN_check_safety_before_update() throws Exception {
         UpdateSystemPolicyService updateSystemPolicyService = mock(UpdateSystemPolicyService.class);
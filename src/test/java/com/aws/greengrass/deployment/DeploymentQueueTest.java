@@ -0,0 +1,109 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.deployment;
+
+import com.aws.greengrass.deployment.model.Deployment;
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith({GGExtension.class})
+class DeploymentQueueTest {
+    private static final long LONG_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final DeploymentQueue deploymentQueue = new DeploymentQueue();
+
+    @Test
+    void GIVEN_waiting_for_queue_WHEN_deployment_offered_THEN_woken_up() throws Exception {
+        CompletableFuture<Boolean> awaited = CompletableFuture.supplyAsync(() -> {
+            try {
+                return deploymentQueue.await(LONG_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+
+        assertTrue(deploymentQueue.offer(new Deployment("{}", Deployment.DeploymentType.LOCAL, "local-1")));
+        assertTrue(awaited.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void GIVEN_offered_before_waiting_WHEN_await_THEN_returns_once_without_waiting() throws InterruptedException {
+        deploymentQueue.offer(new Deployment(Deployment.DeploymentType.IOT_JOBS, "job-1", true));
+
+        assertTrue(deploymentQueue.await(LONG_WAIT_MILLIS));
+        // the signal is used up
+        assertFalse(deploymentQueue.await(1));
+    }
+
+    @Test
+    void GIVEN_queued_deployment_WHEN_removed_THEN_no_longer_tracked() {
+        Deployment deployment = new Deployment("{}", Deployment.DeploymentType.LOCAL, "local-1");
+        deploymentQueue.offer(deployment);
+
+        assertThat(deploymentQueue.getQueuedMillis(deployment), is(greaterThanOrEqualTo(0L)));
+        deploymentQueue.remove();
+        assertThat(deploymentQueue.getQueuedMillis(deployment), is(-1L));
+    }
+
+    @Test
+    void GIVEN_queued_deployment_WHEN_offered_again_THEN_ignored() {
+        assertTrue(deploymentQueue.offer(new Deployment("{}", Deployment.DeploymentType.IOT_JOBS, "job-1")));
+        assertTrue(deploymentQueue.offer(new Deployment("{}", Deployment.DeploymentType.IOT_JOBS, "job-2")));
+
+        assertFalse(deploymentQueue.offer(new Deployment("{}", Deployment.DeploymentType.IOT_JOBS, "job-1")));
+        // a cancellation of a queued job is a different request
+        assertTrue(deploymentQueue.offer(new Deployment(Deployment.DeploymentType.IOT_JOBS, "job-1", true)));
+
+        assertThat(deploymentQueue.size(), is(3));
+        assertThat(deploymentQueue.getDuplicateCount(), is(1L));
+        assertThat(deploymentQueue.peek().getId(), is("job-1"));
+    }
+
+    @Test
+    void GIVEN_queued_shadow_deployment_WHEN_newer_one_offered_THEN_superseded() {
+        Deployment older = new Deployment("{}", Deployment.DeploymentType.SHADOW, "shadow-1");
+        Deployment job = new Deployment("{}", Deployment.DeploymentType.IOT_JOBS, "job-1");
+        Deployment newer = new Deployment("{}", Deployment.DeploymentType.SHADOW, "shadow-2");
+        deploymentQueue.offer(older);
+        deploymentQueue.offer(job);
+
+        assertThat(deploymentQueue.peek(), is(sameInstance(older)));
+        assertTrue(deploymentQueue.offer(newer));
+
+        // what was peeked before is gone, so removing it doesn't remove anything else
+        assertFalse(deploymentQueue.remove(older));
+        assertThat(deploymentQueue.getSupersededCount(), is(1L));
+        assertThat(deploymentQueue.peek(), is(sameInstance(job)));
+        deploymentQueue.remove();
+        assertThat(deploymentQueue.peek(), is(sameInstance(newer)));
+        assertTrue(deploymentQueue.remove(newer));
+        assertTrue(deploymentQueue.isEmpty());
+    }
+
+    @Test
+    void GIVEN_reverted_shadow_deployment_WHEN_offered_THEN_replaces_queued_one() {
+        Deployment first = new Deployment("{}", Deployment.DeploymentType.SHADOW, "shadow-1");
+        Deployment reverted = new Deployment("{}", Deployment.DeploymentType.SHADOW, "shadow-1");
+        deploymentQueue.offer(first);
+
+        assertTrue(deploymentQueue.offer(reverted));
+
+        assertThat(deploymentQueue.size(), is(1));
+        assertThat(deploymentQueue.peek(), is(sameInstance(reverted)));
+        assertThat(deploymentQueue.getQueuedMillis(first), is(-1L));
+    }
+}
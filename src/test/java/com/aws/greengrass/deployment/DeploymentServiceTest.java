@@ -427,6 +427,10 @@ class DeploymentServiceTest extends GGServiceTestUtil {
         assertThat(groupToRootPackages, hasKey(EXPECTED_ROOT_PACKAGE_NAME));
         assertThat((Map<String, Boolean>) groupToRootPackages.get(EXPECTED_ROOT_PACKAGE_NAME),
                 hasKey("arn:aws:greengrass:testRegion:12345:configuration:testGroup:12"));
+        if (type.equals(Deployment.DeploymentType.LOCAL)) {
+            // stopped before the recipes and artifacts of the local deployment are copied into the store
+            verify(componentManager).stopStaleVersionCleanup();
+        }
     }
 
     @Test
@@ -81,7 +81,7 @@ class KernelUpdateDeploymentTaskTest {
         lenient().doReturn(mainService).when(kernel).getMain();
         lenient().doReturn(true).when(greengrassService).shouldAutoStart();
         lenient().doReturn(Arrays.asList(greengrassService)).when(kernel).orderedDependencies();
-        lenient().doNothing().when(componentManager).cleanupStaleVersions();
+        lenient().doNothing().when(componentManager).scheduleStaleVersionCleanup();
 
         Topic topic = mock(Topic.class);
         lenient().doReturn(1L).when(topic).getModtime();
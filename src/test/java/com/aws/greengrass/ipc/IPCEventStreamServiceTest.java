@@ -8,6 +8,7 @@ package com.aws.greengrass.ipc;
 import com.aws.greengrass.config.Configuration;
 import com.aws.greengrass.config.Topic;
 import com.aws.greengrass.config.Topics;
+import com.aws.greengrass.deployment.DeviceConfiguration;
 import com.aws.greengrass.ipc.exceptions.UnauthenticatedException;
 import com.aws.greengrass.lifecyclemanager.Kernel;
 import com.aws.greengrass.testcommons.testutilities.GGExtension;
@@ -38,6 +39,8 @@ import static com.aws.greengrass.ipc.IPCEventStreamService.DEFAULT_PORT_NUMBER;
 import static com.aws.greengrass.ipc.IPCEventStreamService.NUCLEUS_DOMAIN_SOCKET_FILEPATH_FOR_COMPONENT;
 import static com.aws.greengrass.ipc.IPCEventStreamService.NUCLEUS_DOMAIN_SOCKET_FILEPATH;
 import static com.aws.greengrass.lifecyclemanager.GreengrassService.SETENV_CONFIG_NAMESPACE;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
@@ -71,6 +74,11 @@ class IPCEventStreamServiceTest {
     @Mock
     private AuthenticationHandler mockAuthenticationHandler;
 
+    @Mock
+    private DeviceConfiguration mockDeviceConfiguration;
+
+    private final IPCEventLoopMetricsEmitter eventLoopMetrics = new IPCEventLoopMetricsEmitter();
+
     @BeforeEach
     public void setup() throws UnauthenticatedException, InterruptedException {
         when(mockKernel.getNucleusPaths()).thenReturn(nucleusPaths);
@@ -81,7 +89,7 @@ class IPCEventStreamServiceTest {
         when(mockAuthenticationHandler.doAuthentication(anyString())).thenReturn("SomeService");
 
         ipcEventStreamService = new IPCEventStreamService(mockKernel, new GreengrassCoreIPCService(), config,
-                mockAuthenticationHandler);
+                mockAuthenticationHandler, mockDeviceConfiguration, eventLoopMetrics);
         ipcEventStreamService.startup();
         Thread.sleep(5000);
     }
@@ -128,6 +136,8 @@ class IPCEventStreamServiceTest {
                 }
             });
             assertTrue(connectionLatch.await(2, TimeUnit.SECONDS));
+            assertThat(eventLoopMetrics.getMetrics().stream().filter(m -> m.getName().endsWith("NewConnections"))
+                    .mapToLong(m -> ((Number) m.getValue()).longValue()).sum(), is(1L));
         } finally {
             if (connection != null) {
                 connection.close();
@@ -57,6 +57,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Consumer;
 
 import static com.aws.greengrass.lifecyclemanager.GreengrassService.SERVICES_NAMESPACE_TOPIC;
@@ -586,6 +587,72 @@ class KernelLifecycleTest {
         inOrder.verify(badService1).close();
     }
 
+    @Test
+    void GIVEN_service_with_depender_WHEN_shutdown_THEN_service_stopped_after_depender_and_others_concurrently()
+            throws Exception {
+        GreengrassService dependency = mock(GreengrassService.class);
+        GreengrassService depender = mock(GreengrassService.class);
+        GreengrassService independent = mock(GreengrassService.class);
+
+        CompletableFuture<Void> dependerClosed = new CompletableFuture<>();
+        doReturn(dependerClosed).when(depender).close();
+        doReturn(CompletableFuture.completedFuture(null)).when(dependency).close();
+        doReturn(CompletableFuture.completedFuture(null)).when(independent).close();
+        doReturn(Collections.singletonMap(dependency, DependencyType.HARD)).when(depender).getDependencies();
+        doReturn(Arrays.asList(dependency, independent, depender)).when(mockKernel).orderedDependencies();
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(() -> kernelLifecycle.stopAllServices(-1));
+        verify(depender, timeout(5000)).close();
+        verify(independent, timeout(5000)).close();
+        verify(dependency, never()).close();
+
+        dependerClosed.complete(null);
+        shutdown.get(5, TimeUnit.SECONDS);
+        verify(dependency).close();
+    }
+
+    @Test
+    void GIVEN_service_with_soft_depender_WHEN_shutdown_THEN_service_not_held_back_by_depender(
+            ExtensionContext context) {
+        ignoreExceptionOfType(context, TimeoutException.class);
+        GreengrassService dependency = mock(GreengrassService.class);
+        GreengrassService depender = mock(GreengrassService.class);
+
+        // never stops
+        doReturn(new CompletableFuture<>()).when(depender).close();
+        doReturn(CompletableFuture.completedFuture(null)).when(dependency).close();
+        doReturn(Collections.singletonMap(dependency, DependencyType.SOFT)).when(depender).getDependencies();
+        doReturn(Arrays.asList(dependency, depender)).when(mockKernel).orderedDependencies();
+
+        kernelLifecycle.stopAllServices(1);
+
+        // asked right away rather than once the shutdown timed out
+        verify(dependency).close();
+        verify(dependency, never()).close(false);
+    }
+
+    @Test
+    void GIVEN_hung_depender_WHEN_shutdown_times_out_THEN_its_dependencies_still_asked_to_close(
+            ExtensionContext context) {
+        ignoreExceptionOfType(context, TimeoutException.class);
+        GreengrassService dependency = mock(GreengrassService.class);
+        GreengrassService depender = mock(GreengrassService.class);
+
+        // never stops
+        doReturn(new CompletableFuture<>()).when(depender).close();
+        doReturn(CompletableFuture.completedFuture(null)).when(dependency).close(false);
+        doReturn(Collections.singletonMap(dependency, DependencyType.HARD)).when(depender).getDependencies();
+        doReturn(Arrays.asList(dependency, depender)).when(mockKernel).orderedDependencies();
+
+        kernelLifecycle.stopAllServices(1);
+
+        verify(depender).close();
+        verify(dependency, never()).close();
+        // without waiting for the depender which didn't stop
+        verify(dependency).close(false);
+        verify(depender, never()).close(false);
+    }
+
     private ProvisionConfiguration createMockProvisioningConforguration() {
         ProvisionConfiguration provisionConfiguration = new ProvisionConfiguration();
         NucleusConfiguration nucleusConfiguration =
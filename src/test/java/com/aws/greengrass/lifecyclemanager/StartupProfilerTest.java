@@ -0,0 +1,102 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.lifecyclemanager;
+
+import com.aws.greengrass.dependency.State;
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import com.aws.greengrass.util.SerializerFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith({GGExtension.class})
+class StartupProfilerTest {
+    @TempDir
+    Path rootPath;
+
+    @Test
+    void GIVEN_phases_WHEN_ended_THEN_recorded_in_order_after_jvm() {
+        StartupProfiler profiler = new StartupProfiler(System.currentTimeMillis() - 1000);
+
+        StartupProfiler.Phase config = profiler.begin("initConfigAndTlog");
+        StartupProfiler.Phase plugins = profiler.begin("pluginDiscovery");
+        plugins.end();
+        config.end();
+
+        List<Map<String, Object>> phases = profiler.getPhases();
+        assertThat(phases.stream().map(p -> p.get("name")).collect(Collectors.toList()),
+                contains("jvm", "pluginDiscovery", "initConfigAndTlog"));
+        assertThat((Long) phases.get(0).get("wallMillis"), is(greaterThanOrEqualTo(1000L)));
+        assertThat((Long) phases.get(2).get("startMillis"), is(greaterThanOrEqualTo(1000L)));
+    }
+
+    @Test
+    void GIVEN_service_transitions_WHEN_running_THEN_later_transitions_not_recorded() {
+        StartupProfiler profiler = new StartupProfiler();
+
+        profiler.serviceStateChanged("main", State.INSTALLED);
+        profiler.serviceStateChanged("main", State.STARTING);
+        profiler.serviceStateChanged("main", State.RUNNING);
+        profiler.serviceStateChanged("main", State.STOPPING);
+
+        assertThat(profiler.getTransitions("main").stream().map(t -> t.get("state")).collect(Collectors.toList()),
+                contains("INSTALLED", "STARTING", "RUNNING"));
+    }
+
+    @Test
+    void GIVEN_trace_WHEN_completed_THEN_written_once_under_root() throws IOException {
+        StartupProfiler profiler = new StartupProfiler();
+        profiler.begin("startupAllServices").end();
+        profiler.serviceStateChanged("main", State.FINISHED);
+
+        assertTrue(profiler.complete(rootPath, "2.0.0"));
+        assertFalse(profiler.complete(rootPath, "2.0.0"));
+        // nothing is recorded once complete
+        profiler.serviceStateChanged("other", State.RUNNING);
+        assertTrue(profiler.getTransitions("other").isEmpty());
+
+        JsonNode trace = SerializerFactory.getFailSafeJsonObjectMapper()
+                .readTree(rootPath.resolve(StartupProfiler.TRACE_FILE).toFile());
+        assertThat(trace.get("nucleusVersion").asText(), is("2.0.0"));
+        assertThat(trace.get("phases").size(), is(2));
+        assertThat(trace.get("services").get("main").get(0).get("state").asText(), is("FINISHED"));
+    }
+
+    @Test
+    void GIVEN_phase_open_WHEN_completed_THEN_trace_written_once_phase_ends() throws IOException {
+        StartupProfiler profiler = new StartupProfiler();
+        StartupProfiler.Phase phase = profiler.begin("startupAllServices");
+        // main is running before the phase starting it ends
+        profiler.serviceStateChanged("main", State.RUNNING);
+
+        assertFalse(profiler.complete(rootPath, "2.0.0"));
+        assertFalse(Files.exists(rootPath.resolve(StartupProfiler.TRACE_FILE)));
+        assertFalse(profiler.complete(rootPath, "2.0.0"));
+
+        phase.end();
+
+        JsonNode trace = SerializerFactory.getFailSafeJsonObjectMapper()
+                .readTree(rootPath.resolve(StartupProfiler.TRACE_FILE).toFile());
+        assertThat(trace.get("phases").size(), is(2));
+        assertThat(trace.get("phases").get(1).get("name").asText(), is("startupAllServices"));
+        assertFalse(profiler.complete(rootPath, "2.0.0"));
+    }
+}
@@ -62,6 +62,7 @@ import static com.aws.greengrass.testcommons.testutilities.ExceptionLogProtector
 import static com.aws.greengrass.testcommons.testutilities.TestUtils.asyncAssertOnConsumer;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.either;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -496,6 +497,78 @@ class MqttClientTest {
         verify(spool, never()).addId(anyLong());
     }
 
+    @Test
+    void GIVEN_publish_awaiting_delivery_WHEN_spooled_message_acknowledged_THEN_future_completes_only_then()
+            throws Exception {
+        MqttClient client = spy(new MqttClient(deviceConfiguration, spool, false, (c) -> builder, executorService));
+        long id = 1L;
+        PublishRequest request = PublishRequest.builder().topic("spool")
+                .payload("What's up".getBytes(StandardCharsets.UTF_8))
+                .qos(QualityOfService.AT_LEAST_ONCE).build();
+        SpoolMessage message = SpoolMessage.builder().id(id).request(request).build();
+        when(spool.addMessage(eq(request), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<SpoolMessage>>getArgument(1).accept(message);
+            return message;
+        });
+        when(spool.popId()).thenReturn(id);
+        when(spool.getMessageById(id)).thenReturn(message);
+        AwsIotMqttClient awsIotMqttClient = mock(AwsIotMqttClient.class);
+        when(awsIotMqttClient.publish(any(), any(), anyBoolean())).thenReturn(CompletableFuture.completedFuture(0));
+
+        CompletableFuture<Integer> future = client.publishAndAwaitDelivery(request);
+        // spooled, but not delivered yet
+        assertFalse(future.isDone());
+
+        client.publishSingleSpoolerMessage(awsIotMqttClient);
+
+        assertEquals(0, future.get());
+    }
+
+    @Test
+    void GIVEN_publish_awaiting_delivery_WHEN_spooler_delivers_before_add_returns_THEN_future_completes()
+            throws Exception {
+        MqttClient client = spy(new MqttClient(deviceConfiguration, spool, false, (c) -> builder, executorService));
+        long id = 1L;
+        PublishRequest request = PublishRequest.builder().topic("spool")
+                .payload("What's up".getBytes(StandardCharsets.UTF_8))
+                .qos(QualityOfService.AT_LEAST_ONCE).build();
+        SpoolMessage message = SpoolMessage.builder().id(id).request(request).build();
+        when(spool.popId()).thenReturn(id);
+        when(spool.getMessageById(id)).thenReturn(message);
+        AwsIotMqttClient awsIotMqttClient = mock(AwsIotMqttClient.class);
+        when(awsIotMqttClient.publish(any(), any(), anyBoolean())).thenReturn(CompletableFuture.completedFuture(0));
+        when(spool.addMessage(eq(request), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<SpoolMessage>>getArgument(1).accept(message);
+            // the spooler thread picks the message up as soon as it's queued
+            client.publishSingleSpoolerMessage(awsIotMqttClient);
+            return message;
+        });
+
+        CompletableFuture<Integer> future = client.publishAndAwaitDelivery(request);
+
+        assertEquals(0, future.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void GIVEN_publish_awaiting_delivery_WHEN_client_closed_THEN_future_fails() throws Exception {
+        MqttClient client = new MqttClient(deviceConfiguration, spool, false, (c) -> builder, executorService);
+        PublishRequest request = PublishRequest.builder().topic("spool")
+                .payload("What's up".getBytes(StandardCharsets.UTF_8))
+                .qos(QualityOfService.AT_LEAST_ONCE).build();
+        SpoolMessage message = SpoolMessage.builder().id(1L).request(request).build();
+        when(spool.addMessage(eq(request), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<SpoolMessage>>getArgument(1).accept(message);
+            return message;
+        });
+
+        CompletableFuture<Integer> future = client.publishAndAwaitDelivery(request);
+        assertFalse(future.isDone());
+        client.close();
+
+        ExecutionException e = assertThrows(ExecutionException.class, future::get);
+        assertThat(e.getCause(), instanceOf(SpoolerStoreException.class));
+    }
+
     @Test
     void GIVEN_publish_request_unsuccessfully_WHEN_spool_single_message_THEN_add_id_back_to_spooler_if_will_retry(ExtensionContext context)
             throws InterruptedException {
@@ -51,6 +51,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.aws.greengrass.deployment.DeploymentService.COMPONENTS_TO_GROUPS_TOPICS;
 import static com.aws.greengrass.deployment.DeploymentService.DEPLOYMENT_DETAILED_STATUS_KEY;
@@ -68,6 +69,8 @@ import static com.aws.greengrass.status.FleetStatusService.FLEET_STATUS_LAST_PER
 import static com.aws.greengrass.status.FleetStatusService.FLEET_STATUS_PERIODIC_PUBLISH_INTERVAL_SEC;
 import static com.aws.greengrass.status.FleetStatusService.FLEET_STATUS_SEQUENCE_NUMBER_TOPIC;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -79,6 +82,7 @@ import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -127,7 +131,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         lenient().when(config.lookup(FLEET_STATUS_SEQUENCE_NUMBER_TOPIC)).thenReturn(sequenceNumberTopic);
         Topic lastPeriodicUpdateTime = Topic.of(context, FLEET_STATUS_LAST_PERIODIC_UPDATE_TIME_TOPIC, Instant.now().toEpochMilli());
         lenient().when(config.lookup(FLEET_STATUS_LAST_PERIODIC_UPDATE_TIME_TOPIC)).thenReturn(lastPeriodicUpdateTime);
-        lenient().when(mockMqttClient.publish(any())).thenReturn(CompletableFuture.completedFuture(0));
+        lenient().when(mockMqttClient.publishAndAwaitDelivery(any())).thenReturn(CompletableFuture.completedFuture(0));
     }
 
     @AfterEach
@@ -207,7 +211,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         consumerArgumentCaptor.getValue().apply(map);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, times(1)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, times(1)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
 
         PublishRequest publishRequest = publishRequestArgumentCaptor.getValue();
         assertEquals(QualityOfService.AT_LEAST_ONCE, publishRequest.getQos());
@@ -294,7 +298,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         consumerArgumentCaptor.getValue().apply(map);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, times(1)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, times(1)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
 
         PublishRequest publishRequest = publishRequestArgumentCaptor.getValue();
         assertEquals(QualityOfService.AT_LEAST_ONCE, publishRequest.getQos());
@@ -343,7 +347,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         consumerArgumentCaptor.getValue().apply(map);
 
         // Verify that an MQTT message with the components status is uploaded.
-        verify(mockMqttClient, times(0)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, times(0)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
     }
 
     @Test
@@ -379,7 +383,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         consumerArgumentCaptor.getValue().apply(map);
 
         // Verify that an MQTT message with the components status is uploaded.
-        verify(mockMqttClient, times(0)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, times(0)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
     }
 
     @Test
@@ -419,7 +423,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         TimeUnit.SECONDS.sleep(5);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, atLeast(1)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, atLeast(1)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
 
         PublishRequest publishRequest = publishRequestArgumentCaptor.getValue();
         assertEquals(QualityOfService.AT_LEAST_ONCE, publishRequest.getQos());
@@ -543,7 +547,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         consumerArgumentCaptor.getValue().apply(map);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, times(1)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, times(1)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
 
         PublishRequest publishRequest = publishRequestArgumentCaptor.getValue();
         assertEquals(QualityOfService.AT_LEAST_ONCE, publishRequest.getQos());
@@ -605,7 +609,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
                 .globalServiceStateChanged(mockGreengrassService1, State.INSTALLED, State.BROKEN);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, times(1)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, times(1)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
 
         PublishRequest publishRequest = publishRequestArgumentCaptor.getValue();
         assertEquals(QualityOfService.AT_LEAST_ONCE, publishRequest.getQos());
@@ -648,7 +652,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         TimeUnit.SECONDS.sleep(5);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, times(0)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, times(0)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
     }
 
     @Test
@@ -714,7 +718,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         Thread.sleep(300);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, atLeast(1)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, atLeast(1)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
 
         Set<String> serviceNamesToCheck = new HashSet<>();
         serviceNamesToCheck.add("MockService");
@@ -785,7 +789,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         TimeUnit.SECONDS.sleep(1);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, atLeast(1)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, atLeast(1)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
 
         PublishRequest publishRequest = publishRequestArgumentCaptor.getValue();
         assertEquals(QualityOfService.AT_LEAST_ONCE, publishRequest.getQos());
@@ -861,7 +865,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         consumerArgumentCaptor.getValue().apply(map);
 
         // Verify that an MQTT message with the components' status is uploaded.
-        verify(mockMqttClient, times(3)).publish(publishRequestArgumentCaptor.capture());
+        verify(mockMqttClient, times(3)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
         List<PublishRequest> publishRequests = publishRequestArgumentCaptor.getAllValues();
         ObjectMapper mapper = new ObjectMapper();
         for (PublishRequest publishRequest : publishRequests) {
@@ -871,7 +875,7 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
             assertEquals(VERSION, fleetStatusDetails.getGgcVersion());
             assertEquals("testThing", fleetStatusDetails.getThing());
             assertEquals(OverallStatus.HEALTHY, fleetStatusDetails.getOverallStatus());
-            assertEquals(500, fleetStatusDetails.getComponentStatusDetails().size());
+            assertThat(publishRequest.getPayload().length, is(lessThanOrEqualTo(128_000)));
             for (ComponentStatusDetails componentStatusDetails : fleetStatusDetails.getComponentStatusDetails()) {
                 serviceNamesToCheck.remove(componentStatusDetails.getComponentName());
                 assertNull(componentStatusDetails.getStatusDetails());
@@ -883,6 +887,108 @@ class FleetStatusServiceTest extends GGServiceTestUtil {
         assertThat(serviceNamesToCheck, is(IsEmptyCollection.empty()));
     }
 
+    @Test
+    void GIVEN_components_break_in_burst_WHEN_within_coalesce_window_THEN_one_more_MQTT_Sent_with_changes_only()
+            throws ServiceLoadException, IOException, InterruptedException {
+        // Set up all the topics
+        Topics statusConfigTopics = Topics.of(context, FLEET_STATUS_CONFIG_TOPICS, null);
+        statusConfigTopics.createLeafChild(FLEET_STATUS_PERIODIC_PUBLISH_INTERVAL_SEC).withValue("10000");
+        Topics allComponentToGroupsTopics = Topics.of(context, GROUP_TO_ROOT_COMPONENTS_TOPICS, null);
+        lenient().when(config.lookupTopics(COMPONENTS_TO_GROUPS_TOPICS)).thenReturn(allComponentToGroupsTopics);
+
+        // Set up all the mocks
+        when(mockDeploymentStatusKeeper.registerDeploymentStatusConsumer(any(), consumerArgumentCaptor.capture(), anyString())).thenReturn(true);
+        when(mockGreengrassService1.getName()).thenReturn("MockService");
+        when(mockGreengrassService1.getServiceConfig()).thenReturn(config);
+        when(mockGreengrassService1.getState()).thenReturn(State.BROKEN);
+        when(mockGreengrassService2.getName()).thenReturn("MockService2");
+        when(mockGreengrassService2.getServiceConfig()).thenReturn(config);
+        when(mockGreengrassService2.getState()).thenReturn(State.BROKEN);
+        when(mockKernel.locate(DeploymentService.DEPLOYMENT_SERVICE_TOPICS)).thenReturn(mockDeploymentService);
+        when(mockKernel.locate("MockService")).thenReturn(mockGreengrassService1);
+        when(mockKernel.locate("MockService2")).thenReturn(mockGreengrassService2);
+        when(mockDeploymentService.getConfig()).thenReturn(config);
+        doNothing().when(context).addGlobalStateChangeListener(addGlobalStateChangeListenerArgumentCaptor.capture());
+        when(mockDeviceConfiguration.getStatusConfigurationTopics()).thenReturn(statusConfigTopics);
+        when(context.get(ScheduledExecutorService.class)).thenReturn(ses);
+
+        // Create the fleet status service instance
+        fleetStatusService = createFSS();
+        fleetStatusService.setStateChangeCoalesceWindowMillis(500);
+        fleetStatusService.startup();
+
+        // The first one is sent right away, the rest at the end of the window
+        addGlobalStateChangeListenerArgumentCaptor.getValue()
+                .globalServiceStateChanged(mockGreengrassService1, State.RUNNING, State.BROKEN);
+        verify(mockMqttClient, times(1)).publishAndAwaitDelivery(any());
+        addGlobalStateChangeListenerArgumentCaptor.getValue()
+                .globalServiceStateChanged(mockGreengrassService2, State.RUNNING, State.BROKEN);
+        addGlobalStateChangeListenerArgumentCaptor.getValue()
+                .globalServiceStateChanged(mockGreengrassService1, State.RUNNING, State.BROKEN);
+
+        verify(mockMqttClient, timeout(5000).times(2)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
+        ObjectMapper mapper = new ObjectMapper();
+        FleetStatusDetails fleetStatusDetails = mapper.readValue(publishRequestArgumentCaptor.getValue().getPayload(),
+                FleetStatusDetails.class);
+        assertEquals(OverallStatus.UNHEALTHY, fleetStatusDetails.getOverallStatus());
+        // MockService being BROKEN was acknowledged with the first upload
+        assertEquals(1, fleetStatusDetails.getComponentStatusDetails().size());
+        assertEquals("MockService2", fleetStatusDetails.getComponentStatusDetails().get(0).getComponentName());
+        assertEquals(State.BROKEN, fleetStatusDetails.getComponentStatusDetails().get(0).getState());
+    }
+
+    @Test
+    void GIVEN_upload_not_delivered_WHEN_next_changes_only_upload_THEN_undelivered_components_sent_again()
+            throws ServiceLoadException, IOException, InterruptedException {
+        // Set up all the topics
+        Topics statusConfigTopics = Topics.of(context, FLEET_STATUS_CONFIG_TOPICS, null);
+        statusConfigTopics.createLeafChild(FLEET_STATUS_PERIODIC_PUBLISH_INTERVAL_SEC).withValue("10000");
+        Topics allComponentToGroupsTopics = Topics.of(context, GROUP_TO_ROOT_COMPONENTS_TOPICS, null);
+        lenient().when(config.lookupTopics(COMPONENTS_TO_GROUPS_TOPICS)).thenReturn(allComponentToGroupsTopics);
+
+        // Set up all the mocks
+        when(mockDeploymentStatusKeeper.registerDeploymentStatusConsumer(any(), consumerArgumentCaptor.capture(), anyString())).thenReturn(true);
+        when(mockGreengrassService1.getName()).thenReturn("MockService");
+        when(mockGreengrassService1.getServiceConfig()).thenReturn(config);
+        when(mockGreengrassService1.getState()).thenReturn(State.BROKEN);
+        when(mockGreengrassService2.getName()).thenReturn("MockService2");
+        when(mockGreengrassService2.getServiceConfig()).thenReturn(config);
+        when(mockGreengrassService2.getState()).thenReturn(State.BROKEN);
+        when(mockKernel.locate(DeploymentService.DEPLOYMENT_SERVICE_TOPICS)).thenReturn(mockDeploymentService);
+        when(mockKernel.locate("MockService")).thenReturn(mockGreengrassService1);
+        when(mockKernel.locate("MockService2")).thenReturn(mockGreengrassService2);
+        when(mockDeploymentService.getConfig()).thenReturn(config);
+        doNothing().when(context).addGlobalStateChangeListener(addGlobalStateChangeListenerArgumentCaptor.capture());
+        when(mockDeviceConfiguration.getStatusConfigurationTopics()).thenReturn(statusConfigTopics);
+        when(context.get(ScheduledExecutorService.class)).thenReturn(ses);
+        // spooled but never acknowledged by the broker
+        when(mockMqttClient.publishAndAwaitDelivery(any())).thenReturn(new CompletableFuture<>());
+
+        // Create the fleet status service instance
+        fleetStatusService = createFSS();
+        fleetStatusService.setStateChangeCoalesceWindowMillis(500);
+        fleetStatusService.startup();
+
+        // The first one is sent right away, the rest at the end of the window
+        addGlobalStateChangeListenerArgumentCaptor.getValue()
+                .globalServiceStateChanged(mockGreengrassService1, State.RUNNING, State.BROKEN);
+        verify(mockMqttClient, times(1)).publishAndAwaitDelivery(any());
+        addGlobalStateChangeListenerArgumentCaptor.getValue()
+                .globalServiceStateChanged(mockGreengrassService2, State.RUNNING, State.BROKEN);
+        addGlobalStateChangeListenerArgumentCaptor.getValue()
+                .globalServiceStateChanged(mockGreengrassService1, State.RUNNING, State.BROKEN);
+
+        verify(mockMqttClient, timeout(5000).times(2)).publishAndAwaitDelivery(publishRequestArgumentCaptor.capture());
+        ObjectMapper mapper = new ObjectMapper();
+        FleetStatusDetails fleetStatusDetails = mapper.readValue(publishRequestArgumentCaptor.getValue().getPayload(),
+                FleetStatusDetails.class);
+        assertEquals(OverallStatus.UNHEALTHY, fleetStatusDetails.getOverallStatus());
+        // the first upload may never have reached the cloud, so MockService is sent again
+        assertThat(fleetStatusDetails.getComponentStatusDetails().stream()
+                .map(ComponentStatusDetails::getComponentName).collect(Collectors.toList()),
+                containsInAnyOrder("MockService", "MockService2"));
+    }
+
     private FleetStatusService createFSS() {
         PlatformResolver platformResolver = new PlatformResolver(null);
         return new FleetStatusService(config, mockMqttClient,
@@ -0,0 +1,86 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.telemetry.metrics;
+
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+@ExtendWith({GGExtension.class})
+class MetricsRegistryTest {
+
+    @Test
+    void GIVEN_any_value_WHEN_bucketed_THEN_bucket_holds_value_within_one_sixteenth() {
+        long[] values = {0, 1, 31, 32, 33, 63, 64, 1000, 123_456_789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (long value : values) {
+            int bucket = Histogram.bucketOf(value);
+            assertThat(bucket, is(lessThanOrEqualTo(Histogram.BUCKETS - 1)));
+            long highest = Histogram.highestValueOf(bucket);
+            assertThat(highest, is(greaterThanOrEqualTo(value)));
+            assertThat(highest - value, is(lessThanOrEqualTo(value / 16)));
+        }
+        assertThat(Histogram.bucketOf(Long.MAX_VALUE), is(Histogram.BUCKETS - 1));
+    }
+
+    @Test
+    void GIVEN_values_WHEN_snapshot_THEN_percentiles_and_max_reported() {
+        Histogram histogram = new MetricsRegistry().histogram("latency");
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 100L);
+        }
+
+        Histogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount(), is(100L));
+        assertThat(snapshot.getMax(), is(10_000L));
+        assertThat(snapshot.getValueAtPercentile(50), is(allOf(greaterThanOrEqualTo(5000L),
+                lessThanOrEqualTo(5000L + 5000L / 16))));
+        assertThat(snapshot.getValueAtPercentile(100), is(10_000L));
+    }
+
+    @Test
+    void GIVEN_earlier_snapshot_WHEN_since_THEN_only_later_values() {
+        Histogram histogram = new MetricsRegistry().histogram("latency");
+        histogram.record(1_000_000);
+        Histogram.Snapshot first = histogram.snapshot();
+        histogram.record(10);
+        histogram.record(20);
+
+        Histogram.Snapshot delta = histogram.snapshot().since(first);
+
+        assertThat(delta.getCount(), is(2L));
+        assertThat(delta.getSum(), is(30L));
+        assertThat(delta.getMax(), is(20L));
+        assertThat(histogram.snapshot().since(histogram.snapshot()).getValueAtPercentile(99), is(0L));
+    }
+
+    @Test
+    void GIVEN_registry_WHEN_metrics_looked_up_THEN_same_metric_and_values_in_snapshot() {
+        MetricsRegistry registry = new MetricsRegistry();
+        AtomicLong queue = new AtomicLong(7);
+        registry.counter("requests").increment();
+        registry.counter("requests").add(2);
+        registry.gauge("queueSize", queue, AtomicLong::get);
+        registry.histogram("latency").record(5);
+
+        assertThat(registry.histogram("latency"), is(sameInstance(registry.histogram("latency"))));
+        assertThat(registry.getCounterValues().get("requests"), is(3L));
+        assertThat(registry.getGaugeValues().get("queueSize"), is(7L));
+        Map<String, Object> snapshot = registry.snapshot();
+        assertThat((Map<String, Object>) snapshot.get("histograms"), hasKey("latency"));
+    }
+}
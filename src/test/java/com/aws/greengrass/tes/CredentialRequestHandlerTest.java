@@ -24,6 +24,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import software.amazon.awssdk.auth.credentials.AwsCredentials;
@@ -35,11 +36,14 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static com.aws.greengrass.tes.CredentialRequestHandler.CLOUD_4XX_ERROR_CACHE_IN_MIN;
 import static com.aws.greengrass.tes.CredentialRequestHandler.CLOUD_5XX_ERROR_CACHE_IN_MIN;
@@ -47,11 +51,18 @@ import static com.aws.greengrass.tes.CredentialRequestHandler.TIME_BEFORE_CACHE_
 import static com.aws.greengrass.tes.CredentialRequestHandler.UNKNOWN_ERROR_CACHE_IN_MIN;
 import static com.aws.greengrass.testcommons.testutilities.ExceptionLogProtector.ignoreExceptionOfType;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.core.Is.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
@@ -263,7 +274,8 @@ class CredentialRequestHandlerTest {
         assertThat(SESSION_TOKEN, is(resp.get("Token")));
         assertThat(EXPIRATION, is(resp.get("Expiration")));
 
-        // Cache will be returned if called again
+        // Cache will be returned if called again, unaffected by changes to the copy handed out before
+        Arrays.fill(creds, (byte) 0);
         reset(mockCloudHelper);
         final byte[] cached_creds = handler.getCredentials();
         verify(mockCloudHelper, times(0)).sendHttpRequest(any(),any(),any(),any(),any());
@@ -506,4 +518,90 @@ class CredentialRequestHandlerTest {
             executor.shutdownNow();
         }
     }
+
+    @Test
+    void GIVEN_refreshing_started_WHEN_credentials_fetched_THEN_next_refresh_scheduled_ahead_of_expiry()
+            throws Exception {
+        Instant expirationTime = Instant.now().plus(Duration.ofMinutes(60));
+        IotCloudResponse cloudResponse = new IotCloudResponse(
+                String.format(RESPONSE_STR, expirationTime.toString()).getBytes(StandardCharsets.UTF_8), 200);
+        when(mockCloudHelper.sendHttpRequest(any(), any(), any(), any(), any())).thenReturn(cloudResponse);
+        ScheduledExecutorService mockScheduler = mock(ScheduledExecutorService.class);
+        ExecutorService mockExecutor = mock(ExecutorService.class);
+        CredentialRequestHandler handler =
+                new CredentialRequestHandler(mockCloudHelper, mockConnectionManager, mockAuthNHandler,
+                        mockAuthZHandler, mockScheduler, mockExecutor);
+        handler.setIotCredentialsPath(ROLE_ALIAS);
+        handler.setThingName(THING_NAME);
+
+        handler.startRefreshing();
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Long> delay = ArgumentCaptor.forClass(Long.class);
+        verify(mockScheduler).schedule(refresh.capture(), delay.capture(), eq(TimeUnit.MILLISECONDS));
+        assertEquals(0L, delay.getValue());
+
+        // the scheduler only hands the fetch over to the executor
+        refresh.getValue().run();
+        verify(mockCloudHelper, never()).sendHttpRequest(any(), any(), any(), any(), any());
+        ArgumentCaptor<Runnable> fetch = ArgumentCaptor.forClass(Runnable.class);
+        verify(mockExecutor).execute(fetch.capture());
+        fetch.getValue().run();
+        verify(mockCloudHelper, times(1)).sendHttpRequest(any(), any(), any(), any(), any());
+        verify(mockScheduler, times(2)).schedule(refresh.capture(), delay.capture(), eq(TimeUnit.MILLISECONDS));
+        long cacheLifetime = Duration.ofMinutes(60 - TIME_BEFORE_CACHE_EXPIRE_IN_MIN).toMillis();
+        assertThat(delay.getValue(), is(both(greaterThan((long) (cacheLifetime * 0.6)))
+                .and(lessThan((long) (cacheLifetime * 0.86)))));
+
+        // Requests are served from what the refresh fetched
+        assertThat(handler.getAwsCredentials().accessKeyId(), is(ACCESS_KEY_ID));
+        verify(mockCloudHelper, times(1)).sendHttpRequest(any(), any(), any(), any(), any());
+
+        handler.stopRefreshing();
+        handler.getAwsCredentialsBypassCache();
+        verify(mockScheduler, times(2)).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    @SuppressWarnings("PMD.CloseResource")
+    void GIVEN_cached_credentials_WHEN_background_refresh_fails_THEN_cached_credentials_still_served()
+            throws Exception {
+        when(mockAuthNHandler.doAuthentication(anyString())).thenReturn("ServiceA");
+        when(mockAuthZHandler.isAuthorized(any(), any())).thenReturn(true);
+        when(mockCloudHelper.sendHttpRequest(any(), any(), any(), any(), any())).thenReturn(CLOUD_RESPONSE)
+                .thenReturn(new IotCloudResponse("Internal error".getBytes(StandardCharsets.UTF_8), 500));
+        ScheduledExecutorService mockScheduler = mock(ScheduledExecutorService.class);
+        ExecutorService mockExecutor = mock(ExecutorService.class);
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(mockExecutor).execute(any());
+        CredentialRequestHandler handler =
+                new CredentialRequestHandler(mockCloudHelper, mockConnectionManager, mockAuthNHandler,
+                        mockAuthZHandler, mockScheduler, mockExecutor);
+        handler.setIotCredentialsPath(ROLE_ALIAS);
+        when(mockExchange.getResponseBody()).thenReturn(mockStream);
+        Headers mockHeader = mock(Headers.class);
+        when(mockExchange.getRequestHeaders()).thenReturn(mockHeader);
+        when(mockExchange.getRequestURI()).thenReturn(TES_URI);
+        when(mockExchange.getRequestMethod()).thenReturn(REQUEST_METHOD);
+        when(mockHeader.getFirst(anyString())).thenReturn("auth token");
+
+        handler.startRefreshing();
+        ArgumentCaptor<Runnable> refresh = ArgumentCaptor.forClass(Runnable.class);
+        ArgumentCaptor<Long> delay = ArgumentCaptor.forClass(Long.class);
+        verify(mockScheduler).schedule(refresh.capture(), anyLong(), any());
+        refresh.getValue().run();
+        verify(mockScheduler, times(2)).schedule(refresh.capture(), anyLong(), any());
+        refresh.getValue().run();
+        verify(mockCloudHelper, times(2)).sendHttpRequest(any(), any(), any(), any(), any());
+        verify(mockScheduler, times(3)).schedule(any(Runnable.class), delay.capture(), any());
+        assertEquals(CredentialRequestHandler.REFRESH_RETRY_INTERVAL.toMillis(), delay.getValue());
+
+        handler.handle(mockExchange);
+        byte[] expectedResponse = getExpectedResponse();
+        verify(mockExchange, times(1)).sendResponseHeaders(200, expectedResponse.length);
+        verify(mockStream, times(1)).write(expectedResponse);
+        verify(mockCloudHelper, times(2)).sendHttpRequest(any(), any(), any(), any(), any());
+        mockStream.close();
+    }
 }
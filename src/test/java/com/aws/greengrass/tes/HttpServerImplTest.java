@@ -8,6 +8,7 @@ package com.aws.greengrass.tes;
 import com.aws.greengrass.testcommons.testutilities.GGExtension;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -20,11 +21,18 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
+import java.net.Socket;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.doAnswer;
@@ -33,15 +41,13 @@ import static org.mockito.Mockito.doAnswer;
 class HttpServerImplTest {
     private static final String mockResponse = "Hello World";
 
-    private final ExecutorService executorService = Executors.newFixedThreadPool(1);
-
     @Mock
     private HttpHandler mockHttpHandler;
 
     private HttpServerImpl startServer(int port) {
         HttpServerImpl server = null;
         try {
-            server = new HttpServerImpl(port, mockHttpHandler, executorService);
+            server = new HttpServerImpl(port, mockHttpHandler);
             server.start();
         } catch (IOException e) {
             fail("Could not start the server: {}", e);
@@ -51,7 +57,6 @@ class HttpServerImplTest {
 
     private void stopServer(HttpServerImpl server) {
         server.stop();
-        executorService.shutdown();
     }
 
     @SuppressWarnings("PMD.CloseResource")
@@ -92,4 +97,67 @@ class HttpServerImplTest {
             stopServer(server);
         }
     }
+
+    @Test
+    void GIVEN_workers_busy_and_queue_full_WHEN_request_THEN_turned_down_with_retry_after() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch handling = new CountDownLatch(1);
+        CountDownLatch queued = new CountDownLatch(1);
+        HttpServerImpl server = new HttpServerImpl(0, exchange -> {
+            handling.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        }, HttpServerImpl.DEFAULT_BACKLOG, 1, new ArrayBlockingQueue<Runnable>(1) {
+            @Override
+            public boolean offer(Runnable request) {
+                boolean added = super.offer(request);
+                if (added) {
+                    queued.countDown();
+                }
+                return added;
+            }
+        });
+        server.start();
+        ExecutorService clients = Executors.newCachedThreadPool();
+        try {
+            URL url = new URL("http://localhost:" + server.getServerPort() + HttpServerImpl.URL);
+            // One request takes the only worker, the next one fills the queue
+            Future<Integer> handled = clients.submit(() -> get(url).getResponseCode());
+            assertTrue(handling.await(5, TimeUnit.SECONDS));
+            Future<Integer> waiting = clients.submit(() -> get(url).getResponseCode());
+            assertTrue(queued.await(5, TimeUnit.SECONDS));
+
+            HttpURLConnection shed = get(url);
+            assertEquals(HttpURLConnection.HTTP_UNAVAILABLE, shed.getResponseCode());
+            assertEquals(HttpServerImpl.RETRY_AFTER_SECONDS, shed.getHeaderField(HttpServerImpl.RETRY_AFTER_HEADER));
+
+            // turning down a client slow to send its request doesn't hold up the dispatcher answering others
+            try (Socket slowClient = new Socket("localhost", server.getServerPort())) {
+                slowClient.getOutputStream().write("GET ".getBytes(StandardCharsets.US_ASCII));
+                slowClient.getOutputStream().flush();
+                assertEquals(HttpURLConnection.HTTP_UNAVAILABLE, get(url).getResponseCode());
+            }
+
+            release.countDown();
+            assertEquals(HttpURLConnection.HTTP_OK, handled.get(5, TimeUnit.SECONDS));
+            assertEquals(HttpURLConnection.HTTP_OK, waiting.get(5, TimeUnit.SECONDS));
+        } finally {
+            clients.shutdownNow();
+            server.stop();
+        }
+    }
+
+    private static HttpURLConnection get(URL url) throws IOException {
+        HttpURLConnection con = (HttpURLConnection) url.openConnection();
+        con.setRequestMethod("GET");
+        con.setConnectTimeout(10_000);
+        con.setReadTimeout(10_000);
+        return con;
+    }
 }
@@ -19,7 +19,6 @@ import com.aws.greengrass.deployment.DeviceConfiguration;
 import com.aws.greengrass.lifecyclemanager.Kernel;
 import com.aws.greengrass.testcommons.testutilities.GGExtension;
 import com.aws.greengrass.testcommons.testutilities.GGServiceTestUtil;
-import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,8 +34,6 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 import static com.aws.greengrass.componentmanager.KernelConfigResolver.CONFIGURATION_CONFIG_KEY;
 import static com.aws.greengrass.deployment.DeviceConfiguration.AWS_IOT_THING_NAME_ENV;
@@ -75,7 +72,6 @@ import static org.mockito.Mockito.when;
 @ExtendWith({MockitoExtension.class, GGExtension.class})
 class TokenExchangeServiceTest extends GGServiceTestUtil {
     private static final String MOCK_ROLE_ALIAS = "ROLE_ALIAS";
-    static ExecutorService executorService = Executors.newFixedThreadPool(1);
     @Mock
     AuthorizationHandler mockAuthZHandler;
 
@@ -147,11 +143,6 @@ class TokenExchangeServiceTest extends GGServiceTestUtil {
         context.close();
     }
 
-    @AfterAll
-    static void tearDown() {
-        executorService.shutdown();
-    }
-
     @ParameterizedTest
     @ValueSource(ints = {0, 3000})
     void GIVEN_token_exchange_service_WHEN_started_THEN_correct_env_set(int port) throws Exception {
@@ -183,7 +174,7 @@ class TokenExchangeServiceTest extends GGServiceTestUtil {
         TokenExchangeService tes = new TokenExchangeService(config,
                 mockCredentialHandler,
                 mockAuthZHandler,
-                executorService, deviceConfigurationWithRoleAlias(MOCK_ROLE_ALIAS));
+                deviceConfigurationWithRoleAlias(MOCK_ROLE_ALIAS));
         tes.postInject();
         tes.startup();
         Thread.sleep(5000L);
@@ -243,7 +234,7 @@ class TokenExchangeServiceTest extends GGServiceTestUtil {
         TokenExchangeService tes = spy(new TokenExchangeService(config,
                 mockCredentialHandler,
                 mockAuthZHandler,
-                executorService, deviceConfigurationWithRoleAlias(roleAlias)));
+                deviceConfigurationWithRoleAlias(roleAlias)));
         ArgumentCaptor<State> stateArgumentCaptor = ArgumentCaptor.forClass(State.class);
         doNothing().when(tes).reportState(stateArgumentCaptor.capture());
         tes.startup();
@@ -280,7 +271,7 @@ class TokenExchangeServiceTest extends GGServiceTestUtil {
         TokenExchangeService tes = spy(new TokenExchangeService(config,
                 mockCredentialHandler,
                 mockAuthZHandler,
-                executorService, deviceConfigurationWithRoleAlias("TEST")));
+                deviceConfigurationWithRoleAlias("TEST")));
         ArgumentCaptor<State> stateArgumentCaptor = ArgumentCaptor.forClass(State.class);
         doNothing().when(tes).reportState(stateArgumentCaptor.capture());
         tes.postInject();
@@ -0,0 +1,205 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.util;
+
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith({GGExtension.class})
+class ProcessOutputPumpTest {
+
+    @Test
+    void GIVEN_output_split_across_reads_WHEN_pumped_THEN_consumer_gets_whole_lines() throws Exception {
+        List<String> lines = new CopyOnWriteArrayList<>();
+        TrickleInputStream input = new TrickleInputStream("héllo\nworld\nno newline");
+        ProcessOutputPump.PumpedStream stream = new ProcessOutputPump(0, ProcessOutputPump.MAX_QUEUED_LINES)
+                .pump(input, l -> lines.add(l.toString()), input::hasRemaining);
+
+        stream.await(5, TimeUnit.SECONDS);
+
+        assertThat(lines, contains("héllo\n", "world\n", "no newline"));
+        assertThat(stream.getNlines(), is(2));
+    }
+
+    @Test
+    void GIVEN_stream_over_line_rate_WHEN_pumped_THEN_output_is_delayed_not_dropped() throws Exception {
+        List<String> lines = new CopyOnWriteArrayList<>();
+        long start = System.nanoTime();
+        TrickleInputStream input = new TrickleInputStream(numberedLines(30));
+        ProcessOutputPump.PumpedStream stream = new ProcessOutputPump(20, ProcessOutputPump.MAX_QUEUED_LINES)
+                .pump(input, l -> lines.add(l.toString()), input::hasRemaining);
+
+        stream.await(5, TimeUnit.SECONDS);
+
+        assertThat(lines, hasSize(30));
+        // 20 lines are allowed right away, the other 10 need half a second of budget
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), greaterThanOrEqualTo(400L));
+    }
+
+    @Test
+    void GIVEN_slow_consumer_WHEN_pumped_THEN_other_streams_not_held_up_and_reading_paused() throws Exception {
+        ProcessOutputPump pump = new ProcessOutputPump(0, 2);
+        CountDownLatch releaseSlowConsumer = new CountDownLatch(1);
+        List<String> slowLines = new CopyOnWriteArrayList<>();
+        TrickleInputStream slowInput = new TrickleInputStream(numberedLines(100));
+        ProcessOutputPump.PumpedStream slowStream = pump.pump(slowInput, l -> {
+            try {
+                releaseSlowConsumer.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowLines.add(l.toString());
+        }, slowInput::hasRemaining);
+
+        List<String> fastLines = new CopyOnWriteArrayList<>();
+        CountDownLatch fastDone = new CountDownLatch(1);
+        TrickleInputStream fastInput = new TrickleInputStream(numberedLines(100));
+        pump.pump(fastInput, l -> fastLines.add(l.toString()), fastInput::hasRemaining)
+                .whenDone(fastDone::countDown);
+
+        assertTrue(fastDone.await(5, TimeUnit.SECONDS));
+        assertThat(fastLines, hasSize(100));
+        // one line held by the consumer, two queued and one being split; every line is 2 or 3 bytes
+        assertThat(slowInput.getPosition(), lessThanOrEqualTo(4 * 3));
+
+        releaseSlowConsumer.countDown();
+        slowStream.await(5, TimeUnit.SECONDS);
+        assertThat(slowLines, hasSize(100));
+    }
+
+    @Test
+    void GIVEN_reading_paused_and_resumed_repeatedly_WHEN_pumped_THEN_reads_never_overlap() throws Exception {
+        TrickleInputStream input = new TrickleInputStream(numberedLines(500));
+        List<String> lines = new CopyOnWriteArrayList<>();
+        ProcessOutputPump.PumpedStream stream =
+                new ProcessOutputPump(0, 1).pump(input, l -> lines.add(l.toString()), input::hasRemaining);
+
+        stream.await(10, TimeUnit.SECONDS);
+
+        assertFalse(input.hadConcurrentReads());
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            expected.add(i + "\n");
+        }
+        assertThat(lines, is(expected));
+    }
+
+    @Test
+    void GIVEN_quiet_streams_WHEN_pumped_THEN_polled_without_blocking_reads_until_writer_exits() throws Exception {
+        ProcessOutputPump pump = new ProcessOutputPump(0, ProcessOutputPump.MAX_QUEUED_LINES);
+        AtomicBoolean writersAlive = new AtomicBoolean(true);
+        List<TrickleInputStream> inputs = new ArrayList<>();
+        List<ProcessOutputPump.PumpedStream> streams = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            TrickleInputStream input = new TrickleInputStream("");
+            inputs.add(input);
+            streams.add(pump.pump(input, l -> { }, writersAlive::get));
+        }
+
+        Thread.sleep(200);
+        for (TrickleInputStream input : inputs) {
+            // a read would block a thread on a real pipe
+            assertThat(input.getReads(), is(0));
+        }
+
+        writersAlive.set(false);
+        CountDownLatch done = new CountDownLatch(streams.size());
+        for (ProcessOutputPump.PumpedStream stream : streams) {
+            stream.whenDone(done::countDown);
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+    }
+
+    private static String numberedLines(int count) {
+        StringBuilder output = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            output.append(i).append('\n');
+        }
+        return output.toString();
+    }
+
+    /**
+     * Returns one byte per read, like a slow writer on a pipe, and records whether reads ever overlapped.
+     */
+    private static class TrickleInputStream extends InputStream {
+        private final byte[] data;
+        private final AtomicInteger activeReads = new AtomicInteger();
+        private final AtomicBoolean concurrentReads = new AtomicBoolean();
+        private final AtomicInteger reads = new AtomicInteger();
+        private volatile int pos;
+
+        TrickleInputStream(String data) {
+            this.data = data.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int read() {
+            reads.incrementAndGet();
+            if (activeReads.incrementAndGet() > 1) {
+                concurrentReads.set(true);
+            }
+            try {
+                return pos < data.length ? data[pos++] & 0xff : -1;
+            } finally {
+                activeReads.decrementAndGet();
+            }
+        }
+
+        @Override
+        public int available() {
+            return hasRemaining() ? 1 : 0;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            int c = read();
+            if (c == -1) {
+                return -1;
+            }
+            b[off] = (byte) c;
+            return 1;
+        }
+
+        boolean hasRemaining() {
+            return pos < data.length;
+        }
+
+        int getReads() {
+            return reads.get();
+        }
+
+        int getPosition() {
+            return pos;
+        }
+
+        boolean hadConcurrentReads() {
+            return concurrentReads.get();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.util.platforms.unix;
+
+import com.aws.greengrass.jna.UnixLibC;
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith({GGExtension.class})
+class UnixIdResolverTest {
+
+    @TempDir
+    Path tempDir;
+    private Path passwd;
+    private Path group;
+
+    @BeforeEach
+    void beforeEach() throws IOException {
+        passwd = tempDir.resolve("passwd");
+        group = tempDir.resolve("group");
+        write(passwd, "# comment\nggc_user:x:1001:1002:Greengrass:/home/ggc_user:/bin/false\n");
+        write(group, "ggc_group:x:1002:ggc_user\n");
+    }
+
+    @Test
+    void GIVEN_user_and_group_in_files_WHEN_lookup_by_name_or_id_THEN_attributes_returned() throws IOException {
+        UnixIdResolver resolver = new UnixIdResolver(passwd, group, 1000, System::currentTimeMillis, null);
+
+        UnixUserAttributes user = resolver.lookupUser("ggc_user").get();
+        assertThat(user.getPrincipalIdentifier(), is("1001"));
+        assertThat(user.getPrimaryGID().get(), is(1002L));
+        assertThat(resolver.lookupUser("1001").get(), is(user));
+        assertThat(resolver.lookupGroup("ggc_group").get().getPrincipalIdentifier(), is("1002"));
+        assertThat(resolver.lookupGroup("1002").get().getPrincipalName(), is("ggc_group"));
+        assertFalse(resolver.lookupUser("nobody_here").isPresent());
+    }
+
+    @Test
+    void GIVEN_files_cached_WHEN_file_changes_THEN_lookup_sees_new_content() throws IOException {
+        UnixIdResolver resolver = new UnixIdResolver(passwd, group, 1000, System::currentTimeMillis, null);
+        assertFalse(resolver.lookupUser("new_user").isPresent());
+
+        write(passwd, "new_user:x:2001:2001::/:/bin/false\n");
+        Files.setLastModifiedTime(passwd, FileTime.fromMillis(0));
+
+        assertThat(resolver.lookupUser("new_user").get().getPrincipalIdentifier(), is("2001"));
+        assertFalse(resolver.lookupUser("ggc_user").isPresent());
+    }
+
+    @Test
+    void GIVEN_ids_out_of_range_in_files_WHEN_lookup_THEN_entries_skipped() throws IOException {
+        write(passwd, "big_uid:x:4294967296:1002::/:/bin/false\nbig_gid:x:1003:99999999999999999999::/:/bin/false\n"
+                + "max_uid:x:4294967295:4294967295::/:/bin/false\n");
+        UnixIdResolver resolver = new UnixIdResolver(passwd, group, 1000, System::currentTimeMillis, null);
+
+        assertFalse(resolver.lookupUser("big_uid").isPresent());
+        assertFalse(resolver.lookupUser("big_gid").isPresent());
+        assertThat(resolver.lookupUser("max_uid").get().getPrimaryGID().get(), is(4294967295L));
+    }
+
+    @Test
+    void GIVEN_malformed_group_file_WHEN_lookup_group_THEN_throws() throws IOException {
+        write(group, "broken\n");
+        UnixIdResolver resolver = new UnixIdResolver(passwd, group, 1000, System::currentTimeMillis, null);
+
+        assertThrows(IOException.class, () -> resolver.lookupGroup("ggc_group"));
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    void GIVEN_user_not_in_files_WHEN_lookup_THEN_resolved_through_libc() throws IOException {
+        write(passwd, "");
+        write(group, "");
+        UnixIdResolver resolver =
+                new UnixIdResolver(passwd, group, 1000, System::currentTimeMillis, UnixLibC.INSTANCE);
+
+        assertThat(resolver.lookupUser("root").get().getPrincipalIdentifier(), is("0"));
+        assertThat(resolver.lookupUser("0").get().getPrincipalName(), is("root"));
+        assertThat(resolver.lookupGroup("0").get().getPrincipalName(), is("root"));
+        assertFalse(resolver.lookupUser("no_such_user_for_greengrass").isPresent());
+        // not a valid uid, so looked up as a name
+        assertFalse(resolver.lookupUser("4294967296").isPresent());
+        assertFalse(resolver.lookupGroup("99999999999999999999").isPresent());
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
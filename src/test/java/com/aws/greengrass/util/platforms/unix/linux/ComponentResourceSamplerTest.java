@@ -0,0 +1,121 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.util.platforms.unix.linux;
+
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import com.aws.greengrass.util.platforms.unix.linux.ComponentResourceSampler.ResourceUsage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+@ExtendWith({GGExtension.class})
+class ComponentResourceSamplerTest {
+    private static final String COMPONENT = "MyComponent";
+    private static final long PAGE_SIZE = 4096;
+
+    @TempDir
+    Path procRoot;
+    @TempDir
+    Path cgroupRoot;
+    private ComponentResourceSampler sampler;
+
+    @BeforeEach
+    void beforeEach() {
+        sampler = new ComponentResourceSampler(procRoot, cgroupRoot, PAGE_SIZE);
+    }
+
+    @Test
+    void GIVEN_component_without_cgroups_WHEN_sample_THEN_process_tree_aggregated() throws IOException {
+        writeProcess(1, "systemd", 0, 1000, 1, 100, 0, 0);
+        writeProcess(100, "sh", 1, 10, 1, 1000, 1, 2);
+        writeProcess(101, "python (worker)", 100, 40, 4, 3000, 10, 20);
+        writeProcess(200, "other", 1, 500, 8, 5000, 0, 0);
+
+        Map<String, ResourceUsage> usages = sampler.sample(components(COMPONENT, Arrays.asList(100)));
+
+        ResourceUsage usage = usages.get(COMPONENT);
+        assertThat(usage, is(not(nullValue())));
+        // 50 ticks of 10ms
+        assertThat(usage.getCpuNanos(), is(500_000_000L));
+        assertThat(usage.getThreads(), is(5));
+        assertThat(usage.getRssBytes(), is(4000 * 1024L));
+        assertThat(usage.getReadBytes(), is(11L));
+        assertThat(usage.getWriteBytes(), is(22L));
+    }
+
+    @Test
+    void GIVEN_component_with_cgroups_WHEN_sample_THEN_read_from_cgroups() throws IOException {
+        writeProcess(100, "sh", 1, 10, 1, 1000, 5, 6);
+        Path cpu = Files.createDirectories(cgroupRoot.resolve("cpu,cpuacct/greengrass").resolve(COMPONENT));
+        write(cpu.resolve("cgroup.procs"), "100\n");
+        write(cpu.resolve("tasks"), "100\n102\n103\n");
+        write(cpu.resolve("cpuacct.usage"), "123456789\n");
+        Path memory = Files.createDirectories(cgroupRoot.resolve("memory/greengrass").resolve(COMPONENT));
+        write(memory.resolve("memory.stat"), "cache 10\nrss 20\ntotal_cache 30\ntotal_rss 40960\n");
+
+        ResourceUsage usage = sampler.sample(components(COMPONENT, Collections.emptyList())).get(COMPONENT);
+
+        assertThat(usage.getCpuNanos(), is(123456789L));
+        assertThat(usage.getThreads(), is(3));
+        assertThat(usage.getRssBytes(), is(40960L));
+        assertThat(usage.getReadBytes(), is(5L));
+    }
+
+    @Test
+    void GIVEN_component_processes_exited_WHEN_sample_THEN_not_included() throws IOException {
+        writeProcess(1, "systemd", 0, 1000, 1, 100, 0, 0);
+
+        assertThat(sampler.sample(components(COMPONENT, Arrays.asList(100))).isEmpty(), is(true));
+    }
+
+    @Test
+    void GIVEN_stat_WHEN_parsed_THEN_cpu_includes_waited_for_children() {
+        String stat = "42 (a) b) S 7 42 42 0 -1 4194560 100 0 0 0 3 4 5 6 20 0 9 0 100 1000 50";
+
+        ComponentResourceSampler.ProcessStat parsed = ComponentResourceSampler.parseStat(stat);
+
+        assertThat(parsed.getPpid(), is(7));
+        assertThat(parsed.getCpuTicks(), is(18L));
+        assertThat(parsed.getThreads(), is(9));
+        assertThat(parsed.getRssPages(), is(50L));
+        assertThat(ComponentResourceSampler.parseStat("42 (trunc"), is(nullValue()));
+    }
+
+    private static Map<String, Collection<Integer>> components(String name, Collection<Integer> pids) {
+        Map<String, Collection<Integer>> components = new HashMap<>();
+        components.put(name, pids);
+        return components;
+    }
+
+    private void writeProcess(int pid, String comm, int ppid, long cpuTicks, int threads, long rssKb, long readBytes,
+                              long writeBytes) throws IOException {
+        Path dir = Files.createDirectories(procRoot.resolve(Integer.toString(pid)));
+        write(dir.resolve("stat"), String.format("%d (%s) S %d %d %d 0 -1 4194560 0 0 0 0 %d 0 0 0 20 0 %d 0 100 "
+                + "1000 %d", pid, comm, ppid, pid, pid, cpuTicks, threads, rssKb * 1024 / PAGE_SIZE));
+        write(dir.resolve("io"), String.format("rchar: 1%nwchar: 1%nread_bytes: %d%nwrite_bytes: %d%n", readBytes,
+                writeBytes));
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package com.aws.greengrass.util.platforms.unix.linux;
+
+import com.aws.greengrass.testcommons.testutilities.GGExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+@ExtendWith({GGExtension.class})
+class ProcfsProcessTreeTest {
+
+    @TempDir
+    Path procRoot;
+
+    @Test
+    void GIVEN_process_tree_WHEN_get_descendant_pids_THEN_all_descendants_returned() throws IOException {
+        writeStat(1, "systemd", 0);
+        writeStat(100, "sh", 1);
+        writeStat(101, "sleep", 100);
+        writeStat(102, "python3", 100);
+        writeStat(103, "worker (1) x", 102);
+        writeStat(200, "other", 1);
+        Files.createDirectories(procRoot.resolve("self"));
+        Files.createDirectories(procRoot.resolve("sys"));
+
+        assertThat(ProcfsProcessTree.getDescendantPids(procRoot, 100), containsInAnyOrder(101, 102, 103));
+        assertThat(ProcfsProcessTree.getDescendantPids(procRoot, 101), is(empty()));
+    }
+
+    @Test
+    void GIVEN_stat_with_parentheses_in_command_WHEN_read_parent_pid_THEN_parent_pid_returned() throws IOException {
+        writeStat(42, "a) b (c", 7);
+        Files.createDirectories(procRoot.resolve("43"));
+        Files.write(procRoot.resolve("43").resolve("stat"), "43 (trunc".getBytes(StandardCharsets.US_ASCII));
+
+        assertThat(ProcfsProcessTree.readParentPid(procRoot.resolve("42").resolve("stat")), is(7));
+        assertThat(ProcfsProcessTree.readParentPid(procRoot.resolve("43").resolve("stat")), is(-1));
+        assertThat(ProcfsProcessTree.readParentPid(procRoot.resolve("44").resolve("stat")), is(-1));
+    }
+
+    private void writeStat(int pid, String comm, int ppid) throws IOException {
+        Path dir = Files.createDirectories(procRoot.resolve(Integer.toString(pid)));
+        Files.write(dir.resolve("stat"), String.format("%d (%s) S %d %d %d 0 -1 4194560 ", pid, comm, ppid, pid, pid)
+                .getBytes(StandardCharsets.US_ASCII));
+    }
+}